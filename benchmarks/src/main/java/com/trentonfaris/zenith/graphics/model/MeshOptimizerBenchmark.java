@@ -0,0 +1,97 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long each stage of the {@link MeshOptimizer} takes on a sphere
+ * whose triangles are shuffled, and prints the ACMR and ATVR of the sphere
+ * before and after the vertex cache is optimized.
+ *
+ * @author Trenton Faris
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeshOptimizerBenchmark {
+    /**
+     * The number of rings of the sphere, which has twice as many segments per
+     * ring.
+     */
+    @Param({"32", "128"})
+    private int stacks;
+
+    private int vertexCount;
+    private float[] positions;
+
+    /** The shuffled indices of the sphere. */
+    private int[] shuffled;
+
+    /** The indices of the sphere after the vertex cache is optimized. */
+    private int[] optimized;
+
+    @Setup
+    public void setup() {
+        this.positions = Spheres.positions(stacks, stacks * 2);
+        this.vertexCount = positions.length / 3;
+        this.shuffled = Spheres.indices(stacks, stacks * 2);
+
+        Random random = new Random(1);
+        for (int t = shuffled.length / 3 - 1; t > 0; t--) {
+            int other = random.nextInt(t + 1);
+
+            for (int k = 0; k < 3; k++) {
+                int index = shuffled[t * 3 + k];
+                shuffled[t * 3 + k] = shuffled[other * 3 + k];
+                shuffled[other * 3 + k] = index;
+            }
+        }
+
+        this.optimized = shuffled.clone();
+        MeshOptimizer.optimizeVertexCache(optimized, vertexCount);
+
+        System.out.println("Sphere of " + shuffled.length / 3 + " triangles: shuffled "
+                + MeshOptimizer.analyzeVertexCache(shuffled, vertexCount) + ", optimized "
+                + MeshOptimizer.analyzeVertexCache(optimized, vertexCount));
+    }
+
+    @Benchmark
+    public int[] optimizeVertexCache() {
+        // The indices are reordered in place, so every stage starts from its own copy.
+        int[] indices = shuffled.clone();
+        MeshOptimizer.optimizeVertexCache(indices, vertexCount);
+        return indices;
+    }
+
+    @Benchmark
+    public int[] optimizeOverdraw() {
+        int[] indices = optimized.clone();
+        MeshOptimizer.optimizeOverdraw(indices, positions);
+        return indices;
+    }
+
+    @Benchmark
+    public int[] optimizeVertexFetch() {
+        return MeshOptimizer.optimizeVertexFetch(optimized.clone(), vertexCount);
+    }
+
+    @Benchmark
+    public MeshOptimizer.CacheStatistics analyzeVertexCache() {
+        return MeshOptimizer.analyzeVertexCache(optimized, vertexCount);
+    }
+}
@@ -0,0 +1,52 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the {@link MeshletBuilder} takes to split a sphere into
+ * meshlets.
+ *
+ * @author Trenton Faris
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeshletBuilderBenchmark {
+    /**
+     * The number of rings of the sphere, which has twice as many segments per
+     * ring.
+     */
+    @Param({"32", "128"})
+    private int stacks;
+
+    private int[] indices;
+    private float[] positions;
+
+    @Setup
+    public void setup() {
+        this.indices = Spheres.indices(stacks, stacks * 2);
+        this.positions = Spheres.positions(stacks, stacks * 2);
+    }
+
+    @Benchmark
+    public MeshletData build() {
+        // The indices are reordered in place, so every build starts from the original order.
+        return MeshletBuilder.build(indices.clone(), positions, MeshletBuilder.MAX_VERTICES,
+                MeshletBuilder.MAX_TRIANGLES);
+    }
+}
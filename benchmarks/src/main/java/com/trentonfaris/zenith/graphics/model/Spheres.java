@@ -0,0 +1,69 @@
+package com.trentonfaris.zenith.graphics.model;
+
+/**
+ * The {@link Spheres} class generates the triangle list of a sphere as plain
+ * index and position arrays, for benchmarks which do not need OpenGL.
+ *
+ * @author Trenton Faris
+ */
+public final class Spheres {
+    private Spheres() {
+    }
+
+    /**
+     * Generates the positions of a unit sphere around the origin, packed as
+     * {@code xyz}.
+     *
+     * @param stacks The number of rings of the sphere
+     * @param slices The number of segments of each ring
+     * @return The positions.
+     */
+    public static float[] positions(int stacks, int slices) {
+        float[] positions = new float[(stacks + 1) * (slices + 1) * 3];
+
+        for (int i = 0; i <= stacks; i++) {
+            double theta = Math.PI * i / stacks;
+
+            for (int j = 0; j <= slices; j++) {
+                double phi = 2 * Math.PI * j / slices;
+
+                int v = (i * (slices + 1) + j) * 3;
+                positions[v] = (float) (Math.sin(theta) * Math.cos(phi));
+                positions[v + 1] = (float) Math.cos(theta);
+                positions[v + 2] = (float) (Math.sin(theta) * Math.sin(phi));
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * Generates the indices of a sphere of {@link #positions}, with triangles
+     * wound counter-clockwise when seen from outside.
+     *
+     * @param stacks The number of rings of the sphere
+     * @param slices The number of segments of each ring
+     * @return The indices.
+     */
+    public static int[] indices(int stacks, int slices) {
+        int[] indices = new int[stacks * slices * 6];
+
+        int n = 0;
+        for (int i = 0; i < stacks; i++) {
+            for (int j = 0; j < slices; j++) {
+                int a = i * (slices + 1) + j;
+                int b = a + slices + 1;
+
+                indices[n++] = a;
+                indices[n++] = a + 1;
+                indices[n++] = b;
+
+                indices[n++] = a + 1;
+                indices[n++] = b + 1;
+                indices[n++] = b;
+            }
+        }
+
+        return indices;
+    }
+}
@@ -0,0 +1,70 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.trentonfaris.zenith.graphics.model.MeshletBuilder;
+import com.trentonfaris.zenith.graphics.model.MeshletData;
+import com.trentonfaris.zenith.graphics.model.Spheres;
+
+/**
+ * Measures how long the {@link MeshletCuller} takes to test every meshlet of a
+ * sphere against a camera. The draw commands are left out, since writing them
+ * needs OpenGL.
+ *
+ * @author Trenton Faris
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeshletCullerBenchmark {
+	/**
+	 * The number of rings of the sphere, which has twice as many segments per
+	 * ring.
+	 */
+	@Param({ "32", "128" })
+	private int stacks;
+
+	private final MeshletCuller meshletCuller = new MeshletCuller();
+	private final Matrix4f model = new Matrix4f().translate(0, 0, -4);
+
+	private MeshletData meshletData;
+
+	@Setup
+	public void setup() {
+		this.meshletData = MeshletBuilder.build(Spheres.indices(stacks, stacks * 2),
+				Spheres.positions(stacks, stacks * 2), MeshletBuilder.MAX_VERTICES, MeshletBuilder.MAX_TRIANGLES);
+
+		// The camera sees the sphere head on, so about half of the meshlets face away from it.
+		meshletCuller.set(new Matrix4f(), new Matrix4f().perspective((float) Math.toRadians(60), 16 / 9f, 0.1f, 100));
+	}
+
+	@Benchmark
+	public int cull() {
+		meshletCuller.setModel(model);
+
+		int numVisible = 0;
+		for (int i = 0; i < meshletData.getNumMeshlets(); i++) {
+			if (meshletCuller.isVisible(meshletData, i)) {
+				numVisible++;
+			}
+		}
+
+		return numVisible;
+	}
+}
@@ -7,8 +7,10 @@ import com.trentonfaris.zenith.resource.ImageLoader;
 import com.trentonfaris.zenith.resource.ModelLoader;
 import com.trentonfaris.zenith.resource.ResourceManager;
 import com.trentonfaris.zenith.resource.ShaderLoader;
+import com.trentonfaris.zenith.resource.TextureLoader;
 import com.trentonfaris.zenith.scene.SceneManager;
 import com.trentonfaris.zenith.scheduler.Scheduler;
+import com.trentonfaris.zenith.scheduler.TaskManager;
 import com.trentonfaris.zenith.time.Time;
 import com.trentonfaris.zenith.window.Window;
 import org.apache.logging.log4j.Level;
@@ -20,6 +22,7 @@ public final class Engine implements Runnable {
     private final ResourceManager resourceManager = new ResourceManager();
     private final SceneManager sceneManager = new SceneManager();
     private final Scheduler scheduler = new Scheduler();
+    private final TaskManager taskManager = new TaskManager();
     private final Window window = new Window();
 
     private volatile boolean running;
@@ -46,6 +49,7 @@ public final class Engine implements Runnable {
         resourceManager.registerResourceLoader(ImageLoader.class);
         resourceManager.registerResourceLoader(ModelLoader.class);
         resourceManager.registerResourceLoader(ShaderLoader.class);
+        resourceManager.registerResourceLoader(TextureLoader.class);
 
         this.running = true;
 
@@ -67,6 +71,8 @@ public final class Engine implements Runnable {
             input.update();
 
             scheduler.update();
+            taskManager.update();
+            resourceManager.update();
             sceneManager.update();
 
             window.update();
@@ -77,11 +83,13 @@ public final class Engine implements Runnable {
     private void dispose() {
         sceneManager.unloadScene();
 
+        resourceManager.removeResourceLoader(TextureLoader.class);
         resourceManager.removeResourceLoader(ShaderLoader.class);
         resourceManager.removeResourceLoader(ModelLoader.class);
         resourceManager.removeResourceLoader(ImageLoader.class);
 
         resourceManager.dispose();
+        taskManager.clear();
         graphics.dispose();
         window.dispose();
     }
@@ -102,6 +110,10 @@ public final class Engine implements Runnable {
         return sceneManager;
     }
 
+    public TaskManager getTaskManager() {
+        return taskManager;
+    }
+
     public Time getTime() {
         return time;
     }
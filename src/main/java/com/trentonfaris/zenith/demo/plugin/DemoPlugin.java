@@ -1,5 +1,10 @@
 package com.trentonfaris.zenith.demo.plugin;
 
+import com.trentonfaris.zenith.demo.resource.resources.DemoImages;
+import com.trentonfaris.zenith.resource.resources.Images;
+import com.trentonfaris.zenith.resource.resources.Models;
+import com.trentonfaris.zenith.scene.AssetManifest;
+import com.trentonfaris.zenith.scene.AssetManifestProvider;
 import com.trentonfaris.zenith.scene.Scene;
 import com.trentonfaris.zenith.scene.SceneManager;
 import org.lwjgl.glfw.GLFW;
@@ -21,7 +26,7 @@ import com.trentonfaris.zenith.ecs.system.misc.FPSNotifierSystem;
  *
  * @author Trenton Faris
  */
-public class DemoPlugin implements ArtemisPlugin {
+public class DemoPlugin implements ArtemisPlugin, AssetManifestProvider {
 
 	@Override
 	public void setup(WorldConfigurationBuilder worldConfigurationBuilder) {
@@ -35,4 +40,19 @@ public class DemoPlugin implements ArtemisPlugin {
 					}
 				});
 	}
+
+	@Override
+	public AssetManifest getAssetManifest() {
+		AssetManifest assetManifest = new AssetManifest().add(Models.PLANE.getURI()).add(Models.CUBE.getURI());
+
+		for (Images image : Images.values()) {
+			assetManifest.add(image.getURI());
+		}
+
+		for (DemoImages image : DemoImages.values()) {
+			assetManifest.add(image.getURI());
+		}
+
+		return assetManifest;
+	}
 }
@@ -11,6 +11,7 @@ public class Camera extends Component {
 	public Vector3f clearColor = new Vector3f(49f / 255f, 77f / 255f, 121f / 255f);
 	public BitVector layerMask = getDefaultBitVector();
 	public float depth = 0;
+	public RenderPath renderPath = RenderPath.FORWARD;
 
 	private static BitVector getDefaultBitVector() {
 		BitVector bitVector = new BitVector();
@@ -22,4 +23,8 @@ public class Camera extends Component {
 	public enum ClearType {
 		SKYBOX, SOLID_COLOR
 	}
+
+	public enum RenderPath {
+		FORWARD, DEFERRED
+	}
 }
@@ -0,0 +1,11 @@
+package com.trentonfaris.zenith.ecs.component.render;
+
+import org.joml.AABBf;
+import org.joml.Spheref;
+
+import com.artemis.Component;
+
+public class Bounds extends Component {
+	public AABBf aabb = new AABBf();
+	public Spheref sphere = new Spheref();
+}
@@ -0,0 +1,9 @@
+package com.trentonfaris.zenith.ecs.component.render;
+
+import com.artemis.Component;
+
+public class Lod extends Component {
+	public float[] screenSizes = { 0.5f, 0.25f, 0.1f };
+	public float hysteresis = 0.1f;
+	public int level;
+}
@@ -0,0 +1,354 @@
+package com.trentonfaris.zenith.ecs.system.light;
+
+import java.util.Arrays;
+
+import org.joml.Vector3f;
+
+import com.artemis.BaseSystem;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.trentonfaris.zenith.ecs.component.light.Caster;
+import com.trentonfaris.zenith.ecs.component.light.Caster.CasterType;
+import com.trentonfaris.zenith.ecs.component.light.Light;
+import com.trentonfaris.zenith.ecs.component.light.Light.Priority;
+import com.trentonfaris.zenith.ecs.component.transform.Position;
+
+/**
+ * The {@link LightSelectionSystem} chooses which {@link Priority#AUTO} lights
+ * matter most to an entity. A light's score is equal to
+ * {@code (1 / distance to target) * intensity}, and directional lights always
+ * score highest.
+ *
+ * <p>
+ * Once per frame, the score inputs of every packed {@link Priority#AUTO} light
+ * are copied out of their components, so that scoring does not go through a
+ * {@link ComponentMapper}. If any of them differ from the previous frame, the
+ * {@link #version} of the lights is advanced.
+ *
+ * <p>
+ * A selection is cached for each entity. It is reused for as long as the
+ * {@link #version} of the lights, the target position, and the number of
+ * selected lights are unchanged, so every mesh of a model shares one
+ * selection, and static entities lit by static lights are never rescored.
+ *
+ * @author Trenton Faris
+ */
+public class LightSelectionSystem extends BaseSystem {
+	ComponentMapper<Light> mLight;
+	ComponentMapper<Caster> mCaster;
+	ComponentMapper<Position> mPosition;
+
+	LightSystem lightSystem;
+
+	/** The number of {@link Priority#AUTO} lights packed this frame. */
+	private int numLights;
+
+	/** The number of {@link Priority#AUTO} lights packed the previous frame. */
+	private int prevNumLights;
+
+	/** Whether any light has changed since the previous frame. */
+	private boolean changed;
+
+	/** The {@link com.trentonfaris.zenith.graphics.shader.LightBuffer} index of each light. */
+	private int[] lightIndices = new int[0];
+
+	/** Whether each light is directional. */
+	private boolean[] directional = new boolean[0];
+
+	/** The position of each light, packed as {@code xyz}. */
+	private float[] positions = new float[0];
+
+	/** The intensity of each light. */
+	private float[] intensities = new float[0];
+
+	/** The version of the lights, advanced whenever any of them change. */
+	private int version;
+
+	/** The cached selection of each entity, by entity id. */
+	private Selection[] selections = new Selection[0];
+
+	/** The selection of targets that are not cached. */
+	private final Selection uncached = new Selection();
+
+	/** Scratch space for the score of each light. */
+	private float[] scores = new float[0];
+
+	/** Scratch space for the min-heap of the best lights. */
+	private int[] heap = new int[0];
+
+	/** Scratch space for the lights that have been selected. */
+	private boolean[] selected = new boolean[0];
+
+	@Override
+	protected void processSystem() {
+		beginLights();
+
+		for (Entity light : lightSystem.getAutoLights()) {
+			int lightId = light.getId();
+
+			int lightIndex = lightSystem.getLightIndex(lightId);
+			if (lightIndex < 0) {
+				continue;
+			}
+
+			Caster caster = mCaster.create(lightId);
+			addLight(lightIndex, caster.casterType == CasterType.DIRECTIONAL, mPosition.create(lightId).xyz,
+					mLight.get(lightId).intensity);
+		}
+
+		endLights();
+	}
+
+	/**
+	 * Starts copying the score inputs of the lights of a frame.
+	 */
+	void beginLights() {
+		this.prevNumLights = numLights;
+		this.changed = false;
+		this.numLights = 0;
+	}
+
+	/**
+	 * Copies the score inputs of the next light of a frame, and notes whether they
+	 * differ from those of the light in the same place in the previous frame.
+	 *
+	 * @param lightIndex The {@link com.trentonfaris.zenith.graphics.shader.LightBuffer}
+	 *            index of the light
+	 * @param isDirectional Whether the light is directional
+	 * @param position The world space position of the light
+	 * @param intensity The intensity of the light
+	 */
+	void addLight(int lightIndex, boolean isDirectional, Vector3f position, float intensity) {
+		ensureCapacity(numLights + 1);
+
+		int i = numLights;
+		int p = i * 3;
+
+		if (i >= prevNumLights || lightIndices[i] != lightIndex || directional[i] != isDirectional
+				|| positions[p] != position.x || positions[p + 1] != position.y || positions[p + 2] != position.z
+				|| intensities[i] != intensity) {
+			this.changed = true;
+		}
+
+		lightIndices[i] = lightIndex;
+		directional[i] = isDirectional;
+		positions[p] = position.x;
+		positions[p + 1] = position.y;
+		positions[p + 2] = position.z;
+		intensities[i] = intensity;
+
+		this.numLights++;
+	}
+
+	/**
+	 * Finishes copying the lights of a frame, and advances the {@link #version} if
+	 * any of them changed.
+	 */
+	void endLights() {
+		if (changed || numLights != prevNumLights) {
+			version++;
+		}
+	}
+
+	/**
+	 * Selects the lights of an entity. The {@code numSelected} lights with the
+	 * highest score come first, in order of decreasing score, followed by the
+	 * remaining lights in no particular order.
+	 *
+	 * <p>
+	 * The returned array is owned by this system. It must not be modified, and it
+	 * is only valid until the next selection for the same entity.
+	 *
+	 * @param entityId The id of the entity, or {@code -1} to skip the cache
+	 * @param target The world space position to score the lights against
+	 * @param numSelected The number of lights to order by score
+	 * @return The {@link com.trentonfaris.zenith.graphics.shader.LightBuffer}
+	 *         indices of the lights. Only the first {@link #getNumLights()} are
+	 *         valid.
+	 */
+	public int[] select(int entityId, Vector3f target, int numSelected) {
+		Selection selection = entityId < 0 ? uncached : getSelection(entityId);
+
+		if (selection != uncached && selection.version == version && selection.numSelected == numSelected
+				&& selection.target.equals(target)) {
+			return selection.lightIndices;
+		}
+
+		if (selection.lightIndices.length < numLights) {
+			selection.lightIndices = new int[lightIndices.length];
+		}
+
+		selectInto(target, Math.max(0, Math.min(numSelected, numLights)), selection.lightIndices);
+
+		selection.version = version;
+		selection.numSelected = numSelected;
+		selection.target.set(target);
+
+		return selection.lightIndices;
+	}
+
+	/**
+	 * Writes the lights, ordered by a partial selection, into a destination array.
+	 * A min-heap holds the best {@code k} lights seen so far, so that only
+	 * {@code O(n log k)} comparisons are made instead of sorting every light.
+	 *
+	 * @param target The world space position to score the lights against
+	 * @param k The number of lights to order by score
+	 * @param result The destination array
+	 */
+	private void selectInto(Vector3f target, int k, int[] result) {
+		for (int i = 0; i < numLights; i++) {
+			scores[i] = score(i, target);
+			selected[i] = false;
+		}
+
+		int heapSize = 0;
+
+		if (k > 0) {
+			for (int i = 0; i < numLights; i++) {
+				if (heapSize < k) {
+					heap[heapSize] = i;
+					siftUp(heapSize);
+					heapSize++;
+				} else if (scores[i] > scores[heap[0]]) {
+					heap[0] = i;
+					siftDown(0, heapSize);
+				}
+			}
+		}
+
+		// Popping the min-heap yields the best lights in order of increasing score.
+		for (int n = heapSize; n > 0; n--) {
+			int best = heap[0];
+
+			result[n - 1] = lightIndices[best];
+			selected[best] = true;
+
+			heap[0] = heap[n - 1];
+			siftDown(0, n - 1);
+		}
+
+		int count = heapSize;
+		for (int i = 0; i < numLights; i++) {
+			if (!selected[i]) {
+				result[count++] = lightIndices[i];
+			}
+		}
+	}
+
+	private float score(int i, Vector3f target) {
+		if (directional[i]) {
+			return Float.MAX_VALUE;
+		}
+
+		int p = i * 3;
+
+		float dx = positions[p] - target.x;
+		float dy = positions[p + 1] - target.y;
+		float dz = positions[p + 2] - target.z;
+
+		float dist = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+		if (dist > 0) {
+			return (1 / dist) * intensities[i];
+		}
+
+		return Float.MAX_VALUE;
+	}
+
+	private void siftUp(int node) {
+		while (node > 0) {
+			int parent = (node - 1) / 2;
+			if (scores[heap[parent]] <= scores[heap[node]]) {
+				return;
+			}
+
+			swap(parent, node);
+			node = parent;
+		}
+	}
+
+	private void siftDown(int node, int size) {
+		while (true) {
+			int left = node * 2 + 1;
+			if (left >= size) {
+				return;
+			}
+
+			int child = left;
+			if (left + 1 < size && scores[heap[left + 1]] < scores[heap[left]]) {
+				child = left + 1;
+			}
+
+			if (scores[heap[node]] <= scores[heap[child]]) {
+				return;
+			}
+
+			swap(node, child);
+			node = child;
+		}
+	}
+
+	private void swap(int a, int b) {
+		int tmp = heap[a];
+		heap[a] = heap[b];
+		heap[b] = tmp;
+	}
+
+	private Selection getSelection(int entityId) {
+		if (entityId >= selections.length) {
+			this.selections = Arrays.copyOf(selections, Math.max(entityId + 1, selections.length * 2));
+		}
+
+		Selection selection = selections[entityId];
+		if (selection == null) {
+			selection = new Selection();
+			selections[entityId] = selection;
+		}
+
+		return selection;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= lightIndices.length) {
+			return;
+		}
+
+		int length = Math.max(capacity, lightIndices.length * 2);
+
+		this.lightIndices = Arrays.copyOf(lightIndices, length);
+		this.directional = Arrays.copyOf(directional, length);
+		this.positions = Arrays.copyOf(positions, length * 3);
+		this.intensities = Arrays.copyOf(intensities, length);
+		this.scores = new float[length];
+		this.heap = new int[length];
+		this.selected = new boolean[length];
+	}
+
+	/**
+	 * Gets the number of {@link Priority#AUTO} lights packed this frame.
+	 *
+	 * @return The number of lights in each selection.
+	 */
+	public int getNumLights() {
+		return numLights;
+	}
+
+	/**
+	 * Gets the version of the lights. It is advanced whenever any light changes.
+	 *
+	 * @return The {@link #version} value.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * The cached selection of an entity.
+	 */
+	private static final class Selection {
+		private int version = -1;
+		private int numSelected = -1;
+		private final Vector3f target = new Vector3f();
+		private int[] lightIndices = new int[0];
+	}
+}
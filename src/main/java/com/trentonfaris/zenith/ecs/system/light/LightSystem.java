@@ -1,5 +1,6 @@
 package com.trentonfaris.zenith.ecs.system.light;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -10,17 +11,38 @@ import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.systems.IteratingSystem;
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.ecs.component.light.Caster;
 import com.trentonfaris.zenith.ecs.component.light.Light;
 import com.trentonfaris.zenith.ecs.component.light.Light.Priority;
+import com.trentonfaris.zenith.ecs.component.transform.Position;
+import com.trentonfaris.zenith.ecs.component.transform.Rotation;
 import com.trentonfaris.zenith.graphics.material.Material;
+import com.trentonfaris.zenith.graphics.shader.LightBuffer;
 import com.trentonfaris.zenith.graphics.shader.SkyboxShader;
 
 public class LightSystem extends IteratingSystem {
 	ComponentMapper<Light> mLight;
+	ComponentMapper<Caster> mCaster;
+	ComponentMapper<Position> mPosition;
+	ComponentMapper<Rotation> mRotation;
 
 	private Material skyboxMaterial;
 	private Vector3f ambientColor = new Vector3f(0.1f);
 
+	private LightBuffer lightBuffer;
+
+	/** The index of each light in the {@link #lightBuffer}, by entity id. */
+	private int[] lightIndices = new int[0];
+
+	/** The number of lights which could not be packed this frame. */
+	private int numDroppedLights;
+
+	/** Whether the last frame had more lights than could be packed. */
+	private boolean overflowing;
+
+	private final Vector3f direction = new Vector3f();
+
 	private final Set<Entity> autoLights = new HashSet<>();
 	private final Set<Entity> importantLights = new HashSet<>();
 	private final Set<Entity> notImportantLights = new HashSet<>();
@@ -32,11 +54,13 @@ public class LightSystem extends IteratingSystem {
 	@Override
 	protected void initialize() {
 		this.skyboxMaterial = new Material(SkyboxShader.class);
+		this.lightBuffer = new LightBuffer();
 	}
 
 	@Override
 	protected void dispose() {
 		skyboxMaterial.dispose();
+		lightBuffer.dispose();
 	}
 
 	@Override
@@ -44,12 +68,51 @@ public class LightSystem extends IteratingSystem {
 		autoLights.clear();
 		importantLights.clear();
 		notImportantLights.clear();
+
+		lightBuffer.clear();
+		Arrays.fill(lightIndices, -1);
+		numDroppedLights = 0;
+	}
+
+	@Override
+	protected void end() {
+		lightBuffer.update();
+
+		if (numDroppedLights > 0 && !overflowing) {
+			Zenith.getLogger().warn("Cannot pack more than " + LightBuffer.MAX_NUM_LIGHTS + " lights. "
+					+ numDroppedLights + " additional lights will be ignored.");
+		}
+
+		overflowing = numDroppedLights > 0;
 	}
 
 	@Override
 	protected void process(int i) {
 		Light light = mLight.get(i);
 
+		Caster caster = mCaster.create(i);
+		Position position = mPosition.create(i);
+		Rotation rotation = mRotation.create(i);
+
+		direction.set(0, 0, -1).rotate(rotation.xyzw).normalize();
+
+		int lightIndex = lightBuffer.add(caster.casterType, light.color, position.xyz, caster.radius, direction,
+				caster.innerCutoffAngle, caster.outerCutoffAngle);
+
+		if (lightIndex < 0) {
+			numDroppedLights++;
+			return;
+		}
+
+		if (i >= lightIndices.length) {
+			int length = lightIndices.length;
+
+			this.lightIndices = Arrays.copyOf(lightIndices, Math.max(i + 1, length * 2));
+			Arrays.fill(lightIndices, length, lightIndices.length, -1);
+		}
+
+		lightIndices[i] = lightIndex;
+
 		Entity entity = world.getEntity(i);
 
 		if (light.priority == Priority.AUTO) {
@@ -73,6 +136,20 @@ public class LightSystem extends IteratingSystem {
 		return Collections.unmodifiableSet(notImportantLights);
 	}
 
+	/**
+	 * Gets the index of a light in the {@link LightBuffer} for this frame.
+	 *
+	 * @param entityId The id of the light entity
+	 * @return The index of the light, or {@code -1} if it was not packed.
+	 */
+	public int getLightIndex(int entityId) {
+		if (entityId < 0 || entityId >= lightIndices.length) {
+			return -1;
+		}
+
+		return lightIndices[entityId];
+	}
+
 	public Material getSkyboxMaterial() {
 		return skyboxMaterial;
 	}
@@ -1,11 +1,8 @@
 package com.trentonfaris.zenith.ecs.system.render;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import com.trentonfaris.zenith.graphics.model.attribute.Attribute;
 import org.joml.Matrix3f;
 import org.joml.Matrix4f;
 import org.joml.Vector2i;
@@ -18,18 +15,22 @@ import com.artemis.ComponentMapper;
 import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.ecs.component.camera.Camera;
 import com.trentonfaris.zenith.ecs.component.camera.Camera.ClearType;
+import com.trentonfaris.zenith.ecs.component.camera.Camera.RenderPath;
 import com.trentonfaris.zenith.ecs.component.transformation.ProjectionMatrix;
 import com.trentonfaris.zenith.ecs.component.transformation.ViewMatrix;
 import com.trentonfaris.zenith.ecs.component.ui.Rect;
 import com.trentonfaris.zenith.ecs.system.camera.CameraSystem;
 import com.trentonfaris.zenith.ecs.system.light.LightSystem;
 import com.trentonfaris.zenith.graphics.Graphics;
+import com.trentonfaris.zenith.graphics.StateCache;
 import com.trentonfaris.zenith.graphics.framebuffer.Attachment;
 import com.trentonfaris.zenith.graphics.framebuffer.Framebuffer;
 import com.trentonfaris.zenith.graphics.material.Material;
 import com.trentonfaris.zenith.graphics.model.Mesh;
 import com.trentonfaris.zenith.graphics.model.Model;
-import com.trentonfaris.zenith.graphics.model.Vertex;
+import com.trentonfaris.zenith.graphics.model.VertexAttribute;
+import com.trentonfaris.zenith.graphics.model.VertexFormat;
+import com.trentonfaris.zenith.graphics.render.DeferredRenderer;
 import com.trentonfaris.zenith.graphics.render.ForwardRenderer;
 import com.trentonfaris.zenith.graphics.shader.Shader;
 import com.trentonfaris.zenith.graphics.shader.uniform.Mat4Uniform;
@@ -73,13 +74,7 @@ public final class RenderSystem extends BaseSystem {
 		this.skybox = Model.loadModel(Models.CUBE.getURI()).getMeshes().get(0);
 
 		// We only use the position attribute of each vertex.
-		List<Vertex> trimmedVertices = new ArrayList<>();
-		for (Vertex vertex : skybox.getVertices()) {
-			List<Attribute> trimmedAttributes = vertex.getAttributes().subList(0, 1);
-			trimmedVertices.add(new Vertex(trimmedAttributes));
-		}
-
-		skybox.setVertices(trimmedVertices);
+		skybox.setVertexData(skybox.getVertexData().convert(new VertexFormat(VertexAttribute.POSITION)));
 		skybox.setMaterial(lightSystem.getSkyboxMaterial());
 	}
 
@@ -87,11 +82,16 @@ public final class RenderSystem extends BaseSystem {
 	protected void dispose() {
 		cameraFb.dispose();
 		skybox.dispose();
+
+		DeferredRenderer.getInstance().dispose();
+		ForwardRenderer.getInstance().dispose();
 	}
 
 	@Override
 	protected void begin() {
-		GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+		StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+		stateCache.resetCounters();
+		stateCache.bindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
 
 		Vector4f clearColor = Zenith.getEngine().getGraphics().getClearColor();
 		GL11.glClearColor(clearColor.x, clearColor.y, clearColor.z, clearColor.w);
@@ -101,12 +101,17 @@ public final class RenderSystem extends BaseSystem {
 	@Override
 	protected void processSystem() {
 		for (int cameraId : cameraSystem.getSorted()) {
-			GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, cameraFb.getFbo());
+			Zenith.getEngine().getGraphics().getStateCache().bindFramebuffer(GL30.GL_FRAMEBUFFER, cameraFb.getFbo());
 
 			resizeCameraFb(cameraId);
 			clearCameraFb(cameraId);
 
-			ForwardRenderer.getInstance().render(world, cameraId);
+			Camera camera = mCamera.create(cameraId);
+			if (camera.renderPath == RenderPath.DEFERRED) {
+				DeferredRenderer.getInstance().render(world, cameraId);
+			} else {
+				ForwardRenderer.getInstance().render(world, cameraId);
+			}
 
 			drawSkybox(cameraId);
 			applyEffects(cameraId);
@@ -144,7 +149,7 @@ public final class RenderSystem extends BaseSystem {
 					depthBuffer.getTbo(), 0);
 		}
 
-		GL11.glViewport(0, 0, width, height);
+		Zenith.getEngine().getGraphics().getStateCache().viewport(0, 0, width, height);
 	}
 
 	private void clearCameraFb(int cameraId) {
@@ -220,8 +225,9 @@ public final class RenderSystem extends BaseSystem {
 		int width = (int) (size.x * rect.width);
 		int height = (int) (size.y * rect.height);
 
-		GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, cameraFb.getFbo());
-		GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
+		StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+		stateCache.bindFramebuffer(GL30.GL_READ_FRAMEBUFFER, cameraFb.getFbo());
+		stateCache.bindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
 		GL30.glBlitFramebuffer(0, 0, width, height, x, y, x + width, y + height, GL11.GL_COLOR_BUFFER_BIT,
 				GL11.GL_NEAREST);
 	}
@@ -0,0 +1,647 @@
+package com.trentonfaris.zenith.ecs.system.spatial;
+
+import java.util.Arrays;
+
+import org.joml.AABBf;
+import org.joml.FrustumIntersection;
+import org.joml.Intersectionf;
+import org.joml.Rayf;
+import org.joml.Spheref;
+import org.joml.Vector2f;
+
+import com.artemis.utils.IntBag;
+import com.trentonfaris.zenith.Zenith;
+
+/**
+ * An {@link AABBTree} is a dynamic bounding volume hierarchy of axis-aligned
+ * bounding boxes. Each leaf stores a fat box, which is the box of an entity
+ * grown by a margin, so that small movements do not change the tree.
+ *
+ * <p>
+ * Leaves are inserted next to the sibling that minimizes the growth in surface
+ * area, and the tree is kept balanced with rotations. Nodes are stored in
+ * primitive arrays and referenced by index, so queries do not allocate.
+ *
+ * @author Trenton Faris
+ */
+public final class AABBTree {
+	/** The index of a missing node. */
+	public static final int NULL_NODE = -1;
+
+	/** The initial number of nodes an {@link AABBTree} can hold. */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/** The number of floats in the box of a node. */
+	private static final int AABB_SIZE = 6;
+
+	/** The amount by which the box of each leaf is grown. */
+	private final float margin;
+
+	/** The boxes of each node, as min x, y, z followed by max x, y, z. */
+	private float[] aabbs;
+
+	/** The parent of each node, or the next free node if it is free. */
+	private int[] parents;
+
+	/** The first child of each node. */
+	private int[] children1;
+
+	/** The second child of each node. */
+	private int[] children2;
+
+	/** The height of each node, where leaves are 0 and free nodes are -1. */
+	private int[] heights;
+
+	/** The entity id of each leaf. */
+	private int[] entities;
+
+	/** The stack used to traverse the tree. */
+	private int[] stack = new int[INITIAL_CAPACITY];
+
+	/** Scratch space for ray intersections. */
+	private final Vector2f rayResult = new Vector2f();
+
+	/** The root node. */
+	private int root = NULL_NODE;
+
+	/** The first free node. */
+	private int freeList;
+
+	/** The number of allocated nodes. */
+	private int nodeCount;
+
+	/**
+	 * Creates a new, empty {@link AABBTree}.
+	 *
+	 * @param margin The amount by which the box of each leaf is grown
+	 */
+	public AABBTree(float margin) {
+		if (margin < 0) {
+			String errorMsg = "Cannot create an AABBTree with a negative margin.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		this.margin = margin;
+
+		this.aabbs = new float[INITIAL_CAPACITY * AABB_SIZE];
+		this.parents = new int[INITIAL_CAPACITY];
+		this.children1 = new int[INITIAL_CAPACITY];
+		this.children2 = new int[INITIAL_CAPACITY];
+		this.heights = new int[INITIAL_CAPACITY];
+		this.entities = new int[INITIAL_CAPACITY];
+
+		linkFreeNodes(0);
+	}
+
+	/**
+	 * Inserts a leaf for an entity.
+	 *
+	 * @param entityId The id of the entity
+	 * @param aabb The tight box of the entity
+	 * @return The leaf node of the entity.
+	 */
+	public int insert(int entityId, AABBf aabb) {
+		int leaf = allocateNode();
+
+		setFatAabb(leaf, aabb);
+		entities[leaf] = entityId;
+		heights[leaf] = 0;
+
+		insertLeaf(leaf);
+
+		return leaf;
+	}
+
+	/**
+	 * Removes a leaf from this {@link AABBTree}.
+	 *
+	 * @param leaf The leaf node to remove
+	 */
+	public void remove(int leaf) {
+		removeLeaf(leaf);
+		freeNode(leaf);
+	}
+
+	/**
+	 * Moves a leaf to a new box. The tree is only changed if the new box is no
+	 * longer contained by the fat box of the leaf.
+	 *
+	 * @param leaf The leaf node to move
+	 * @param aabb The new tight box of the entity
+	 * @return Whether the leaf was reinserted.
+	 */
+	public boolean move(int leaf, AABBf aabb) {
+		int i = leaf * AABB_SIZE;
+		if (aabbs[i] <= aabb.minX && aabbs[i + 1] <= aabb.minY && aabbs[i + 2] <= aabb.minZ
+				&& aabbs[i + 3] >= aabb.maxX && aabbs[i + 4] >= aabb.maxY && aabbs[i + 5] >= aabb.maxZ) {
+			return false;
+		}
+
+		removeLeaf(leaf);
+		setFatAabb(leaf, aabb);
+		insertLeaf(leaf);
+
+		return true;
+	}
+
+	/**
+	 * Removes every node from this {@link AABBTree}.
+	 */
+	public void clear() {
+		this.root = NULL_NODE;
+		this.nodeCount = 0;
+
+		linkFreeNodes(0);
+	}
+
+	/**
+	 * Adds the entities whose fat boxes intersect the specified box.
+	 *
+	 * @param aabb The query box
+	 * @param result The destination {@link IntBag} of entity ids
+	 */
+	public void query(AABBf aabb, IntBag result) {
+		if (root == NULL_NODE) {
+			return;
+		}
+
+		int size = push(0, root);
+		while (size > 0) {
+			int node = stack[--size];
+			int i = node * AABB_SIZE;
+
+			if (aabbs[i] > aabb.maxX || aabbs[i + 1] > aabb.maxY || aabbs[i + 2] > aabb.maxZ
+					|| aabbs[i + 3] < aabb.minX || aabbs[i + 4] < aabb.minY || aabbs[i + 5] < aabb.minZ) {
+				continue;
+			}
+
+			if (isLeaf(node)) {
+				result.add(entities[node]);
+			} else {
+				size = push(size, children1[node]);
+				size = push(size, children2[node]);
+			}
+		}
+	}
+
+	/**
+	 * Adds the entities whose fat boxes intersect the specified sphere.
+	 *
+	 * @param sphere The query sphere
+	 * @param result The destination {@link IntBag} of entity ids
+	 */
+	public void query(Spheref sphere, IntBag result) {
+		if (root == NULL_NODE) {
+			return;
+		}
+
+		float radiusSquared = sphere.r * sphere.r;
+
+		int size = push(0, root);
+		while (size > 0) {
+			int node = stack[--size];
+			int i = node * AABB_SIZE;
+
+			// The squared distance from the center of the sphere to the box.
+			float dx = Math.max(Math.max(aabbs[i] - sphere.x, sphere.x - aabbs[i + 3]), 0);
+			float dy = Math.max(Math.max(aabbs[i + 1] - sphere.y, sphere.y - aabbs[i + 4]), 0);
+			float dz = Math.max(Math.max(aabbs[i + 2] - sphere.z, sphere.z - aabbs[i + 5]), 0);
+
+			if (dx * dx + dy * dy + dz * dz > radiusSquared) {
+				continue;
+			}
+
+			if (isLeaf(node)) {
+				result.add(entities[node]);
+			} else {
+				size = push(size, children1[node]);
+				size = push(size, children2[node]);
+			}
+		}
+	}
+
+	/**
+	 * Adds the entities whose fat boxes intersect the specified frustum. Subtrees
+	 * that lie entirely inside of the frustum are added without further tests.
+	 *
+	 * @param frustum The query frustum
+	 * @param result The destination {@link IntBag} of entity ids
+	 */
+	public void query(FrustumIntersection frustum, IntBag result) {
+		if (root == NULL_NODE) {
+			return;
+		}
+
+		// Each stack entry holds a node and whether it is known to be inside.
+		int size = push(0, root << 1);
+		while (size > 0) {
+			int entry = stack[--size];
+			int node = entry >>> 1;
+			boolean inside = (entry & 1) != 0;
+
+			if (!inside) {
+				int i = node * AABB_SIZE;
+				int intersection = frustum.intersectAab(aabbs[i], aabbs[i + 1], aabbs[i + 2], aabbs[i + 3],
+						aabbs[i + 4], aabbs[i + 5]);
+
+				if (intersection == FrustumIntersection.INSIDE) {
+					inside = true;
+				} else if (intersection != FrustumIntersection.INTERSECT) {
+					continue;
+				}
+			}
+
+			if (isLeaf(node)) {
+				result.add(entities[node]);
+			} else {
+				int flag = inside ? 1 : 0;
+
+				size = push(size, children1[node] << 1 | flag);
+				size = push(size, children2[node] << 1 | flag);
+			}
+		}
+	}
+
+	/**
+	 * Adds the entities whose fat boxes are hit by the specified ray within a
+	 * maximum distance. Entities are added in traversal order, not hit order.
+	 *
+	 * @param ray The query ray
+	 * @param maxDistance The maximum distance along the ray, in units of its
+	 *            direction
+	 * @param result The destination {@link IntBag} of entity ids
+	 */
+	public void query(Rayf ray, float maxDistance, IntBag result) {
+		if (root == NULL_NODE) {
+			return;
+		}
+
+		int size = push(0, root);
+		while (size > 0) {
+			int node = stack[--size];
+			int i = node * AABB_SIZE;
+
+			if (!Intersectionf.intersectRayAab(ray.oX, ray.oY, ray.oZ, ray.dX, ray.dY, ray.dZ, aabbs[i],
+					aabbs[i + 1], aabbs[i + 2], aabbs[i + 3], aabbs[i + 4], aabbs[i + 5], rayResult)
+					|| rayResult.x > maxDistance) {
+				continue;
+			}
+
+			if (isLeaf(node)) {
+				result.add(entities[node]);
+			} else {
+				size = push(size, children1[node]);
+				size = push(size, children2[node]);
+			}
+		}
+	}
+
+	/**
+	 * Gets the entity id of a leaf.
+	 *
+	 * @param leaf The leaf node
+	 * @return The entity id.
+	 */
+	public int getEntity(int leaf) {
+		return entities[leaf];
+	}
+
+	/**
+	 * Gets the fat box of a node.
+	 *
+	 * @param node The target node
+	 * @param dest The destination box
+	 * @return The destination box.
+	 */
+	public AABBf getFatAabb(int node, AABBf dest) {
+		int i = node * AABB_SIZE;
+
+		dest.setMin(aabbs[i], aabbs[i + 1], aabbs[i + 2]);
+		dest.setMax(aabbs[i + 3], aabbs[i + 4], aabbs[i + 5]);
+
+		return dest;
+	}
+
+	/**
+	 * Gets the height of this {@link AABBTree}.
+	 *
+	 * @return The height, or {@code -1} if it is empty.
+	 */
+	public int getHeight() {
+		return root == NULL_NODE ? -1 : heights[root];
+	}
+
+	/**
+	 * Gets the number of allocated nodes, including internal nodes.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	private boolean isLeaf(int node) {
+		return children1[node] == NULL_NODE;
+	}
+
+	private int push(int size, int value) {
+		if (size == stack.length) {
+			this.stack = Arrays.copyOf(stack, stack.length * 2);
+		}
+
+		stack[size] = value;
+
+		return size + 1;
+	}
+
+	private void setFatAabb(int node, AABBf aabb) {
+		int i = node * AABB_SIZE;
+
+		aabbs[i] = aabb.minX - margin;
+		aabbs[i + 1] = aabb.minY - margin;
+		aabbs[i + 2] = aabb.minZ - margin;
+		aabbs[i + 3] = aabb.maxX + margin;
+		aabbs[i + 4] = aabb.maxY + margin;
+		aabbs[i + 5] = aabb.maxZ + margin;
+	}
+
+	private void union(int dest, int a, int b) {
+		int d = dest * AABB_SIZE;
+		int i = a * AABB_SIZE;
+		int j = b * AABB_SIZE;
+
+		aabbs[d] = Math.min(aabbs[i], aabbs[j]);
+		aabbs[d + 1] = Math.min(aabbs[i + 1], aabbs[j + 1]);
+		aabbs[d + 2] = Math.min(aabbs[i + 2], aabbs[j + 2]);
+		aabbs[d + 3] = Math.max(aabbs[i + 3], aabbs[j + 3]);
+		aabbs[d + 4] = Math.max(aabbs[i + 4], aabbs[j + 4]);
+		aabbs[d + 5] = Math.max(aabbs[i + 5], aabbs[j + 5]);
+	}
+
+	private float area(int node) {
+		int i = node * AABB_SIZE;
+
+		return area(aabbs[i + 3] - aabbs[i], aabbs[i + 4] - aabbs[i + 1], aabbs[i + 5] - aabbs[i + 2]);
+	}
+
+	private float unionArea(int a, int b) {
+		int i = a * AABB_SIZE;
+		int j = b * AABB_SIZE;
+
+		float dx = Math.max(aabbs[i + 3], aabbs[j + 3]) - Math.min(aabbs[i], aabbs[j]);
+		float dy = Math.max(aabbs[i + 4], aabbs[j + 4]) - Math.min(aabbs[i + 1], aabbs[j + 1]);
+		float dz = Math.max(aabbs[i + 5], aabbs[j + 5]) - Math.min(aabbs[i + 2], aabbs[j + 2]);
+
+		return area(dx, dy, dz);
+	}
+
+	private static float area(float dx, float dy, float dz) {
+		return 2 * (dx * dy + dy * dz + dz * dx);
+	}
+
+	private int allocateNode() {
+		if (freeList == NULL_NODE) {
+			int capacity = parents.length * 2;
+
+			this.aabbs = Arrays.copyOf(aabbs, capacity * AABB_SIZE);
+			this.parents = Arrays.copyOf(parents, capacity);
+			this.children1 = Arrays.copyOf(children1, capacity);
+			this.children2 = Arrays.copyOf(children2, capacity);
+			this.heights = Arrays.copyOf(heights, capacity);
+			this.entities = Arrays.copyOf(entities, capacity);
+
+			linkFreeNodes(nodeCount);
+		}
+
+		int node = freeList;
+		this.freeList = parents[node];
+
+		parents[node] = NULL_NODE;
+		children1[node] = NULL_NODE;
+		children2[node] = NULL_NODE;
+		heights[node] = 0;
+		entities[node] = -1;
+
+		this.nodeCount++;
+
+		return node;
+	}
+
+	private void freeNode(int node) {
+		parents[node] = freeList;
+		heights[node] = -1;
+
+		this.freeList = node;
+		this.nodeCount--;
+	}
+
+	private void linkFreeNodes(int start) {
+		int capacity = parents.length;
+
+		for (int i = start; i < capacity - 1; i++) {
+			parents[i] = i + 1;
+			heights[i] = -1;
+		}
+
+		parents[capacity - 1] = NULL_NODE;
+		heights[capacity - 1] = -1;
+
+		this.freeList = start;
+	}
+
+	private void insertLeaf(int leaf) {
+		if (root == NULL_NODE) {
+			this.root = leaf;
+			parents[leaf] = NULL_NODE;
+			return;
+		}
+
+		// Find the sibling that minimizes the growth in surface area.
+		int index = root;
+		while (!isLeaf(index)) {
+			int child1 = children1[index];
+			int child2 = children2[index];
+
+			float area = area(index);
+			float combinedArea = unionArea(index, leaf);
+
+			// The cost of creating a new parent for this node and the new leaf.
+			float cost = 2 * combinedArea;
+
+			// The minimum cost of pushing the leaf further down the tree.
+			float inheritanceCost = 2 * (combinedArea - area);
+
+			float cost1 = descendCost(child1, leaf) + inheritanceCost;
+			float cost2 = descendCost(child2, leaf) + inheritanceCost;
+
+			if (cost < cost1 && cost < cost2) {
+				break;
+			}
+
+			index = cost1 < cost2 ? child1 : child2;
+		}
+
+		int sibling = index;
+
+		int oldParent = parents[sibling];
+		int newParent = allocateNode();
+
+		parents[newParent] = oldParent;
+		union(newParent, leaf, sibling);
+		heights[newParent] = heights[sibling] + 1;
+
+		if (oldParent != NULL_NODE) {
+			if (children1[oldParent] == sibling) {
+				children1[oldParent] = newParent;
+			} else {
+				children2[oldParent] = newParent;
+			}
+		} else {
+			this.root = newParent;
+		}
+
+		children1[newParent] = sibling;
+		children2[newParent] = leaf;
+		parents[sibling] = newParent;
+		parents[leaf] = newParent;
+
+		refit(parents[leaf]);
+	}
+
+	private float descendCost(int child, int leaf) {
+		if (isLeaf(child)) {
+			return unionArea(child, leaf);
+		}
+
+		return unionArea(child, leaf) - area(child);
+	}
+
+	private void removeLeaf(int leaf) {
+		if (leaf == root) {
+			this.root = NULL_NODE;
+			return;
+		}
+
+		int parent = parents[leaf];
+		int grandParent = parents[parent];
+		int sibling = children1[parent] == leaf ? children2[parent] : children1[parent];
+
+		if (grandParent != NULL_NODE) {
+			// Replace the parent with the sibling.
+			if (children1[grandParent] == parent) {
+				children1[grandParent] = sibling;
+			} else {
+				children2[grandParent] = sibling;
+			}
+
+			parents[sibling] = grandParent;
+			freeNode(parent);
+
+			refit(grandParent);
+		} else {
+			this.root = sibling;
+			parents[sibling] = NULL_NODE;
+			freeNode(parent);
+		}
+	}
+
+	/**
+	 * Walks from a node to the root, rebalancing and refitting each ancestor.
+	 *
+	 * @param node The first node to refit
+	 */
+	private void refit(int node) {
+		int index = node;
+		while (index != NULL_NODE) {
+			index = balance(index);
+
+			int child1 = children1[index];
+			int child2 = children2[index];
+
+			heights[index] = 1 + Math.max(heights[child1], heights[child2]);
+			union(index, child1, child2);
+
+			index = parents[index];
+		}
+	}
+
+	/**
+	 * Performs a left or right rotation if the subtree at the specified node is
+	 * imbalanced.
+	 *
+	 * @param a The root of the subtree
+	 * @return The new root of the subtree.
+	 */
+	private int balance(int a) {
+		if (isLeaf(a) || heights[a] < 2) {
+			return a;
+		}
+
+		int b = children1[a];
+		int c = children2[a];
+
+		int balance = heights[c] - heights[b];
+
+		if (balance > 1) {
+			rotateUp(a, c, b, true);
+			return c;
+		}
+
+		if (balance < -1) {
+			rotateUp(a, b, c, false);
+			return b;
+		}
+
+		return a;
+	}
+
+	/**
+	 * Rotates a child up to replace its parent.
+	 *
+	 * @param a The parent node
+	 * @param up The child node to rotate up
+	 * @param other The other child of the parent
+	 * @param upIsSecond Whether {@code up} is the second child of the parent
+	 */
+	private void rotateUp(int a, int up, int other, boolean upIsSecond) {
+		int f = children1[up];
+		int g = children2[up];
+
+		// Swap the parent and the child.
+		children1[up] = a;
+		parents[up] = parents[a];
+		parents[a] = up;
+
+		int parent = parents[up];
+		if (parent != NULL_NODE) {
+			if (children1[parent] == a) {
+				children1[parent] = up;
+			} else {
+				children2[parent] = up;
+			}
+		} else {
+			this.root = up;
+		}
+
+		// Keep the taller grandchild under the rotated child.
+		int keep = heights[f] > heights[g] ? f : g;
+		int move = keep == f ? g : f;
+
+		children2[up] = keep;
+
+		if (upIsSecond) {
+			children2[a] = move;
+		} else {
+			children1[a] = move;
+		}
+
+		parents[move] = a;
+
+		union(a, other, move);
+		union(up, a, keep);
+
+		heights[a] = 1 + Math.max(heights[other], heights[move]);
+		heights[up] = 1 + Math.max(heights[a], heights[keep]);
+	}
+}
@@ -0,0 +1,187 @@
+package com.trentonfaris.zenith.ecs.system.spatial;
+
+import java.util.Arrays;
+
+import org.joml.AABBf;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Rayf;
+import org.joml.Spheref;
+import org.joml.Vector3f;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.systems.IteratingSystem;
+import com.artemis.utils.IntBag;
+import com.trentonfaris.zenith.ecs.component.light.Caster;
+import com.trentonfaris.zenith.ecs.component.light.Caster.CasterType;
+import com.trentonfaris.zenith.ecs.component.light.Light;
+import com.trentonfaris.zenith.ecs.component.render.Bounds;
+import com.trentonfaris.zenith.ecs.component.render.Renderable;
+import com.trentonfaris.zenith.ecs.component.transformation.ModelMatrix;
+
+/**
+ * The {@link SpatialSystem} maintains an {@link AABBTree} of every renderable
+ * and light entity, so that spatial queries do not need to scan every entity.
+ *
+ * <p>
+ * Renderables are indexed by their world space {@link Bounds}, or by their
+ * position if they have none. Point and spot lights are indexed by the box
+ * around their radius. Directional lights affect the whole scene, so they are
+ * not indexed.
+ *
+ * @author Trenton Faris
+ */
+public class SpatialSystem extends IteratingSystem {
+	/** The amount by which the box of each leaf is grown. */
+	private static final float MARGIN = 0.5f;
+
+	ComponentMapper<ModelMatrix> mModelMatrix;
+	ComponentMapper<Bounds> mBounds;
+	ComponentMapper<Light> mLight;
+	ComponentMapper<Caster> mCaster;
+
+	/** The {@link AABBTree} of the bounds of every indexed entity. */
+	private final AABBTree tree = new AABBTree(MARGIN);
+
+	/** The leaf of each entity in the {@link #tree}, by entity id. */
+	private int[] leaves = new int[0];
+
+	private final AABBf aabb = new AABBf();
+	private final Vector3f position = new Vector3f();
+	private final FrustumIntersection frustum = new FrustumIntersection();
+
+	public SpatialSystem() {
+		super(Aspect.all(ModelMatrix.class).one(Renderable.class, Light.class));
+	}
+
+	@Override
+	protected void inserted(int i) {
+		if (computeAabb(i)) {
+			setLeaf(i, tree.insert(i, aabb));
+		}
+	}
+
+	@Override
+	protected void removed(int i) {
+		int leaf = getLeaf(i);
+		if (leaf != AABBTree.NULL_NODE) {
+			tree.remove(leaf);
+			setLeaf(i, AABBTree.NULL_NODE);
+		}
+	}
+
+	@Override
+	protected void process(int i) {
+		int leaf = getLeaf(i);
+
+		if (!computeAabb(i)) {
+			removed(i);
+		} else if (leaf == AABBTree.NULL_NODE) {
+			setLeaf(i, tree.insert(i, aabb));
+		} else {
+			tree.move(leaf, aabb);
+		}
+	}
+
+	/**
+	 * Computes the world space box of an entity into {@link #aabb}.
+	 *
+	 * @param i The id of the entity
+	 * @return Whether the entity has a bounded box.
+	 */
+	private boolean computeAabb(int i) {
+		if (mBounds.has(i)) {
+			AABBf bounds = mBounds.get(i).aabb;
+
+			aabb.setMin(bounds.minX, bounds.minY, bounds.minZ);
+			aabb.setMax(bounds.maxX, bounds.maxY, bounds.maxZ);
+
+			return true;
+		}
+
+		mModelMatrix.get(i).mat.getTranslation(position);
+
+		float radius = 0;
+		if (mLight.has(i)) {
+			Caster caster = mCaster.get(i);
+			if (caster == null || caster.casterType == CasterType.DIRECTIONAL) {
+				return false;
+			}
+
+			radius = caster.radius;
+		}
+
+		aabb.setMin(position.x - radius, position.y - radius, position.z - radius);
+		aabb.setMax(position.x + radius, position.y + radius, position.z + radius);
+
+		return true;
+	}
+
+	private int getLeaf(int i) {
+		return i < leaves.length ? leaves[i] : AABBTree.NULL_NODE;
+	}
+
+	private void setLeaf(int i, int leaf) {
+		if (i >= leaves.length) {
+			int length = leaves.length;
+
+			this.leaves = Arrays.copyOf(leaves, Math.max(i + 1, length * 2));
+			Arrays.fill(leaves, length, leaves.length, AABBTree.NULL_NODE);
+		}
+
+		leaves[i] = leaf;
+	}
+
+	/**
+	 * Adds the entities which may be inside of the frustum of the specified
+	 * view-projection matrix.
+	 *
+	 * @param viewProjection The view-projection matrix of the frustum
+	 * @param result The destination {@link IntBag} of entity ids
+	 */
+	public void queryFrustum(Matrix4f viewProjection, IntBag result) {
+		frustum.set(viewProjection);
+		tree.query(frustum, result);
+	}
+
+	/**
+	 * Adds the entities which may intersect the specified sphere.
+	 *
+	 * @param sphere The world space sphere
+	 * @param result The destination {@link IntBag} of entity ids
+	 */
+	public void querySphere(Spheref sphere, IntBag result) {
+		tree.query(sphere, result);
+	}
+
+	/**
+	 * Adds the entities which may intersect the specified box.
+	 *
+	 * @param aabb The world space box
+	 * @param result The destination {@link IntBag} of entity ids
+	 */
+	public void queryAabb(AABBf aabb, IntBag result) {
+		tree.query(aabb, result);
+	}
+
+	/**
+	 * Adds the entities which may be hit by the specified ray.
+	 *
+	 * @param ray The world space ray
+	 * @param maxDistance The maximum distance along the ray
+	 * @param result The destination {@link IntBag} of entity ids
+	 */
+	public void queryRay(Rayf ray, float maxDistance, IntBag result) {
+		tree.query(ray, maxDistance, result);
+	}
+
+	/**
+	 * Gets the {@link #tree}.
+	 *
+	 * @return The {@link #tree} value.
+	 */
+	public AABBTree getTree() {
+		return tree;
+	}
+}
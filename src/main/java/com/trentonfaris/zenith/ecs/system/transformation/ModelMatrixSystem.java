@@ -3,18 +3,29 @@ package com.trentonfaris.zenith.ecs.system.transformation;
 import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.systems.IteratingSystem;
+import com.trentonfaris.zenith.ecs.component.render.Bounds;
+import com.trentonfaris.zenith.ecs.component.render.Renderable;
 import com.trentonfaris.zenith.ecs.component.transform.Position;
 import com.trentonfaris.zenith.ecs.component.transform.Rotation;
 import com.trentonfaris.zenith.ecs.component.transform.Scale;
 import com.trentonfaris.zenith.ecs.component.transformation.ModelMatrix;
 
+import org.joml.AABBf;
 import org.joml.Matrix4f;
+import org.joml.Spheref;
+import org.joml.Vector3f;
 
 public class ModelMatrixSystem extends IteratingSystem {
 	ComponentMapper<ModelMatrix> mModelMatrix;
 	ComponentMapper<Position> mPosition;
 	ComponentMapper<Rotation> mRotation;
 	ComponentMapper<Scale> mScale;
+	ComponentMapper<Renderable> mRenderable;
+	ComponentMapper<Bounds> mBounds;
+
+	private final AABBf localBounds = new AABBf();
+	private final Spheref localSphere = new Spheref();
+	private final Vector3f scratch = new Vector3f();
 
 	public ModelMatrixSystem() {
 		super(Aspect.one(Position.class, Rotation.class, Scale.class));
@@ -28,5 +39,31 @@ public class ModelMatrixSystem extends IteratingSystem {
 		ModelMatrix modelMatrix = mModelMatrix.create(i);
 
 		modelMatrix.mat = new Matrix4f().translate(position.xyz).rotate(rotation.xyzw).scale(scale.xyz);
+
+		if (mRenderable.has(i) && mRenderable.get(i).model != null) {
+			updateBounds(mRenderable.get(i), modelMatrix.mat, mBounds.create(i));
+		}
+	}
+
+	/**
+	 * Transforms the local bounds of a {@link Renderable} into world space.
+	 *
+	 * @param renderable The target {@link Renderable}
+	 * @param mat The model matrix of the entity
+	 * @param bounds The destination world space {@link Bounds}
+	 */
+	private void updateBounds(Renderable renderable, Matrix4f mat, Bounds bounds) {
+		renderable.model.getBounds(localBounds, localSphere);
+
+		localBounds.transform(mat, bounds.aabb);
+
+		mat.transformPosition(scratch.set(localSphere.x, localSphere.y, localSphere.z));
+
+		bounds.sphere.x = scratch.x;
+		bounds.sphere.y = scratch.y;
+		bounds.sphere.z = scratch.z;
+
+		mat.getScale(scratch);
+		bounds.sphere.r = localSphere.r * Math.max(scratch.x, Math.max(scratch.y, scratch.z));
 	}
 }
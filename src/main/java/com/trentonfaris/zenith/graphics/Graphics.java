@@ -1,6 +1,7 @@
 package com.trentonfaris.zenith.graphics;
 
 import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.model.GeometryArenaManager;
 import com.trentonfaris.zenith.graphics.shader.ShaderManager;
 import com.trentonfaris.zenith.utility.Disposable;
 import org.apache.logging.log4j.Level;
@@ -77,11 +78,22 @@ public final class Graphics implements Disposable {
      */
     private boolean dirty;
 
+    /**
+     * The {@link StateCache} shadows the {@link GL} state.
+     */
+    private final StateCache stateCache = new StateCache();
+
     /**
      * The {@link ShaderManager} manages shaders.
      */
     private ShaderManager shaderManager = new ShaderManager();
 
+    /**
+     * The {@link GeometryArenaManager} manages the geometry arenas that meshes are
+     * suballocated from.
+     */
+    private GeometryArenaManager geometryArenaManager = new GeometryArenaManager();
+
     public void init() {
         Zenith.getLogger().log(Level.INFO, "Graphics initializing...");
 
@@ -92,6 +104,9 @@ public final class Graphics implements Disposable {
 
         GL.createCapabilities();
 
+        // The new context does not share any of the shadowed state.
+        stateCache.invalidate();
+
         setProps();
 
         if (this.shaderManager != null) {
@@ -99,43 +114,31 @@ public final class Graphics implements Disposable {
         }
 
         this.shaderManager = new ShaderManager();
+
+        if (this.geometryArenaManager != null) {
+            geometryArenaManager.dispose();
+        }
+
+        this.geometryArenaManager = new GeometryArenaManager();
     }
 
     /**
-     * Sets the graphics properties.
+     * Sets the graphics properties. Only properties which differ from the
+     * {@link #stateCache} are issued to {@link GL}.
      */
     private void setProps() {
-        if (depthTesting) {
-            GL11.glEnable(GL11.GL_DEPTH_TEST);
-        } else {
-            GL11.glDisable(GL11.GL_DEPTH_TEST);
-        }
+        stateCache.setCapability(GL11.GL_DEPTH_TEST, depthTesting);
+        stateCache.depthMask(depthMasking);
+        stateCache.depthFunc(depthFunc);
 
-        GL11.glDepthMask(depthMasking);
-        GL11.glDepthFunc(depthFunc);
+        stateCache.setCapability(GL11.GL_BLEND, blending);
+        stateCache.blendFunc(blendSrc, blendDst);
 
-        if (blending) {
-            GL11.glEnable(GL11.GL_BLEND);
-        } else {
-            GL11.glDisable(GL11.GL_BLEND);
-        }
-
-        GL11.glBlendFunc(blendSrc, blendDst);
+        stateCache.setCapability(GL11.GL_CULL_FACE, culling);
+        stateCache.cullFace(cullFace);
+        stateCache.frontFace(frontFace);
 
-        if (culling) {
-            GL11.glEnable(GL11.GL_CULL_FACE);
-        } else {
-            GL11.glDisable(GL11.GL_CULL_FACE);
-        }
-
-        GL11.glCullFace(cullFace);
-        GL11.glFrontFace(frontFace);
-
-        if (antiAliasing) {
-            GL11.glEnable(GL13.GL_MULTISAMPLE);
-        } else {
-            GL11.glDisable(GL13.GL_MULTISAMPLE);
-        }
+        stateCache.setCapability(GL13.GL_MULTISAMPLE, antiAliasing);
 
         this.dirty = false;
     }
@@ -149,6 +152,7 @@ public final class Graphics implements Disposable {
     @Override
     public void dispose() {
         shaderManager.dispose();
+        geometryArenaManager.dispose();
     }
 
     /**
@@ -339,6 +343,15 @@ public final class Graphics implements Disposable {
         this.clearColor = clearColor;
     }
 
+    /**
+     * Gets the {@link StateCache}.
+     *
+     * @return The {@link StateCache}.
+     */
+    public StateCache getStateCache() {
+        return stateCache;
+    }
+
     /**
      * Gets the {@link ShaderManager}.
      *
@@ -347,4 +360,13 @@ public final class Graphics implements Disposable {
     public ShaderManager getShaderManager() {
         return shaderManager;
     }
+
+    /**
+     * Gets the {@link GeometryArenaManager}.
+     *
+     * @return The {@link GeometryArenaManager}.
+     */
+    public GeometryArenaManager getGeometryArenaManager() {
+        return geometryArenaManager;
+    }
 }
@@ -0,0 +1,599 @@
+package com.trentonfaris.zenith.graphics;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL40;
+import org.lwjgl.opengl.GL43;
+
+import java.util.Arrays;
+
+/**
+ * A {@link StateCache} shadows the OpenGL state that is changed most often:
+ * the bound program, vertex array, buffers, textures, and framebuffers, the
+ * viewport, and the depth, blend, and cull state. Calls are only issued to
+ * OpenGL when they change the shadowed state. Every other call is elided.
+ *
+ * <p>
+ * The cache is only correct if all changes to the shadowed state go through
+ * it. After state has been changed by other means, call {@link #invalidate()}.
+ * Objects must also be deleted through the cache, since OpenGL unbinds deleted
+ * objects.
+ *
+ * @author Trenton Faris
+ */
+public final class StateCache {
+    /**
+     * The value of state that is not known.
+     */
+    private static final int UNKNOWN = -1;
+
+    /**
+     * The number of texture units that are shadowed.
+     */
+    private static final int NUM_TEXTURE_UNITS = 32;
+
+    /**
+     * The buffer targets that are shadowed. The element array buffer is part of
+     * the vertex array state, so it is never shadowed.
+     */
+    private static final int[] BUFFER_TARGETS = {GL15.GL_ARRAY_BUFFER, GL31.GL_UNIFORM_BUFFER,
+            GL43.GL_SHADER_STORAGE_BUFFER, GL40.GL_DRAW_INDIRECT_BUFFER, GL31.GL_COPY_READ_BUFFER,
+            GL31.GL_COPY_WRITE_BUFFER};
+
+    /**
+     * The texture targets that are shadowed.
+     */
+    private static final int[] TEXTURE_TARGETS = {GL11.GL_TEXTURE_2D, GL13.GL_TEXTURE_CUBE_MAP};
+
+    /**
+     * The capabilities that are shadowed.
+     */
+    private static final int[] CAPABILITIES = {GL11.GL_DEPTH_TEST, GL11.GL_BLEND, GL11.GL_CULL_FACE,
+            GL13.GL_MULTISAMPLE};
+
+    /**
+     * The bound program.
+     */
+    private int program;
+
+    /**
+     * The bound vertex array object.
+     */
+    private int vertexArray;
+
+    /**
+     * The bound buffer of each target in {@link #BUFFER_TARGETS}.
+     */
+    private final int[] buffers = new int[BUFFER_TARGETS.length];
+
+    /**
+     * The active texture unit.
+     */
+    private int activeTexture;
+
+    /**
+     * The bound texture of each target in {@link #TEXTURE_TARGETS}, for each
+     * texture unit.
+     */
+    private final int[] textures = new int[NUM_TEXTURE_UNITS * TEXTURE_TARGETS.length];
+
+    /**
+     * The bound read framebuffer.
+     */
+    private int readFramebuffer;
+
+    /**
+     * The bound draw framebuffer.
+     */
+    private int drawFramebuffer;
+
+    /**
+     * The viewport, as x, y, width, and height.
+     */
+    private final int[] viewport = new int[4];
+
+    /**
+     * Whether each capability in {@link #CAPABILITIES} is enabled, or
+     * {@link #UNKNOWN}.
+     */
+    private final int[] capabilities = new int[CAPABILITIES.length];
+
+    /**
+     * The depth mask, or {@link #UNKNOWN}.
+     */
+    private int depthMask;
+
+    /**
+     * The depth function.
+     */
+    private int depthFunc;
+
+    /**
+     * The source blend factor.
+     */
+    private int blendSrc;
+
+    /**
+     * The destination blend factor.
+     */
+    private int blendDst;
+
+    /**
+     * The culled face.
+     */
+    private int cullFace;
+
+    /**
+     * The front face winding order.
+     */
+    private int frontFace;
+
+    /**
+     * The number of calls issued to OpenGL since the counters were reset.
+     */
+    private long issuedCalls;
+
+    /**
+     * The number of calls elided since the counters were reset.
+     */
+    private long elidedCalls;
+
+    /**
+     * Creates a new {@link StateCache}, in which all state is unknown.
+     */
+    StateCache() {
+        invalidate();
+    }
+
+    /**
+     * Forgets all shadowed state, so that the next call for each piece of state is
+     * issued.
+     */
+    public void invalidate() {
+        this.program = UNKNOWN;
+        this.vertexArray = UNKNOWN;
+        Arrays.fill(buffers, UNKNOWN);
+        this.activeTexture = UNKNOWN;
+        Arrays.fill(textures, UNKNOWN);
+        this.readFramebuffer = UNKNOWN;
+        this.drawFramebuffer = UNKNOWN;
+        Arrays.fill(viewport, UNKNOWN);
+        Arrays.fill(capabilities, UNKNOWN);
+        this.depthMask = UNKNOWN;
+        this.depthFunc = UNKNOWN;
+        this.blendSrc = UNKNOWN;
+        this.blendDst = UNKNOWN;
+        this.cullFace = UNKNOWN;
+        this.frontFace = UNKNOWN;
+    }
+
+    /**
+     * Binds a program.
+     *
+     * @param program The program to bind
+     */
+    public void useProgram(int program) {
+        if (this.program == program) {
+            elidedCalls++;
+            return;
+        }
+
+        GL20.glUseProgram(program);
+        this.program = program;
+        issuedCalls++;
+    }
+
+    /**
+     * Binds a vertex array object.
+     *
+     * @param vertexArray The vertex array object to bind
+     */
+    public void bindVertexArray(int vertexArray) {
+        if (this.vertexArray == vertexArray) {
+            elidedCalls++;
+            return;
+        }
+
+        GL30.glBindVertexArray(vertexArray);
+        this.vertexArray = vertexArray;
+        issuedCalls++;
+    }
+
+    /**
+     * Binds a buffer to a target.
+     *
+     * @param target The buffer target
+     * @param buffer The buffer to bind
+     */
+    public void bindBuffer(int target, int buffer) {
+        int i = indexOf(BUFFER_TARGETS, target);
+        if (i >= 0 && buffers[i] == buffer) {
+            elidedCalls++;
+            return;
+        }
+
+        GL15.glBindBuffer(target, buffer);
+        issuedCalls++;
+
+        if (i >= 0) {
+            buffers[i] = buffer;
+        }
+    }
+
+    /**
+     * Binds a buffer to an indexed binding point of a target. This also binds the
+     * buffer to the target itself.
+     *
+     * @param target The buffer target
+     * @param index The index of the binding point
+     * @param buffer The buffer to bind
+     */
+    public void bindBufferBase(int target, int index, int buffer) {
+        GL30.glBindBufferBase(target, index, buffer);
+        issuedCalls++;
+
+        int i = indexOf(BUFFER_TARGETS, target);
+        if (i >= 0) {
+            buffers[i] = buffer;
+        }
+    }
+
+    /**
+     * Binds a texture to a target of the active texture unit.
+     *
+     * @param target The texture target
+     * @param texture The texture to bind
+     */
+    public void bindTexture(int target, int texture) {
+        int i = textureIndex(activeTexture, target);
+        if (i >= 0 && textures[i] == texture) {
+            elidedCalls++;
+            return;
+        }
+
+        GL11.glBindTexture(target, texture);
+        issuedCalls++;
+
+        if (i >= 0) {
+            textures[i] = texture;
+        }
+    }
+
+    /**
+     * Binds a texture to a target of a texture unit, activating the unit only if
+     * the texture is not already bound to it.
+     *
+     * @param unit The index of the texture unit
+     * @param target The texture target
+     * @param texture The texture to bind
+     */
+    public void bindTexture(int unit, int target, int texture) {
+        int i = textureIndex(unit, target);
+        if (i >= 0 && textures[i] == texture) {
+            elidedCalls++;
+            return;
+        }
+
+        activeTexture(unit);
+        bindTexture(target, texture);
+    }
+
+    /**
+     * Activates a texture unit.
+     *
+     * @param unit The index of the texture unit
+     */
+    public void activeTexture(int unit) {
+        if (activeTexture == unit) {
+            elidedCalls++;
+            return;
+        }
+
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
+        this.activeTexture = unit;
+        issuedCalls++;
+    }
+
+    /**
+     * Binds a framebuffer to a target.
+     *
+     * @param target The framebuffer target, one of {@link GL30#GL_FRAMEBUFFER},
+     *               {@link GL30#GL_READ_FRAMEBUFFER}, or
+     *               {@link GL30#GL_DRAW_FRAMEBUFFER}
+     * @param framebuffer The framebuffer to bind
+     */
+    public void bindFramebuffer(int target, int framebuffer) {
+        boolean read = target == GL30.GL_FRAMEBUFFER || target == GL30.GL_READ_FRAMEBUFFER;
+        boolean draw = target == GL30.GL_FRAMEBUFFER || target == GL30.GL_DRAW_FRAMEBUFFER;
+
+        if ((!read || readFramebuffer == framebuffer) && (!draw || drawFramebuffer == framebuffer)) {
+            elidedCalls++;
+            return;
+        }
+
+        GL30.glBindFramebuffer(target, framebuffer);
+        issuedCalls++;
+
+        if (read) {
+            this.readFramebuffer = framebuffer;
+        }
+
+        if (draw) {
+            this.drawFramebuffer = framebuffer;
+        }
+    }
+
+    /**
+     * Sets the viewport.
+     *
+     * @param x The x coordinate of the lower left corner
+     * @param y The y coordinate of the lower left corner
+     * @param width The width of the viewport
+     * @param height The height of the viewport
+     */
+    public void viewport(int x, int y, int width, int height) {
+        if (viewport[0] == x && viewport[1] == y && viewport[2] == width && viewport[3] == height) {
+            elidedCalls++;
+            return;
+        }
+
+        GL11.glViewport(x, y, width, height);
+        issuedCalls++;
+
+        viewport[0] = x;
+        viewport[1] = y;
+        viewport[2] = width;
+        viewport[3] = height;
+    }
+
+    /**
+     * Enables or disables a capability.
+     *
+     * @param capability The capability
+     * @param enabled Whether the capability is enabled
+     */
+    public void setCapability(int capability, boolean enabled) {
+        int i = indexOf(CAPABILITIES, capability);
+        int value = enabled ? 1 : 0;
+
+        if (i >= 0 && capabilities[i] == value) {
+            elidedCalls++;
+            return;
+        }
+
+        if (enabled) {
+            GL11.glEnable(capability);
+        } else {
+            GL11.glDisable(capability);
+        }
+
+        issuedCalls++;
+
+        if (i >= 0) {
+            capabilities[i] = value;
+        }
+    }
+
+    /**
+     * Sets whether depth values are written to the depth buffer.
+     *
+     * @param depthMask Whether depth values are written
+     */
+    public void depthMask(boolean depthMask) {
+        int value = depthMask ? 1 : 0;
+        if (this.depthMask == value) {
+            elidedCalls++;
+            return;
+        }
+
+        GL11.glDepthMask(depthMask);
+        this.depthMask = value;
+        issuedCalls++;
+    }
+
+    /**
+     * Sets the depth comparison function.
+     *
+     * @param depthFunc The depth function
+     */
+    public void depthFunc(int depthFunc) {
+        if (this.depthFunc == depthFunc) {
+            elidedCalls++;
+            return;
+        }
+
+        GL11.glDepthFunc(depthFunc);
+        this.depthFunc = depthFunc;
+        issuedCalls++;
+    }
+
+    /**
+     * Sets the blend factors.
+     *
+     * @param blendSrc The source blend factor
+     * @param blendDst The destination blend factor
+     */
+    public void blendFunc(int blendSrc, int blendDst) {
+        if (this.blendSrc == blendSrc && this.blendDst == blendDst) {
+            elidedCalls++;
+            return;
+        }
+
+        GL11.glBlendFunc(blendSrc, blendDst);
+        this.blendSrc = blendSrc;
+        this.blendDst = blendDst;
+        issuedCalls++;
+    }
+
+    /**
+     * Sets the face that is culled.
+     *
+     * @param cullFace The culled face
+     */
+    public void cullFace(int cullFace) {
+        if (this.cullFace == cullFace) {
+            elidedCalls++;
+            return;
+        }
+
+        GL11.glCullFace(cullFace);
+        this.cullFace = cullFace;
+        issuedCalls++;
+    }
+
+    /**
+     * Sets the winding order of front faces.
+     *
+     * @param frontFace The front face winding order
+     */
+    public void frontFace(int frontFace) {
+        if (this.frontFace == frontFace) {
+            elidedCalls++;
+            return;
+        }
+
+        GL11.glFrontFace(frontFace);
+        this.frontFace = frontFace;
+        issuedCalls++;
+    }
+
+    /**
+     * Deletes a program, and forgets it if it is bound.
+     *
+     * @param program The program to delete
+     */
+    public void deleteProgram(int program) {
+        GL20.glDeleteProgram(program);
+        issuedCalls++;
+
+        if (this.program == program) {
+            this.program = UNKNOWN;
+        }
+    }
+
+    /**
+     * Deletes a vertex array object, and forgets it if it is bound.
+     *
+     * @param vertexArray The vertex array object to delete
+     */
+    public void deleteVertexArray(int vertexArray) {
+        GL30.glDeleteVertexArrays(vertexArray);
+        issuedCalls++;
+
+        if (this.vertexArray == vertexArray) {
+            this.vertexArray = 0;
+        }
+    }
+
+    /**
+     * Deletes a buffer, and forgets it wherever it is bound.
+     *
+     * @param buffer The buffer to delete
+     */
+    public void deleteBuffer(int buffer) {
+        GL15.glDeleteBuffers(buffer);
+        issuedCalls++;
+
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] == buffer) {
+                buffers[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Deletes a texture, and forgets it wherever it is bound.
+     *
+     * @param texture The texture to delete
+     */
+    public void deleteTexture(int texture) {
+        GL11.glDeleteTextures(texture);
+        issuedCalls++;
+
+        for (int i = 0; i < textures.length; i++) {
+            if (textures[i] == texture) {
+                textures[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Deletes a framebuffer, and forgets it wherever it is bound.
+     *
+     * @param framebuffer The framebuffer to delete
+     */
+    public void deleteFramebuffer(int framebuffer) {
+        GL30.glDeleteFramebuffers(framebuffer);
+        issuedCalls++;
+
+        if (readFramebuffer == framebuffer) {
+            this.readFramebuffer = 0;
+        }
+
+        if (drawFramebuffer == framebuffer) {
+            this.drawFramebuffer = 0;
+        }
+    }
+
+    /**
+     * Resets the {@link #issuedCalls} and {@link #elidedCalls} counters.
+     */
+    public void resetCounters() {
+        this.issuedCalls = 0;
+        this.elidedCalls = 0;
+    }
+
+    /**
+     * Gets the {@link #issuedCalls}.
+     *
+     * @return The {@link #issuedCalls} value.
+     */
+    public long getIssuedCalls() {
+        return issuedCalls;
+    }
+
+    /**
+     * Gets the {@link #elidedCalls}.
+     *
+     * @return The {@link #elidedCalls} value.
+     */
+    public long getElidedCalls() {
+        return elidedCalls;
+    }
+
+    /**
+     * Gets the bound draw framebuffer, or {@code -1} if it is not known.
+     *
+     * @return The {@link #drawFramebuffer} value.
+     */
+    public int getDrawFramebuffer() {
+        return drawFramebuffer;
+    }
+
+    private int textureIndex(int unit, int target) {
+        if (unit < 0 || unit >= NUM_TEXTURE_UNITS) {
+            return -1;
+        }
+
+        int i = indexOf(TEXTURE_TARGETS, target);
+        if (i < 0) {
+            return -1;
+        }
+
+        return unit * TEXTURE_TARGETS.length + i;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
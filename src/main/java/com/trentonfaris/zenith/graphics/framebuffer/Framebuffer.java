@@ -44,7 +44,7 @@ public final class Framebuffer implements Disposable {
 
     @Override
     public void dispose() {
-        GL30.glDeleteFramebuffers(fbo);
+        Zenith.getEngine().getGraphics().getStateCache().deleteFramebuffer(fbo);
 
         for (Entry<Attachment, RenderTarget> entry : renderTargets.entrySet()) {
             RenderTarget renderTarget = entry.getValue();
@@ -85,7 +85,7 @@ public final class Framebuffer implements Disposable {
 
         RenderTarget prevAttachable = renderTargets.put(attachment, renderTarget);
 
-        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, fbo);
+        Zenith.getEngine().getGraphics().getStateCache().bindFramebuffer(GL30.GL_FRAMEBUFFER, fbo);
 
         if (renderTarget instanceof Texture2D) {
             GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, attachment.getValue(), GL11.GL_TEXTURE_2D,
@@ -120,7 +120,7 @@ public final class Framebuffer implements Disposable {
 
         RenderTarget renderTarget = renderTargets.remove(attachment);
 
-        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, fbo);
+        Zenith.getEngine().getGraphics().getStateCache().bindFramebuffer(GL30.GL_FRAMEBUFFER, fbo);
 
         if (renderTarget instanceof Texture2D) {
             GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, attachment.getValue(), GL11.GL_TEXTURE_2D, 0, 0);
@@ -12,6 +12,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A {@link Material} stores data associated with a {@link Shader}.
@@ -19,6 +20,19 @@ import java.util.Map.Entry;
  * @author Trenton Faris
  */
 public final class Material implements Copyable, Disposable {
+    /**
+     * The id to assign to the next {@link Material}.
+     */
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
+
+    /**
+     * The state id of this {@link Material}, used to group draws by material. It
+     * is shared by the copies of a {@link Material}, so that the draws of every
+     * copy of a model are grouped together. Grouping by it never affects what is
+     * drawn, so a copy whose properties are changed afterwards keeps it.
+     */
+    private int id = NEXT_ID.getAndIncrement();
+
     /**
      * The {@link Shader} used by this {@link Material}.
      */
@@ -29,6 +43,11 @@ public final class Material implements Copyable, Disposable {
      */
     private final Map<String, Property> properties = new HashMap<>();
 
+    /**
+     * The {@link RenderPass} in which this {@link Material} is drawn.
+     */
+    private RenderPass renderPass = RenderPass.OPAQUE;
+
     /**
      * Creates a new {@link Material} with the specified {@link Shader} type.
      *
@@ -94,6 +113,9 @@ public final class Material implements Copyable, Disposable {
             material.properties.put(name, property.copy());
         }
 
+        material.renderPass = renderPass;
+        material.id = id;
+
         return material;
     }
 
@@ -113,7 +135,23 @@ public final class Material implements Copyable, Disposable {
      * {@link UniformType}.
      */
     public void preDraw() {
-        Shader shader = Zenith.getEngine().getGraphics().getShaderManager().getShader(shaderType);
+        preDraw(Zenith.getEngine().getGraphics().getShaderManager().getShader(shaderType));
+    }
+
+    /**
+     * Sends {@link Property} data associated with this {@link Material} to
+     * another {@link Shader}, which declares uniforms with the same names.
+     * Properties without a matching {@link Uniform} are ignored.
+     *
+     * @param shader The target {@link Shader}
+     */
+    public void preDraw(Shader shader) {
+        if (shader == null) {
+            String errorMsg = "Cannot send Material properties to a null shader.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
         shader.use();
 
         int numTextures = 0;
@@ -161,6 +199,39 @@ public final class Material implements Copyable, Disposable {
         return shaderType;
     }
 
+    /**
+     * Gets the {@link #id}.
+     *
+     * @return The {@link #id} value.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the {@link #renderPass}.
+     *
+     * @return The {@link #renderPass} value.
+     */
+    public RenderPass getRenderPass() {
+        return renderPass;
+    }
+
+    /**
+     * Sets the {@link #renderPass}.
+     *
+     * @param renderPass The target {@link RenderPass}
+     */
+    public void setRenderPass(RenderPass renderPass) {
+        if (renderPass == null) {
+            String errorMsg = "Cannot set renderPass to null.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.renderPass = renderPass;
+    }
+
     /**
      * Gets an unmodifiable map of the {@link #properties}.
      *
@@ -175,6 +246,7 @@ public final class Material implements Copyable, Disposable {
         final int prime = 31;
         int result = 1;
         result = prime * result + properties.hashCode();
+        result = prime * result + renderPass.hashCode();
         result = prime * result + ((shaderType == null) ? 0 : shaderType.hashCode());
         return result;
     }
@@ -190,6 +262,8 @@ public final class Material implements Copyable, Disposable {
         Material other = (Material) obj;
         if (!properties.equals(other.properties))
             return false;
+        if (renderPass != other.renderPass)
+            return false;
         if (shaderType == null) {
             return other.shaderType == null;
         } else return shaderType.equals(other.shaderType);
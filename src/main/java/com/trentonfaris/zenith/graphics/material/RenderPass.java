@@ -0,0 +1,15 @@
+package com.trentonfaris.zenith.graphics.material;
+
+/**
+ * A {@link RenderPass} defines when a {@link Material} is drawn relative to
+ * other materials.
+ *
+ * @author Trenton Faris
+ */
+public enum RenderPass {
+    /** Drawn first, sorted front-to-back to reduce overdraw. */
+    OPAQUE,
+
+    /** Drawn after all opaque materials, sorted back-to-front for blending. */
+    TRANSPARENT
+}
@@ -0,0 +1,45 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import org.lwjgl.opengl.GL15;
+
+/**
+ * A {@link BufferUsage} tells how often the vertices and indices of a
+ * {@link Mesh} change, which decides how they are stored and uploaded.
+ *
+ * @author Trenton Faris
+ */
+public enum BufferUsage {
+	/** The data is uploaded once and drawn many times. */
+	STATIC(GL15.GL_STATIC_DRAW),
+
+	/** The data is edited now and then, and dirty ranges are uploaded in place. */
+	DYNAMIC(GL15.GL_DYNAMIC_DRAW),
+
+	/**
+	 * The vertices are rewritten about every frame. They are streamed through a
+	 * {@link StreamBuffer}, so that writing them never waits on draws that are
+	 * still reading the previous vertices.
+	 */
+	STREAM(GL15.GL_STREAM_DRAW);
+
+	/** The OpenGL value of this {@link BufferUsage}. */
+	private final int value;
+
+	/**
+	 * Creates a new {@link BufferUsage} from the specified OpenGL value.
+	 *
+	 * @param value The underlying value of this enum
+	 */
+	BufferUsage(int value) {
+		this.value = value;
+	}
+
+	/**
+	 * Gets the {@link #value}.
+	 *
+	 * @return The {@link #value}.
+	 */
+	public int getValue() {
+		return value;
+	}
+}
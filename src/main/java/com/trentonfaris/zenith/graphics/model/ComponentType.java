@@ -0,0 +1,245 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL33;
+
+/**
+ * A {@link ComponentType} defines how each component of a
+ * {@link VertexAttribute} is stored. Integer components are read by shaders as
+ * floats, and are mapped to {@code [-1, 1]} or {@code [0, 1]} if their
+ * {@link VertexAttribute} is normalized.
+ *
+ * @author Trenton Faris
+ */
+public enum ComponentType {
+	/** A 32-bit float. */
+	FLOAT(GL11.GL_FLOAT, Float.BYTES, false),
+
+	/** A 16-bit float. */
+	HALF_FLOAT(GL30.GL_HALF_FLOAT, Short.BYTES, false),
+
+	/** A 16-bit signed integer, which is a snorm16 when normalized. */
+	SHORT(GL11.GL_SHORT, Short.BYTES, false),
+
+	/** A 16-bit unsigned integer, which is a unorm16 when normalized. */
+	UNSIGNED_SHORT(GL11.GL_UNSIGNED_SHORT, Short.BYTES, false),
+
+	/** An 8-bit signed integer, which is a snorm8 when normalized. */
+	BYTE(GL11.GL_BYTE, Byte.BYTES, false),
+
+	/** An 8-bit unsigned integer, which is a unorm8 when normalized. */
+	UNSIGNED_BYTE(GL11.GL_UNSIGNED_BYTE, Byte.BYTES, false),
+
+	/**
+	 * Four signed integers of 10, 10, 10, and 2 bits packed into 32 bits, with the
+	 * first component in the lowest bits.
+	 */
+	INT_2_10_10_10_REV(GL33.GL_INT_2_10_10_10_REV, Integer.BYTES, true);
+
+	/** The OpenGL value of this {@link ComponentType}. */
+	private final int value;
+
+	/**
+	 * The number of bytes of each component, or of all four components if this
+	 * {@link ComponentType} is packed.
+	 */
+	private final int bytes;
+
+	/** Whether all four components are packed into {@link #bytes}. */
+	private final boolean packed;
+
+	/**
+	 * Creates a new {@link ComponentType} from the specified OpenGL value.
+	 *
+	 * @param value The underlying value of this enum
+	 * @param bytes The number of bytes of each component, or of every component
+	 *            if packed
+	 * @param packed Whether all four components are packed together
+	 */
+	ComponentType(int value, int bytes, boolean packed) {
+		this.value = value;
+		this.bytes = bytes;
+		this.packed = packed;
+	}
+
+	/**
+	 * Reads a component of an attribute, as a shader would see it.
+	 *
+	 * @param buffer The buffer of the attribute
+	 * @param index The byte index of the attribute in the buffer
+	 * @param component The index of the component
+	 * @param normalized Whether integer components are normalized
+	 * @return The value of the component.
+	 */
+	public float get(ByteBuffer buffer, int index, int component, boolean normalized) {
+		switch (this) {
+		case FLOAT:
+			return buffer.getFloat(index + component * Float.BYTES);
+		case HALF_FLOAT:
+			return halfToFloat(buffer.getShort(index + component * Short.BYTES));
+		case SHORT:
+			short s = buffer.getShort(index + component * Short.BYTES);
+			return normalized ? Math.max(s / 32767f, -1f) : s;
+		case UNSIGNED_SHORT:
+			int us = Short.toUnsignedInt(buffer.getShort(index + component * Short.BYTES));
+			return normalized ? us / 65535f : us;
+		case BYTE:
+			byte b = buffer.get(index + component);
+			return normalized ? Math.max(b / 127f, -1f) : b;
+		case UNSIGNED_BYTE:
+			int ub = Byte.toUnsignedInt(buffer.get(index + component));
+			return normalized ? ub / 255f : ub;
+		default:
+			int bits = component == 3 ? 2 : 10;
+
+			// Shift the component to the top of the int, then back down to sign extend it.
+			int packedValue = buffer.getInt(index) << (Integer.SIZE - bits - component * 10) >> (Integer.SIZE - bits);
+			return normalized ? Math.max(packedValue / (float) ((1 << (bits - 1)) - 1), -1f) : packedValue;
+		}
+	}
+
+	/**
+	 * Writes a component of an attribute. Integer components are rounded to the
+	 * nearest representable value and clamped to their range.
+	 *
+	 * @param buffer The buffer of the attribute
+	 * @param index The byte index of the attribute in the buffer
+	 * @param component The index of the component
+	 * @param normalized Whether integer components are normalized
+	 * @param value The target value of the component
+	 */
+	public void put(ByteBuffer buffer, int index, int component, boolean normalized, float value) {
+		switch (this) {
+		case FLOAT:
+			buffer.putFloat(index + component * Float.BYTES, value);
+			break;
+		case HALF_FLOAT:
+			buffer.putShort(index + component * Short.BYTES, floatToHalf(value));
+			break;
+		case SHORT:
+			buffer.putShort(index + component * Short.BYTES,
+					(short) quantize(value, normalized ? 32767 : 1, Short.MIN_VALUE, Short.MAX_VALUE));
+			break;
+		case UNSIGNED_SHORT:
+			buffer.putShort(index + component * Short.BYTES, (short) quantize(value, normalized ? 65535 : 1, 0, 65535));
+			break;
+		case BYTE:
+			buffer.put(index + component, (byte) quantize(value, normalized ? 127 : 1, Byte.MIN_VALUE, Byte.MAX_VALUE));
+			break;
+		case UNSIGNED_BYTE:
+			buffer.put(index + component, (byte) quantize(value, normalized ? 255 : 1, 0, 255));
+			break;
+		default:
+			int bits = component == 3 ? 2 : 10;
+			int max = (1 << (bits - 1)) - 1;
+			int mask = ((1 << bits) - 1) << (component * 10);
+
+			int packedValue = quantize(value, normalized ? max : 1, -max - 1, max) << (component * 10);
+			buffer.putInt(index, (buffer.getInt(index) & ~mask) | (packedValue & mask));
+			break;
+		}
+	}
+
+	/**
+	 * Scales a value, rounds it, and clamps it to a range.
+	 *
+	 * @param value The value
+	 * @param scale The scale of the value
+	 * @param min The minimum result
+	 * @param max The maximum result
+	 * @return The quantized value.
+	 */
+	private static int quantize(float value, int scale, int min, int max) {
+		return Math.max(min, Math.min(max, Math.round(value * scale)));
+	}
+
+	/**
+	 * Converts an IEEE 754 half precision float to a float.
+	 *
+	 * @param half The bits of the half precision float
+	 * @return The float.
+	 */
+	private static float halfToFloat(short half) {
+		int sign = (half & 0x8000) << 16;
+		int exponent = (half >>> 10) & 0x1F;
+		int mantissa = half & 0x3FF;
+
+		if (exponent == 0) {
+			// Zero or subnormal, which is exact as a float.
+			float magnitude = mantissa * 0x1p-24f;
+			return sign != 0 ? -magnitude : magnitude;
+		}
+
+		if (exponent == 0x1F) {
+			return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+		}
+
+		return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+	}
+
+	/**
+	 * Converts a float to the nearest IEEE 754 half precision float.
+	 *
+	 * @param value The float
+	 * @return The bits of the half precision float.
+	 */
+	private static short floatToHalf(float value) {
+		int bits = Float.floatToIntBits(value);
+		int sign = (bits >>> 16) & 0x8000;
+		int exponent = (bits >>> 23) & 0xFF;
+		int mantissa = bits & 0x7FFFFF;
+
+		if (exponent == 0xFF) {
+			return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+		}
+
+		float magnitude = Math.abs(value);
+		if (magnitude >= 65520f) {
+			return (short) (sign | 0x7C00);
+		}
+
+		if (magnitude < 0x1p-14f) {
+			// Subnormal halves are multiples of 2^-24.
+			return (short) (sign | Math.round(magnitude * 0x1p24f));
+		}
+
+		// Round the mantissa to nearest even, letting a carry bump the exponent.
+		int half = ((exponent - 112) << 10) | (mantissa >>> 13);
+		int remainder = mantissa & 0x1FFF;
+		if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) != 0)) {
+			half++;
+		}
+
+		return (short) (sign | half);
+	}
+
+	/**
+	 * Gets the {@link #value}.
+	 *
+	 * @return The {@link #value}.
+	 */
+	public int getValue() {
+		return value;
+	}
+
+	/**
+	 * Gets the {@link #bytes}.
+	 *
+	 * @return The {@link #bytes}.
+	 */
+	public int getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Gets the {@link #packed} flag.
+	 *
+	 * @return The {@link #packed} flag.
+	 */
+	public boolean isPacked() {
+		return packed;
+	}
+}
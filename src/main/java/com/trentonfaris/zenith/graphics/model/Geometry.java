@@ -0,0 +1,708 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.StateCache;
+import com.trentonfaris.zenith.graphics.model.VertexAttribute.Semantic;
+import com.trentonfaris.zenith.utility.Disposable;
+import org.joml.AABBf;
+import org.joml.Spheref;
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Geometry} is the vertices and indices of a {@link Mesh}, along with
+ * the buffers they are uploaded to. Copies of a {@link Mesh} share one
+ * {@link Geometry}, which counts the meshes that reference it and is disposed
+ * with the last of them. A {@link Mesh} that edits a shared {@link Geometry}
+ * first makes a private copy of it.
+ *
+ * @author Trenton Faris
+ */
+final class Geometry implements Disposable {
+    /**
+     * The {@link VertexData} of this {@link Geometry}.
+     */
+    private VertexData vertexData;
+
+    /**
+     * The {@link IndexData} of this {@link Geometry}.
+     */
+    private IndexData indexData;
+
+    /**
+     * The {@link IndexData} of each coarser level of detail, in order. Every level
+     * indexes the same {@link #vertexData}.
+     */
+    private final List<IndexData> lods = new ArrayList<>();
+
+    /**
+     * The {@link MeshletData} of the {@link #indexData}, or {@code null} if it has
+     * no meshlets.
+     */
+    private MeshletData meshletData;
+
+    /**
+     * The byte offset of each level of detail in the {@link #ibo}.
+     */
+    private long[] lodOffsets = new long[1];
+
+    /**
+     * The local space axis-aligned bounding box of this {@link Geometry}.
+     */
+    private final AABBf bounds = new AABBf();
+
+    /**
+     * The local space bounding sphere of this {@link Geometry}.
+     */
+    private final Spheref boundingSphere = new Spheref();
+
+    /**
+     * The vertex array object used to draw this {@link Geometry}.
+     */
+    private final int vao;
+
+    /**
+     * The vertex buffer object of the {@link #vao}.
+     */
+    private final int vbo;
+
+    /**
+     * The index buffer object of the {@link #vao}.
+     */
+    private final int ibo;
+
+    /**
+     * The number of vertex attributes enabled on the {@link #vao}.
+     */
+    private int numAttributes;
+
+    /**
+     * The {@link BufferUsage} of the {@link #vbo} and {@link #ibo}.
+     */
+    private BufferUsage usage;
+
+    /**
+     * The {@link GeometryArena} that this {@link Geometry} is resident in, or
+     * {@code null} if it uses its own {@link #vbo} and {@link #ibo}.
+     */
+    private GeometryArena arena;
+
+    /**
+     * The {@link GeometryArena.Allocation} of this {@link Geometry} in the
+     * {@link #arena}.
+     */
+    private GeometryArena.Allocation allocation;
+
+    /**
+     * The {@link StreamBuffer} that the vertices are streamed through, if the
+     * {@link #usage} is {@link BufferUsage#STREAM}.
+     */
+    private StreamBuffer streamBuffer;
+
+    /**
+     * The index of the first vertex of the {@link #streamBuffer} region that is
+     * drawn, which is added to every index.
+     */
+    private int baseVertex;
+
+    /**
+     * The first vertex that has changed since the last upload.
+     */
+    private int dirtyVertexStart = Integer.MAX_VALUE;
+
+    /**
+     * The vertex after the last vertex that has changed since the last upload.
+     */
+    private int dirtyVertexEnd;
+
+    /**
+     * The first index that has changed since the last upload.
+     */
+    private int dirtyIndexStart = Integer.MAX_VALUE;
+
+    /**
+     * The index after the last index that has changed since the last upload.
+     */
+    private int dirtyIndexEnd;
+
+    /**
+     * The number of meshes that reference this {@link Geometry}.
+     */
+    private int refCount = 1;
+
+    /**
+     * Creates and uploads a new {@link Geometry}, which is referenced by one
+     * {@link Mesh}. The {@link Geometry} takes ownership of the {@link VertexData}
+     * and {@link IndexData}.
+     *
+     * @param vertexData The {@link VertexData} of this {@link Geometry}
+     * @param indexData  The {@link IndexData} of this {@link Geometry}
+     * @param usage      The {@link BufferUsage} of this {@link Geometry}
+     */
+    Geometry(VertexData vertexData, IndexData indexData, BufferUsage usage) {
+        this(vertexData, indexData, List.of(), usage, null);
+    }
+
+    /**
+     * Creates and uploads a new {@link Geometry} with its levels of detail, in a
+     * {@link GeometryArena}. Everything is set before the only upload.
+     *
+     * @param vertexData The {@link VertexData} of this {@link Geometry}
+     * @param indexData  The {@link IndexData} of this {@link Geometry}
+     * @param lods       The {@link IndexData} of each coarser level of detail
+     * @param usage      The {@link BufferUsage} of this {@link Geometry}
+     * @param arena      The {@link GeometryArena} of this {@link Geometry}, or
+     *                   {@code null}
+     */
+    private Geometry(VertexData vertexData, IndexData indexData, List<IndexData> lods, BufferUsage usage,
+                     GeometryArena arena) {
+        this.vertexData = vertexData;
+        this.indexData = indexData;
+        this.lods.addAll(lods);
+        this.usage = usage;
+        this.arena = arena;
+
+        computeBounds();
+
+        this.vao = GL30.glGenVertexArrays();
+        this.vbo = GL15.glGenBuffers();
+        this.ibo = GL15.glGenBuffers();
+
+        update();
+    }
+
+    /**
+     * Adds a reference to this {@link Geometry}.
+     *
+     * @return This {@link Geometry}.
+     */
+    Geometry retain() {
+        this.refCount++;
+        return this;
+    }
+
+    /**
+     * Removes a reference to this {@link Geometry}, and disposes it if it was the
+     * last one.
+     */
+    void release() {
+        if (--refCount == 0) {
+            dispose();
+        }
+    }
+
+    /**
+     * Determines whether this {@link Geometry} is referenced by more than one
+     * {@link Mesh}.
+     *
+     * @return Whether this {@link Geometry} is shared.
+     */
+    boolean isShared() {
+        return refCount > 1;
+    }
+
+    /**
+     * Creates a private copy of this {@link Geometry}, with copies of its data and
+     * its own buffers, in the same {@link GeometryArena}. Pending edits are
+     * included in the copy, which is uploaded once.
+     *
+     * @return The copy.
+     */
+    Geometry copy() {
+        List<IndexData> lodsCopy = new ArrayList<>();
+        for (IndexData level : lods) {
+            lodsCopy.add(level.copy());
+        }
+
+        Geometry copy = new Geometry(vertexData.copy(), indexData.copy(), lodsCopy, usage, arena);
+        copy.meshletData = meshletData;
+
+        return copy;
+    }
+
+    void update() {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+
+        if (streamBuffer != null) {
+            streamBuffer.dispose();
+            this.streamBuffer = null;
+        }
+
+        if (allocation != null) {
+            arena.free(allocation);
+            this.allocation = null;
+        }
+
+        // A change of layout or usage that the arena cannot hold moves this Geometry back into its own buffers.
+        if (arena != null && !canReside(arena)) {
+            Zenith.getLogger().debug("Moved a Mesh out of its GeometryArena.");
+            this.arena = null;
+        }
+
+        if (arena != null) {
+            List<IndexData> levels = new ArrayList<>();
+            levels.add(indexData);
+            levels.addAll(lods);
+
+            this.allocation = arena.allocate(vertexData, levels);
+            this.baseVertex = 0;
+
+            // The storage of the own buffers is released while the arena holds the geometry.
+            stateCache.bindVertexArray(vao);
+            stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, 0, usage.getValue());
+            GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, 0, usage.getValue());
+            stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+            stateCache.bindVertexArray(0);
+
+            resetDirtyRanges();
+            return;
+        }
+
+        stateCache.bindVertexArray(vao);
+
+        // Streamed vertices are drawn from the region they were written to, through the base vertex.
+        if (usage == BufferUsage.STREAM) {
+            this.streamBuffer = new StreamBuffer(vertexData.getBuffer().capacity());
+            this.baseVertex = (int) (streamBuffer.write(vertexData.getBuffer()) / vertexData.getFormat().getStride());
+
+            stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, streamBuffer.getBuffer());
+        } else {
+            this.baseVertex = 0;
+
+            stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, vertexData.getBuffer(), usage.getValue());
+        }
+
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+
+        // Every level of detail is packed into the ibo after the full detail indices.
+        this.lodOffsets = new long[1 + lods.size()];
+        if (lods.isEmpty()) {
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indexData.getBuffer(), usage.getValue());
+        } else {
+            long size = indexData.getBuffer().capacity();
+            for (int i = 0; i < lods.size(); i++) {
+                lodOffsets[i + 1] = size;
+                size += lods.get(i).getBuffer().capacity();
+            }
+
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, size, usage.getValue());
+            GL15.glBufferSubData(GL15.GL_ELEMENT_ARRAY_BUFFER, 0, indexData.getBuffer());
+            for (int i = 0; i < lods.size(); i++) {
+                GL15.glBufferSubData(GL15.GL_ELEMENT_ARRAY_BUFFER, lodOffsets[i + 1], lods.get(i).getBuffer());
+            }
+        }
+
+        // Attributes of a previous format that this one does not have are disabled.
+        VertexFormat format = vertexData.getFormat();
+        for (int i = format.getAttributes().size(); i < numAttributes; i++) {
+            GL20.glDisableVertexAttribArray(i);
+        }
+
+        format.setup();
+        this.numAttributes = format.getAttributes().size();
+
+        stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        stateCache.bindVertexArray(0);
+
+        resetDirtyRanges();
+    }
+
+    private void resetDirtyRanges() {
+        this.dirtyVertexStart = Integer.MAX_VALUE;
+        this.dirtyVertexEnd = 0;
+        this.dirtyIndexStart = Integer.MAX_VALUE;
+        this.dirtyIndexEnd = 0;
+    }
+
+    /**
+     * Uploads the vertices and indices that have changed since the last upload.
+     * Streamed vertices are written whole into the next region of the
+     * {@link #streamBuffer}, since the other regions hold older vertices.
+     */
+    void flush() {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+
+        if (dirtyVertexStart < dirtyVertexEnd) {
+            int stride = vertexData.getFormat().getStride();
+
+            if (allocation != null) {
+                arena.uploadVertices(allocation, vertexData, dirtyVertexStart, dirtyVertexEnd - dirtyVertexStart);
+            } else if (streamBuffer != null) {
+                this.baseVertex = (int) (streamBuffer.write(vertexData.getBuffer()) / stride);
+            } else {
+                stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+                GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, (long) dirtyVertexStart * stride, vertexData.getBuffer()
+                        .slice(dirtyVertexStart * stride, (dirtyVertexEnd - dirtyVertexStart) * stride));
+                stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+            }
+
+            this.dirtyVertexStart = Integer.MAX_VALUE;
+            this.dirtyVertexEnd = 0;
+        }
+
+        if (dirtyIndexStart < dirtyIndexEnd) {
+            int bytes = indexData.getIndexType().getBytes();
+
+            if (allocation != null) {
+                arena.uploadIndices(allocation, indexData, dirtyIndexStart, dirtyIndexEnd - dirtyIndexStart);
+            } else {
+                // The ibo is bound to the vao, so it is updated through it.
+                stateCache.bindVertexArray(vao);
+                GL15.glBufferSubData(GL15.GL_ELEMENT_ARRAY_BUFFER, (long) dirtyIndexStart * bytes, indexData
+                        .getBuffer().slice(dirtyIndexStart * bytes, (dirtyIndexEnd - dirtyIndexStart) * bytes));
+            }
+
+            this.dirtyIndexStart = Integer.MAX_VALUE;
+            this.dirtyIndexEnd = 0;
+        }
+    }
+
+    /**
+     * Fences the region of the {@link #streamBuffer} that was just drawn from, if
+     * the vertices are streamed.
+     */
+    void fence() {
+        if (streamBuffer != null) {
+            streamBuffer.fence();
+        }
+    }
+
+    /**
+     * Computes the {@link #bounds} and {@link #boundingSphere} from the
+     * {@link Semantic#POSITION} attribute of each vertex.
+     */
+    void computeBounds() {
+        bounds.setMin(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+        bounds.setMax(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+
+        VertexData.View positions = vertexData.has(Semantic.POSITION) ? vertexData.view(Semantic.POSITION) : null;
+        Vector3f position = new Vector3f();
+
+        if (positions != null) {
+            for (int i = 0; i < vertexData.getVertexCount(); i++) {
+                bounds.union(positions.get(i, position));
+            }
+        }
+
+        if (!bounds.isValid()) {
+            bounds.setMin(0, 0, 0);
+            bounds.setMax(0, 0, 0);
+        }
+
+        // Center the sphere on the box, then fit its radius to the furthest vertex.
+        float x = (bounds.minX + bounds.maxX) * 0.5f;
+        float y = (bounds.minY + bounds.maxY) * 0.5f;
+        float z = (bounds.minZ + bounds.maxZ) * 0.5f;
+
+        float radiusSquared = 0;
+        if (positions != null) {
+            for (int i = 0; i < vertexData.getVertexCount(); i++) {
+                radiusSquared = Math.max(radiusSquared, positions.get(i, position).distanceSquared(x, y, z));
+            }
+        }
+
+        boundingSphere.x = x;
+        boundingSphere.y = y;
+        boundingSphere.z = z;
+        boundingSphere.r = (float) Math.sqrt(radiusSquared);
+    }
+
+    @Override
+    public void dispose() {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+
+        stateCache.deleteBuffer(vbo);
+        stateCache.deleteBuffer(ibo);
+        stateCache.deleteVertexArray(vao);
+
+        if (allocation != null) {
+            arena.free(allocation);
+            this.allocation = null;
+        }
+
+        if (streamBuffer != null) {
+            streamBuffer.dispose();
+            this.streamBuffer = null;
+        }
+
+        vertexData.dispose();
+        indexData.dispose();
+
+        for (IndexData level : lods) {
+            level.dispose();
+        }
+    }
+
+    /**
+     * Gets the number of bytes of the vertices and indices of this
+     * {@link Geometry} in system memory.
+     *
+     * @return The number of bytes.
+     */
+    long getCpuBytes() {
+        long bytes = vertexData.getBuffer().capacity() + indexData.getBuffer().capacity();
+        for (IndexData level : lods) {
+            bytes += level.getBuffer().capacity();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Gets the number of bytes of the buffers that this {@link Geometry} is
+     * uploaded to. Streamed vertices occupy every region of the
+     * {@link #streamBuffer} if it is persistently mapped, and a single region if
+     * it is orphaned instead.
+     *
+     * @return The number of bytes.
+     */
+    long getGpuBytes() {
+        long vertexBytes = vertexData.getBuffer().capacity();
+        if (streamBuffer != null && streamBuffer.isPersistent()) {
+            vertexBytes *= StreamBuffer.NUM_REGIONS;
+        }
+
+        return getCpuBytes() - vertexData.getBuffer().capacity() + vertexBytes;
+    }
+
+    /**
+     * Determines whether this {@link Geometry} can be resident in a
+     * {@link GeometryArena}.
+     *
+     * @param arena The target {@link GeometryArena}
+     * @return Whether this {@link Geometry} can be resident in the arena.
+     */
+    boolean canReside(GeometryArena arena) {
+        return arena.getFormat().equals(vertexData.getFormat()) && arena.getIndexType() == indexData.getIndexType()
+                && usage != BufferUsage.STREAM;
+    }
+
+    /**
+     * Marks a range of the {@link #vertexData} as changed.
+     *
+     * @param first The first changed vertex
+     * @param count The number of changed vertices
+     */
+    void markVerticesDirty(int first, int count) {
+        this.dirtyVertexStart = Math.min(dirtyVertexStart, first);
+        this.dirtyVertexEnd = Math.max(dirtyVertexEnd, first + count);
+    }
+
+    /**
+     * Marks a range of the {@link #indexData} as changed.
+     *
+     * @param first The first changed index
+     * @param count The number of changed indices
+     */
+    void markIndicesDirty(int first, int count) {
+        this.dirtyIndexStart = Math.min(dirtyIndexStart, first);
+        this.dirtyIndexEnd = Math.max(dirtyIndexEnd, first + count);
+    }
+
+    /**
+     * Gets the vertex array object that this {@link Geometry} is drawn from, which
+     * is the one of its {@link #arena} if it is resident in one.
+     *
+     * @return The vertex array object.
+     */
+    int getVao() {
+        return arena != null ? arena.getVao() : vao;
+    }
+
+    /**
+     * Gets the first index of a level of detail in the index buffer it is drawn
+     * from.
+     *
+     * @param lod The level of detail
+     * @return The first index.
+     */
+    int getFirstIndex(int lod) {
+        if (allocation != null) {
+            return allocation.getFirstIndex(lod);
+        }
+
+        return (int) (lodOffsets[lod] / indexData.getIndexType().getBytes());
+    }
+
+    /**
+     * Gets the number of indices of a level of detail.
+     *
+     * @param lod The level of detail
+     * @return The number of indices.
+     */
+    int getIndexCount(int lod) {
+        return (lod == 0 ? indexData : lods.get(lod - 1)).getIndexCount();
+    }
+
+    /**
+     * Gets the vertex that is added to every index when this {@link Geometry} is
+     * drawn.
+     *
+     * @return The base vertex.
+     */
+    int getBaseVertex() {
+        return allocation != null ? allocation.getBaseVertex() : baseVertex;
+    }
+
+    /**
+     * Gets the {@link #vertexData}.
+     *
+     * @return The {@link #vertexData} value.
+     */
+    VertexData getVertexData() {
+        return vertexData;
+    }
+
+    /**
+     * Sets the {@link #vertexData}, disposing the previous {@link VertexData}. The
+     * caller uploads it.
+     *
+     * @param vertexData The target {@link VertexData}
+     */
+    void setVertexData(VertexData vertexData) {
+        if (this.vertexData != vertexData) {
+            this.vertexData.dispose();
+        }
+
+        this.vertexData = vertexData;
+        computeBounds();
+    }
+
+    /**
+     * Gets the {@link #indexData}.
+     *
+     * @return The {@link #indexData} value.
+     */
+    IndexData getIndexData() {
+        return indexData;
+    }
+
+    /**
+     * Sets the {@link #indexData}, disposing the previous {@link IndexData}. The
+     * caller uploads it.
+     *
+     * @param indexData The target {@link IndexData}
+     */
+    void setIndexData(IndexData indexData) {
+        if (this.indexData != indexData) {
+            this.indexData.dispose();
+        }
+
+        this.indexData = indexData;
+    }
+
+    /**
+     * Gets the {@link #lods}.
+     *
+     * @return The {@link #lods} value.
+     */
+    List<IndexData> getLods() {
+        return lods;
+    }
+
+    /**
+     * Sets the {@link #lods}, disposing the previous levels, and uploads them.
+     *
+     * @param lods The {@link IndexData} of each coarser level of detail, in order
+     */
+    void setLods(List<IndexData> lods) {
+        for (IndexData level : this.lods) {
+            if (!lods.contains(level)) {
+                level.dispose();
+            }
+        }
+
+        List<IndexData> levels = new ArrayList<>(lods);
+        this.lods.clear();
+        this.lods.addAll(levels);
+
+        update();
+    }
+
+    /**
+     * Gets the {@link #meshletData}.
+     *
+     * @return The {@link #meshletData} value.
+     */
+    MeshletData getMeshletData() {
+        return meshletData;
+    }
+
+    /**
+     * Sets the {@link #meshletData}.
+     *
+     * @param meshletData The target {@link MeshletData}
+     */
+    void setMeshletData(MeshletData meshletData) {
+        this.meshletData = meshletData;
+    }
+
+    /**
+     * Gets the {@link #bounds}.
+     *
+     * @return The {@link #bounds} value.
+     */
+    AABBf getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Gets the {@link #boundingSphere}.
+     *
+     * @return The {@link #boundingSphere} value.
+     */
+    Spheref getBoundingSphere() {
+        return boundingSphere;
+    }
+
+    /**
+     * Gets the {@link #usage}.
+     *
+     * @return The {@link #usage} value.
+     */
+    BufferUsage getUsage() {
+        return usage;
+    }
+
+    /**
+     * Sets the {@link #usage}, and rebuilds the buffers.
+     *
+     * @param usage The target {@link BufferUsage}
+     */
+    void setUsage(BufferUsage usage) {
+        this.usage = usage;
+        update();
+    }
+
+    /**
+     * Gets the {@link #arena}.
+     *
+     * @return The {@link #arena} value.
+     */
+    GeometryArena getArena() {
+        return arena;
+    }
+
+    /**
+     * Sets the {@link #arena}, and moves the vertices and indices into it.
+     *
+     * @param arena The target {@link GeometryArena}
+     */
+    void setArena(GeometryArena arena) {
+        if (allocation != null) {
+            this.arena.free(allocation);
+            this.allocation = null;
+        }
+
+        this.arena = arena;
+        update();
+    }
+}
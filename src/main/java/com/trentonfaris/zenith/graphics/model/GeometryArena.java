@@ -0,0 +1,470 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.StateCache;
+import com.trentonfaris.zenith.utility.Disposable;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A {@link GeometryArena} suballocates the vertices and indices of many meshes
+ * of the same {@link VertexFormat} and {@link IndexType} from one large vertex
+ * buffer and one large index buffer, which share a single vertex array object.
+ * Meshes in the same arena can be drawn without switching vertex arrays, and
+ * together with a single multi-draw.
+ *
+ * <p>
+ * Each {@link Allocation} is a range of vertices and a range of indices, which
+ * are relative to the first vertex of the allocation. When the arena runs out
+ * of space, its buffers grow. Freed ranges are reused, and
+ * {@link #compact()} packs the allocations to the front of the buffers.
+ *
+ * @author Trenton Faris
+ */
+public final class GeometryArena implements Disposable {
+    /**
+     * The initial number of vertices of a {@link GeometryArena}.
+     */
+    private static final int INITIAL_VERTICES = 1 << 16;
+
+    /**
+     * The initial number of indices of a {@link GeometryArena}.
+     */
+    private static final int INITIAL_INDICES = 1 << 18;
+
+    /**
+     * The {@link VertexFormat} of every vertex in this {@link GeometryArena}.
+     */
+    private final VertexFormat format;
+
+    /**
+     * The {@link IndexType} of every index in this {@link GeometryArena}.
+     */
+    private final IndexType indexType;
+
+    /**
+     * The vertex array object of this {@link GeometryArena}.
+     */
+    private final int vao;
+
+    /**
+     * The vertex buffer object of the {@link #vao}.
+     */
+    private int vbo;
+
+    /**
+     * The index buffer object of the {@link #vao}.
+     */
+    private int ibo;
+
+    /**
+     * The {@link RangeAllocator} of the vertices.
+     */
+    private final RangeAllocator vertexAllocator = new RangeAllocator(INITIAL_VERTICES);
+
+    /**
+     * The {@link RangeAllocator} of the indices.
+     */
+    private final RangeAllocator indexAllocator = new RangeAllocator(INITIAL_INDICES);
+
+    /**
+     * The live allocations of this {@link GeometryArena}.
+     */
+    private final List<Allocation> allocations = new ArrayList<>();
+
+    /**
+     * Creates a new, empty {@link GeometryArena}.
+     *
+     * @param format    The {@link VertexFormat} of every vertex
+     * @param indexType The {@link IndexType} of every index
+     */
+    public GeometryArena(VertexFormat format, IndexType indexType) {
+        if (format == null || indexType == null) {
+            String errorMsg = "Cannot create a GeometryArena from a null format or indexType.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.format = format;
+        this.indexType = indexType;
+        this.vao = GL30.glGenVertexArrays();
+        this.vbo = createBuffer((long) INITIAL_VERTICES * format.getStride());
+        this.ibo = createBuffer((long) INITIAL_INDICES * indexType.getBytes());
+
+        setup();
+    }
+
+    /**
+     * Allocates and uploads the vertices of a mesh, and the indices of each of its
+     * levels of detail, which are packed one after another.
+     *
+     * @param vertexData The {@link VertexData} of the mesh
+     * @param levels     The {@link IndexData} of each level of detail of the mesh
+     * @return The {@link Allocation} of the mesh.
+     */
+    public Allocation allocate(VertexData vertexData, List<IndexData> levels) {
+        if (vertexData == null || !vertexData.getFormat().equals(format)) {
+            String errorMsg = "Cannot allocate a VertexData that is null or of another format in a GeometryArena.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int[] levelOffsets = new int[levels.size()];
+        int[] levelCounts = new int[levels.size()];
+
+        int indexCount = 0;
+        for (int i = 0; i < levels.size(); i++) {
+            IndexData level = levels.get(i);
+            if (level.getIndexType() != indexType) {
+                String errorMsg = "Cannot allocate " + level.getIndexType() + " indices in a GeometryArena of "
+                        + indexType + " indices.";
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+
+            levelOffsets[i] = indexCount;
+            levelCounts[i] = level.getIndexCount();
+            indexCount += level.getIndexCount();
+        }
+
+        int vertexCount = vertexData.getVertexCount();
+        reserve(vertexCount, indexCount);
+
+        Allocation allocation = new Allocation(vertexAllocator.allocate(vertexCount), vertexCount,
+                indexAllocator.allocate(indexCount), indexCount, levelOffsets, levelCounts);
+        allocations.add(allocation);
+
+        uploadVertices(allocation, vertexData, 0, vertexCount);
+        for (int i = 0; i < levels.size(); i++) {
+            upload(ibo, (long) (allocation.indexOffset + levelOffsets[i]) * indexType.getBytes(),
+                    levels.get(i).getBuffer());
+        }
+
+        return allocation;
+    }
+
+    /**
+     * Uploads a range of the vertices of an {@link Allocation}.
+     *
+     * @param allocation The {@link Allocation} of the vertices
+     * @param vertexData The {@link VertexData} of the vertices
+     * @param first      The first vertex to upload
+     * @param count      The number of vertices to upload
+     */
+    public void uploadVertices(Allocation allocation, VertexData vertexData, int first, int count) {
+        int stride = format.getStride();
+        upload(vbo, (long) (allocation.vertexOffset + first) * stride,
+                vertexData.getBuffer().slice(first * stride, count * stride));
+    }
+
+    /**
+     * Uploads a range of the indices of the first level of detail of an
+     * {@link Allocation}.
+     *
+     * @param allocation The {@link Allocation} of the indices
+     * @param indexData  The {@link IndexData} of the first level of detail
+     * @param first      The first index to upload
+     * @param count      The number of indices to upload
+     */
+    public void uploadIndices(Allocation allocation, IndexData indexData, int first, int count) {
+        int bytes = indexType.getBytes();
+        upload(ibo, (long) (allocation.indexOffset + first) * bytes,
+                indexData.getBuffer().slice(first * bytes, count * bytes));
+    }
+
+    /**
+     * Frees the ranges of an {@link Allocation}, so that they can be reused.
+     *
+     * @param allocation The {@link Allocation} to free
+     */
+    public void free(Allocation allocation) {
+        if (!allocations.remove(allocation)) {
+            return;
+        }
+
+        vertexAllocator.free(allocation.vertexOffset, allocation.vertexCount);
+        indexAllocator.free(allocation.indexOffset, allocation.indexCount);
+    }
+
+    /**
+     * Packs every {@link Allocation} to the front of the buffers, so that the free
+     * space is in one range at the end.
+     */
+    public void compact() {
+        relocate(vertexAllocator.getCapacity(), indexAllocator.getCapacity());
+    }
+
+    /**
+     * Makes sure that there are free ranges of the specified sizes, growing or
+     * compacting the buffers if there are not.
+     *
+     * @param vertexCount The number of vertices
+     * @param indexCount  The number of indices
+     */
+    private void reserve(int vertexCount, int indexCount) {
+        boolean vertexFit = vertexAllocator.getLargestFreeSize() >= vertexCount;
+        boolean indexFit = indexAllocator.getLargestFreeSize() >= indexCount;
+        if (vertexFit && indexFit) {
+            return;
+        }
+
+        // Grow only when compacting would not free enough space.
+        int vertexCapacity = vertexAllocator.getCapacity();
+        if (vertexAllocator.getFreeSize() < vertexCount) {
+            vertexCapacity = Math.max(vertexCapacity * 2, vertexCapacity - vertexAllocator.getFreeSize() + vertexCount);
+        }
+
+        int indexCapacity = indexAllocator.getCapacity();
+        if (indexAllocator.getFreeSize() < indexCount) {
+            indexCapacity = Math.max(indexCapacity * 2, indexCapacity - indexAllocator.getFreeSize() + indexCount);
+        }
+
+        relocate(vertexCapacity, indexCapacity);
+    }
+
+    /**
+     * Moves every {@link Allocation} into new buffers of the specified sizes,
+     * packed to the front.
+     *
+     * @param vertexCapacity The number of vertices of the new vertex buffer
+     * @param indexCapacity  The number of indices of the new index buffer
+     */
+    private void relocate(int vertexCapacity, int indexCapacity) {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+
+        int stride = format.getStride();
+        int bytes = indexType.getBytes();
+
+        int newVbo = createBuffer((long) vertexCapacity * stride);
+        int newIbo = createBuffer((long) indexCapacity * bytes);
+
+        int usedVertices = 0;
+        stateCache.bindBuffer(GL31.GL_COPY_READ_BUFFER, vbo);
+        stateCache.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, newVbo);
+
+        allocations.sort(Comparator.comparingInt(allocation -> allocation.vertexOffset));
+        for (Allocation allocation : allocations) {
+            int offset = usedVertices;
+            GL31.glCopyBufferSubData(GL31.GL_COPY_READ_BUFFER, GL31.GL_COPY_WRITE_BUFFER,
+                    (long) allocation.vertexOffset * stride, (long) offset * stride,
+                    (long) allocation.vertexCount * stride);
+
+            allocation.vertexOffset = offset;
+            usedVertices = offset + allocation.vertexCount;
+        }
+
+        int usedIndices = 0;
+        stateCache.bindBuffer(GL31.GL_COPY_READ_BUFFER, ibo);
+        stateCache.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, newIbo);
+
+        allocations.sort(Comparator.comparingInt(allocation -> allocation.indexOffset));
+        for (Allocation allocation : allocations) {
+            int offset = usedIndices;
+            GL31.glCopyBufferSubData(GL31.GL_COPY_READ_BUFFER, GL31.GL_COPY_WRITE_BUFFER,
+                    (long) allocation.indexOffset * bytes, (long) offset * bytes, (long) allocation.indexCount * bytes);
+
+            allocation.indexOffset = offset;
+            usedIndices = offset + allocation.indexCount;
+        }
+
+        stateCache.deleteBuffer(vbo);
+        stateCache.deleteBuffer(ibo);
+        this.vbo = newVbo;
+        this.ibo = newIbo;
+
+        vertexAllocator.reset(vertexCapacity, usedVertices);
+        indexAllocator.reset(indexCapacity, usedIndices);
+
+        setup();
+
+        Zenith.getLogger().debug("Relocated a GeometryArena of " + allocations.size() + " allocations to "
+                + vertexCapacity + " vertices and " + indexCapacity + " indices.");
+    }
+
+    /**
+     * Points the {@link #vao} at the {@link #vbo} and {@link #ibo}.
+     */
+    private void setup() {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+
+        stateCache.bindVertexArray(vao);
+        stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+
+        format.setup();
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+
+        stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        stateCache.bindVertexArray(0);
+    }
+
+    /**
+     * Creates a buffer object of the specified size, with undefined contents.
+     *
+     * @param size The number of bytes of the buffer
+     * @return The buffer object.
+     */
+    private static int createBuffer(long size) {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+
+        int buffer = GL15.glGenBuffers();
+        stateCache.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, buffer);
+        GL15.glBufferData(GL31.GL_COPY_WRITE_BUFFER, size, GL15.GL_STATIC_DRAW);
+
+        return buffer;
+    }
+
+    /**
+     * Uploads data into a range of a buffer object.
+     *
+     * @param buffer The buffer object
+     * @param offset The byte offset of the range
+     * @param data   The data to upload
+     */
+    private static void upload(int buffer, long offset, ByteBuffer data) {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+        stateCache.bindBuffer(GL31.GL_COPY_WRITE_BUFFER, buffer);
+        GL15.glBufferSubData(GL31.GL_COPY_WRITE_BUFFER, offset, data);
+    }
+
+    @Override
+    public void dispose() {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+
+        stateCache.deleteBuffer(vbo);
+        stateCache.deleteBuffer(ibo);
+        stateCache.deleteVertexArray(vao);
+
+        allocations.clear();
+    }
+
+    /**
+     * Gets the {@link #format}.
+     *
+     * @return The {@link #format} value.
+     */
+    public VertexFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Gets the {@link #indexType}.
+     *
+     * @return The {@link #indexType} value.
+     */
+    public IndexType getIndexType() {
+        return indexType;
+    }
+
+    /**
+     * Gets the {@link #vao}.
+     *
+     * @return The {@link #vao} value.
+     */
+    public int getVao() {
+        return vao;
+    }
+
+    /**
+     * Gets the number of vertices that are free, including those between
+     * allocations.
+     *
+     * @return The number of free vertices.
+     */
+    public int getFreeVertices() {
+        return vertexAllocator.getFreeSize();
+    }
+
+    /**
+     * Gets the number of indices that are free, including those between
+     * allocations.
+     *
+     * @return The number of free indices.
+     */
+    public int getFreeIndices() {
+        return indexAllocator.getFreeSize();
+    }
+
+    /**
+     * An {@link Allocation} is the range of vertices and the range of indices of
+     * one mesh in a {@link GeometryArena}. Its ranges move when the arena
+     * relocates, so they should be read when drawing rather than stored.
+     */
+    public static final class Allocation {
+        /**
+         * The first vertex of this {@link Allocation}.
+         */
+        private int vertexOffset;
+
+        /**
+         * The number of vertices of this {@link Allocation}.
+         */
+        private final int vertexCount;
+
+        /**
+         * The first index of this {@link Allocation}.
+         */
+        private int indexOffset;
+
+        /**
+         * The number of indices of this {@link Allocation}, over every level of
+         * detail.
+         */
+        private final int indexCount;
+
+        /**
+         * The first index of each level of detail, relative to the
+         * {@link #indexOffset}.
+         */
+        private final int[] levelOffsets;
+
+        /**
+         * The number of indices of each level of detail.
+         */
+        private final int[] levelCounts;
+
+        private Allocation(int vertexOffset, int vertexCount, int indexOffset, int indexCount, int[] levelOffsets,
+                           int[] levelCounts) {
+            this.vertexOffset = vertexOffset;
+            this.vertexCount = vertexCount;
+            this.indexOffset = indexOffset;
+            this.indexCount = indexCount;
+            this.levelOffsets = levelOffsets;
+            this.levelCounts = levelCounts;
+        }
+
+        /**
+         * Gets the vertex that is added to every index of this {@link Allocation}.
+         *
+         * @return The base vertex.
+         */
+        public int getBaseVertex() {
+            return vertexOffset;
+        }
+
+        /**
+         * Gets the first index of a level of detail in the arena.
+         *
+         * @param level The level of detail
+         * @return The first index.
+         */
+        public int getFirstIndex(int level) {
+            return indexOffset + levelOffsets[level];
+        }
+
+        /**
+         * Gets the number of indices of a level of detail.
+         *
+         * @param level The level of detail
+         * @return The number of indices.
+         */
+        public int getIndexCount(int level) {
+            return levelCounts[level];
+        }
+    }
+}
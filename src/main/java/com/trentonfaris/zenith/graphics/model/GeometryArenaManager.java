@@ -0,0 +1,63 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.utility.Disposable;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link GeometryArenaManager} is a cache of geometry arenas, one for each
+ * combination of {@link VertexFormat} and {@link IndexType}, which are created
+ * when they are first needed.
+ *
+ * @author Trenton Faris
+ */
+public final class GeometryArenaManager implements Disposable {
+    /**
+     * The geometry arenas, by format and index type.
+     */
+    private final Map<VertexFormat, Map<IndexType, GeometryArena>> arenas = new HashMap<>();
+
+    /**
+     * Gets the {@link GeometryArena} of the specified {@link VertexFormat} and
+     * {@link IndexType}, creating it if it does not exist.
+     *
+     * @param format    The target {@link VertexFormat}
+     * @param indexType The target {@link IndexType}
+     * @return The {@link GeometryArena} of the format and index type.
+     */
+    public GeometryArena getArena(VertexFormat format, IndexType indexType) {
+        if (format == null || indexType == null) {
+            String errorMsg = "Cannot get a GeometryArena from a null format or indexType.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        return arenas.computeIfAbsent(format, key -> new EnumMap<>(IndexType.class)).computeIfAbsent(indexType,
+                key -> new GeometryArena(format, indexType));
+    }
+
+    /**
+     * Compacts every {@link GeometryArena}, such as after a scene is unloaded.
+     */
+    public void compact() {
+        for (Map<IndexType, GeometryArena> formatArenas : arenas.values()) {
+            for (GeometryArena arena : formatArenas.values()) {
+                arena.compact();
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        for (Map<IndexType, GeometryArena> formatArenas : arenas.values()) {
+            for (GeometryArena arena : formatArenas.values()) {
+                arena.dispose();
+            }
+        }
+
+        arenas.clear();
+    }
+}
@@ -0,0 +1,178 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.utility.Copyable;
+import com.trentonfaris.zenith.utility.Disposable;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link IndexData} stores the indices of a {@link Mesh} in a single
+ * off-heap buffer of the smallest {@link IndexType} that can index its
+ * vertices. It is uploaded to OpenGL as is.
+ *
+ * @author Trenton Faris
+ */
+public final class IndexData implements Copyable, Disposable {
+    /**
+     * The {@link IndexType} of each index.
+     */
+    private final IndexType indexType;
+
+    /**
+     * The number of indices.
+     */
+    private final int indexCount;
+
+    /**
+     * The off-heap buffer of the indices.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a new {@link IndexData} of zeroed indices.
+     *
+     * @param indexType  The {@link IndexType} of each index
+     * @param indexCount The number of indices
+     */
+    public IndexData(IndexType indexType, int indexCount) {
+        if (indexType == null) {
+            String errorMsg = "Cannot create an IndexData from a null indexType.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (indexCount <= 0) {
+            String errorMsg = "Cannot create an IndexData with " + indexCount + " indices.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.indexType = indexType;
+        this.indexCount = indexCount;
+        this.buffer = MemoryUtil.memCalloc(indexCount * indexType.getBytes());
+    }
+
+    /**
+     * Creates a new {@link IndexData} from the specified indices, with the
+     * smallest {@link IndexType} that can index the specified number of vertices.
+     *
+     * @param indices     The indices
+     * @param vertexCount The number of vertices that are indexed
+     * @return The {@link IndexData} of the indices.
+     */
+    public static IndexData of(int[] indices, int vertexCount) {
+        if (indices == null) {
+            String errorMsg = "Cannot create an IndexData from a null array of indices.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        IndexData indexData = new IndexData(IndexType.forVertexCount(vertexCount), indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            indexData.put(i, indices[i]);
+        }
+
+        return indexData;
+    }
+
+    /**
+     * Gets an index.
+     *
+     * @param i The position of the index
+     * @return The value of the index.
+     */
+    public int get(int i) {
+        if (indexType == IndexType.UNSIGNED_SHORT) {
+            return Short.toUnsignedInt(buffer.getShort(i * Short.BYTES));
+        }
+
+        return buffer.getInt(i * Integer.BYTES);
+    }
+
+    /**
+     * Sets an index.
+     *
+     * @param i     The position of the index
+     * @param value The target value of the index
+     */
+    public void put(int i, int value) {
+        if (indexType == IndexType.UNSIGNED_SHORT) {
+            buffer.putShort(i * Short.BYTES, (short) value);
+        } else {
+            buffer.putInt(i * Integer.BYTES, value);
+        }
+    }
+
+    /**
+     * Gets the largest index.
+     *
+     * @return The largest index.
+     */
+    public int getMaxIndex() {
+        int max = 0;
+        for (int i = 0; i < indexCount; i++) {
+            max = Math.max(max, get(i));
+        }
+
+        return max;
+    }
+
+    @Override
+    public IndexData copy() {
+        IndexData copy = new IndexData(indexType, indexCount);
+        MemoryUtil.memCopy(buffer, copy.buffer);
+
+        return copy;
+    }
+
+    @Override
+    public void dispose() {
+        if (buffer != null) {
+            MemoryUtil.memFree(buffer);
+            this.buffer = null;
+        }
+    }
+
+    /**
+     * Gets the {@link #indexType}.
+     *
+     * @return The {@link #indexType} value.
+     */
+    public IndexType getIndexType() {
+        return indexType;
+    }
+
+    /**
+     * Gets the {@link #indexCount}.
+     *
+     * @return The {@link #indexCount} value.
+     */
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    /**
+     * Gets the {@link #buffer}. Its position is zero and its limit is the size of
+     * the indices in bytes.
+     *
+     * @return The {@link #buffer} value.
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IndexData that = (IndexData) o;
+        return indexCount == that.indexCount && indexType == that.indexType && buffer.equals(that.buffer);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * indexType.hashCode() + indexCount;
+    }
+}
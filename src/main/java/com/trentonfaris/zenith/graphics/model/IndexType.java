@@ -0,0 +1,77 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import org.lwjgl.opengl.GL11;
+
+/**
+ * An {@link IndexType} defines how each index of an {@link IndexData} is
+ * stored.
+ *
+ * @author Trenton Faris
+ */
+public enum IndexType {
+	/** A 16-bit unsigned integer, for meshes of up to 65,536 vertices. */
+	UNSIGNED_SHORT(GL11.GL_UNSIGNED_SHORT, Short.BYTES),
+
+	/** A 32-bit unsigned integer. */
+	UNSIGNED_INT(GL11.GL_UNSIGNED_INT, Integer.BYTES);
+
+	/** The number of vertices that can be indexed with {@link #UNSIGNED_SHORT}. */
+	private static final int MAX_SHORT_VERTICES = 1 << 16;
+
+	/** The OpenGL value of this {@link IndexType}. */
+	private final int value;
+
+	/** The number of bytes of each index. */
+	private final int bytes;
+
+	/**
+	 * Creates a new {@link IndexType} from the specified OpenGL value.
+	 *
+	 * @param value The underlying value of this enum
+	 * @param bytes The number of bytes of each index
+	 */
+	IndexType(int value, int bytes) {
+		this.value = value;
+		this.bytes = bytes;
+	}
+
+	/**
+	 * Gets the smallest {@link IndexType} that can index the specified number of
+	 * vertices.
+	 *
+	 * @param vertexCount The number of vertices
+	 * @return The smallest {@link IndexType}.
+	 */
+	public static IndexType forVertexCount(int vertexCount) {
+		return vertexCount <= MAX_SHORT_VERTICES ? UNSIGNED_SHORT : UNSIGNED_INT;
+	}
+
+	/**
+	 * Determines whether this {@link IndexType} can index the specified number of
+	 * vertices.
+	 *
+	 * @param vertexCount The number of vertices
+	 * @return Whether every vertex can be indexed.
+	 */
+	public boolean canIndex(int vertexCount) {
+		return this == UNSIGNED_INT || vertexCount <= MAX_SHORT_VERTICES;
+	}
+
+	/**
+	 * Gets the {@link #value}.
+	 *
+	 * @return The {@link #value}.
+	 */
+	public int getValue() {
+		return value;
+	}
+
+	/**
+	 * Gets the {@link #bytes}.
+	 *
+	 * @return The {@link #bytes}.
+	 */
+	public int getBytes() {
+		return bytes;
+	}
+}
@@ -0,0 +1,132 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.StateCache;
+import com.trentonfaris.zenith.utility.Disposable;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL40;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.IntBuffer;
+
+/**
+ * An {@link IndirectBuffer} streams indexed draw commands to the GPU, so that
+ * many meshes of the same {@link GeometryArena} can be drawn with a single
+ * multi-draw call. Each command is the count, instance count, first index,
+ * base vertex, and base instance of one draw.
+ *
+ * @author Trenton Faris
+ */
+public final class IndirectBuffer implements Disposable {
+    /**
+     * The number of ints in a draw command.
+     */
+    private static final int COMMAND_SIZE = 5;
+
+    /**
+     * The initial number of commands an {@link IndirectBuffer} can hold.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The draw indirect buffer object of this {@link IndirectBuffer}.
+     */
+    private final int buffer;
+
+    /**
+     * The client side copy of the commands.
+     */
+    private IntBuffer data;
+
+    /**
+     * The number of commands in this {@link IndirectBuffer}.
+     */
+    private int size;
+
+    /**
+     * Creates a new, empty {@link IndirectBuffer}.
+     */
+    public IndirectBuffer() {
+        this.data = MemoryUtil.memAllocInt(INITIAL_CAPACITY * COMMAND_SIZE);
+        this.buffer = GL15.glGenBuffers();
+    }
+
+    /**
+     * Removes all commands from this {@link IndirectBuffer}.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Adds a draw command to this {@link IndirectBuffer}.
+     *
+     * @param count         The number of indices to draw
+     * @param instanceCount The number of instances to draw
+     * @param firstIndex    The first index to draw
+     * @param baseVertex    The vertex that is added to every index
+     * @param baseInstance  The first instance to draw
+     */
+    public void add(int count, int instanceCount, int firstIndex, int baseVertex, int baseInstance) {
+        if ((size + 1) * COMMAND_SIZE > data.capacity()) {
+            this.data = MemoryUtil.memRealloc(data, data.capacity() * 2);
+        }
+
+        int index = size * COMMAND_SIZE;
+        data.put(index, count);
+        data.put(index + 1, instanceCount);
+        data.put(index + 2, firstIndex);
+        data.put(index + 3, baseVertex);
+        data.put(index + 4, baseInstance);
+        this.size++;
+    }
+
+    /**
+     * Uploads the commands of this {@link IndirectBuffer}. The previous storage is
+     * orphaned, so that the upload does not wait on draws still reading from it.
+     */
+    public void update() {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+        stateCache.bindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, buffer);
+
+        GL15.glBufferData(GL40.GL_DRAW_INDIRECT_BUFFER, (long) data.capacity() * Integer.BYTES, GL15.GL_STREAM_DRAW);
+
+        data.limit(size * COMMAND_SIZE);
+        GL15.glBufferSubData(GL40.GL_DRAW_INDIRECT_BUFFER, 0, data);
+        data.clear();
+
+        stateCache.bindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, 0);
+    }
+
+    /**
+     * Draws every command of this {@link IndirectBuffer} from the currently bound
+     * vertex array object.
+     *
+     * @param mode The OpenGL primitive type
+     * @param type The OpenGL index type
+     */
+    void draw(int mode, int type) {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+        stateCache.bindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, buffer);
+
+        GL43.glMultiDrawElementsIndirect(mode, type, 0, size, 0);
+
+        stateCache.bindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, 0);
+    }
+
+    @Override
+    public void dispose() {
+        Zenith.getEngine().getGraphics().getStateCache().deleteBuffer(buffer);
+        MemoryUtil.memFree(data);
+    }
+
+    /**
+     * Gets the number of commands in this {@link IndirectBuffer}.
+     *
+     * @return The number of commands.
+     */
+    public int size() {
+        return size;
+    }
+}
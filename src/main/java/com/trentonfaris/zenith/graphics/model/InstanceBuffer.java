@@ -0,0 +1,150 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.StateCache;
+import com.trentonfaris.zenith.utility.Disposable;
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+
+/**
+ * An {@link InstanceBuffer} streams per-instance model matrices to the GPU, so
+ * that many copies of a {@link Mesh} can be drawn with a single instanced draw
+ * call. The model matrix of each instance is bound to the four vertex attribute
+ * locations starting at {@link #MODEL_MATRIX_LOCATION}.
+ *
+ * @author Trenton Faris
+ */
+public final class InstanceBuffer implements Disposable {
+    /**
+     * The first vertex attribute location of the per-instance model matrix.
+     */
+    public static final int MODEL_MATRIX_LOCATION = 5;
+
+    /**
+     * The number of floats in a model matrix.
+     */
+    private static final int MATRIX_SIZE = 16;
+
+    /**
+     * The initial number of instances an {@link InstanceBuffer} can hold.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The vertex buffer object of this {@link InstanceBuffer}.
+     */
+    private final int vbo;
+
+    /**
+     * The client side copy of the instance data.
+     */
+    private FloatBuffer data;
+
+    /**
+     * The number of instances in this {@link InstanceBuffer}.
+     */
+    private int size;
+
+    /**
+     * Creates a new, empty {@link InstanceBuffer}.
+     */
+    public InstanceBuffer() {
+        this.data = MemoryUtil.memAllocFloat(INITIAL_CAPACITY * MATRIX_SIZE);
+        this.vbo = GL15.glGenBuffers();
+    }
+
+    /**
+     * Removes all instances from this {@link InstanceBuffer}.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Adds an instance to this {@link InstanceBuffer}.
+     *
+     * @param modelMatrix The model matrix of the instance
+     */
+    public void add(Matrix4f modelMatrix) {
+        if (modelMatrix == null) {
+            String errorMsg = "Cannot add an instance to an InstanceBuffer with a null modelMatrix.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if ((size + 1) * MATRIX_SIZE > data.capacity()) {
+            this.data = MemoryUtil.memRealloc(data, data.capacity() * 2);
+        }
+
+        modelMatrix.get(size * MATRIX_SIZE, data);
+        this.size++;
+    }
+
+    /**
+     * Uploads the instances of this {@link InstanceBuffer}. The previous storage is
+     * orphaned, so that the upload does not wait on draws still reading from it.
+     */
+    public void update() {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+        stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) data.capacity() * Float.BYTES, GL15.GL_STREAM_DRAW);
+
+        data.limit(size * MATRIX_SIZE);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, data);
+        data.clear();
+
+        stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Binds the per-instance model matrix attributes to the currently bound vertex
+     * array object.
+     */
+    void bind() {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+        stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+
+        for (int i = 0; i < 4; i++) {
+            int location = MODEL_MATRIX_LOCATION + i;
+
+            GL20.glEnableVertexAttribArray(location);
+            GL20.glVertexAttribPointer(location, 4, GL11.GL_FLOAT, false, MATRIX_SIZE * Float.BYTES,
+                    (long) i * 4 * Float.BYTES);
+            GL33.glVertexAttribDivisor(location, 1);
+        }
+
+        stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Unbinds the per-instance model matrix attributes from the currently bound
+     * vertex array object.
+     */
+    void unbind() {
+        for (int i = 0; i < 4; i++) {
+            GL20.glDisableVertexAttribArray(MODEL_MATRIX_LOCATION + i);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        Zenith.getEngine().getGraphics().getStateCache().deleteBuffer(vbo);
+        MemoryUtil.memFree(data);
+    }
+
+    /**
+     * Gets the number of instances in this {@link InstanceBuffer}.
+     *
+     * @return The number of instances.
+     */
+    public int size() {
+        return size;
+    }
+}
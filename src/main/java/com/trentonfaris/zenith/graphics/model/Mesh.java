@@ -2,39 +2,57 @@ package com.trentonfaris.zenith.graphics.model;
 
 import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.graphics.material.Material;
-import com.trentonfaris.zenith.graphics.model.attribute.*;
+import com.trentonfaris.zenith.graphics.shader.Shader;
+import com.trentonfaris.zenith.graphics.shader.uniform.BoolUniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.Uniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.UniformType;
 import com.trentonfaris.zenith.utility.Copyable;
 import com.trentonfaris.zenith.utility.Disposable;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL15;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
-import org.lwjgl.system.MemoryStack;
-
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.util.ArrayList;
+import com.trentonfaris.zenith.utility.Measurable;
+import org.joml.AABBf;
+import org.joml.Spheref;
+import org.lwjgl.opengl.GL32;
+
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
- * A {@link Mesh} is a list of vertices with a list of indices that correspond
- * to those vertices. It can be drawn as points, lines, or triangles. It may
+ * A {@link Mesh} is a {@link VertexData} with an {@link IndexData} that
+ * corresponds to its vertices. It can be drawn as points, lines, or triangles. It may
  * also have a {@link Material} which defines how it is drawn.
  *
+ * <p>
+ * Edits to the vertices and indices are uploaded lazily, before the next draw,
+ * as the dirty ranges marked since the last one. How they are uploaded depends
+ * on the {@link BufferUsage} of the {@link Mesh}.
+ *
+ * <p>
+ * A {@link Mesh} may instead be resident in a {@link GeometryArena}, which
+ * holds its vertices and indices in buffers shared with other meshes. Meshes in
+ * the same arena share one vertex array object, and can be drawn together with
+ * {@link #drawIndirect(IndirectBuffer, InstanceBuffer, Shader)}.
+ *
+ * <p>
+ * Copies of a {@link Mesh} share its vertices, indices, and buffers, and each
+ * has its own {@link Material}. The shared data must not be edited in place. A
+ * copy that is edited through {@link #editVertexData()},
+ * {@link #editIndexData()}, or any setter of its geometry first makes a private
+ * copy of it, so that the other copies are unaffected.
+ *
  * @author Trenton Faris
  */
-public final class Mesh implements Copyable, Disposable {
+public final class Mesh implements Copyable, Disposable, Measurable {
     /**
-     * The list of vertices in this {@link Mesh}.
+     * The {@link Geometry} of this {@link Mesh}, which may be shared with its
+     * copies.
      */
-    private List<Vertex> vertices;
+    private Geometry geometry;
 
     /**
-     * The list of indices in this {@link Mesh}.
+     * The level of detail that is drawn, where {@code 0} is the full detail
+     * {@link IndexData}.
      */
-    private List<Integer> indices;
+    private int lod;
 
     /**
      * The {@link PrimitiveType} of this {@link Mesh}.
@@ -47,240 +65,797 @@ public final class Mesh implements Copyable, Disposable {
     private Material material;
 
     /**
-     * The vertex array object used to draw this {@link Mesh}.
+     * Creates and builds a new {@link Mesh} with the specified {@link VertexData},
+     * {@link IndexData}, {@link PrimitiveType}, and {@link Material}. The
+     * {@link Mesh} takes ownership of the {@link VertexData} and
+     * {@link IndexData}, and disposes them with itself.
+     *
+     * @param vertexData The {@link VertexData} of this {@link Mesh}
+     * @param indexData  The {@link IndexData} of this {@link Mesh}
+     * @param material   The {@link Material} used to draw this {@link Mesh}
+     */
+    public Mesh(VertexData vertexData, IndexData indexData, PrimitiveType primitiveType, Material material) {
+        if (vertexData == null) {
+            String errorMsg = "Cannot create a Mesh from a null vertexData.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (indexData == null) {
+            String errorMsg = "Cannot create a Mesh from a null indexData.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (!indexData.getIndexType().canIndex(vertexData.getVertexCount())) {
+            String errorMsg = "Cannot create a Mesh of " + vertexData.getVertexCount() + " vertices with "
+                    + indexData.getIndexType() + " indices.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (primitiveType == null) {
+            String errorMsg = "Cannot create a Mesh from a null primitiveType.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.geometry = new Geometry(vertexData, indexData, BufferUsage.STATIC);
+        this.primitiveType = primitiveType;
+        this.material = material;
+    }
+
+    /**
+     * Creates a new {@link Mesh} that shares the specified {@link Geometry}.
+     *
+     * @param geometry      The {@link Geometry} of this {@link Mesh}, which has
+     *                      already been retained
+     * @param primitiveType The {@link PrimitiveType} of this {@link Mesh}
+     * @param material      The {@link Material} used to draw this {@link Mesh}
      */
-    private final int vao;
+    private Mesh(Geometry geometry, PrimitiveType primitiveType, Material material) {
+        this.geometry = geometry;
+        this.primitiveType = primitiveType;
+        this.material = material;
+    }
 
     /**
-     * The vertex buffer object of the {@link #vao}.
+     * Gives this {@link Mesh} a private copy of its {@link #geometry} if it is
+     * shared, so that it can be edited without affecting the other copies.
      */
-    private final int vbo;
+    private void makeUnique() {
+        if (!geometry.isShared()) {
+            return;
+        }
+
+        Geometry unique = geometry.copy();
+        geometry.release();
+        this.geometry = unique;
+    }
 
     /**
-     * The index buffer object of the {@link #vao}.
+     * Determines whether this {@link Mesh} can be resident in a
+     * {@link GeometryArena}. Its vertices and indices must match those of the
+     * arena, and streamed meshes keep their own buffers.
+     *
+     * @param arena The target {@link GeometryArena}
+     * @return Whether this {@link Mesh} can be resident in the arena.
      */
-    private final int ibo;
+    public boolean canReside(GeometryArena arena) {
+        return geometry.canReside(arena);
+    }
+
+    /**
+     * Determines whether this {@link Mesh} shares its vertices, indices, and
+     * buffers with another, which is the case for the copies of a {@link Mesh}
+     * until either of them is edited. Meshes which share geometry draw the same
+     * range of the same buffers, whether or not they are in a
+     * {@link GeometryArena}.
+     *
+     * @param mesh The target {@link Mesh}
+     * @return Whether the meshes share geometry.
+     */
+    public boolean sharesGeometry(Mesh mesh) {
+        return geometry == mesh.geometry;
+    }
+
+    /**
+     * Creates a copy of this {@link Mesh} that shares its vertices, indices, and
+     * buffers until either of them is edited. The copy has its own copy of the
+     * {@link Material}.
+     *
+     * @return The copy.
+     */
+    @Override
+    public Mesh copy() {
+        Mesh copy = new Mesh(geometry.retain(), primitiveType, material != null ? material.copy() : null);
+        copy.lod = lod;
+
+        return copy;
+    }
+
+    @Override
+    public void dispose() {
+        geometry.release();
+    }
+
+    /**
+     * Gets the number of bytes of the vertices and indices of this {@link Mesh} in
+     * system memory, which are shared with its copies.
+     *
+     * @return The number of bytes.
+     */
+    @Override
+    public long getCpuBytes() {
+        return geometry.getCpuBytes();
+    }
+
+    /**
+     * Gets the number of bytes of the buffers that this {@link Mesh} is uploaded
+     * to, which are shared with its copies.
+     *
+     * @return The number of bytes.
+     */
+    @Override
+    public long getGpuBytes() {
+        return geometry.getGpuBytes();
+    }
+
+    /**
+     * Draws this {@link Mesh}.
+     */
+    public void draw() {
+        preDraw();
+
+        drawElements();
+    }
+
+    /**
+     * Draws this {@link Mesh} with another {@link Shader} than the one of its
+     * {@link Material}. The properties of the {@link Material} are sent to the
+     * uniforms of the {@link Shader} with the same names.
+     *
+     * @param shader The {@link Shader} to draw with
+     */
+    public void draw(Shader shader) {
+        preDraw(shader);
+        drawElements();
+    }
 
     /**
-     * Creates and builds a new {@link Mesh} with the specified vertices, indices,
-     * {@link PrimitiveType}, and {@link Material}.
+     * Draws every instance in the specified {@link InstanceBuffer} of this
+     * {@link Mesh} with a single draw call.
      *
-     * @param vertices The list of vertices of this {@link Mesh}
-     * @param indices  The list of indices of this {@link Mesh}
-     * @param material The {@link Material} used to draw this {@link Mesh}
+     * @param instanceBuffer The {@link InstanceBuffer} of the instances to draw
      */
-    public Mesh(List<Vertex> vertices, List<Integer> indices, PrimitiveType primitiveType, Material material) {
-        if (vertices == null || vertices.isEmpty()) {
-            String errorMsg = "Cannot create a Mesh from a null or empty list of vertices.";
+    public void drawInstanced(InstanceBuffer instanceBuffer) {
+        if (instanceBuffer == null) {
+            String errorMsg = "Cannot draw a Mesh instanced with a null instanceBuffer.";
             Zenith.getLogger().error(errorMsg);
             throw new IllegalArgumentException(errorMsg);
         }
 
-        // Validate that all vertices have the same attributes.
-        List<Attribute> attributes = vertices.get(0).getAttributes();
-        for (int i = 1; i < vertices.size(); i++) {
-            Vertex vertex = vertices.get(i);
+        preDraw();
 
-            List<Attribute> vertexAttributes = vertex.getAttributes();
-            if (attributes.size() != vertexAttributes.size()) {
-                String errorMsg = "Cannot create a Mesh from a list of vertices with different numbers of attributes. Create a separate Mesh for each set of vertices with different numbers of attributes.";
-                Zenith.getLogger().error(errorMsg);
-                throw new IllegalArgumentException(errorMsg);
-            }
+        drawElementsInstanced(instanceBuffer);
+    }
 
-            for (int j = 0; j < vertexAttributes.size(); j++) {
-                Attribute attribute = attributes.get(j);
-                Attribute vertexAttribute = vertexAttributes.get(j);
-
-                if (!((attribute instanceof FloatAttribute && vertexAttribute instanceof FloatAttribute) ||
-                        (attribute instanceof Vec2Attribute && vertexAttribute instanceof Vec2Attribute) ||
-                        (attribute instanceof Vec3Attribute && vertexAttribute instanceof Vec3Attribute) ||
-                        (attribute instanceof Vec4Attribute && vertexAttribute instanceof Vec4Attribute))) {
-                    String errorMsg = "Cannot create a Mesh from a list of vertices with different attribute types. Create a separate Mesh for each set of vertices with different attribute data types.";
-                    Zenith.getLogger().error(errorMsg);
-                    throw new IllegalArgumentException(errorMsg);
-                }
-            }
+    /**
+     * Draws every instance in the specified {@link InstanceBuffer} of this
+     * {@link Mesh} with a single draw call, with another {@link Shader} than the
+     * one of its {@link Material}.
+     *
+     * @param instanceBuffer The {@link InstanceBuffer} of the instances to draw
+     * @param shader The {@link Shader} to draw with
+     */
+    public void drawInstanced(InstanceBuffer instanceBuffer, Shader shader) {
+        if (instanceBuffer == null) {
+            String errorMsg = "Cannot draw a Mesh instanced with a null instanceBuffer.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
         }
 
-        if (indices == null || indices.isEmpty()) {
-            String errorMsg = "Cannot create a Mesh from a null or empty list of indices.";
+        preDraw(shader);
+        drawElementsInstanced(instanceBuffer);
+    }
+
+    /**
+     * Adds a command that draws the current level of detail of this {@link Mesh}
+     * to an {@link IndirectBuffer}. Pending edits are uploaded first.
+     *
+     * @param indirectBuffer The target {@link IndirectBuffer}
+     * @param baseInstance   The instance of the {@link InstanceBuffer} the command
+     *                       draws
+     */
+    public void addDrawCommand(IndirectBuffer indirectBuffer, int baseInstance) {
+        if (indirectBuffer == null || geometry.getArena() == null) {
+            String errorMsg = "Cannot add a draw command to a null indirectBuffer or of a Mesh outside of an arena.";
             Zenith.getLogger().error(errorMsg);
             throw new IllegalArgumentException(errorMsg);
         }
 
-        if (primitiveType == null) {
-            String errorMsg = "Cannot create a Mesh from a null primitiveType.";
+        geometry.flush();
+        indirectBuffer.add(getIndexCount(), 1, getFirstIndex(), getBaseVertex(), baseInstance);
+    }
+
+    /**
+     * Draws every command in the specified {@link IndirectBuffer} with a single
+     * multi-draw call, with the {@link Material} of this {@link Mesh} and another
+     * {@link Shader} than its own. Every command must index the buffers that this
+     * {@link Mesh} is drawn from, so they may be of any {@link Mesh} in the same
+     * {@link GeometryArena}.
+     *
+     * @param indirectBuffer The {@link IndirectBuffer} of the commands to draw
+     * @param instanceBuffer The {@link InstanceBuffer} of the instances the
+     *                       commands draw
+     * @param shader         The {@link Shader} to draw with
+     */
+    public void drawIndirect(IndirectBuffer indirectBuffer, InstanceBuffer instanceBuffer, Shader shader) {
+        if (indirectBuffer == null || instanceBuffer == null) {
+            String errorMsg = "Cannot draw a Mesh with a null indirectBuffer or instanceBuffer.";
             Zenith.getLogger().error(errorMsg);
             throw new IllegalArgumentException(errorMsg);
         }
 
-        this.vertices = vertices;
-        this.indices = indices;
-        this.primitiveType = primitiveType;
-        this.material = material;
+        preDraw(shader);
+        drawElementsIndirect(indirectBuffer, instanceBuffer);
+    }
 
-        // Generate the vao, vbo, and ibo
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            IntBuffer pVao = stack.mallocInt(1);
-            IntBuffer pVbo = stack.mallocInt(1);
-            IntBuffer pIbo = stack.mallocInt(1);
+    /**
+     * Draws every command in the specified {@link IndirectBuffer} with a single
+     * multi-draw call. The commands must index the buffers that this {@link Mesh}
+     * is drawn from, such as those added by
+     * {@link #addRangeCommand(IndirectBuffer, int, int)}.
+     *
+     * @param indirectBuffer The {@link IndirectBuffer} of the commands to draw
+     */
+    public void drawIndirect(IndirectBuffer indirectBuffer) {
+        if (indirectBuffer == null) {
+            String errorMsg = "Cannot draw a Mesh with a null indirectBuffer.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
 
-            GL30.glGenVertexArrays(pVao);
-            GL15.glGenBuffers(pVbo);
-            GL15.glGenBuffers(pIbo);
+        preDraw();
+        drawElementsIndirect(indirectBuffer, null);
+    }
 
-            this.vao = pVao.get();
-            this.vbo = pVbo.get();
-            this.ibo = pIbo.get();
+    /**
+     * Draws every command in the specified {@link IndirectBuffer} with a single
+     * multi-draw call, with another {@link Shader} than the one of its
+     * {@link Material}.
+     *
+     * @param indirectBuffer The {@link IndirectBuffer} of the commands to draw
+     * @param shader         The {@link Shader} to draw with
+     */
+    public void drawIndirect(IndirectBuffer indirectBuffer, Shader shader) {
+        if (indirectBuffer == null) {
+            String errorMsg = "Cannot draw a Mesh with a null indirectBuffer.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
         }
 
-        update();
+        preDraw(shader);
+        drawElementsIndirect(indirectBuffer, null);
     }
 
-    private void update() {
-        GL30.glBindVertexArray(vao);
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+    /**
+     * Adds a command that draws a range of the full detail indices of this
+     * {@link Mesh} to an {@link IndirectBuffer}, such as a run of its meshlets.
+     * Pending edits are uploaded first.
+     *
+     * @param indirectBuffer The target {@link IndirectBuffer}
+     * @param first          The first index of the range
+     * @param count          The number of indices of the range
+     */
+    public void addRangeCommand(IndirectBuffer indirectBuffer, int first, int count) {
+        if (indirectBuffer == null) {
+            String errorMsg = "Cannot add a draw command to a null indirectBuffer.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int indexCount = geometry.getIndexData().getIndexCount();
+        if (first < 0 || count < 0 || first + count > indexCount) {
+            String errorMsg = "Cannot draw indices " + first + " to " + (first + count) + " of a Mesh of "
+                    + indexCount + " indices.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        geometry.flush();
+        indirectBuffer.add(count, 1, geometry.getFirstIndex(0) + first, geometry.getBaseVertex(), 0);
+    }
+
+    private void preDraw(Shader shader) {
+        if (shader == null) {
+            String errorMsg = "Cannot draw a Mesh with a null shader.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
 
-        List<Integer> attributeSizes = vertices.get(0).getAttributes().stream().mapToInt(Attribute::getSize).boxed()
-                .collect(Collectors.toList());
+        if (material != null) {
+            material.preDraw(shader);
+        } else {
+            shader.use();
+        }
 
-        int vertexSize = attributeSizes.stream().mapToInt(Integer::intValue).sum();
+        setVertexUniforms(shader);
+    }
 
-        // Populate the vbo with vertices data
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            FloatBuffer pVertices = stack.mallocFloat(vertices.size() * vertexSize);
+    /**
+     * Sends the {@link #material} to its own {@link Shader}, if there is one.
+     */
+    private void preDraw() {
+        if (material == null) {
+            return;
+        }
 
-            FloatBuffer pVector2f = stack.mallocFloat(2);
-            FloatBuffer pVector3f = stack.mallocFloat(3);
-            FloatBuffer pVector4f = stack.mallocFloat(4);
+        Shader shader = Zenith.getEngine().getGraphics().getShaderManager().getShader(material.getShaderType());
 
-            for (Vertex vertex : vertices) {
-                for (Attribute attribute : vertex.getAttributes()) {
-                    if (attribute instanceof FloatAttribute floatAttribute) {
-                        pVertices.put(floatAttribute.getValue());
-                    } else if (attribute instanceof Vec2Attribute vec2Attribute) {
-                        pVertices.put((vec2Attribute.getValue()).get(pVector2f));
-                        pVector2f.clear();
-                    } else if (attribute instanceof Vec3Attribute vec3Attribute) {
-                        pVertices.put((vec3Attribute.getValue()).get(pVector3f));
-                        pVector3f.clear();
-                    } else if (attribute instanceof Vec4Attribute vec4Attribute) {
-                        pVertices.put((vec4Attribute.getValue()).get(pVector4f));
-                        pVector4f.clear();
-                    }
-                }
+        material.preDraw(shader);
+        setVertexUniforms(shader);
+    }
+
+    /**
+     * Tells a {@link Shader} how the directions of the vertices are stored, so
+     * that it can decode them.
+     *
+     * @param shader The target {@link Shader}, which must be in use
+     */
+    private void setVertexUniforms(Shader shader) {
+        for (Uniform uniform : shader.getUniforms().values()) {
+            if (uniform.getUniformType() == UniformType.OCTAHEDRAL && uniform instanceof BoolUniform boolUniform) {
+                boolUniform.set(geometry.getVertexData().getFormat().isOctahedral());
             }
+        }
+    }
+
+    private void drawElements() {
+        geometry.flush();
 
-            pVertices.flip();
+        Zenith.getEngine().getGraphics().getStateCache().bindVertexArray(getVao());
+        IndexType indexType = geometry.getIndexData().getIndexType();
+        GL32.glDrawElementsBaseVertex(primitiveType.getValue(), getIndexCount(), indexType.getValue(),
+                (long) getFirstIndex() * indexType.getBytes(), getBaseVertex());
+
+        geometry.fence();
+    }
 
-            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, pVertices, GL15.GL_STATIC_DRAW);
+    private void drawElementsIndirect(IndirectBuffer indirectBuffer, InstanceBuffer instanceBuffer) {
+        geometry.flush();
+
+        Zenith.getEngine().getGraphics().getStateCache().bindVertexArray(getVao());
+        if (instanceBuffer != null) {
+            instanceBuffer.bind();
         }
 
-        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ibo);
+        indirectBuffer.draw(primitiveType.getValue(), geometry.getIndexData().getIndexType().getValue());
+
+        if (instanceBuffer != null) {
+            instanceBuffer.unbind();
+        }
+
+        geometry.fence();
+    }
 
-        // Populate the ibo with the indices data
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            IntBuffer pIndices = stack.mallocInt(indices.size());
+    private void drawElementsInstanced(InstanceBuffer instanceBuffer) {
+        geometry.flush();
 
-            int[] indicesArr = indices.stream().mapToInt(Integer::intValue).toArray();
-            pIndices.put(indicesArr).flip();
+        Zenith.getEngine().getGraphics().getStateCache().bindVertexArray(getVao());
+        instanceBuffer.bind();
+
+        IndexType indexType = geometry.getIndexData().getIndexType();
+        GL32.glDrawElementsInstancedBaseVertex(primitiveType.getValue(), getIndexCount(), indexType.getValue(),
+                (long) getFirstIndex() * indexType.getBytes(), instanceBuffer.size(), getBaseVertex());
+
+        instanceBuffer.unbind();
+
+        geometry.fence();
+    }
 
-            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, pIndices, GL15.GL_STATIC_DRAW);
+    /**
+     * Gets the vertex array object that this {@link Mesh} is drawn from, which is
+     * shared by its copies, and by every {@link Mesh} in the same
+     * {@link GeometryArena}.
+     *
+     * @return The vertex array object.
+     */
+    public int getVao() {
+        return geometry.getVao();
+    }
+
+    /**
+     * Gets the first index of the current level of detail in the index buffer it
+     * is drawn from.
+     *
+     * @return The first index.
+     */
+    public int getFirstIndex() {
+        return geometry.getFirstIndex(lod);
+    }
+
+    /**
+     * Gets the number of indices of the current level of detail.
+     *
+     * @return The number of indices.
+     */
+    public int getIndexCount() {
+        return geometry.getIndexCount(lod);
+    }
+
+    /**
+     * Gets the vertex that is added to every index when this {@link Mesh} is
+     * drawn.
+     *
+     * @return The base vertex.
+     */
+    public int getBaseVertex() {
+        return geometry.getBaseVertex();
+    }
+
+    /**
+     * Gets the {@link GeometryArena} that this {@link Mesh} is resident in.
+     *
+     * @return The {@link GeometryArena}, or {@code null} if this {@link Mesh} uses
+     *         its own buffers.
+     */
+    public GeometryArena getArena() {
+        return geometry.getArena();
+    }
+
+    /**
+     * Sets the {@link GeometryArena} that this {@link Mesh} is resident in, moving
+     * its vertices and indices into it. A {@code null} arena moves them back into
+     * its own buffers.
+     *
+     * @param arena The target {@link GeometryArena}
+     */
+    public void setArena(GeometryArena arena) {
+        if (arena != null && !canReside(arena)) {
+            String errorMsg = "Cannot set the arena of a Mesh to one of another format or index type, or of a "
+                    + "streamed Mesh.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
         }
 
-        int offset = 0;
-        for (int i = 0; i < attributeSizes.size(); i++) {
-            GL20.glEnableVertexAttribArray(i);
-            GL20.glVertexAttribPointer(i, attributeSizes.get(i), GL11.GL_FLOAT, false, vertexSize * Float.BYTES,
-                    (long) offset * Float.BYTES);
+        if (geometry.getArena() == arena) {
+            return;
+        }
+
+        makeUnique();
+        geometry.setArena(arena);
+    }
+
+    /**
+     * Gets the {@link MeshletData} of the full detail indices.
+     *
+     * @return The {@link MeshletData}, or {@code null} if this {@link Mesh} has no
+     *         meshlets.
+     */
+    public MeshletData getMeshletData() {
+        return geometry.getMeshletData();
+    }
 
-            offset += attributeSizes.get(i);
+    /**
+     * Sets the {@link MeshletData} of the full detail indices, which must have
+     * been built from them by the {@link MeshletBuilder}. Meshlets are dropped
+     * when the vertices or indices are edited.
+     *
+     * @param meshletData The target {@link MeshletData}, or {@code null} to remove
+     *                    the meshlets
+     */
+    public void setMeshletData(MeshletData meshletData) {
+        if (meshletData != null) {
+            int numMeshlets = meshletData.getNumMeshlets();
+            int indexCount = geometry.getIndexData().getIndexCount();
+
+            if (numMeshlets > 0 && meshletData.getFirstIndex(numMeshlets - 1)
+                    + meshletData.getIndexCount(numMeshlets - 1) > indexCount) {
+                String errorMsg = "Cannot set meshletData of more indices than the " + indexCount + " of a Mesh.";
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
         }
 
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
-        GL30.glBindVertexArray(0);
+        makeUnique();
+        geometry.setMeshletData(meshletData);
     }
 
-    @Override
-    public Mesh copy() {
-        List<Vertex> verticesCopy = new ArrayList<>();
-        for (Vertex vertex : this.vertices) {
-            verticesCopy.add(vertex.copy());
+    /**
+     * Gets the local space axis-aligned bounding box.
+     *
+     * @return The local space axis-aligned bounding box.
+     */
+    public AABBf getBounds() {
+        return geometry.getBounds();
+    }
+
+    /**
+     * Gets the local space bounding sphere.
+     *
+     * @return The local space bounding sphere.
+     */
+    public Spheref getBoundingSphere() {
+        return geometry.getBoundingSphere();
+    }
+
+    /**
+     * Gets the {@link VertexData}, which may be shared with copies of this
+     * {@link Mesh} and must not be edited. Use {@link #editVertexData()} to edit
+     * it.
+     *
+     * @return The {@link VertexData}.
+     */
+    public VertexData getVertexData() {
+        return geometry.getVertexData();
+    }
+
+    /**
+     * Gets the {@link VertexData} for editing, making a private copy of it first
+     * if it is shared. After editing it, call {@link #markVerticesDirty(int, int)}
+     * with the edited vertices to upload them before the next draw.
+     *
+     * @return The {@link VertexData}.
+     */
+    public VertexData editVertexData() {
+        makeUnique();
+        return geometry.getVertexData();
+    }
+
+    /**
+     * Sets the {@link VertexData}. The {@link Mesh} takes ownership of it, and
+     * disposes the previous {@link VertexData}. If it has the same format and
+     * number of vertices as the previous {@link VertexData}, it is uploaded in
+     * place before the next draw. Otherwise, the {@link Mesh} will update its VAO.
+     *
+     * @param vertexData The target {@link VertexData}
+     */
+    public void setVertexData(VertexData vertexData) {
+        if (vertexData == null) {
+            String errorMsg = "Cannot set vertexData to null.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        IndexType indexType = geometry.getIndexData().getIndexType();
+        if (!indexType.canIndex(vertexData.getVertexCount())) {
+            String errorMsg = "Cannot set vertexData of " + vertexData.getVertexCount() + " vertices with "
+                    + indexType + " indices.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
         }
 
-        return new Mesh(verticesCopy, new ArrayList<>(this.indices), PrimitiveType.valueOf(primitiveType.name()),
-                material.copy());
+        makeUnique();
+        geometry.setMeshletData(null);
+
+        VertexData previous = geometry.getVertexData();
+        boolean sameLayout = vertexData.getFormat().equals(previous.getFormat())
+                && vertexData.getVertexCount() == previous.getVertexCount();
+
+        geometry.setVertexData(vertexData);
+
+        if (sameLayout) {
+            geometry.markVerticesDirty(0, vertexData.getVertexCount());
+        } else {
+            geometry.update();
+        }
     }
 
-    @Override
-    public void dispose() {
-        GL15.glDeleteBuffers(vbo);
-        GL15.glDeleteBuffers(vbo);
-        GL30.glDeleteVertexArrays(vao);
+    /**
+     * Marks a range of the {@link VertexData} as changed, so that it is uploaded
+     * before the next draw. Ranges marked between draws are merged. The bounds of
+     * this {@link Mesh} are not recomputed.
+     *
+     * @param first The first changed vertex
+     * @param count The number of changed vertices
+     */
+    public void markVerticesDirty(int first, int count) {
+        int vertexCount = geometry.getVertexData().getVertexCount();
+        if (first < 0 || count < 0 || first + count > vertexCount) {
+            String errorMsg = "Cannot mark vertices " + first + " to " + (first + count) + " of a Mesh of "
+                    + vertexCount + " vertices as dirty.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        makeUnique();
+        geometry.setMeshletData(null);
+        geometry.markVerticesDirty(first, count);
     }
 
     /**
-     * Draws this {@link Mesh}.
+     * Gets the {@link IndexData}, which may be shared with copies of this
+     * {@link Mesh} and must not be edited. Use {@link #editIndexData()} to edit
+     * it.
+     *
+     * @return The {@link IndexData}.
      */
-    public void draw() {
-        if (material != null) {
-            material.preDraw();
+    public IndexData getIndexData() {
+        return geometry.getIndexData();
+    }
+
+    /**
+     * Gets the {@link IndexData} for editing, making a private copy of it first if
+     * it is shared. After editing it, call {@link #markIndicesDirty(int, int)}
+     * with the edited indices to upload them before the next draw.
+     *
+     * @return The {@link IndexData}.
+     */
+    public IndexData editIndexData() {
+        makeUnique();
+        return geometry.getIndexData();
+    }
+
+    /**
+     * Sets the {@link IndexData}. The {@link Mesh} takes ownership of it, and
+     * disposes the previous {@link IndexData}. If it has the same
+     * {@link IndexType} and number of indices as the previous {@link IndexData},
+     * it is uploaded in place before the next draw. Otherwise, the {@link Mesh}
+     * will update its VAO.
+     *
+     * @param indexData The target {@link IndexData}
+     */
+    public void setIndexData(IndexData indexData) {
+        if (indexData == null) {
+            String errorMsg = "Cannot set indexData to null.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int vertexCount = geometry.getVertexData().getVertexCount();
+        if (!indexData.getIndexType().canIndex(vertexCount)) {
+            String errorMsg = "Cannot set indexData of " + indexData.getIndexType() + " indices for " + vertexCount
+                    + " vertices.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        List<IndexData> lods = geometry.getLods();
+        if (!lods.isEmpty() && indexData.getIndexType() != lods.get(0).getIndexType()) {
+            String errorMsg = "Cannot set indexData of a different index type than the levels of detail.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        makeUnique();
+        geometry.setMeshletData(null);
+
+        IndexData previous = geometry.getIndexData();
+        boolean sameLayout = indexData.getIndexType() == previous.getIndexType()
+                && indexData.getIndexCount() == previous.getIndexCount();
+
+        geometry.setIndexData(indexData);
+
+        if (sameLayout) {
+            geometry.markIndicesDirty(0, indexData.getIndexCount());
+        } else {
+            geometry.update();
+        }
+    }
+
+    /**
+     * Marks a range of the {@link IndexData} as changed, so that it is uploaded
+     * before the next draw. Ranges marked between draws are merged.
+     *
+     * @param first The first changed index
+     * @param count The number of changed indices
+     */
+    public void markIndicesDirty(int first, int count) {
+        int indexCount = geometry.getIndexData().getIndexCount();
+        if (first < 0 || count < 0 || first + count > indexCount) {
+            String errorMsg = "Cannot mark indices " + first + " to " + (first + count) + " of a Mesh of "
+                    + indexCount + " indices as dirty.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (count == 0) {
+            return;
         }
 
-        GL30.glBindVertexArray(vao);
-        GL11.glDrawElements(primitiveType.getValue(), indices.size(), GL11.GL_UNSIGNED_INT, 0);
-        GL30.glBindVertexArray(0);
+        makeUnique();
+        geometry.setMeshletData(null);
+        geometry.markIndicesDirty(first, count);
     }
 
     /**
-     * Gets an unmodifiable list of the {@link #vertices}.
+     * Gets the {@link BufferUsage} of the buffers.
      *
-     * @return An unmodifiable list of the {@link #vertices}.
+     * @return The {@link BufferUsage}.
      */
-    public List<Vertex> getVertices() {
-        return Collections.unmodifiableList(vertices);
+    public BufferUsage getUsage() {
+        return geometry.getUsage();
     }
 
     /**
-     * Sets the {@link #vertices}. The {@link Mesh} will update its VAO.
+     * Sets the {@link BufferUsage} of the buffers. The {@link Mesh} will rebuild
+     * its buffers and VAO.
      *
-     * @param vertices The target list of vertices.
+     * @param usage The target {@link BufferUsage}
      */
-    public void setVertices(List<Vertex> vertices) {
-        if (vertices == null || vertices.isEmpty()) {
-            String errorMsg = "Cannot set vertices to a null or empty list.";
+    public void setUsage(BufferUsage usage) {
+        if (usage == null) {
+            String errorMsg = "Cannot set usage to null.";
             Zenith.getLogger().error(errorMsg);
             throw new IllegalArgumentException(errorMsg);
         }
 
-        this.vertices = vertices;
-        update();
+        if (geometry.getUsage() == usage) {
+            return;
+        }
+
+        makeUnique();
+        geometry.setUsage(usage);
     }
 
     /**
-     * Gets an unmodifiable list of the {@link #indices}.
+     * Gets an unmodifiable list of the {@link IndexData} of each coarser level of
+     * detail, in order. Every level indexes the same {@link VertexData}.
      *
-     * @return An unmodifiable list of the {@link #indices}.
+     * @return An unmodifiable list of the levels of detail.
      */
-    public List<Integer> getIndices() {
-        return Collections.unmodifiableList(indices);
+    public List<IndexData> getLods() {
+        return Collections.unmodifiableList(geometry.getLods());
     }
 
     /**
-     * Sets the {@link #indices}. The {@link Mesh} will update its VAO.
+     * Sets the {@link IndexData} of each coarser level of detail. The {@link Mesh}
+     * takes ownership of each {@link IndexData}, and disposes the previous
+     * levels. The {@link Mesh} will update its VAO.
      *
-     * @param indices The target list of indices.
+     * @param lods The {@link IndexData} of each coarser level of detail, in order
      */
-    public void setIndices(List<Integer> indices) {
-        if (indices == null || indices.isEmpty()) {
-            String errorMsg = "Cannot set indices to a null or empty list.";
+    public void setLods(List<IndexData> lods) {
+        if (lods == null) {
+            String errorMsg = "Cannot set lods to a null list.";
             Zenith.getLogger().error(errorMsg);
             throw new IllegalArgumentException(errorMsg);
         }
 
-        this.indices = indices;
-        update();
+        for (IndexData level : lods) {
+            if (level == null || level.getIndexType() != geometry.getIndexData().getIndexType()) {
+                String errorMsg = "Cannot set a level of detail that is null or of a different index type.";
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+        }
+
+        makeUnique();
+        geometry.setLods(lods);
+
+        this.lod = Math.min(lod, lods.size());
+    }
+
+    /**
+     * Gets the number of levels of detail, including full detail.
+     *
+     * @return The number of levels of detail.
+     */
+    public int getNumLods() {
+        return 1 + geometry.getLods().size();
+    }
+
+    /**
+     * Gets the {@link #lod}.
+     *
+     * @return The {@link #lod} value.
+     */
+    public int getLod() {
+        return lod;
+    }
+
+    /**
+     * Sets the {@link #lod} to draw. Levels past the coarsest level are clamped.
+     *
+     * @param lod The target level of detail
+     */
+    public void setLod(int lod) {
+        this.lod = Math.max(0, Math.min(lod, geometry.getLods().size()));
     }
 
     /**
@@ -329,13 +904,9 @@ public final class Mesh implements Copyable, Disposable {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ibo;
-        result = prime * result + ((indices == null) ? 0 : indices.hashCode());
+        result = prime * result + ((geometry == null) ? 0 : geometry.hashCode());
         result = prime * result + ((material == null) ? 0 : material.hashCode());
         result = prime * result + ((primitiveType == null) ? 0 : primitiveType.hashCode());
-        result = prime * result + vao;
-        result = prime * result + vbo;
-        result = prime * result + ((vertices == null) ? 0 : vertices.hashCode());
         return result;
     }
 
@@ -348,26 +919,13 @@ public final class Mesh implements Copyable, Disposable {
         if (getClass() != obj.getClass())
             return false;
         Mesh other = (Mesh) obj;
-        if (ibo != other.ibo)
-            return false;
-        if (indices == null) {
-            if (other.indices != null)
-                return false;
-        } else if (!indices.equals(other.indices))
+        if (geometry != other.geometry)
             return false;
         if (material == null) {
             if (other.material != null)
                 return false;
         } else if (!material.equals(other.material))
             return false;
-        if (primitiveType != other.primitiveType)
-            return false;
-        if (vao != other.vao)
-            return false;
-        if (vbo != other.vbo)
-            return false;
-        if (vertices == null) {
-            return other.vertices == null;
-        } else return vertices.equals(other.vertices);
+        return primitiveType == other.primitiveType;
     }
 }
@@ -0,0 +1,509 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import org.lwjgl.system.MemoryUtil;
+
+import java.util.Arrays;
+
+/**
+ * The {@link MeshOptimizer} class reorders the triangles and vertices of a
+ * triangle list so that it is drawn faster. It works on plain index and vertex
+ * arrays, so it does not need OpenGL.
+ *
+ * <p>
+ * The stages are meant to be run in order:
+ * <ol>
+ * <li>{@link #optimizeVertexCache(int[], int)} reorders triangles so that
+ * vertices are reused while they are still in the post-transform cache.</li>
+ * <li>{@link #optimizeOverdraw(int[], float[])} reorders clusters of those
+ * triangles so that outward facing ones are drawn first, without breaking the
+ * cache order inside of each cluster.</li>
+ * <li>{@link #optimizeVertexFetch(int[], int)} renumbers vertices in the order
+ * that they are first used, so that vertex fetches walk memory linearly.</li>
+ * </ol>
+ *
+ * @author Trenton Faris
+ */
+public final class MeshOptimizer {
+    /**
+     * The size of the least recently used cache that is modelled when ordering
+     * triangles.
+     */
+    private static final int CACHE_SIZE = 32;
+
+    /**
+     * The size of the first-in, first-out cache that is simulated by
+     * {@link #analyzeVertexCache(int[], int)}.
+     */
+    public static final int ANALYZE_CACHE_SIZE = 16;
+
+    /**
+     * The exponent by which the score of a cached vertex decays with its age.
+     */
+    private static final float CACHE_DECAY_POWER = 1.5f;
+
+    /**
+     * The score of the vertices of the last triangle that was added.
+     */
+    private static final float LAST_TRIANGLE_SCORE = 0.75f;
+
+    /**
+     * The scale of the boost given to vertices with few remaining triangles.
+     */
+    private static final float VALENCE_BOOST_SCALE = 2.0f;
+
+    /**
+     * The exponent of the boost given to vertices with few remaining triangles.
+     */
+    private static final float VALENCE_BOOST_POWER = -0.5f;
+
+    private MeshOptimizer() {
+    }
+
+    /**
+     * Reorders the triangles of a triangle list in place for post-transform
+     * vertex cache locality, with Tom Forsyth's linear-speed algorithm. Each
+     * vertex is scored by its position in a modelled cache and by how few
+     * triangles still use it, and the triangle with the highest score is always
+     * added next.
+     *
+     * @param indices     The indices of the triangle list
+     * @param vertexCount The number of vertices
+     */
+    public static void optimizeVertexCache(int[] indices, int vertexCount) {
+        validate(indices, vertexCount);
+
+        int triangleCount = indices.length / 3;
+
+        // The triangles of each vertex, packed by vertex.
+        int[] offsets = new int[vertexCount + 1];
+        for (int index : indices) {
+            offsets[index + 1]++;
+        }
+
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] remaining = new int[vertexCount];
+        int[] adjacency = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            int v = indices[i];
+            adjacency[offsets[v] + remaining[v]++] = i / 3;
+        }
+
+        int[] cachePositions = new int[vertexCount];
+        Arrays.fill(cachePositions, -1);
+
+        float[] vertexScores = new float[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            vertexScores[v] = scoreVertex(-1, remaining[v]);
+        }
+
+        float[] triangleScores = new float[triangleCount];
+        int bestTriangle = -1;
+        for (int t = 0; t < triangleCount; t++) {
+            triangleScores[t] = vertexScores[indices[t * 3]] + vertexScores[indices[t * 3 + 1]]
+                    + vertexScores[indices[t * 3 + 2]];
+
+            if (bestTriangle < 0 || triangleScores[t] > triangleScores[bestTriangle]) {
+                bestTriangle = t;
+            }
+        }
+
+        boolean[] added = new boolean[triangleCount];
+        int[] result = new int[indices.length];
+
+        int[] cache = new int[CACHE_SIZE + 3];
+        int[] nextCache = new int[CACHE_SIZE + 3];
+        int cacheCount = 0;
+
+        int cursor = 0;
+
+        for (int n = 0; n < triangleCount; n++) {
+            // At a dead end, continue from the next triangle that was not added.
+            if (bestTriangle < 0) {
+                while (added[cursor]) {
+                    cursor++;
+                }
+
+                bestTriangle = cursor;
+            }
+
+            added[bestTriangle] = true;
+
+            int nextCount = 0;
+            for (int k = 0; k < 3; k++) {
+                int v = indices[bestTriangle * 3 + k];
+                result[n * 3 + k] = v;
+
+                // Remove the triangle from the vertex.
+                int end = offsets[v] + --remaining[v];
+                for (int a = offsets[v]; a <= end; a++) {
+                    if (adjacency[a] == bestTriangle) {
+                        adjacency[a] = adjacency[end];
+                        adjacency[end] = bestTriangle;
+                        break;
+                    }
+                }
+
+                nextCache[nextCount++] = v;
+            }
+
+            // The vertices of the triangle move to the front of the cache.
+            for (int c = 0; c < cacheCount; c++) {
+                int v = cache[c];
+                if (v != nextCache[0] && v != nextCache[1] && v != nextCache[2]) {
+                    nextCache[nextCount++] = v;
+                }
+            }
+
+            int[] tmp = cache;
+            cache = nextCache;
+            nextCache = tmp;
+
+            for (int c = 0; c < nextCount; c++) {
+                int v = cache[c];
+
+                cachePositions[v] = c < CACHE_SIZE ? c : -1;
+                vertexScores[v] = scoreVertex(cachePositions[v], remaining[v]);
+            }
+
+            // Rescore the triangles around the cache, and pick the best of them.
+            bestTriangle = -1;
+            float bestScore = -1;
+
+            for (int c = 0; c < nextCount; c++) {
+                int v = cache[c];
+
+                for (int a = offsets[v]; a < offsets[v] + remaining[v]; a++) {
+                    int t = adjacency[a];
+
+                    float score = vertexScores[indices[t * 3]] + vertexScores[indices[t * 3 + 1]]
+                            + vertexScores[indices[t * 3 + 2]];
+                    triangleScores[t] = score;
+
+                    if (score > bestScore) {
+                        bestScore = score;
+                        bestTriangle = t;
+                    }
+                }
+            }
+
+            cacheCount = Math.min(nextCount, CACHE_SIZE);
+        }
+
+        System.arraycopy(result, 0, indices, 0, indices.length);
+    }
+
+    private static float scoreVertex(int cachePosition, int remaining) {
+        if (remaining == 0) {
+            return -1;
+        }
+
+        float score = 0;
+        if (cachePosition >= 0) {
+            if (cachePosition < 3) {
+                score = LAST_TRIANGLE_SCORE;
+            } else {
+                float scale = 1.0f / (CACHE_SIZE - 3);
+                score = (float) Math.pow(1.0f - (cachePosition - 3) * scale, CACHE_DECAY_POWER);
+            }
+        }
+
+        return score + VALENCE_BOOST_SCALE * (float) Math.pow(remaining, VALENCE_BOOST_POWER);
+    }
+
+    /**
+     * Reorders the triangles of a cache optimized triangle list in place to
+     * reduce overdraw. The list is split into clusters wherever the simulated
+     * cache had to start over, and clusters that face away from the center of the
+     * mesh are drawn first, since they are the most likely to occlude the rest.
+     * The order inside of each cluster is kept, so the cache locality is mostly
+     * kept too.
+     *
+     * @param indices   The indices of the triangle list
+     * @param positions The position of each vertex, packed as {@code xyz}
+     */
+    public static void optimizeOverdraw(int[] indices, float[] positions) {
+        if (positions == null || positions.length % 3 != 0) {
+            String errorMsg = "Cannot optimize overdraw with positions that are not packed as xyz.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int vertexCount = positions.length / 3;
+        validate(indices, vertexCount);
+
+        int triangleCount = indices.length / 3;
+        if (triangleCount <= 1) {
+            return;
+        }
+
+        // Split into clusters at each triangle whose vertices all miss the cache.
+        int[] clusterStarts = new int[triangleCount + 1];
+        int clusterCount = 0;
+
+        int[] cacheTimestamps = new int[vertexCount];
+        int time = ANALYZE_CACHE_SIZE + 1;
+
+        for (int t = 0; t < triangleCount; t++) {
+            int misses = 0;
+            for (int k = 0; k < 3; k++) {
+                int v = indices[t * 3 + k];
+                if (time - cacheTimestamps[v] > ANALYZE_CACHE_SIZE) {
+                    cacheTimestamps[v] = time++;
+                    misses++;
+                }
+            }
+
+            if (t == 0 || misses == 3) {
+                clusterStarts[clusterCount++] = t;
+            }
+        }
+
+        clusterStarts[clusterCount] = triangleCount;
+
+        // The center of the mesh, weighted by the area of each triangle.
+        float meshX = 0;
+        float meshY = 0;
+        float meshZ = 0;
+        float meshArea = 0;
+
+        float[] clusterCentroids = new float[clusterCount * 3];
+        float[] clusterNormals = new float[clusterCount * 3];
+
+        for (int c = 0; c < clusterCount; c++) {
+            float areaSum = 0;
+
+            for (int t = clusterStarts[c]; t < clusterStarts[c + 1]; t++) {
+                int a = indices[t * 3] * 3;
+                int b = indices[t * 3 + 1] * 3;
+                int d = indices[t * 3 + 2] * 3;
+
+                float e1x = positions[b] - positions[a];
+                float e1y = positions[b + 1] - positions[a + 1];
+                float e1z = positions[b + 2] - positions[a + 2];
+                float e2x = positions[d] - positions[a];
+                float e2y = positions[d + 1] - positions[a + 1];
+                float e2z = positions[d + 2] - positions[a + 2];
+
+                float nx = e1y * e2z - e1z * e2y;
+                float ny = e1z * e2x - e1x * e2z;
+                float nz = e1x * e2y - e1y * e2x;
+                float area = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+
+                float cx = (positions[a] + positions[b] + positions[d]) / 3;
+                float cy = (positions[a + 1] + positions[b + 1] + positions[d + 1]) / 3;
+                float cz = (positions[a + 2] + positions[b + 2] + positions[d + 2]) / 3;
+
+                clusterCentroids[c * 3] += cx * area;
+                clusterCentroids[c * 3 + 1] += cy * area;
+                clusterCentroids[c * 3 + 2] += cz * area;
+
+                clusterNormals[c * 3] += nx;
+                clusterNormals[c * 3 + 1] += ny;
+                clusterNormals[c * 3 + 2] += nz;
+
+                areaSum += area;
+            }
+
+            meshX += clusterCentroids[c * 3];
+            meshY += clusterCentroids[c * 3 + 1];
+            meshZ += clusterCentroids[c * 3 + 2];
+            meshArea += areaSum;
+
+            float inverseArea = areaSum == 0 ? 0 : 1 / areaSum;
+            clusterCentroids[c * 3] *= inverseArea;
+            clusterCentroids[c * 3 + 1] *= inverseArea;
+            clusterCentroids[c * 3 + 2] *= inverseArea;
+        }
+
+        float inverseMeshArea = meshArea == 0 ? 0 : 1 / meshArea;
+        meshX *= inverseMeshArea;
+        meshY *= inverseMeshArea;
+        meshZ *= inverseMeshArea;
+
+        long[] order = new long[clusterCount];
+
+        for (int c = 0; c < clusterCount; c++) {
+            float nx = clusterNormals[c * 3];
+            float ny = clusterNormals[c * 3 + 1];
+            float nz = clusterNormals[c * 3 + 2];
+            float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            float inverseLength = length == 0 ? 0 : 1 / length;
+
+            float sortKey = ((clusterCentroids[c * 3] - meshX) * nx + (clusterCentroids[c * 3 + 1] - meshY) * ny
+                    + (clusterCentroids[c * 3 + 2] - meshZ) * nz) * inverseLength;
+
+            // Flip the key so that it sorts in descending order as a signed integer.
+            int bits = Float.floatToIntBits(sortKey);
+            bits = ~(bits ^ ((bits >> 31) & 0x7FFFFFFF));
+
+            order[c] = (long) bits << 32 | c;
+        }
+
+        // Outward facing clusters first. Ties are ordered by cluster, so they keep their cache order.
+        Arrays.sort(order);
+
+        int[] result = new int[indices.length];
+        int n = 0;
+
+        for (long key : order) {
+            int c = (int) key;
+            int from = clusterStarts[c] * 3;
+            int length = (clusterStarts[c + 1] - clusterStarts[c]) * 3;
+
+            System.arraycopy(indices, from, result, n, length);
+            n += length;
+        }
+
+        System.arraycopy(result, 0, indices, 0, indices.length);
+    }
+
+    /**
+     * Renumbers the vertices of a triangle list in place, in the order that they
+     * are first used. Vertices that are never used are dropped.
+     *
+     * @param indices     The indices of the triangle list
+     * @param vertexCount The number of vertices
+     * @return The new index of each old vertex, or {@code -1} if it was dropped.
+     */
+    public static int[] optimizeVertexFetch(int[] indices, int vertexCount) {
+        validate(indices, vertexCount);
+
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+
+        int next = 0;
+        for (int i = 0; i < indices.length; i++) {
+            int v = indices[i];
+            if (remap[v] < 0) {
+                remap[v] = next++;
+            }
+
+            indices[i] = remap[v];
+        }
+
+        return remap;
+    }
+
+    /**
+     * Moves the vertices of a {@link VertexData} to the positions of a remap from
+     * {@link #optimizeVertexFetch(int[], int)} or
+     * {@link VertexWelder#weld(VertexData, java.util.Map)}. When several vertices
+     * are moved to the same position, the first of them is kept.
+     *
+     * @param vertexData The {@link VertexData} to remap
+     * @param remap      The new index of each old vertex, or {@code -1} to drop it
+     * @return The remapped {@link VertexData}.
+     */
+    public static VertexData remapVertices(VertexData vertexData, int[] remap) {
+        if (vertexData == null || remap == null || remap.length != vertexData.getVertexCount()) {
+            String errorMsg = "Cannot remap a VertexData with a remap of a different number of vertices.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int[] sources = findSources(remap);
+        int stride = vertexData.getFormat().getStride();
+
+        VertexData result = new VertexData(vertexData.getFormat(), Math.max(sources.length, 1));
+
+        long src = MemoryUtil.memAddress(vertexData.getBuffer());
+        long dst = MemoryUtil.memAddress(result.getBuffer());
+
+        for (int r = 0; r < sources.length; r++) {
+            if (sources[r] >= 0) {
+                MemoryUtil.memCopy(src + (long) sources[r] * stride, dst + (long) r * stride, stride);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the old vertex that each new vertex of a remap is copied from, which
+     * is the first old vertex moved to it.
+     *
+     * @param remap The new index of each old vertex, or {@code -1} to drop it
+     * @return The old index of each new vertex, or {@code -1} if none is moved to it.
+     */
+    static int[] findSources(int[] remap) {
+        int count = 0;
+        for (int r : remap) {
+            count = Math.max(count, r + 1);
+        }
+
+        int[] sources = new int[count];
+        Arrays.fill(sources, -1);
+
+        for (int v = 0; v < remap.length; v++) {
+            if (remap[v] >= 0 && sources[remap[v]] < 0) {
+                sources[remap[v]] = v;
+            }
+        }
+
+        return sources;
+    }
+
+    /**
+     * Simulates a first-in, first-out vertex cache of
+     * {@link #ANALYZE_CACHE_SIZE} entries over a triangle list.
+     *
+     * @param indices     The indices of the triangle list
+     * @param vertexCount The number of vertices
+     * @return The {@link CacheStatistics} of the triangle list.
+     */
+    public static CacheStatistics analyzeVertexCache(int[] indices, int vertexCount) {
+        validate(indices, vertexCount);
+
+        int[] cacheTimestamps = new int[vertexCount];
+        int time = ANALYZE_CACHE_SIZE + 1;
+        int misses = 0;
+
+        for (int v : indices) {
+            if (time - cacheTimestamps[v] > ANALYZE_CACHE_SIZE) {
+                cacheTimestamps[v] = time++;
+                misses++;
+            }
+        }
+
+        int triangleCount = indices.length / 3;
+
+        return new CacheStatistics(misses, triangleCount == 0 ? 0 : (float) misses / triangleCount,
+                vertexCount == 0 ? 0 : (float) misses / vertexCount);
+    }
+
+    private static void validate(int[] indices, int vertexCount) {
+        if (indices == null || indices.length % 3 != 0) {
+            String errorMsg = "Cannot optimize indices that are not a triangle list.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        for (int index : indices) {
+            if (index < 0 || index >= vertexCount) {
+                String errorMsg = "Cannot optimize an index " + index + " outside of " + vertexCount + " vertices.";
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+        }
+    }
+
+    /**
+     * The {@link CacheStatistics} of a triangle list.
+     *
+     * @param misses The number of vertex cache misses
+     * @param acmr   The average cache miss ratio, which is misses per triangle.
+     *               It is at best 0.5, and at worst 3.
+     * @param atvr   The average transformed vertex ratio, which is misses per
+     *               vertex. It is at best 1.
+     */
+    public record CacheStatistics(int misses, float acmr, float atvr) {
+        @Override
+        public String toString() {
+            return String.format("ACMR %.3f, ATVR %.3f", acmr, atvr);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link MeshSimplifier} class reduces the number of triangles of a
+ * triangle list by quadric error edge collapse. Each vertex accumulates the
+ * quadric of the planes of the triangles around it, and the edge whose
+ * collapse moves the surface the least is collapsed first.
+ *
+ * <p>
+ * Vertices are only ever collapsed onto one another, so a simplified triangle
+ * list indexes a subset of the original vertices and can share their
+ * {@link VertexData}. Vertices on open borders, and vertices which share a
+ * position with another vertex, such as along texture seams, are never moved,
+ * so the outline and attributes of the mesh are kept. Collapses which would
+ * flip a triangle are rejected.
+ *
+ * @author Trenton Faris
+ */
+public final class MeshSimplifier {
+    /**
+     * The maximum number of collapse passes.
+     */
+    private static final int MAX_PASSES = 32;
+
+    /**
+     * The number of values of a quadric.
+     */
+    private static final int QUADRIC_SIZE = 10;
+
+    private MeshSimplifier() {
+    }
+
+    /**
+     * Simplifies a triangle list.
+     *
+     * @param indices          The indices of the triangle list
+     * @param positions        The position of each vertex, packed as {@code xyz}
+     * @param targetIndexCount The number of indices to reduce the list to
+     * @return The indices of the simplified triangle list, which may be longer
+     *         than the target if no more edges could be collapsed.
+     */
+    public static int[] simplify(int[] indices, float[] positions, int targetIndexCount) {
+        if (indices == null || indices.length % 3 != 0) {
+            String errorMsg = "Cannot simplify indices that are not a triangle list.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (positions == null || positions.length % 3 != 0) {
+            String errorMsg = "Cannot simplify with positions that are not packed as xyz.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int vertexCount = positions.length / 3;
+
+        int[] triangles = indices.clone();
+        int indexCount = triangles.length;
+
+        boolean[] locked = findLockedVertices(triangles, positions);
+        double[] quadrics = computeQuadrics(triangles, positions);
+
+        boolean[] touched = new boolean[vertexCount];
+        int[] offsets = new int[vertexCount + 1];
+        int[] adjacency = new int[indexCount];
+
+        for (int pass = 0; pass < MAX_PASSES && indexCount > targetIndexCount; pass++) {
+            buildAdjacency(triangles, indexCount, vertexCount, offsets, adjacency);
+
+            // Every directed edge is a candidate, sorted by the error of its collapse.
+            long[] candidates = new long[indexCount * 2];
+            int[] edges = new int[indexCount * 2 * 2];
+            int candidateCount = 0;
+
+            for (int i = 0; i < indexCount; i++) {
+                int a = triangles[i];
+                int b = triangles[i - i % 3 + (i + 1) % 3];
+
+                if (!locked[a]) {
+                    edges[candidateCount * 2] = a;
+                    edges[candidateCount * 2 + 1] = b;
+                    candidates[candidateCount] = pack(collapseError(quadrics, positions, a, b), candidateCount);
+                    candidateCount++;
+                }
+
+                if (!locked[b]) {
+                    edges[candidateCount * 2] = b;
+                    edges[candidateCount * 2 + 1] = a;
+                    candidates[candidateCount] = pack(collapseError(quadrics, positions, b, a), candidateCount);
+                    candidateCount++;
+                }
+            }
+
+            Arrays.sort(candidates, 0, candidateCount);
+            Arrays.fill(touched, false);
+
+            int[] remap = new int[vertexCount];
+            for (int v = 0; v < vertexCount; v++) {
+                remap[v] = v;
+            }
+
+            int removedIndices = 0;
+            int collapses = 0;
+
+            for (int c = 0; c < candidateCount && indexCount - removedIndices > targetIndexCount; c++) {
+                int candidate = (int) candidates[c];
+                int u = edges[candidate * 2];
+                int v = edges[candidate * 2 + 1];
+
+                if (touched[u] || touched[v] || flips(triangles, positions, offsets, adjacency, u, v)) {
+                    continue;
+                }
+
+                // The triangles around u can no longer be changed this pass.
+                for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                    int t = adjacency[a];
+
+                    touched[triangles[t * 3]] = true;
+                    touched[triangles[t * 3 + 1]] = true;
+                    touched[triangles[t * 3 + 2]] = true;
+
+                    if (triangles[t * 3] == v || triangles[t * 3 + 1] == v || triangles[t * 3 + 2] == v) {
+                        removedIndices += 3;
+                    }
+                }
+
+                remap[u] = v;
+                for (int q = 0; q < QUADRIC_SIZE; q++) {
+                    quadrics[v * QUADRIC_SIZE + q] += quadrics[u * QUADRIC_SIZE + q];
+                }
+
+                collapses++;
+            }
+
+            if (collapses == 0) {
+                break;
+            }
+
+            // Remap each triangle, dropping those that collapsed.
+            int n = 0;
+            for (int t = 0; t < indexCount; t += 3) {
+                int a = remap[triangles[t]];
+                int b = remap[triangles[t + 1]];
+                int d = remap[triangles[t + 2]];
+
+                if (a != b && b != d && d != a) {
+                    triangles[n++] = a;
+                    triangles[n++] = b;
+                    triangles[n++] = d;
+                }
+            }
+
+            indexCount = n;
+        }
+
+        return Arrays.copyOf(triangles, indexCount);
+    }
+
+    private static boolean[] findLockedVertices(int[] triangles, float[] positions) {
+        int vertexCount = positions.length / 3;
+        boolean[] locked = new boolean[vertexCount];
+
+        // Vertices which share a position with another vertex lie on a seam. Sorting
+        // by position puts them next to each other.
+        Integer[] order = new Integer[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            order[v] = v;
+        }
+
+        Arrays.sort(order, (a, b) -> {
+            int compare = Float.compare(positions[a * 3], positions[b * 3]);
+            if (compare == 0) {
+                compare = Float.compare(positions[a * 3 + 1], positions[b * 3 + 1]);
+            }
+
+            return compare != 0 ? compare : Float.compare(positions[a * 3 + 2], positions[b * 3 + 2]);
+        });
+
+        for (int i = 1; i < vertexCount; i++) {
+            if (samePosition(positions, order[i - 1], order[i])) {
+                locked[order[i - 1]] = true;
+                locked[order[i]] = true;
+            }
+        }
+
+        // Vertices on an edge with only one triangle lie on a border.
+        Map<Long, Integer> edgeCounts = new HashMap<>();
+        for (int i = 0; i < triangles.length; i++) {
+            int a = triangles[i];
+            int b = triangles[i - i % 3 + (i + 1) % 3];
+
+            long edge = ((long) Math.min(a, b) << 32) | Math.max(a, b);
+            edgeCounts.merge(edge, 1, Integer::sum);
+        }
+
+        for (Map.Entry<Long, Integer> entry : edgeCounts.entrySet()) {
+            if (entry.getValue() == 1) {
+                long edge = entry.getKey();
+
+                locked[(int) (edge >>> 32)] = true;
+                locked[(int) edge] = true;
+            }
+        }
+
+        return locked;
+    }
+
+    private static boolean samePosition(float[] positions, int a, int b) {
+        return positions[a * 3] == positions[b * 3] && positions[a * 3 + 1] == positions[b * 3 + 1]
+                && positions[a * 3 + 2] == positions[b * 3 + 2];
+    }
+
+    /**
+     * Computes the quadric of each vertex, as the sum of the area weighted
+     * quadrics of the planes of its triangles.
+     *
+     * @param triangles The indices of the triangle list
+     * @param positions The position of each vertex, packed as {@code xyz}
+     * @return The quadrics, packed as the upper triangle of each symmetric 4x4
+     *         matrix.
+     */
+    private static double[] computeQuadrics(int[] triangles, float[] positions) {
+        double[] quadrics = new double[positions.length / 3 * QUADRIC_SIZE];
+
+        for (int t = 0; t < triangles.length; t += 3) {
+            int a = triangles[t] * 3;
+            int b = triangles[t + 1] * 3;
+            int c = triangles[t + 2] * 3;
+
+            double e1x = positions[b] - positions[a];
+            double e1y = positions[b + 1] - positions[a + 1];
+            double e1z = positions[b + 2] - positions[a + 2];
+            double e2x = positions[c] - positions[a];
+            double e2y = positions[c + 1] - positions[a + 1];
+            double e2z = positions[c + 2] - positions[a + 2];
+
+            double nx = e1y * e2z - e1z * e2y;
+            double ny = e1z * e2x - e1x * e2z;
+            double nz = e1x * e2y - e1y * e2x;
+
+            double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (length == 0) {
+                continue;
+            }
+
+            // The plane is weighted by the area of the triangle.
+            double area = length * 0.5;
+            nx /= length;
+            ny /= length;
+            nz /= length;
+            double d = -(nx * positions[a] + ny * positions[a + 1] + nz * positions[a + 2]);
+
+            for (int k = 0; k < 3; k++) {
+                int q = triangles[t + k] * QUADRIC_SIZE;
+
+                quadrics[q] += area * nx * nx;
+                quadrics[q + 1] += area * nx * ny;
+                quadrics[q + 2] += area * nx * nz;
+                quadrics[q + 3] += area * nx * d;
+                quadrics[q + 4] += area * ny * ny;
+                quadrics[q + 5] += area * ny * nz;
+                quadrics[q + 6] += area * ny * d;
+                quadrics[q + 7] += area * nz * nz;
+                quadrics[q + 8] += area * nz * d;
+                quadrics[q + 9] += area * d * d;
+            }
+        }
+
+        return quadrics;
+    }
+
+    /**
+     * Computes the error of collapsing vertex {@code u} onto vertex {@code v},
+     * which is the sum of their quadrics at the position of {@code v}.
+     */
+    private static float collapseError(double[] quadrics, float[] positions, int u, int v) {
+        double x = positions[v * 3];
+        double y = positions[v * 3 + 1];
+        double z = positions[v * 3 + 2];
+
+        double error = evaluate(quadrics, u * QUADRIC_SIZE, x, y, z) + evaluate(quadrics, v * QUADRIC_SIZE, x, y, z);
+
+        return (float) Math.max(error, 0);
+    }
+
+    private static double evaluate(double[] quadrics, int q, double x, double y, double z) {
+        return quadrics[q] * x * x + 2 * quadrics[q + 1] * x * y + 2 * quadrics[q + 2] * x * z
+                + 2 * quadrics[q + 3] * x + quadrics[q + 4] * y * y + 2 * quadrics[q + 5] * y * z
+                + 2 * quadrics[q + 6] * y + quadrics[q + 7] * z * z + 2 * quadrics[q + 8] * z + quadrics[q + 9];
+    }
+
+    /**
+     * Packs a non-negative error and a candidate index into a key which sorts by
+     * error.
+     */
+    private static long pack(float error, int candidate) {
+        return ((long) Float.floatToIntBits(error) << 32) | candidate;
+    }
+
+    private static void buildAdjacency(int[] triangles, int indexCount, int vertexCount, int[] offsets,
+            int[] adjacency) {
+        Arrays.fill(offsets, 0);
+        for (int i = 0; i < indexCount; i++) {
+            offsets[triangles[i] + 1]++;
+        }
+
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] fill = Arrays.copyOf(offsets, vertexCount);
+        for (int i = 0; i < indexCount; i++) {
+            adjacency[fill[triangles[i]]++] = i / 3;
+        }
+    }
+
+    /**
+     * Determines whether collapsing vertex {@code u} onto vertex {@code v} would
+     * flip any of the triangles around {@code u} that remain.
+     */
+    private static boolean flips(int[] triangles, float[] positions, int[] offsets, int[] adjacency, int u,
+            int v) {
+        for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+            int t = adjacency[a] * 3;
+
+            int i0 = triangles[t];
+            int i1 = triangles[t + 1];
+            int i2 = triangles[t + 2];
+
+            if (i0 == v || i1 == v || i2 == v) {
+                continue;
+            }
+
+            // Rotate the triangle so that u is first.
+            if (i1 == u) {
+                i1 = i2;
+                i2 = i0;
+            } else if (i2 == u) {
+                i2 = i1;
+                i1 = i0;
+            }
+
+            // The triangle flips if its normal turns by more than 90 degrees.
+            float e1x = positions[i1 * 3] - positions[u * 3];
+            float e1y = positions[i1 * 3 + 1] - positions[u * 3 + 1];
+            float e1z = positions[i1 * 3 + 2] - positions[u * 3 + 2];
+            float e2x = positions[i2 * 3] - positions[u * 3];
+            float e2y = positions[i2 * 3 + 1] - positions[u * 3 + 1];
+            float e2z = positions[i2 * 3 + 2] - positions[u * 3 + 2];
+
+            float f1x = positions[i1 * 3] - positions[v * 3];
+            float f1y = positions[i1 * 3 + 1] - positions[v * 3 + 1];
+            float f1z = positions[i1 * 3 + 2] - positions[v * 3 + 2];
+            float f2x = positions[i2 * 3] - positions[v * 3];
+            float f2y = positions[i2 * 3 + 1] - positions[v * 3 + 1];
+            float f2z = positions[i2 * 3 + 2] - positions[v * 3 + 2];
+
+            float dot = (e1y * e2z - e1z * e2y) * (f1y * f2z - f1z * f2y)
+                    + (e1z * e2x - e1x * e2z) * (f1z * f2x - f1x * f2z)
+                    + (e1x * e2y - e1y * e2x) * (f1x * f2y - f1y * f2x);
+
+            if (dot <= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
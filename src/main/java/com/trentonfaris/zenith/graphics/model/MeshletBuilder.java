@@ -0,0 +1,304 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+
+import java.util.Arrays;
+
+/**
+ * The {@link MeshletBuilder} class splits a triangle list into meshlets, which
+ * are clusters of at most a fixed number of vertices and triangles. Like the
+ * {@link MeshOptimizer}, it works on plain index and position arrays, so it
+ * does not need OpenGL.
+ *
+ * <p>
+ * Meshlets are grown greedily. Each meshlet starts from the first triangle that
+ * is left, and then adds the remaining triangle that shares the most vertices
+ * with it, until it is full or no neighbouring triangle fits. Since the
+ * triangles are visited in their original order when a meshlet starts, an
+ * index buffer that was optimized for the vertex cache stays mostly in cache
+ * order.
+ *
+ * @author Trenton Faris
+ */
+public final class MeshletBuilder {
+    /**
+     * The default maximum number of vertices of a meshlet.
+     */
+    public static final int MAX_VERTICES = 64;
+
+    /**
+     * The default maximum number of triangles of a meshlet.
+     */
+    public static final int MAX_TRIANGLES = 124;
+
+    /**
+     * The smallest cosine between the normal cone axis of a meshlet and one of its
+     * normals for which the meshlet can still face away from the camera.
+     */
+    private static final float MIN_CONE_DOT = 0.1f;
+
+    private MeshletBuilder() {
+    }
+
+    /**
+     * Reorders the triangles of a triangle list in place so that each meshlet is
+     * a contiguous range of its indices, and computes the bounds of each meshlet.
+     *
+     * @param indices      The indices of the triangle list
+     * @param positions    The position of each vertex, packed as {@code xyz}
+     * @param maxVertices  The maximum number of vertices of a meshlet
+     * @param maxTriangles The maximum number of triangles of a meshlet
+     * @return The {@link MeshletData} of the triangle list.
+     */
+    public static MeshletData build(int[] indices, float[] positions, int maxVertices, int maxTriangles) {
+        if (indices == null || indices.length % 3 != 0 || positions == null || positions.length % 3 != 0) {
+            String errorMsg = "Cannot build meshlets of indices that are not a triangle list, or of null positions.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (maxVertices < 3 || maxTriangles < 1) {
+            String errorMsg = "Cannot build meshlets of fewer than 3 vertices or 1 triangle.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int vertexCount = positions.length / 3;
+        for (int index : indices) {
+            if (index < 0 || index >= vertexCount) {
+                String errorMsg = "Cannot build meshlets with an index " + index + " outside of " + vertexCount
+                        + " vertices.";
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+        }
+
+        int triangleCount = indices.length / 3;
+
+        // The triangles of each vertex, packed by vertex. The triangles that are left come first.
+        int[] offsets = new int[vertexCount + 1];
+        for (int index : indices) {
+            offsets[index + 1]++;
+        }
+
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] remaining = new int[vertexCount];
+        int[] adjacency = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            int v = indices[i];
+            adjacency[offsets[v] + remaining[v]++] = i / 3;
+        }
+
+        boolean[] added = new boolean[triangleCount];
+        int[] result = new int[indices.length];
+
+        // The last meshlet that used each vertex, and the vertices of the current meshlet.
+        int[] vertexMeshlets = new int[vertexCount];
+        Arrays.fill(vertexMeshlets, -1);
+        int[] meshletVertices = new int[maxVertices];
+
+        int[] firstIndices = new int[triangleCount];
+        int[] indexCounts = new int[triangleCount];
+        float[] spheres = new float[triangleCount * 4];
+        float[] cones = new float[triangleCount * 4];
+
+        int numMeshlets = 0;
+        int numVertices = 0;
+        int first = 0;
+        int cursor = 0;
+
+        for (int n = 0; n < triangleCount; n++) {
+            int best = -1;
+            int bestShared = 0;
+
+            if (n - first < maxTriangles) {
+                for (int i = 0; i < numVertices; i++) {
+                    int v = meshletVertices[i];
+
+                    for (int a = offsets[v]; a < offsets[v] + remaining[v]; a++) {
+                        int t = adjacency[a];
+
+                        int shared = 0;
+                        for (int k = 0; k < 3; k++) {
+                            if (vertexMeshlets[indices[t * 3 + k]] == numMeshlets) {
+                                shared++;
+                            }
+                        }
+
+                        if (numVertices + 3 - shared > maxVertices) {
+                            continue;
+                        }
+
+                        if (shared > bestShared || (shared == bestShared && t < best)) {
+                            best = t;
+                            bestShared = shared;
+                        }
+                    }
+                }
+            }
+
+            // A full meshlet, or one without a neighbour that fits, is finished.
+            if (best < 0 && n > first) {
+                setBounds(result, positions, first * 3, (n - first) * 3, numMeshlets, spheres, cones);
+                firstIndices[numMeshlets] = first * 3;
+                indexCounts[numMeshlets] = (n - first) * 3;
+
+                numMeshlets++;
+                numVertices = 0;
+                first = n;
+            }
+
+            if (best < 0) {
+                while (added[cursor]) {
+                    cursor++;
+                }
+
+                best = cursor;
+            }
+
+            added[best] = true;
+
+            for (int k = 0; k < 3; k++) {
+                int v = indices[best * 3 + k];
+                result[n * 3 + k] = v;
+
+                // Remove the triangle from the vertex.
+                int end = offsets[v] + --remaining[v];
+                for (int a = offsets[v]; a <= end; a++) {
+                    if (adjacency[a] == best) {
+                        adjacency[a] = adjacency[end];
+                        adjacency[end] = best;
+                        break;
+                    }
+                }
+
+                if (vertexMeshlets[v] != numMeshlets) {
+                    vertexMeshlets[v] = numMeshlets;
+                    meshletVertices[numVertices++] = v;
+                }
+            }
+        }
+
+        if (triangleCount > first) {
+            setBounds(result, positions, first * 3, (triangleCount - first) * 3, numMeshlets, spheres, cones);
+            firstIndices[numMeshlets] = first * 3;
+            indexCounts[numMeshlets] = (triangleCount - first) * 3;
+
+            numMeshlets++;
+        }
+
+        System.arraycopy(result, 0, indices, 0, indices.length);
+
+        return new MeshletData(Arrays.copyOf(firstIndices, numMeshlets), Arrays.copyOf(indexCounts, numMeshlets),
+                Arrays.copyOf(spheres, numMeshlets * 4), Arrays.copyOf(cones, numMeshlets * 4));
+    }
+
+    /**
+     * Computes the bounding sphere and normal cone of a meshlet.
+     *
+     * @param indices    The indices of the triangle list
+     * @param positions  The position of each vertex, packed as {@code xyz}
+     * @param first      The first index of the meshlet
+     * @param count      The number of indices of the meshlet
+     * @param meshlet    The meshlet
+     * @param spheres    The bounding sphere of each meshlet, packed as
+     *                   {@code xyzr}
+     * @param cones      The normal cone of each meshlet, packed as its axis and
+     *                   cutoff
+     */
+    private static void setBounds(int[] indices, float[] positions, int first, int count, int meshlet,
+                                  float[] spheres, float[] cones) {
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+
+        for (int i = first; i < first + count; i++) {
+            int v = indices[i] * 3;
+            minX = Math.min(minX, positions[v]);
+            minY = Math.min(minY, positions[v + 1]);
+            minZ = Math.min(minZ, positions[v + 2]);
+            maxX = Math.max(maxX, positions[v]);
+            maxY = Math.max(maxY, positions[v + 1]);
+            maxZ = Math.max(maxZ, positions[v + 2]);
+        }
+
+        // Center the sphere on the box, then fit its radius to the furthest vertex.
+        float x = (minX + maxX) * 0.5f;
+        float y = (minY + maxY) * 0.5f;
+        float z = (minZ + maxZ) * 0.5f;
+
+        float radiusSquared = 0;
+        for (int i = first; i < first + count; i++) {
+            int v = indices[i] * 3;
+            float dx = positions[v] - x;
+            float dy = positions[v + 1] - y;
+            float dz = positions[v + 2] - z;
+            radiusSquared = Math.max(radiusSquared, dx * dx + dy * dy + dz * dz);
+        }
+
+        spheres[meshlet * 4] = x;
+        spheres[meshlet * 4 + 1] = y;
+        spheres[meshlet * 4 + 2] = z;
+        spheres[meshlet * 4 + 3] = (float) Math.sqrt(radiusSquared);
+
+        // The axis of the cone is the average of the unit normals of the triangles.
+        float[] normals = new float[count];
+        int numNormals = 0;
+        float axisX = 0, axisY = 0, axisZ = 0;
+
+        for (int i = first; i < first + count; i += 3) {
+            int a = indices[i] * 3;
+            int b = indices[i + 1] * 3;
+            int c = indices[i + 2] * 3;
+
+            float abX = positions[b] - positions[a], abY = positions[b + 1] - positions[a + 1],
+                    abZ = positions[b + 2] - positions[a + 2];
+            float acX = positions[c] - positions[a], acY = positions[c + 1] - positions[a + 1],
+                    acZ = positions[c + 2] - positions[a + 2];
+
+            float nX = abY * acZ - abZ * acY;
+            float nY = abZ * acX - abX * acZ;
+            float nZ = abX * acY - abY * acX;
+
+            float length = (float) Math.sqrt(nX * nX + nY * nY + nZ * nZ);
+            if (length == 0) {
+                continue;
+            }
+
+            normals[numNormals * 3] = nX / length;
+            normals[numNormals * 3 + 1] = nY / length;
+            normals[numNormals * 3 + 2] = nZ / length;
+            axisX += normals[numNormals * 3];
+            axisY += normals[numNormals * 3 + 1];
+            axisZ += normals[numNormals * 3 + 2];
+            numNormals++;
+        }
+
+        float axisLength = (float) Math.sqrt(axisX * axisX + axisY * axisY + axisZ * axisZ);
+
+        float minDot = 1;
+        if (axisLength > 0) {
+            axisX /= axisLength;
+            axisY /= axisLength;
+            axisZ /= axisLength;
+
+            for (int n = 0; n < numNormals; n++) {
+                minDot = Math.min(minDot,
+                        axisX * normals[n * 3] + axisY * normals[n * 3 + 1] + axisZ * normals[n * 3 + 2]);
+            }
+        }
+
+        cones[meshlet * 4] = axisX;
+        cones[meshlet * 4 + 1] = axisY;
+        cones[meshlet * 4 + 2] = axisZ;
+
+        // The cone of views that see only back faces is the normal cone widened by 90 degrees and flipped.
+        if (axisLength == 0 || minDot <= MIN_CONE_DOT) {
+            cones[meshlet * 4 + 3] = 1;
+        } else {
+            cones[meshlet * 4 + 3] = (float) Math.sqrt(1 - minDot * minDot);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import org.joml.Spheref;
+import org.joml.Vector3f;
+
+/**
+ * A {@link MeshletData} describes the meshlets of a triangle list, which are
+ * small clusters of nearby triangles that are stored one after another in its
+ * indices. Each meshlet has a bounding sphere and a cone that bounds the
+ * normals of its triangles, so that whole meshlets which are outside of the
+ * view frustum or facing away from the camera can be skipped.
+ *
+ * <p>
+ * A meshlet faces away from a camera at {@code c} if
+ * {@code dot(center - c, axis) >= cutoff * length(center - c) + radius}. A
+ * cutoff of {@code 1} means that the triangles of the meshlet face too many
+ * directions for it to ever face away.
+ *
+ * @author Trenton Faris
+ */
+public final class MeshletData {
+    /**
+     * The first index of each meshlet.
+     */
+    private final int[] firstIndices;
+
+    /**
+     * The number of indices of each meshlet.
+     */
+    private final int[] indexCounts;
+
+    /**
+     * The bounding sphere of each meshlet, packed as {@code xyzr}.
+     */
+    private final float[] spheres;
+
+    /**
+     * The normal cone of each meshlet, packed as its axis and cutoff.
+     */
+    private final float[] cones;
+
+    /**
+     * Creates a new {@link MeshletData}.
+     *
+     * @param firstIndices The first index of each meshlet
+     * @param indexCounts  The number of indices of each meshlet
+     * @param spheres      The bounding sphere of each meshlet, packed as
+     *                     {@code xyzr}
+     * @param cones        The normal cone of each meshlet, packed as its axis and
+     *                     cutoff
+     */
+    public MeshletData(int[] firstIndices, int[] indexCounts, float[] spheres, float[] cones) {
+        if (firstIndices == null || indexCounts == null || spheres == null || cones == null) {
+            String errorMsg = "Cannot create a MeshletData from null arrays.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int numMeshlets = firstIndices.length;
+        if (indexCounts.length != numMeshlets || spheres.length != numMeshlets * 4
+                || cones.length != numMeshlets * 4) {
+            String errorMsg = "Cannot create a MeshletData from arrays of mismatched lengths.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.firstIndices = firstIndices;
+        this.indexCounts = indexCounts;
+        this.spheres = spheres;
+        this.cones = cones;
+    }
+
+    /**
+     * Gets the number of meshlets.
+     *
+     * @return The number of meshlets.
+     */
+    public int getNumMeshlets() {
+        return firstIndices.length;
+    }
+
+    /**
+     * Gets the first index of a meshlet.
+     *
+     * @param meshlet The meshlet
+     * @return The first index.
+     */
+    public int getFirstIndex(int meshlet) {
+        return firstIndices[meshlet];
+    }
+
+    /**
+     * Gets the number of indices of a meshlet.
+     *
+     * @param meshlet The meshlet
+     * @return The number of indices.
+     */
+    public int getIndexCount(int meshlet) {
+        return indexCounts[meshlet];
+    }
+
+    /**
+     * Gets the local space bounding sphere of a meshlet.
+     *
+     * @param meshlet The meshlet
+     * @param dest    Will hold the result
+     * @return The {@code dest}.
+     */
+    public Spheref getBoundingSphere(int meshlet, Spheref dest) {
+        dest.x = spheres[meshlet * 4];
+        dest.y = spheres[meshlet * 4 + 1];
+        dest.z = spheres[meshlet * 4 + 2];
+        dest.r = spheres[meshlet * 4 + 3];
+
+        return dest;
+    }
+
+    /**
+     * Gets the local space axis of the normal cone of a meshlet.
+     *
+     * @param meshlet The meshlet
+     * @param dest    Will hold the result
+     * @return The {@code dest}.
+     */
+    public Vector3f getConeAxis(int meshlet, Vector3f dest) {
+        return dest.set(cones[meshlet * 4], cones[meshlet * 4 + 1], cones[meshlet * 4 + 2]);
+    }
+
+    /**
+     * Gets the cutoff of the normal cone of a meshlet, which is the sine of the
+     * largest angle between its axis and a normal of the meshlet.
+     *
+     * @param meshlet The meshlet
+     * @return The cutoff.
+     */
+    public float getConeCutoff(int meshlet) {
+        return cones[meshlet * 4 + 3];
+    }
+}
@@ -5,6 +5,9 @@ import com.trentonfaris.zenith.exception.ResourceIOException;
 import com.trentonfaris.zenith.exception.ResourceNotFoundException;
 import com.trentonfaris.zenith.utility.Copyable;
 import com.trentonfaris.zenith.utility.Disposable;
+import com.trentonfaris.zenith.utility.Measurable;
+import org.joml.AABBf;
+import org.joml.Spheref;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -15,7 +18,7 @@ import java.util.List;
  *
  * @author Trenton Faris
  */
-public final class Model implements Copyable, Disposable {
+public final class Model implements Copyable, Disposable, Measurable {
     /**
      * The list of meshes .
      */
@@ -76,6 +79,26 @@ public final class Model implements Copyable, Disposable {
         }
     }
 
+    @Override
+    public long getCpuBytes() {
+        long bytes = 0;
+        for (Mesh mesh : meshes) {
+            bytes += mesh.getCpuBytes();
+        }
+
+        return bytes;
+    }
+
+    @Override
+    public long getGpuBytes() {
+        long bytes = 0;
+        for (Mesh mesh : meshes) {
+            bytes += mesh.getGpuBytes();
+        }
+
+        return bytes;
+    }
+
     public void addMesh(Mesh mesh) {
         meshes.add(mesh);
     }
@@ -84,6 +107,47 @@ public final class Model implements Copyable, Disposable {
         meshes.remove(mesh);
     }
 
+    /**
+     * Computes the local space bounds of this {@link Model} from the bounds of its
+     * meshes.
+     *
+     * @param bounds         The destination axis-aligned bounding box
+     * @param boundingSphere The destination bounding sphere
+     */
+    public void getBounds(AABBf bounds, Spheref boundingSphere) {
+        bounds.setMin(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+        bounds.setMax(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+
+        for (Mesh mesh : meshes) {
+            bounds.union(mesh.getBounds());
+        }
+
+        if (!bounds.isValid()) {
+            bounds.setMin(0, 0, 0);
+            bounds.setMax(0, 0, 0);
+        }
+
+        float x = (bounds.minX + bounds.maxX) * 0.5f;
+        float y = (bounds.minY + bounds.maxY) * 0.5f;
+        float z = (bounds.minZ + bounds.maxZ) * 0.5f;
+
+        float radius = 0;
+        for (Mesh mesh : meshes) {
+            Spheref meshSphere = mesh.getBoundingSphere();
+
+            float dx = meshSphere.x - x;
+            float dy = meshSphere.y - y;
+            float dz = meshSphere.z - z;
+
+            radius = Math.max(radius, (float) Math.sqrt(dx * dx + dy * dy + dz * dz) + meshSphere.r);
+        }
+
+        boundingSphere.x = x;
+        boundingSphere.y = y;
+        boundingSphere.z = z;
+        boundingSphere.r = radius;
+    }
+
     /**
      * Gets an unmodifiable list of the {@link #meshes}.
      *
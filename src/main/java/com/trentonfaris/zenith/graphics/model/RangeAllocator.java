@@ -0,0 +1,144 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link RangeAllocator} hands out ranges of a linear space, such as the
+ * vertices or indices of a {@link GeometryArena}. Free ranges are kept sorted
+ * by offset, so that a freed range is merged with its free neighbours.
+ *
+ * @author Trenton Faris
+ */
+final class RangeAllocator {
+    /**
+     * The size of each free range, by offset.
+     */
+    private final TreeMap<Integer, Integer> free = new TreeMap<>();
+
+    /**
+     * The size of the space.
+     */
+    private int capacity;
+
+    /**
+     * The total size of the free ranges.
+     */
+    private int freeSize;
+
+    /**
+     * Creates a new {@link RangeAllocator} of a space that is entirely free.
+     *
+     * @param capacity The size of the space
+     */
+    RangeAllocator(int capacity) {
+        reset(capacity, 0);
+    }
+
+    /**
+     * Allocates a range from the first free range that it fits in.
+     *
+     * @param size The size of the range
+     * @return The offset of the range, or {@code -1} if no free range is large
+     *         enough.
+     */
+    int allocate(int size) {
+        if (size == 0) {
+            return 0;
+        }
+
+        for (Map.Entry<Integer, Integer> entry : free.entrySet()) {
+            int offset = entry.getKey();
+            int rangeSize = entry.getValue();
+            if (rangeSize < size) {
+                continue;
+            }
+
+            free.remove(offset);
+            if (rangeSize > size) {
+                free.put(offset + size, rangeSize - size);
+            }
+
+            this.freeSize -= size;
+            return offset;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Frees a range that was allocated, merging it with its free neighbours.
+     *
+     * @param offset The offset of the range
+     * @param size The size of the range
+     */
+    void free(int offset, int size) {
+        if (size == 0) {
+            return;
+        }
+
+        this.freeSize += size;
+
+        Map.Entry<Integer, Integer> next = free.ceilingEntry(offset);
+        if (next != null && next.getKey() == offset + size) {
+            free.remove(next.getKey());
+            size += next.getValue();
+        }
+
+        Map.Entry<Integer, Integer> previous = free.floorEntry(offset);
+        if (previous != null && previous.getKey() + previous.getValue() == offset) {
+            offset = previous.getKey();
+            size += previous.getValue();
+        }
+
+        free.put(offset, size);
+    }
+
+    /**
+     * Resets the space so that a prefix of it is allocated and the rest is free.
+     *
+     * @param capacity The size of the space
+     * @param used The size of the allocated prefix
+     */
+    void reset(int capacity, int used) {
+        this.capacity = capacity;
+        this.freeSize = capacity - used;
+
+        free.clear();
+        if (used < capacity) {
+            free.put(used, capacity - used);
+        }
+    }
+
+    /**
+     * Gets the {@link #capacity}.
+     *
+     * @return The {@link #capacity} value.
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the {@link #freeSize}.
+     *
+     * @return The {@link #freeSize} value.
+     */
+    int getFreeSize() {
+        return freeSize;
+    }
+
+    /**
+     * Gets the size of the largest free range.
+     *
+     * @return The size of the largest free range.
+     */
+    int getLargestFreeSize() {
+        int largest = 0;
+        for (int size : free.values()) {
+            largest = Math.max(largest, size);
+        }
+
+        return largest;
+    }
+}
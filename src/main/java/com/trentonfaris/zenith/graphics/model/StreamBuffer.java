@@ -0,0 +1,219 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.StateCache;
+import com.trentonfaris.zenith.utility.Disposable;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL44;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link StreamBuffer} is an array buffer for data that is rewritten about
+ * every frame. It is split into {@link #NUM_REGIONS} regions which are written
+ * in turn, so that the CPU can write one region while the GPU still reads the
+ * others.
+ *
+ * <p>
+ * Where buffer storage is supported, the buffer is mapped once, persistently
+ * and coherently, and each region is guarded by a fence that is placed after
+ * the draws that read it. Writing a region only waits on its fence, which has
+ * usually long been signaled. Otherwise, the buffer is orphaned on every write.
+ *
+ * @author Trenton Faris
+ */
+public final class StreamBuffer implements Disposable {
+    /**
+     * The number of regions, which is the number of frames that the CPU may run
+     * ahead of the GPU before a write waits.
+     */
+    public static final int NUM_REGIONS = 3;
+
+    /**
+     * The number of nanoseconds that a write waits on a fence before logging a
+     * stall and waiting again.
+     */
+    private static final long FENCE_TIMEOUT = 1_000_000_000L;
+
+    /**
+     * The buffer object of this {@link StreamBuffer}.
+     */
+    private final int buffer;
+
+    /**
+     * The number of bytes of each region.
+     */
+    private final int regionSize;
+
+    /**
+     * The persistently mapped storage of every region, or {@code null} if buffer
+     * storage is not supported.
+     */
+    private final ByteBuffer mapping;
+
+    /**
+     * The fence placed after the last draw that read each region, or {@code 0}.
+     */
+    private final long[] fences = new long[NUM_REGIONS];
+
+    /**
+     * The region that was written last.
+     */
+    private int region;
+
+    /**
+     * Creates a new {@link StreamBuffer}.
+     *
+     * @param regionSize The number of bytes of each region
+     */
+    public StreamBuffer(int regionSize) {
+        if (regionSize <= 0) {
+            String errorMsg = "Cannot create a StreamBuffer with regions of " + regionSize + " bytes.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.regionSize = regionSize;
+        this.buffer = GL15.glGenBuffers();
+
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+        stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+
+        if (GL.getCapabilities().GL_ARB_buffer_storage) {
+            int flags = GL30.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT | GL44.GL_MAP_COHERENT_BIT;
+
+            GL44.glBufferStorage(GL15.GL_ARRAY_BUFFER, (long) regionSize * NUM_REGIONS, flags);
+            this.mapping = GL30.glMapBufferRange(GL15.GL_ARRAY_BUFFER, 0, (long) regionSize * NUM_REGIONS, flags);
+        } else {
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, regionSize, GL15.GL_STREAM_DRAW);
+            this.mapping = null;
+        }
+
+        stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Writes data into the next region, waiting for the GPU to finish reading it
+     * if it must.
+     *
+     * @param data The data to write, from its position to its limit, which must
+     *             fit in a region
+     * @return The byte offset of the written region in the buffer.
+     */
+    public long write(ByteBuffer data) {
+        if (data == null || data.remaining() > regionSize) {
+            String errorMsg = "Cannot write data that is null or larger than a region to a StreamBuffer.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (mapping == null) {
+            // Orphan the storage, so that draws still reading it keep the old copy.
+            StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+            stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, regionSize, GL15.GL_STREAM_DRAW);
+            GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, data);
+
+            stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+            return 0;
+        }
+
+        this.region = (region + 1) % NUM_REGIONS;
+        waitFence(region);
+
+        long offset = (long) region * regionSize;
+        MemoryUtil.memCopy(MemoryUtil.memAddress(data), MemoryUtil.memAddress(mapping) + offset, data.remaining());
+
+        return offset;
+    }
+
+    /**
+     * Places a fence after the draws issued so far, which guards the last written
+     * region. Call this after drawing from the region.
+     */
+    public void fence() {
+        if (mapping == null) {
+            return;
+        }
+
+        if (fences[region] != 0) {
+            GL32.glDeleteSync(fences[region]);
+        }
+
+        fences[region] = GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+    }
+
+    /**
+     * Waits until the GPU has finished the draws that read a region.
+     *
+     * @param region The index of the region
+     */
+    private void waitFence(int region) {
+        long fence = fences[region];
+        if (fence == 0) {
+            return;
+        }
+
+        int result = GL32.glClientWaitSync(fence, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, FENCE_TIMEOUT);
+        while (result == GL32.GL_TIMEOUT_EXPIRED) {
+            Zenith.getLogger().warn("Waited " + FENCE_TIMEOUT / 1_000_000 + " ms on a StreamBuffer region.");
+            result = GL32.glClientWaitSync(fence, 0, FENCE_TIMEOUT);
+        }
+
+        GL32.glDeleteSync(fence);
+        fences[region] = 0;
+    }
+
+    @Override
+    public void dispose() {
+        for (int i = 0; i < NUM_REGIONS; i++) {
+            if (fences[i] != 0) {
+                GL32.glDeleteSync(fences[i]);
+                fences[i] = 0;
+            }
+        }
+
+        if (mapping != null) {
+            StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+            stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, buffer);
+            GL15.glUnmapBuffer(GL15.GL_ARRAY_BUFFER);
+            stateCache.bindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        }
+
+        Zenith.getEngine().getGraphics().getStateCache().deleteBuffer(buffer);
+    }
+
+    /**
+     * Gets the {@link #buffer}.
+     *
+     * @return The {@link #buffer} value.
+     */
+    public int getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Gets the {@link #regionSize}.
+     *
+     * @return The {@link #regionSize} value.
+     */
+    public int getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * Determines whether this {@link StreamBuffer} is persistently mapped. Only a
+     * persistently mapped buffer holds every region at once; an orphaned buffer
+     * holds only the region that was written last.
+     *
+     * @return Whether the {@link #mapping} exists.
+     */
+    public boolean isPersistent() {
+        return mapping != null;
+    }
+}
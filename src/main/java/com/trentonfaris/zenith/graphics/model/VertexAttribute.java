@@ -0,0 +1,262 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+
+import java.util.Objects;
+
+/**
+ * A {@link VertexAttribute} describes one attribute of every vertex in a
+ * {@link VertexFormat}: what it means, how many components it has, and how
+ * they are stored.
+ *
+ * <p>
+ * A direction may be stored octahedrally, as two components which map the unit
+ * sphere onto a square. Shaders decode an octahedral attribute from the
+ * {@code xy} of the attribute, whose {@code z} is left at zero.
+ *
+ * @author Trenton Faris
+ */
+public final class VertexAttribute {
+    /**
+     * A position attribute of three floats.
+     */
+    public static final VertexAttribute POSITION = new VertexAttribute(Semantic.POSITION, 3, ComponentType.FLOAT,
+            false);
+
+    /**
+     * A texture coordinate attribute of two floats.
+     */
+    public static final VertexAttribute UV = new VertexAttribute(Semantic.UV, 2, ComponentType.FLOAT, false);
+
+    /**
+     * A normal attribute of three floats.
+     */
+    public static final VertexAttribute NORMAL = new VertexAttribute(Semantic.NORMAL, 3, ComponentType.FLOAT, false);
+
+    /**
+     * A tangent attribute of three floats.
+     */
+    public static final VertexAttribute TANGENT = new VertexAttribute(Semantic.TANGENT, 3, ComponentType.FLOAT,
+            false);
+
+    /**
+     * A bitangent attribute of three floats.
+     */
+    public static final VertexAttribute BITANGENT = new VertexAttribute(Semantic.BITANGENT, 3, ComponentType.FLOAT,
+            false);
+
+    /**
+     * A texture coordinate attribute of two half floats.
+     */
+    public static final VertexAttribute UV_HALF = new VertexAttribute(Semantic.UV, 2, ComponentType.HALF_FLOAT,
+            false);
+
+    /**
+     * A normal attribute packed into 10 bits per component.
+     */
+    public static final VertexAttribute NORMAL_PACKED = new VertexAttribute(Semantic.NORMAL, 4,
+            ComponentType.INT_2_10_10_10_REV, true);
+
+    /**
+     * A tangent attribute packed into 10 bits per component.
+     */
+    public static final VertexAttribute TANGENT_PACKED = new VertexAttribute(Semantic.TANGENT, 4,
+            ComponentType.INT_2_10_10_10_REV, true);
+
+    /**
+     * A bitangent attribute packed into 10 bits per component.
+     */
+    public static final VertexAttribute BITANGENT_PACKED = new VertexAttribute(Semantic.BITANGENT, 4,
+            ComponentType.INT_2_10_10_10_REV, true);
+
+    /**
+     * A normal attribute of two octahedral snorm16 components.
+     */
+    public static final VertexAttribute NORMAL_OCTAHEDRAL = new VertexAttribute(Semantic.NORMAL, 2,
+            ComponentType.SHORT, true, true);
+
+    /**
+     * A tangent attribute of two octahedral snorm16 components.
+     */
+    public static final VertexAttribute TANGENT_OCTAHEDRAL = new VertexAttribute(Semantic.TANGENT, 2,
+            ComponentType.SHORT, true, true);
+
+    /**
+     * A bitangent attribute of two octahedral snorm16 components.
+     */
+    public static final VertexAttribute BITANGENT_OCTAHEDRAL = new VertexAttribute(Semantic.BITANGENT, 2,
+            ComponentType.SHORT, true, true);
+
+    /**
+     * The {@link Semantic} of this {@link VertexAttribute}.
+     */
+    private final Semantic semantic;
+
+    /**
+     * The number of components of this {@link VertexAttribute}.
+     */
+    private final int size;
+
+    /**
+     * The {@link ComponentType} of each component.
+     */
+    private final ComponentType componentType;
+
+    /**
+     * Whether integer components are normalized when they are read by a shader.
+     */
+    private final boolean normalized;
+
+    /**
+     * Whether this {@link VertexAttribute} is a direction stored in two
+     * octahedral components.
+     */
+    private final boolean octahedral;
+
+    /**
+     * Creates a new {@link VertexAttribute}.
+     *
+     * @param semantic      The {@link Semantic} of the attribute
+     * @param size          The number of components, from 1 to 4
+     * @param componentType The {@link ComponentType} of each component
+     * @param normalized    Whether integer components are normalized
+     */
+    public VertexAttribute(Semantic semantic, int size, ComponentType componentType, boolean normalized) {
+        this(semantic, size, componentType, normalized, false);
+    }
+
+    /**
+     * Creates a new {@link VertexAttribute}.
+     *
+     * @param semantic      The {@link Semantic} of the attribute
+     * @param size          The number of components, from 1 to 4
+     * @param componentType The {@link ComponentType} of each component
+     * @param normalized    Whether integer components are normalized
+     * @param octahedral    Whether the attribute is a direction stored in two
+     *                      octahedral components
+     */
+    public VertexAttribute(Semantic semantic, int size, ComponentType componentType, boolean normalized,
+            boolean octahedral) {
+        if (semantic == null) {
+            String errorMsg = "Cannot create a VertexAttribute from a null semantic.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (size < 1 || size > 4) {
+            String errorMsg = "Cannot create a VertexAttribute with " + size + " components.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (componentType == null) {
+            String errorMsg = "Cannot create a VertexAttribute from a null componentType.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (componentType.isPacked() && size != 4) {
+            String errorMsg = "Cannot create a VertexAttribute of packed " + componentType + " components with "
+                    + size + " components.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (octahedral && (size != 2 || componentType.isPacked())) {
+            String errorMsg = "Cannot create an octahedral VertexAttribute that is not two unpacked components.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.semantic = semantic;
+        this.size = size;
+        this.componentType = componentType;
+        this.normalized = normalized;
+        this.octahedral = octahedral;
+    }
+
+    /**
+     * Gets the {@link #semantic}.
+     *
+     * @return The {@link #semantic} value.
+     */
+    public Semantic getSemantic() {
+        return semantic;
+    }
+
+    /**
+     * Gets the {@link #size}.
+     *
+     * @return The {@link #size} value.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the {@link #componentType}.
+     *
+     * @return The {@link #componentType} value.
+     */
+    public ComponentType getComponentType() {
+        return componentType;
+    }
+
+    /**
+     * Gets the {@link #normalized} flag.
+     *
+     * @return The {@link #normalized} flag.
+     */
+    public boolean isNormalized() {
+        return normalized;
+    }
+
+    /**
+     * Gets the {@link #octahedral} flag.
+     *
+     * @return The {@link #octahedral} flag.
+     */
+    public boolean isOctahedral() {
+        return octahedral;
+    }
+
+    /**
+     * Gets the number of components of this {@link VertexAttribute} once it is
+     * decoded, which is three for an octahedral direction.
+     *
+     * @return The number of decoded components.
+     */
+    public int getComponents() {
+        return octahedral ? 3 : size;
+    }
+
+    /**
+     * Gets the number of bytes of this {@link VertexAttribute} in each vertex.
+     *
+     * @return The number of bytes of this {@link VertexAttribute}.
+     */
+    public int getBytes() {
+        return componentType.isPacked() ? componentType.getBytes() : size * componentType.getBytes();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VertexAttribute that = (VertexAttribute) o;
+        return size == that.size && normalized == that.normalized && octahedral == that.octahedral
+                && semantic == that.semantic && componentType == that.componentType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(semantic, size, componentType, normalized, octahedral);
+    }
+
+    /**
+     * A {@link Semantic} defines what a {@link VertexAttribute} means.
+     */
+    public enum Semantic {
+        POSITION, UV, NORMAL, TANGENT, BITANGENT
+    }
+}
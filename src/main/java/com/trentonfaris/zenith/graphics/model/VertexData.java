@@ -0,0 +1,359 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.model.VertexAttribute.Semantic;
+import com.trentonfaris.zenith.utility.Copyable;
+import com.trentonfaris.zenith.utility.Disposable;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link VertexData} stores the vertices of a {@link Mesh}, interleaved in
+ * the layout of a {@link VertexFormat}, in a single off-heap buffer. It is
+ * uploaded to OpenGL as is.
+ *
+ * <p>
+ * Individual attributes can be read and written through a {@link View}, which
+ * is meant for occasional edits on the CPU. Components are read and written as
+ * floats whatever their {@link ComponentType}, and octahedral directions are
+ * read and written as three components. Bulk writers, such as loaders, may fill
+ * the {@link #buffer} directly.
+ *
+ * @author Trenton Faris
+ */
+public final class VertexData implements Copyable, Disposable {
+    /**
+     * The {@link VertexFormat} of each vertex.
+     */
+    private final VertexFormat format;
+
+    /**
+     * The number of vertices.
+     */
+    private final int vertexCount;
+
+    /**
+     * The off-heap buffer of the interleaved vertices.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Creates a new {@link VertexData} of zeroed vertices.
+     *
+     * @param format      The {@link VertexFormat} of each vertex
+     * @param vertexCount The number of vertices
+     */
+    public VertexData(VertexFormat format, int vertexCount) {
+        if (format == null) {
+            String errorMsg = "Cannot create a VertexData from a null format.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (vertexCount <= 0) {
+            String errorMsg = "Cannot create a VertexData with " + vertexCount + " vertices.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.format = format;
+        this.vertexCount = vertexCount;
+        this.buffer = MemoryUtil.memCalloc(vertexCount * format.getStride());
+    }
+
+    /**
+     * Creates a new {@link VertexData} with the specified format that holds the
+     * attributes of this {@link VertexData} with the same {@link Semantic}.
+     * Attributes that this {@link VertexData} does not have are zeroed.
+     *
+     * @param format The {@link VertexFormat} of the new {@link VertexData}
+     * @return The converted {@link VertexData}.
+     */
+    public VertexData convert(VertexFormat format) {
+        VertexData result = new VertexData(format, vertexCount);
+
+        for (int i = 0; i < format.getAttributes().size(); i++) {
+            VertexAttribute attribute = format.getAttributes().get(i);
+
+            int source = this.format.indexOf(attribute.getSemantic());
+            if (source < 0) {
+                continue;
+            }
+
+            int size = Math.min(attribute.getComponents(), this.format.getAttributes().get(source).getComponents());
+
+            for (int vertex = 0; vertex < vertexCount; vertex++) {
+                if (attribute.isOctahedral()) {
+                    // Octahedral directions are encoded from every component at once.
+                    result.putOctahedral(vertex, i, getFloat(vertex, source, 0), getFloat(vertex, source, 1),
+                            size > 2 ? getFloat(vertex, source, 2) : 0);
+                    continue;
+                }
+
+                for (int component = 0; component < size; component++) {
+                    result.putFloat(vertex, i, component, getFloat(vertex, source, component));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets a component of an attribute of a vertex.
+     *
+     * @param vertex    The index of the vertex
+     * @param attribute The index of the attribute in the {@link #format}
+     * @param component The index of the component
+     * @return The value of the component.
+     */
+    public float getFloat(int vertex, int attribute, int component) {
+        VertexAttribute vertexAttribute = format.getAttributes().get(attribute);
+        ComponentType componentType = vertexAttribute.getComponentType();
+
+        int index = vertex * format.getStride() + format.getOffset(attribute);
+
+        if (vertexAttribute.isOctahedral()) {
+            float x = componentType.get(buffer, index, 0, vertexAttribute.isNormalized());
+            float y = componentType.get(buffer, index, 1, vertexAttribute.isNormalized());
+            float z = 1 - Math.abs(x) - Math.abs(y);
+
+            // Unfold the lower hemisphere from the corners of the square.
+            if (z < 0) {
+                float foldedX = (1 - Math.abs(y)) * (x >= 0 ? 1 : -1);
+                float foldedY = (1 - Math.abs(x)) * (y >= 0 ? 1 : -1);
+                x = foldedX;
+                y = foldedY;
+            }
+
+            float length = (float) Math.sqrt(x * x + y * y + z * z);
+            return (component == 0 ? x : component == 1 ? y : z) / length;
+        }
+
+        return componentType.get(buffer, index, component, vertexAttribute.isNormalized());
+    }
+
+    /**
+     * Sets a component of an attribute of a vertex.
+     *
+     * @param vertex    The index of the vertex
+     * @param attribute The index of the attribute in the {@link #format}
+     * @param component The index of the component
+     * @param value     The target value of the component
+     */
+    public void putFloat(int vertex, int attribute, int component, float value) {
+        VertexAttribute vertexAttribute = format.getAttributes().get(attribute);
+
+        if (vertexAttribute.isOctahedral()) {
+            float x = component == 0 ? value : getFloat(vertex, attribute, 0);
+            float y = component == 1 ? value : getFloat(vertex, attribute, 1);
+            float z = component == 2 ? value : getFloat(vertex, attribute, 2);
+
+            putOctahedral(vertex, attribute, x, y, z);
+            return;
+        }
+
+        int index = vertex * format.getStride() + format.getOffset(attribute);
+        vertexAttribute.getComponentType().put(buffer, index, component, vertexAttribute.isNormalized(), value);
+    }
+
+    /**
+     * Encodes a direction into an octahedral attribute of a vertex. The direction
+     * is projected onto the octahedron, and the lower hemisphere is folded over
+     * the corners of the square.
+     *
+     * @param vertex    The index of the vertex
+     * @param attribute The index of the octahedral attribute in the {@link #format}
+     * @param x         The x component of the direction
+     * @param y         The y component of the direction
+     * @param z         The z component of the direction
+     */
+    private void putOctahedral(int vertex, int attribute, float x, float y, float z) {
+        VertexAttribute vertexAttribute = format.getAttributes().get(attribute);
+        ComponentType componentType = vertexAttribute.getComponentType();
+
+        float sum = Math.abs(x) + Math.abs(y) + Math.abs(z);
+        if (sum > 0) {
+            x /= sum;
+            y /= sum;
+        }
+
+        if (z < 0) {
+            float foldedX = (1 - Math.abs(y)) * (x >= 0 ? 1 : -1);
+            float foldedY = (1 - Math.abs(x)) * (y >= 0 ? 1 : -1);
+            x = foldedX;
+            y = foldedY;
+        }
+
+        int index = vertex * format.getStride() + format.getOffset(attribute);
+        componentType.put(buffer, index, 0, vertexAttribute.isNormalized(), x);
+        componentType.put(buffer, index, 1, vertexAttribute.isNormalized(), y);
+    }
+
+    /**
+     * Gets a {@link View} of the first attribute with the specified
+     * {@link Semantic}.
+     *
+     * @param semantic The {@link Semantic} of the attribute
+     * @return The {@link View} of the attribute.
+     */
+    public View view(Semantic semantic) {
+        int attribute = format.indexOf(semantic);
+        if (attribute < 0) {
+            String errorMsg = "Cannot view the " + semantic + " attribute of a VertexData that does not have one.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        return new View(attribute);
+    }
+
+    /**
+     * Determines whether the {@link #format} has an attribute with the specified
+     * {@link Semantic}.
+     *
+     * @param semantic The target {@link Semantic}
+     * @return Whether there is an attribute with the {@link Semantic}.
+     */
+    public boolean has(Semantic semantic) {
+        return format.indexOf(semantic) >= 0;
+    }
+
+    @Override
+    public VertexData copy() {
+        VertexData copy = new VertexData(format, vertexCount);
+        MemoryUtil.memCopy(buffer, copy.buffer);
+
+        return copy;
+    }
+
+    @Override
+    public void dispose() {
+        if (buffer != null) {
+            MemoryUtil.memFree(buffer);
+            this.buffer = null;
+        }
+    }
+
+    /**
+     * Gets the {@link #format}.
+     *
+     * @return The {@link #format} value.
+     */
+    public VertexFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Gets the {@link #vertexCount}.
+     *
+     * @return The {@link #vertexCount} value.
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the {@link #buffer}. Its position is zero and its limit is the size of
+     * the vertices in bytes.
+     *
+     * @return The {@link #buffer} value.
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VertexData that = (VertexData) o;
+        return vertexCount == that.vertexCount && format.equals(that.format) && buffer.equals(that.buffer);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * format.hashCode() + vertexCount;
+    }
+
+    /**
+     * A {@link View} reads and writes one attribute of each vertex.
+     */
+    public final class View {
+        /**
+         * The index of the attribute in the {@link #format}.
+         */
+        private final int attribute;
+
+        private View(int attribute) {
+            this.attribute = attribute;
+        }
+
+        /**
+         * Gets a component of the attribute of a vertex.
+         *
+         * @param vertex    The index of the vertex
+         * @param component The index of the component
+         * @return The value of the component.
+         */
+        public float getFloat(int vertex, int component) {
+            return VertexData.this.getFloat(vertex, attribute, component);
+        }
+
+        /**
+         * Sets a component of the attribute of a vertex.
+         *
+         * @param vertex    The index of the vertex
+         * @param component The index of the component
+         * @param value     The target value of the component
+         */
+        public void setFloat(int vertex, int component, float value) {
+            putFloat(vertex, attribute, component, value);
+        }
+
+        public Vector2f get(int vertex, Vector2f dest) {
+            return dest.set(getFloat(vertex, 0), getFloat(vertex, 1));
+        }
+
+        public Vector3f get(int vertex, Vector3f dest) {
+            return dest.set(getFloat(vertex, 0), getFloat(vertex, 1), getFloat(vertex, 2));
+        }
+
+        public Vector4f get(int vertex, Vector4f dest) {
+            return dest.set(getFloat(vertex, 0), getFloat(vertex, 1), getFloat(vertex, 2), getFloat(vertex, 3));
+        }
+
+        public void set(int vertex, float x, float y) {
+            setFloat(vertex, 0, x);
+            setFloat(vertex, 1, y);
+        }
+
+        public void set(int vertex, float x, float y, float z) {
+            if (getAttribute().isOctahedral()) {
+                putOctahedral(vertex, attribute, x, y, z);
+                return;
+            }
+
+            set(vertex, x, y);
+            setFloat(vertex, 2, z);
+        }
+
+        public void set(int vertex, float x, float y, float z, float w) {
+            set(vertex, x, y, z);
+            setFloat(vertex, 3, w);
+        }
+
+        /**
+         * Gets the {@link VertexAttribute} of this {@link View}.
+         *
+         * @return The {@link VertexAttribute} of this {@link View}.
+         */
+        public VertexAttribute getAttribute() {
+            return format.getAttributes().get(attribute);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.trentonfaris.zenith.graphics.model;
+
+/**
+ * A {@link VertexEncoding} selects how the attributes of an imported
+ * {@link Mesh} are stored. Positions are always stored as floats, so that
+ * meshes of any scale keep their precision.
+ *
+ * @author Trenton Faris
+ */
+public enum VertexEncoding {
+	/** Every attribute is stored as 32-bit floats, in 56 bytes per vertex. */
+	FULL,
+
+	/**
+	 * Texture coordinates are stored as half floats, and directions are packed
+	 * into 10 bits per component, in 28 bytes per vertex.
+	 */
+	PACKED,
+
+	/**
+	 * Texture coordinates are stored as half floats, and directions are stored as
+	 * two octahedral snorm16 components, in 28 bytes per vertex. Directions keep
+	 * more precision than {@link #PACKED}, but shaders must decode them.
+	 */
+	OCTAHEDRAL;
+
+	/**
+	 * Creates the {@link VertexFormat} of this {@link VertexEncoding}.
+	 *
+	 * @param hasUvs Whether the vertices have texture coordinates
+	 * @return The {@link VertexFormat}.
+	 */
+	public VertexFormat createFormat(boolean hasUvs) {
+		VertexAttribute uv;
+		VertexAttribute normal;
+		VertexAttribute tangent;
+		VertexAttribute bitangent;
+
+		switch (this) {
+		case PACKED:
+			uv = VertexAttribute.UV_HALF;
+			normal = VertexAttribute.NORMAL_PACKED;
+			tangent = VertexAttribute.TANGENT_PACKED;
+			bitangent = VertexAttribute.BITANGENT_PACKED;
+			break;
+		case OCTAHEDRAL:
+			uv = VertexAttribute.UV_HALF;
+			normal = VertexAttribute.NORMAL_OCTAHEDRAL;
+			tangent = VertexAttribute.TANGENT_OCTAHEDRAL;
+			bitangent = VertexAttribute.BITANGENT_OCTAHEDRAL;
+			break;
+		default:
+			uv = VertexAttribute.UV;
+			normal = VertexAttribute.NORMAL;
+			tangent = VertexAttribute.TANGENT;
+			bitangent = VertexAttribute.BITANGENT;
+			break;
+		}
+
+		return hasUvs ? new VertexFormat(VertexAttribute.POSITION, uv, normal, tangent, bitangent)
+				: new VertexFormat(VertexAttribute.POSITION, normal, tangent, bitangent);
+	}
+}
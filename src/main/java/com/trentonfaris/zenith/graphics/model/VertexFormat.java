@@ -0,0 +1,144 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.model.VertexAttribute.Semantic;
+import org.lwjgl.opengl.GL20;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link VertexFormat} describes the layout of an interleaved vertex. The
+ * attributes are packed in order, and the location of each attribute in a
+ * shader is its index in the {@link VertexFormat}.
+ *
+ * @author Trenton Faris
+ */
+public final class VertexFormat {
+    /**
+     * The attributes of each vertex, in order.
+     */
+    private final List<VertexAttribute> attributes;
+
+    /**
+     * The byte offset of each attribute in a vertex.
+     */
+    private final int[] offsets;
+
+    /**
+     * The number of bytes of each vertex.
+     */
+    private final int stride;
+
+    /**
+     * Creates a new {@link VertexFormat} from the specified attributes.
+     *
+     * @param attributes The attributes of each vertex, in order
+     */
+    public VertexFormat(VertexAttribute... attributes) {
+        if (attributes == null || attributes.length == 0) {
+            String errorMsg = "Cannot create a VertexFormat from a null or empty list of attributes.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.offsets = new int[attributes.length];
+
+        int offset = 0;
+        for (int i = 0; i < attributes.length; i++) {
+            if (attributes[i] == null) {
+                String errorMsg = "Cannot create a VertexFormat from a null attribute.";
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+
+            offsets[i] = offset;
+            offset += attributes[i].getBytes();
+        }
+
+        this.attributes = List.of(attributes);
+        this.stride = offset;
+    }
+
+    /**
+     * Points each vertex attribute of the bound vertex array object at the bound
+     * array buffer.
+     */
+    void setup() {
+        for (int i = 0; i < attributes.size(); i++) {
+            VertexAttribute attribute = attributes.get(i);
+
+            GL20.glEnableVertexAttribArray(i);
+            GL20.glVertexAttribPointer(i, attribute.getSize(), attribute.getComponentType().getValue(),
+                    attribute.isNormalized(), stride, offsets[i]);
+        }
+    }
+
+    /**
+     * Gets the index of the first attribute with the specified {@link Semantic}.
+     *
+     * @param semantic The target {@link Semantic}
+     * @return The index of the attribute, or {@code -1} if there is none.
+     */
+    public int indexOf(Semantic semantic) {
+        for (int i = 0; i < attributes.size(); i++) {
+            if (attributes.get(i).getSemantic() == semantic) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets whether the directions of each vertex are stored as octahedral
+     * components, which shaders must decode.
+     *
+     * @return Whether the normal attribute is octahedral.
+     */
+    public boolean isOctahedral() {
+        int normal = indexOf(Semantic.NORMAL);
+        return normal >= 0 && attributes.get(normal).isOctahedral();
+    }
+
+    /**
+     * Gets an unmodifiable list of the {@link #attributes}.
+     *
+     * @return An unmodifiable list of the {@link #attributes}.
+     */
+    public List<VertexAttribute> getAttributes() {
+        return Collections.unmodifiableList(attributes);
+    }
+
+    /**
+     * Gets the byte offset of an attribute in a vertex.
+     *
+     * @param attribute The index of the attribute
+     * @return The byte offset of the attribute.
+     */
+    public int getOffset(int attribute) {
+        return offsets[attribute];
+    }
+
+    /**
+     * Gets the {@link #stride}.
+     *
+     * @return The {@link #stride} value.
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VertexFormat that = (VertexFormat) o;
+        return attributes.equals(that.attributes);
+    }
+
+    @Override
+    public int hashCode() {
+        return attributes.hashCode();
+    }
+}
@@ -0,0 +1,233 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.model.VertexAttribute.Semantic;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The {@link VertexWelder} class merges the vertices of a {@link VertexData}
+ * which are equal within a tolerance. Importers split vertices along every
+ * hard edge and texture seam, and often duplicate vertices that were never
+ * split at all, so welding can remove a large part of an imported mesh.
+ *
+ * <p>
+ * Vertices are bucketed into a spatial hash of their positions, with cells the
+ * size of the position tolerance. A vertex is welded onto the first earlier
+ * vertex in its own or a neighbouring cell whose every component is within the
+ * tolerance of its attribute.
+ *
+ * @author Trenton Faris
+ */
+public final class VertexWelder {
+    /**
+     * The offsets of a cell and its neighbours along each axis.
+     */
+    private static final int[] NEIGHBOURS = {0, -1, 1};
+
+    private VertexWelder() {
+    }
+
+    /**
+     * Finds the vertices of a {@link VertexData} which can be welded. Vertices
+     * keep their first-seen order. The result can be applied with
+     * {@link MeshOptimizer#remapVertices(VertexData, int[])}.
+     *
+     * @param vertexData The {@link VertexData} to weld
+     * @param epsilons   The largest difference of a component of each
+     *                   {@link Semantic} for which vertices are welded. Attributes
+     *                   without an epsilon must be exactly equal.
+     * @return The new index of each old vertex.
+     */
+    public static int[] weld(VertexData vertexData, Map<Semantic, Float> epsilons) {
+        if (vertexData == null || epsilons == null) {
+            String errorMsg = "Cannot weld a null VertexData or with null epsilons.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        VertexFormat format = vertexData.getFormat();
+        int vertexCount = vertexData.getVertexCount();
+
+        // Gather the decoded components of every vertex, and the epsilon of each component.
+        int numComponents = 0;
+        for (VertexAttribute attribute : format.getAttributes()) {
+            numComponents += attribute.getComponents();
+        }
+
+        float[] tolerances = new float[numComponents];
+        float[] values = new float[vertexCount * numComponents];
+
+        int c = 0;
+        for (int a = 0; a < format.getAttributes().size(); a++) {
+            VertexAttribute attribute = format.getAttributes().get(a);
+            float epsilon = epsilons.getOrDefault(attribute.getSemantic(), 0f);
+
+            for (int component = 0; component < attribute.getComponents(); component++, c++) {
+                tolerances[c] = epsilon;
+
+                for (int v = 0; v < vertexCount; v++) {
+                    values[v * numComponents + c] = vertexData.getFloat(v, a, component);
+                }
+            }
+        }
+
+        int position = format.indexOf(Semantic.POSITION);
+        if (position < 0) {
+            // Without positions to hash there is nothing to bucket by, so nothing is welded.
+            int[] remap = new int[vertexCount];
+            for (int v = 0; v < vertexCount; v++) {
+                remap[v] = v;
+            }
+
+            return remap;
+        }
+
+        int positionComponent = 0;
+        for (int a = 0; a < position; a++) {
+            positionComponent += format.getAttributes().get(a).getComponents();
+        }
+
+        int positionSize = Math.min(format.getAttributes().get(position).getComponents(), 3);
+
+        return weld(values, numComponents, tolerances, positionComponent, positionSize);
+    }
+
+    /**
+     * Finds the vertices which can be welded from their decoded components.
+     *
+     * @param values            The components of every vertex
+     * @param numComponents     The number of components of each vertex
+     * @param tolerances        The tolerance of each component
+     * @param positionComponent The first position component of each vertex
+     * @param positionSize      The number of position components, up to three
+     * @return The new index of each old vertex.
+     */
+    static int[] weld(float[] values, int numComponents, float[] tolerances, int positionComponent,
+            int positionSize) {
+        int vertexCount = numComponents == 0 ? 0 : values.length / numComponents;
+        int[] remap = new int[vertexCount];
+
+        float cellSize = tolerances[positionComponent];
+
+        // An open addressed table from cells to the first representative vertex in them.
+        int capacity = Integer.highestOneBit(Math.max(vertexCount, 1) * 2) * 2;
+        long[] tableCells = new long[capacity * 3];
+        int[] tableHeads = new int[capacity];
+        Arrays.fill(tableHeads, -1);
+
+        // The next representative vertex in the same cell, and the cell of each vertex.
+        int[] next = new int[vertexCount];
+        long[] cells = new long[vertexCount * 3];
+
+        int count = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            for (int axis = 0; axis < positionSize; axis++) {
+                cells[v * 3 + axis] = cell(values[v * numComponents + positionComponent + axis], cellSize);
+            }
+
+            int match = -1;
+            for (int i = 0; i < 27 && match < 0; i++) {
+                long x = cells[v * 3] + NEIGHBOURS[i % 3];
+                long y = cells[v * 3 + 1] + NEIGHBOURS[i / 3 % 3];
+                long z = cells[v * 3 + 2] + NEIGHBOURS[i / 9];
+
+                int slot = find(tableCells, tableHeads, x, y, z);
+                for (int r = tableHeads[slot]; r >= 0 && match < 0; r = next[r]) {
+                    if (equals(values, numComponents, tolerances, v, r)) {
+                        match = r;
+                    }
+                }
+            }
+
+            if (match >= 0) {
+                remap[v] = remap[match];
+                continue;
+            }
+
+            // This vertex represents every later vertex that is welded onto it.
+            remap[v] = count++;
+
+            int slot = find(tableCells, tableHeads, cells[v * 3], cells[v * 3 + 1], cells[v * 3 + 2]);
+            if (tableHeads[slot] < 0) {
+                tableCells[slot * 3] = cells[v * 3];
+                tableCells[slot * 3 + 1] = cells[v * 3 + 1];
+                tableCells[slot * 3 + 2] = cells[v * 3 + 2];
+            }
+
+            next[v] = tableHeads[slot];
+            tableHeads[slot] = v;
+        }
+
+        return remap;
+    }
+
+    /**
+     * Gets the cell of a coordinate. A cell size of zero puts each distinct value
+     * in its own cell. Cells are counted in a {@code long}, so that coordinates
+     * far from the origin do not all saturate into the same cell when the cell
+     * size is small.
+     *
+     * @param value    The coordinate
+     * @param cellSize The size of each cell
+     * @return The cell of the coordinate.
+     */
+    static long cell(float value, float cellSize) {
+        if (cellSize <= 0) {
+            // Adjacent cells hold the adjacent floats, which are never equal.
+            return Float.floatToIntBits(value + 0f);
+        }
+
+        return (long) Math.floor((double) value / cellSize);
+    }
+
+    /**
+     * Finds the slot of a cell in the table, which is either the slot that holds
+     * it or the empty slot where it would be inserted.
+     *
+     * @param tableCells The cell of each slot
+     * @param tableHeads The first vertex of each slot, or {@code -1} if it is empty
+     * @param x          The cell along the x axis
+     * @param y          The cell along the y axis
+     * @param z          The cell along the z axis
+     * @return The slot of the cell.
+     */
+    private static int find(long[] tableCells, int[] tableHeads, long x, long y, long z) {
+        int mask = tableHeads.length - 1;
+        long hash = (x * 73856093) ^ (y * 19349663) ^ (z * 83492791);
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+
+        while (tableHeads[slot] >= 0) {
+            if (tableCells[slot * 3] == x && tableCells[slot * 3 + 1] == y && tableCells[slot * 3 + 2] == z) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Determines whether every component of two vertices is within its
+     * tolerance.
+     *
+     * @param values        The components of every vertex
+     * @param numComponents The number of components of each vertex
+     * @param tolerances    The tolerance of each component
+     * @param a             The first vertex
+     * @param b             The second vertex
+     * @return Whether the vertices can be welded.
+     */
+    private static boolean equals(float[] values, int numComponents, float[] tolerances, int a, int b) {
+        for (int c = 0; c < numComponents; c++) {
+            // Written so that NaN components are never welded.
+            if (!(Math.abs(values[a * numComponents + c] - values[b * numComponents + c]) <= tolerances[c])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
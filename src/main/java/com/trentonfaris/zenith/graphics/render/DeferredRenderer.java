@@ -1,11 +1,578 @@
 package com.trentonfaris.zenith.graphics.render;
 
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+import org.joml.Vector2i;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
 import com.artemis.World;
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.ecs.component.light.Caster;
+import com.trentonfaris.zenith.ecs.component.light.Caster.CasterType;
+import com.trentonfaris.zenith.ecs.component.transform.Position;
+import com.trentonfaris.zenith.ecs.component.transformation.ModelMatrix;
+import com.trentonfaris.zenith.ecs.component.transformation.ProjectionMatrix;
+import com.trentonfaris.zenith.ecs.component.transformation.ViewMatrix;
+import com.trentonfaris.zenith.ecs.component.ui.Rect;
+import com.trentonfaris.zenith.ecs.system.light.LightSystem;
+import com.trentonfaris.zenith.graphics.Graphics;
+import com.trentonfaris.zenith.graphics.framebuffer.Attachment;
+import com.trentonfaris.zenith.graphics.framebuffer.Framebuffer;
+import com.trentonfaris.zenith.graphics.material.Material;
+import com.trentonfaris.zenith.graphics.material.RenderPass;
+import com.trentonfaris.zenith.graphics.model.IndirectBuffer;
+import com.trentonfaris.zenith.graphics.model.InstanceBuffer;
+import com.trentonfaris.zenith.graphics.model.Mesh;
+import com.trentonfaris.zenith.graphics.model.Model;
+import com.trentonfaris.zenith.graphics.shader.DeferredLightShader;
+import com.trentonfaris.zenith.graphics.shader.DeferredResolveShader;
+import com.trentonfaris.zenith.graphics.shader.GBufferShader;
+import com.trentonfaris.zenith.graphics.shader.ShaderManager;
+import com.trentonfaris.zenith.graphics.shader.StandardShader;
+import com.trentonfaris.zenith.graphics.shader.uniform.BoolUniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.Mat4Uniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.Uniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.UniformType;
+import com.trentonfaris.zenith.graphics.shader.uniform.Vec3Uniform;
+import com.trentonfaris.zenith.graphics.texture.FilteringMode;
+import com.trentonfaris.zenith.graphics.texture.InternalFormat;
+import com.trentonfaris.zenith.graphics.texture.PixelFormat;
+import com.trentonfaris.zenith.graphics.texture.PixelType;
+import com.trentonfaris.zenith.graphics.texture.Texture2D;
+import com.trentonfaris.zenith.graphics.texture.WrappingMode;
+import com.trentonfaris.zenith.resource.resources.Models;
 
+/**
+ * The {@link DeferredRenderer} renders opaque {@link StandardShader} meshes in
+ * two steps. A geometry pass first writes their surface properties into a
+ * G-buffer. Each light is then drawn once over the pixels it covers, so that
+ * the cost of lighting scales with the number of lit pixels rather than with
+ * the number of meshes times the number of lights.
+ *
+ * <p>
+ * The G-buffer is packed into two color attachments and a depth attachment:
+ * <ul>
+ * <li>{@link InternalFormat#RGBA8}: albedo and ambient occlusion.</li>
+ * <li>{@link InternalFormat#RGBA16}: an octahedral view space normal,
+ * roughness, and metallic.</li>
+ * <li>{@link InternalFormat#DEPTH32F}: depth, from which view space positions
+ * are reconstructed.</li>
+ * </ul>
+ *
+ * <p>
+ * Point and spot lights are drawn as light volumes, using the back faces of a
+ * cube scaled to their radius. Directional and ambient lights are drawn with a
+ * fullscreen triangle. Lighting is accumulated in a half float buffer, then
+ * tonemapped into the camera framebuffer along with the depth of the G-buffer.
+ * Transparent meshes, and meshes of other shaders, are drawn afterwards by the
+ * {@link ForwardRenderer}.
+ *
+ * @author Trenton Faris
+ */
 public final class DeferredRenderer extends Renderer {
+	/** The {@link DeferredRenderer} instance. */
+	private static DeferredRenderer instance = null;
+
+	/** The G-buffer written by the geometry pass. */
+	private Framebuffer gBuffer;
+
+	/** The framebuffer in which lighting is accumulated. */
+	private Framebuffer lightFb;
+
+	/** The width of the G-buffer. */
+	private int width;
+
+	/** The height of the G-buffer. */
+	private int height;
+
+	/** The draws of the geometry pass this frame, in key order. */
+	private final RenderQueue geometryQueue = new RenderQueue();
+
+	/** The draws left to the {@link ForwardRenderer} this frame, in key order. */
+	private final RenderQueue forwardQueue = new RenderQueue();
+
+	/** The {@link InstanceBuffer} of the current instanced batch. */
+	private InstanceBuffer instanceBuffer;
+
+	/** The {@link IndirectBuffer} of the current multi-draw batch. */
+	private IndirectBuffer indirectBuffer;
+
+	/** The {@link Mesh} drawn as the volume of point and spot lights. */
+	private Mesh lightVolume;
+
+	/** The half extent of the {@link #lightVolume}. */
+	private float lightVolumeExtent;
+
+	/** An empty vertex array object, for drawing fullscreen triangles. */
+	private int fullscreenVao;
+
+	/** Scratch space for the size of the G-buffer. */
+	private final Vector2f screenSize = new Vector2f();
+
+	/** Scratch space for the inverse projection matrix of the camera. */
+	private final Matrix4f inverseProjection = new Matrix4f();
+
+	/** Scratch space for the view-projection matrix of the camera. */
+	private final Matrix4f viewProjection = new Matrix4f();
+
+	/** Scratch space for model-view and model-view-projection matrices. */
+	private final Matrix4f modelView = new Matrix4f();
+
+	private DeferredRenderer() {
+	}
+
+	@Override
+	public void render(World world, int cameraId) {
+		ViewMatrix viewMatrix = world.getMapper(ViewMatrix.class).create(cameraId);
+		ProjectionMatrix projectionMatrix = world.getMapper(ProjectionMatrix.class).create(cameraId);
+
+		Vector2i size = Zenith.getEngine().getWindow().getSize();
+		Rect rect = world.getMapper(Rect.class).create(cameraId);
+
+		// The camera framebuffer is restored for the resolve and forward passes.
+		int targetFbo = Zenith.getEngine().getGraphics().getStateCache().getDrawFramebuffer();
+		if (targetFbo < 0) {
+			targetFbo = GL11.glGetInteger(GL30.GL_DRAW_FRAMEBUFFER_BINDING);
+		}
+
+		resize((int) (size.x * rect.width), (int) (size.y * rect.height));
+
+		extract(world, cameraId, viewMatrix.mat, projectionMatrix.mat);
+		partition();
+
+		projectionMatrix.mat.mul(viewMatrix.mat, viewProjection);
+		projectionMatrix.mat.invert(inverseProjection);
+		screenSize.set(width, height);
+
+		Graphics graphics = Zenith.getEngine().getGraphics();
+
+		// Cache graphics settings
+		boolean depthTesting = graphics.isDepthTesting();
+		boolean depthMasking = graphics.isDepthMasking();
+		int depthFunc = graphics.getDepthFunc();
+		boolean blending = graphics.isBlending();
+		int blendSrc = graphics.getBlendSrc();
+		int blendDst = graphics.getBlendDst();
+		boolean culling = graphics.isCulling();
+		int cullFace = graphics.getCullFace();
+
+		drawGeometry(world, viewMatrix.mat, projectionMatrix.mat);
+		drawLights(world, viewMatrix.mat);
+		resolve(targetFbo);
+
+		// Reset depth, blending, and culling properties.
+		graphics.setDepthTesting(depthTesting);
+		graphics.setDepthMasking(depthMasking);
+		graphics.setDepthFunc(depthFunc);
+		graphics.setBlending(blending);
+		graphics.setBlendSrc(blendSrc);
+		graphics.setBlendDst(blendDst);
+		graphics.setCulling(culling);
+		graphics.setCullFace(cullFace);
+		graphics.update();
+
+		ForwardRenderer.getInstance().submit(world, cameraId, forwardQueue, viewMatrix.mat, projectionMatrix.mat);
+	}
+
+	@Override
+	public void dispose() {
+		if (gBuffer == null) {
+			return;
+		}
+
+		gBuffer.dispose();
+		lightFb.dispose();
+		lightVolume.dispose();
+
+		Zenith.getEngine().getGraphics().getStateCache().deleteVertexArray(fullscreenVao);
+		instanceBuffer.dispose();
+		indirectBuffer.dispose();
+
+		this.gBuffer = null;
+		this.lightFb = null;
+		this.lightVolume = null;
+		this.instanceBuffer = null;
+		this.indirectBuffer = null;
+		this.width = 0;
+		this.height = 0;
+	}
+
+	/**
+	 * Creates the G-buffer and lighting framebuffers, and recreates their
+	 * attachments when the size of the camera changes.
+	 *
+	 * @param width The width of the camera
+	 * @param height The height of the camera
+	 */
+	private void resize(int width, int height) {
+		if (gBuffer == null) {
+			this.gBuffer = new Framebuffer();
+			this.lightFb = new Framebuffer();
+
+			this.lightVolume = Model.loadModel(Models.CUBE.getURI()).getMeshes().get(0);
+			this.lightVolumeExtent = Math.max(lightVolume.getBounds().maxX, -lightVolume.getBounds().minX);
+
+			this.fullscreenVao = GL30.glGenVertexArrays();
+			this.instanceBuffer = new InstanceBuffer();
+			this.indirectBuffer = new IndirectBuffer();
+		}
+
+		if (width == this.width && height == this.height) {
+			return;
+		}
+
+		gBuffer.addAttachment(Attachment.COLOR0, new Texture2D(InternalFormat.RGBA8, width, height,
+				PixelFormat.RGBA, PixelType.UNSIGNED_BYTE, null, WrappingMode.CLAMP_TO_EDGE, FilteringMode.NEAREST));
+		gBuffer.addAttachment(Attachment.COLOR1, new Texture2D(InternalFormat.RGBA16, width, height,
+				PixelFormat.RGBA, PixelType.UNSIGNED_SHORT, null, WrappingMode.CLAMP_TO_EDGE, FilteringMode.NEAREST));
+		gBuffer.addAttachment(Attachment.DEPTH, new Texture2D(InternalFormat.DEPTH32F, width, height,
+				PixelFormat.DEPTH, PixelType.FLOAT, null, WrappingMode.CLAMP_TO_EDGE, FilteringMode.NEAREST));
+
+		// The geometry pass writes to both color attachments.
+		GL20.glDrawBuffers(new int[] { Attachment.COLOR0.getValue(), Attachment.COLOR1.getValue() });
+
+		lightFb.addAttachment(Attachment.COLOR0, new Texture2D(InternalFormat.RGBA16F, width, height,
+				PixelFormat.RGBA, PixelType.FLOAT, null, WrappingMode.CLAMP_TO_EDGE, FilteringMode.NEAREST));
+
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Splits the extracted draws between the {@link #geometryQueue} and the
+	 * {@link #forwardQueue}. Both stay in key order.
+	 */
+	private void partition() {
+		geometryQueue.clear();
+		forwardQueue.clear();
+
+		for (int i = 0; i < renderQueue.size(); i++) {
+			long key = renderQueue.getKey(i);
+			Mesh mesh = renderQueue.getMesh(i);
+
+			Material material = mesh.getMaterial();
+
+			if (RenderKey.getRenderPass(key) == RenderPass.OPAQUE && material.getShaderType() == StandardShader.class) {
+				geometryQueue.add(key, renderQueue.getEntity(i), mesh, renderQueue.getLod(i));
+			} else {
+				forwardQueue.add(key, renderQueue.getEntity(i), mesh, renderQueue.getLod(i));
+			}
+		}
+	}
+
+	/**
+	 * Draws the {@link #geometryQueue} into the {@link #gBuffer}. Consecutive
+	 * draws that share a vertex array object and an equal {@link Material} are
+	 * batched into a single instanced draw, or into a single multi-draw if their
+	 * meshes are in a geometry arena.
+	 *
+	 * @param world The target {@link World}
+	 * @param view The view matrix of the camera
+	 * @param projection The projection matrix of the camera
+	 */
+	private void drawGeometry(World world, Matrix4f view, Matrix4f projection) {
+		Graphics graphics = Zenith.getEngine().getGraphics();
+		ShaderManager shaderManager = graphics.getShaderManager();
+		ComponentMapper<ModelMatrix> mModelMatrix = world.getMapper(ModelMatrix.class);
+
+		graphics.getStateCache().bindFramebuffer(GL30.GL_FRAMEBUFFER, gBuffer.getFbo());
+
+		graphics.setDepthTesting(true);
+		graphics.setDepthMasking(true);
+		graphics.setDepthFunc(GL11.GL_LESS);
+		graphics.setBlending(false);
+		graphics.update();
+
+		GL11.glClearColor(0, 0, 0, 0);
+		GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+
+		GBufferShader gBufferShader = (GBufferShader) shaderManager.getShader(GBufferShader.class);
+		gBufferShader.use();
+
+		Mat4Uniform modelViewUniform = null;
+		BoolUniform instancedUniform = null;
+
+		for (Entry<String, Uniform> entry : gBufferShader.getUniforms().entrySet()) {
+			Uniform uniform = entry.getValue();
+
+			if (uniform instanceof Mat4Uniform mat4Uniform) {
+				if (uniform.getUniformType() == UniformType.VIEW_MATRIX) {
+					mat4Uniform.set(view);
+				} else if (uniform.getUniformType() == UniformType.PROJECTION_MATRIX) {
+					mat4Uniform.set(projection);
+				} else if (uniform.getUniformType() == UniformType.MODEL_VIEW_MATRIX) {
+					modelViewUniform = mat4Uniform;
+				}
+			} else if (uniform instanceof BoolUniform boolUniform) {
+				if (uniform.getUniformType() == UniformType.INSTANCED) {
+					instancedUniform = boolUniform;
+				}
+			}
+		}
+
+		boolean instancing = ForwardRenderer.getInstance().isInstancing();
+
+		int i = 0;
+		while (i < geometryQueue.size()) {
+			Mesh mesh = geometryQueue.getMesh(i);
+			int lod = geometryQueue.getLod(i);
+
+			mesh.setLod(lod);
+
+			// Gather the run of draws that share this mesh, its level of detail, and an equal material. Meshes in a
+			// geometry arena are multi-drawn instead, unless the run starts with copies of the same mesh, so their run
+			// may span meshes and levels of detail.
+			boolean multiDraw = instancing && mesh.getArena() != null
+					&& !(i + 1 < geometryQueue.size() && geometryQueue.getLod(i + 1) == lod
+							&& canInstance(mesh, geometryQueue.getMesh(i + 1)));
+			int batchEnd = i + 1;
+			if (instancing) {
+				while (batchEnd < geometryQueue.size()
+						&& (multiDraw ? canMultiDraw(mesh, geometryQueue.getMesh(batchEnd))
+								: geometryQueue.getLod(batchEnd) == lod
+										&& canInstance(mesh, geometryQueue.getMesh(batchEnd)))) {
+					batchEnd++;
+				}
+			}
+
+			if (batchEnd - i > 1) {
+				instanceBuffer.clear();
+				indirectBuffer.clear();
+
+				for (int j = i; j < batchEnd; j++) {
+					instanceBuffer.add(mModelMatrix.get(geometryQueue.getEntity(j)).mat);
+
+					if (multiDraw) {
+						Mesh batchMesh = geometryQueue.getMesh(j);
+						batchMesh.setLod(geometryQueue.getLod(j));
+						batchMesh.addDrawCommand(indirectBuffer, j - i);
+					}
+				}
+
+				instanceBuffer.update();
+
+				if (instancedUniform != null) {
+					instancedUniform.set(true);
+				}
+
+				if (multiDraw) {
+					indirectBuffer.update();
+					mesh.drawIndirect(indirectBuffer, instanceBuffer, gBufferShader);
+				} else {
+					mesh.drawInstanced(instanceBuffer, gBufferShader);
+				}
+			} else {
+				ModelMatrix modelMatrix = mModelMatrix.get(geometryQueue.getEntity(i));
+
+				if (modelViewUniform != null) {
+					modelViewUniform.set(view.mul(modelMatrix.mat, modelView));
+				}
+
+				if (instancedUniform != null) {
+					instancedUniform.set(false);
+				}
+
+				// Large meshes only draw their meshlets that are in view and facing the camera.
+				if (lod == 0 && mesh.getMeshletData() != null) {
+					if (meshletCuller.cull(mesh, modelMatrix.mat, indirectBuffer) > 0) {
+						mesh.drawIndirect(indirectBuffer, gBufferShader);
+					}
+				} else {
+					mesh.draw(gBufferShader);
+				}
+			}
+
+			i = batchEnd;
+		}
+	}
+
+	/**
+	 * Accumulates the contribution of the ambient light and of every light into
+	 * the {@link #lightFb}.
+	 *
+	 * @param world The target {@link World}
+	 * @param view The view matrix of the camera
+	 */
+	private void drawLights(World world, Matrix4f view) {
+		Graphics graphics = Zenith.getEngine().getGraphics();
+		LightSystem lightSystem = world.getSystem(LightSystem.class);
+
+		graphics.getStateCache().bindFramebuffer(GL30.GL_FRAMEBUFFER, lightFb.getFbo());
+
+		// Lights are added together, and are not depth tested against each other.
+		graphics.setDepthTesting(false);
+		graphics.setDepthMasking(false);
+		graphics.setBlending(true);
+		graphics.setBlendSrc(GL11.GL_ONE);
+		graphics.setBlendDst(GL11.GL_ONE);
+		graphics.update();
+
+		GL11.glClearColor(0, 0, 0, 0);
+		GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+
+		DeferredLightShader lightShader = (DeferredLightShader) graphics.getShaderManager()
+				.getShader(DeferredLightShader.class);
+		lightShader.use();
+
+		Mat4Uniform modelViewProjectionUniform = null;
+
+		for (Entry<String, Uniform> entry : lightShader.getUniforms().entrySet()) {
+			Uniform uniform = entry.getValue();
+
+			if (uniform instanceof Mat4Uniform mat4Uniform) {
+				if (uniform.getUniformType() == UniformType.VIEW_MATRIX) {
+					mat4Uniform.set(view);
+				} else if (uniform.getUniformType() == UniformType.MODEL_VIEW_PROJECTION_MATRIX) {
+					modelViewProjectionUniform = mat4Uniform;
+				}
+			} else if (uniform instanceof Vec3Uniform vec3Uniform) {
+				if (uniform.getUniformType() == UniformType.AMBIENT_COLOR) {
+					vec3Uniform.set(lightSystem.getAmbientColor());
+				}
+			}
+		}
+
+		lightShader.setGBuffer((Texture2D) gBuffer.getRenderTargets().get(Attachment.COLOR0),
+				(Texture2D) gBuffer.getRenderTargets().get(Attachment.COLOR1),
+				(Texture2D) gBuffer.getRenderTargets().get(Attachment.DEPTH), inverseProjection, screenSize);
+
+		// The ambient and directional lights cover the whole screen.
+		graphics.setCulling(false);
+		graphics.update();
+
+		lightShader.setFullscreen(true);
+		lightShader.setLightIndex(-1);
+		drawFullscreen();
+
+		drawLights(world, lightSystem, lightShader, modelViewProjectionUniform, false);
+
+		// Only the back faces of light volumes are drawn, so that a volume is still
+		// drawn when the camera is inside of it.
+		graphics.setCulling(true);
+		graphics.setCullFace(GL11.GL_FRONT);
+		graphics.update();
+
+		lightShader.setFullscreen(false);
+
+		drawLights(world, lightSystem, lightShader, modelViewProjectionUniform, true);
+	}
+
+	/**
+	 * Draws either the directional lights, or the light volumes of the point and
+	 * spot lights, of the {@link LightSystem}.
+	 *
+	 * @param world The target {@link World}
+	 * @param lightSystem The {@link LightSystem} of the world
+	 * @param lightShader The {@link DeferredLightShader} in use
+	 * @param modelViewProjectionUniform The model-view-projection matrix uniform
+	 * @param volumes Whether to draw light volumes instead of directional lights
+	 */
+	private void drawLights(World world, LightSystem lightSystem, DeferredLightShader lightShader,
+			Mat4Uniform modelViewProjectionUniform, boolean volumes) {
+		drawLights(world, lightSystem, lightSystem.getImportantLights(), lightShader, modelViewProjectionUniform,
+				volumes);
+		drawLights(world, lightSystem, lightSystem.getAutoLights(), lightShader, modelViewProjectionUniform, volumes);
+		drawLights(world, lightSystem, lightSystem.getNotImportantLights(), lightShader, modelViewProjectionUniform,
+				volumes);
+	}
+
+	private void drawLights(World world, LightSystem lightSystem, Set<Entity> lights, DeferredLightShader lightShader,
+			Mat4Uniform modelViewProjectionUniform, boolean volumes) {
+		ComponentMapper<Caster> mCaster = world.getMapper(Caster.class);
+		ComponentMapper<Position> mPosition = world.getMapper(Position.class);
+
+		for (Entity light : lights) {
+			int lightIndex = lightSystem.getLightIndex(light.getId());
+			if (lightIndex < 0) {
+				continue;
+			}
+
+			Caster caster = mCaster.create(light.getId());
+			if ((caster.casterType == CasterType.DIRECTIONAL) == volumes) {
+				continue;
+			}
+
+			lightShader.setLightIndex(lightIndex);
+
+			if (!volumes) {
+				drawFullscreen();
+				continue;
+			}
+
+			Position position = mPosition.create(light.getId());
+
+			if (modelViewProjectionUniform != null) {
+				viewProjection.translate(position.xyz, modelView).scale(caster.radius / lightVolumeExtent);
+				modelViewProjectionUniform.set(modelView);
+			}
+
+			lightVolume.draw(lightShader);
+		}
+	}
+
+	/**
+	 * Tonemaps the accumulated lighting into the target framebuffer, and copies
+	 * the depth of the G-buffer along with it.
+	 *
+	 * @param targetFbo The framebuffer object to resolve into
+	 */
+	private void resolve(int targetFbo) {
+		Graphics graphics = Zenith.getEngine().getGraphics();
+
+		graphics.getStateCache().bindFramebuffer(GL30.GL_FRAMEBUFFER, targetFbo);
+
+		graphics.setCulling(false);
+		graphics.setDepthTesting(true);
+		graphics.setDepthMasking(true);
+		graphics.setDepthFunc(GL11.GL_ALWAYS);
+		graphics.setBlending(false);
+		graphics.update();
+
+		DeferredResolveShader resolveShader = (DeferredResolveShader) graphics.getShaderManager()
+				.getShader(DeferredResolveShader.class);
+		resolveShader.use();
+		resolveShader.setInputs((Texture2D) lightFb.getRenderTargets().get(Attachment.COLOR0),
+				(Texture2D) gBuffer.getRenderTargets().get(Attachment.DEPTH), screenSize);
+
+		drawFullscreen();
+	}
+
+	private void drawFullscreen() {
+		Zenith.getEngine().getGraphics().getStateCache().bindVertexArray(fullscreenVao);
+		GL11.glDrawArrays(GL11.GL_TRIANGLES, 0, 3);
+	}
+
+	private boolean canInstance(Mesh batchMesh, Mesh mesh) {
+		if (batchMesh == mesh) {
+			return true;
+		}
+
+		return batchMesh.sharesGeometry(mesh) && batchMesh.getMaterial().equals(mesh.getMaterial());
+	}
+
+	private boolean canMultiDraw(Mesh batchMesh, Mesh mesh) {
+		return batchMesh.getArena() == mesh.getArena() && batchMesh.getPrimitiveType() == mesh.getPrimitiveType()
+				&& batchMesh.getMaterial().equals(mesh.getMaterial());
+	}
 
-    @Override
-    public void render(World world, int cameraId) {
+	/**
+	 * Gets the {@link DeferredRenderer} instance. If the instance hasn't been
+	 * instantiated, it will do so.
+	 *
+	 * @return The {@link DeferredRenderer}.
+	 */
+	public static synchronized DeferredRenderer getInstance() {
+		if (instance == null) {
+			instance = new DeferredRenderer();
+		}
 
-    }
+		return instance;
+	}
 }
@@ -1,13 +1,10 @@
 package com.trentonfaris.zenith.graphics.render;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import org.joml.Matrix4f;
+import org.joml.Vector2i;
 import org.joml.Vector3f;
 import org.lwjgl.opengl.GL11;
 
@@ -18,21 +15,25 @@ import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.ecs.component.camera.Camera;
 import com.trentonfaris.zenith.ecs.component.light.Caster;
 import com.trentonfaris.zenith.ecs.component.light.Caster.CasterType;
-import com.trentonfaris.zenith.ecs.component.light.Light;
 import com.trentonfaris.zenith.ecs.component.light.Light.Priority;
-import com.trentonfaris.zenith.ecs.component.misc.State;
-import com.trentonfaris.zenith.ecs.component.render.Renderable;
 import com.trentonfaris.zenith.ecs.component.transform.Position;
 import com.trentonfaris.zenith.ecs.component.transformation.ModelMatrix;
 import com.trentonfaris.zenith.ecs.component.transformation.ProjectionMatrix;
 import com.trentonfaris.zenith.ecs.component.transformation.ViewMatrix;
-import com.trentonfaris.zenith.ecs.system.core.LayerSystem;
+import com.trentonfaris.zenith.ecs.component.ui.Rect;
+import com.trentonfaris.zenith.ecs.system.light.LightSelectionSystem;
 import com.trentonfaris.zenith.ecs.system.light.LightSystem;
 import com.trentonfaris.zenith.graphics.Graphics;
 import com.trentonfaris.zenith.graphics.material.Material;
+import com.trentonfaris.zenith.graphics.material.RenderPass;
+import com.trentonfaris.zenith.graphics.model.IndirectBuffer;
+import com.trentonfaris.zenith.graphics.model.InstanceBuffer;
 import com.trentonfaris.zenith.graphics.model.Mesh;
 import com.trentonfaris.zenith.graphics.shader.ForwardLitShader;
+import com.trentonfaris.zenith.graphics.shader.LightBuffer;
 import com.trentonfaris.zenith.graphics.shader.Shader;
+import com.trentonfaris.zenith.graphics.shader.ShaderManager;
+import com.trentonfaris.zenith.graphics.shader.uniform.BoolUniform;
 import com.trentonfaris.zenith.graphics.shader.uniform.Mat4Uniform;
 import com.trentonfaris.zenith.graphics.shader.uniform.Uniform;
 import com.trentonfaris.zenith.graphics.shader.uniform.UniformType;
@@ -50,8 +51,20 @@ import com.trentonfaris.zenith.graphics.shader.uniform.Vec3Uniform;
  * are always rendered per-vertex. Lights that have their {@link Priority} set
  * to {@link Priority#IMPORTANT} are always rendered per-fragment. If there are
  * still less per-fragment lights than {@link #numFragLights}, then more lights
- * are rendered per-fragment, in order of decreasing score, where a light's
- * score is equal to {@code (1 / distance to target) * intensity}.
+ * are rendered per-fragment, in order of decreasing score, as chosen by the
+ * {@link LightSelectionSystem}.
+ *
+ * <p>
+ * Each frame, a draw is extracted for every visible {@link Mesh} into a
+ * {@link RenderQueue}, which is sorted by {@link RenderKey} and submitted in
+ * key order. This groups draws by shader, material, and mesh, drawing opaque
+ * meshes front-to-back and transparent meshes back-to-front.
+ *
+ * <p>
+ * Consecutive draws that share a vertex array object and an equal
+ * {@link Material} are batched into a single instanced draw, with their model
+ * matrices streamed through an {@link InstanceBuffer}. Lights for a batch are
+ * chosen around the centroid of its instances.
  *
  * <p>
  * Multiple passes are rendered with batches of per-vertex and a per-fragment
@@ -59,6 +72,13 @@ import com.trentonfaris.zenith.graphics.shader.uniform.Vec3Uniform;
  * {@link ForwardLitShader#MAX_NUM_VERT_LIGHTS} per-vertex lights sent in each
  * batch.
  *
+ * <p>
+ * In clustered mode, point and spot lights are instead assigned to the
+ * {@link LightClusters} of the camera, and each draw is shaded in a single pass
+ * that loops over the lights of the cluster of each fragment. Directional
+ * lights are still drawn as the per-fragment light of that pass, and any
+ * others per-vertex.
+ *
  * @author Trenton Faris
  */
 public final class ForwardRenderer extends Renderer {
@@ -68,67 +88,242 @@ public final class ForwardRenderer extends Renderer {
 	/** The number of lights rendered per-fragment. */
 	public int numFragLights = 4;
 
+	/** Whether draws sharing a mesh and material are batched into instanced draws. */
+	private boolean instancing = true;
+
+	/** The {@link InstanceBuffer} of the current instanced batch. */
+	private InstanceBuffer instanceBuffer;
+
+	/** The {@link IndirectBuffer} of the visible meshlets of the current draw. */
+	private IndirectBuffer meshletBuffer;
+
+	/** Whether the current draw is of the visible meshlets in the {@link #meshletBuffer}. */
+	private boolean drawingMeshlets;
+
+	/** The position around which the lights of a draw are chosen. */
+	private final Vector3f lightTarget = new Vector3f();
+
+	/** The {@link LightBuffer} indices of the per-vertex lights of a draw. */
+	private final int[] vertLightIndices = new int[LightBuffer.MAX_NUM_LIGHTS];
+
+	/** The {@link LightBuffer} indices of the per-fragment lights of a draw. */
+	private final int[] fragLightIndices = new int[LightBuffer.MAX_NUM_LIGHTS];
+
+	/** Whether point and spot lights are shaded through {@link #lightClusters}. */
+	private boolean clustered = false;
+
+	/** The {@link LightClusters} of the camera being rendered. */
+	private LightClusters lightClusters;
+
+	/** Scratch space for the view space position of a light. */
+	private final Vector3f lightPosition = new Vector3f();
+
 	private ForwardRenderer() {
 	}
 
 	@Override
 	public void render(World world, int cameraId) {
-		Camera camera = world.getMapper(Camera.class).create(cameraId);
 		ViewMatrix viewMatrix = world.getMapper(ViewMatrix.class).create(cameraId);
 		ProjectionMatrix projectionMatrix = world.getMapper(ProjectionMatrix.class).create(cameraId);
 
-		Matrix4f viewProjectionMatrix = projectionMatrix.mat.mul(viewMatrix.mat, new Matrix4f());
+		extract(world, cameraId, viewMatrix.mat, projectionMatrix.mat);
+		submit(world, cameraId, renderQueue, viewMatrix.mat, projectionMatrix.mat);
+	}
 
-		Set<Integer> rendered = new HashSet<>();
+	@Override
+	public void dispose() {
+		if (instanceBuffer != null) {
+			instanceBuffer.dispose();
+			meshletBuffer.dispose();
 
-		int layerId = camera.layerMask.nextSetBit(0);
-		while (layerId >= 0) {
-			Set<Integer> entities = world.getSystem(LayerSystem.class).getEntities(layerId);
+			this.instanceBuffer = null;
+			this.meshletBuffer = null;
+		}
 
-			for (Integer entityId : entities) {
-				if (!world.getEntity(entityId).isActive()) {
-					continue;
-				}
+		if (lightClusters != null) {
+			lightClusters.dispose();
+			this.lightClusters = null;
+		}
+	}
 
-				if (rendered.contains(entityId)) {
-					continue;
-				}
+	/**
+	 * Assigns the point and spot lights of the {@link LightSystem} to the
+	 * {@link #lightClusters} of a {@link Camera}.
+	 *
+	 * @param world The target {@link World}
+	 * @param cameraId The id of the target {@link Camera}
+	 * @param view The view matrix of the {@link Camera}
+	 * @param projection The projection matrix of the {@link Camera}
+	 */
+	private void updateClusters(World world, int cameraId, Matrix4f view, Matrix4f projection) {
+		if (lightClusters == null) {
+			this.lightClusters = new LightClusters();
+		}
+
+		LightSystem lightSystem = world.getSystem(LightSystem.class);
+
+		lightClusters.clear();
+
+		addClusterLights(world, lightSystem, lightSystem.getAutoLights(), view);
+		addClusterLights(world, lightSystem, lightSystem.getImportantLights(), view);
+		addClusterLights(world, lightSystem, lightSystem.getNotImportantLights(), view);
+
+		Vector2i size = Zenith.getEngine().getWindow().getSize();
+		Rect rect = world.getMapper(Rect.class).create(cameraId);
+
+		lightClusters.update(projection, (int) (size.x * rect.width), (int) (size.y * rect.height));
+	}
+
+	private void addClusterLights(World world, LightSystem lightSystem, Set<Entity> lights, Matrix4f view) {
+		ComponentMapper<Caster> mCaster = world.getMapper(Caster.class);
+		ComponentMapper<Position> mPosition = world.getMapper(Position.class);
+
+		for (Entity light : lights) {
+			int lightIndex = lightSystem.getLightIndex(light.getId());
+			if (lightIndex < 0) {
+				continue;
+			}
+
+			Caster caster = mCaster.create(light.getId());
+			if (caster.casterType == CasterType.DIRECTIONAL) {
+				continue;
+			}
+
+			Position position = mPosition.create(light.getId());
+			view.transformPosition(position.xyz, lightPosition);
+
+			lightClusters.addLight(lightIndex, lightPosition, caster.radius);
+		}
+	}
 
-				ComponentMapper<State> mState = world.getMapper(State.class);
-				ComponentMapper<ModelMatrix> mModelMatrix = world.getMapper(ModelMatrix.class);
-				ComponentMapper<Renderable> mRenderable = world.getMapper(Renderable.class);
+	/**
+	 * Submits the sorted draws of a {@link RenderQueue}. Shader and per-entity
+	 * uniforms are only set when they change between consecutive draws.
+	 *
+	 * @param world The target {@link World}
+	 * @param cameraId The id of the target {@link Camera}
+	 * @param renderQueue The sorted {@link RenderQueue} to submit
+	 * @param view The view matrix of the camera
+	 * @param projection The projection matrix of the camera
+	 */
+	void submit(World world, int cameraId, RenderQueue renderQueue, Matrix4f view, Matrix4f projection) {
+		if (clustered) {
+			updateClusters(world, cameraId, view, projection);
+		}
 
-				if (!mModelMatrix.has(entityId) || !mRenderable.has(entityId)) {
-					continue;
+		Graphics graphics = Zenith.getEngine().getGraphics();
+		ShaderManager shaderManager = graphics.getShaderManager();
+		LightSystem lightSystem = world.getSystem(LightSystem.class);
+		LightSelectionSystem lightSelectionSystem = world.getSystem(LightSelectionSystem.class);
+		ComponentMapper<ModelMatrix> mModelMatrix = world.getMapper(ModelMatrix.class);
+
+		if (instanceBuffer == null) {
+			this.instanceBuffer = new InstanceBuffer();
+			this.meshletBuffer = new IndirectBuffer();
+		}
+
+		// The queue may have been extracted by another renderer, for this camera.
+		meshletCuller.set(view, projection);
+
+		Matrix4f viewProjection = projection.mul(view, new Matrix4f());
+		Matrix4f modelView = new Matrix4f();
+		Matrix4f modelViewProjection = new Matrix4f();
+
+		boolean depthMasking = graphics.isDepthMasking();
+
+		RenderPass activePass = null;
+		Shader activeShader = null;
+		BoolUniform instancedUniform = null;
+		int activeEntity = -1;
+
+		int i = 0;
+		while (i < renderQueue.size()) {
+			Mesh mesh = renderQueue.getMesh(i);
+			int entityId = renderQueue.getEntity(i);
+			int lod = renderQueue.getLod(i);
+
+			RenderPass renderPass = RenderKey.getRenderPass(renderQueue.getKey(i));
+			if (renderPass != activePass) {
+				// Transparent draws are blended over the opaque scene without writing depth.
+				graphics.setDepthMasking(renderPass == RenderPass.OPAQUE && depthMasking);
+				graphics.update();
+
+				activePass = renderPass;
+			}
+
+			Shader shader = shaderManager.getShader(mesh.getMaterial().getShaderType());
+			boolean shaderChanged = shader != activeShader;
+
+			if (shaderChanged) {
+				shader.use();
+
+				instancedUniform = null;
+
+				for (Entry<String, Uniform> entry : shader.getUniforms().entrySet()) {
+					Uniform uniform = entry.getValue();
+
+					if (uniform instanceof Mat4Uniform mat4Uniform) {
+						if (uniform.getUniformType() == UniformType.VIEW_MATRIX) {
+							mat4Uniform.set(view);
+						} else if (uniform.getUniformType() == UniformType.PROJECTION_MATRIX) {
+							mat4Uniform.set(projection);
+						} else if (uniform.getUniformType() == UniformType.VIEW_PROJECTION_MATRIX) {
+							mat4Uniform.set(viewProjection);
+						}
+					} else if (uniform instanceof Vec3Uniform vec3Uniform) {
+						if (uniform.getUniformType() == UniformType.AMBIENT_COLOR) {
+							vec3Uniform.set(lightSystem.getAmbientColor());
+						}
+					} else if (uniform instanceof BoolUniform boolUniform) {
+						if (uniform.getUniformType() == UniformType.INSTANCED) {
+							instancedUniform = boolUniform;
+						}
+					}
 				}
 
-				State state = mState.create(entityId);
-				if (!state.active) {
-					continue;
+				activeShader = shader;
+			}
+
+			mesh.setLod(lod);
+
+			// Gather the run of draws that share this mesh, its level of detail, and an equal material.
+			int batchEnd = i + 1;
+			if (instancing && instancedUniform != null) {
+				while (batchEnd < renderQueue.size() && renderQueue.getLod(batchEnd) == lod
+						&& canInstance(mesh, renderQueue.getMesh(batchEnd))) {
+					batchEnd++;
 				}
+			}
 
-//				System.out.println(entityId);
+			InstanceBuffer instances = null;
+			drawingMeshlets = false;
 
-				ModelMatrix modelMatrix = mModelMatrix.get(entityId);
+			if (batchEnd - i > 1) {
+				instanceBuffer.clear();
+				lightTarget.zero();
 
-				Matrix4f modelViewMatrix = viewMatrix.mat.mul(modelMatrix.mat, new Matrix4f());
-				Matrix4f modelViewProjectionMatrix = projectionMatrix.mat.mul(viewMatrix.mat, new Matrix4f())
-						.mul(modelMatrix.mat, new Matrix4f());
+				for (int j = i; j < batchEnd; j++) {
+					ModelMatrix modelMatrix = mModelMatrix.get(renderQueue.getEntity(j));
 
-				Renderable renderable = mRenderable.get(entityId);
+					instanceBuffer.add(modelMatrix.mat);
+					lightTarget.add(modelMatrix.mat.getTranslation(lightPosition));
+				}
 
-				for (Mesh mesh : renderable.model.getMeshes()) {
-					Material material = mesh.getMaterial();
-					if (material == null) {
-						continue;
-					}
+				instanceBuffer.update();
+				instances = instanceBuffer;
+
+				// Lights are chosen once for the whole batch, around its centroid.
+				lightTarget.div(batchEnd - i);
+
+				instancedUniform.set(true);
+			} else {
+				ModelMatrix modelMatrix = mModelMatrix.get(entityId);
 
-					Shader shader = Zenith.getEngine().getGraphics().getShaderManager()
-							.getShader(material.getShaderType());
-					shader.use();
+				if (shaderChanged || entityId != activeEntity) {
+					view.mul(modelMatrix.mat, modelView);
+					viewProjection.mul(modelMatrix.mat, modelViewProjection);
 
-					Map<String, Uniform> uniforms = shader.getUniforms();
-					for (Entry<String, Uniform> entry : uniforms.entrySet()) {
+					for (Entry<String, Uniform> entry : shader.getUniforms().entrySet()) {
 						Uniform uniform = entry.getValue();
 
 						if (!(uniform instanceof Mat4Uniform mat4Uniform)) {
@@ -137,150 +332,148 @@ public final class ForwardRenderer extends Renderer {
 
 						if (uniform.getUniformType() == UniformType.MODEL_MATRIX) {
 							mat4Uniform.set(modelMatrix.mat);
-						} else if (uniform.getUniformType() == UniformType.VIEW_MATRIX) {
-							mat4Uniform.set(viewMatrix.mat);
-						} else if (uniform.getUniformType() == UniformType.PROJECTION_MATRIX) {
-							mat4Uniform.set(projectionMatrix.mat);
 						} else if (uniform.getUniformType() == UniformType.MODEL_VIEW_MATRIX) {
-							mat4Uniform.set(modelViewMatrix);
-						} else if (uniform.getUniformType() == UniformType.VIEW_PROJECTION_MATRIX) {
-							mat4Uniform.set(viewProjectionMatrix);
+							mat4Uniform.set(modelView);
 						} else if (uniform.getUniformType() == UniformType.MODEL_VIEW_PROJECTION_MATRIX) {
-							mat4Uniform.set(modelViewProjectionMatrix);
+							mat4Uniform.set(modelViewProjection);
 						}
 					}
 
-					if (shader instanceof ForwardLitShader forwardLitShader) {
-
-						LightSystem lightSystem = world.getSystem(LightSystem.class);
+					activeEntity = entityId;
+				}
 
-						for (Entry<String, Uniform> entry : uniforms.entrySet()) {
-							Uniform uniform = entry.getValue();
+				modelMatrix.mat.getTranslation(lightTarget);
 
-							if (!(uniform instanceof Vec3Uniform vec3Uniform)) {
-								continue;
-							}
+				if (instancedUniform != null) {
+					instancedUniform.set(false);
+				}
 
-							if (uniform.getUniformType() == UniformType.AMBIENT_COLOR) {
-								vec3Uniform.set(lightSystem.getAmbientColor());
-							}
-						}
+				// Large meshes only draw their meshlets that are in view and facing the camera.
+				if (lod == 0 && mesh.getMeshletData() != null) {
+					if (meshletCuller.cull(mesh, modelMatrix.mat, meshletBuffer) == 0) {
+						i = batchEnd;
+						continue;
+					}
 
-						Set<Entity> vertLights = new HashSet<>(lightSystem.getNotImportantLights());
-						Set<Entity> fragLights = new HashSet<>(lightSystem.getImportantLights());
+					drawingMeshlets = true;
+				}
+			}
 
-						Entity[] autoLightsArr = lightSystem.getAutoLights().toArray(new Entity[0]);
-						Entity[] sortedAutoLightsArr = sortLights(world, autoLightsArr,
-								modelMatrix.mat.getTranslation(new Vector3f()));
+			if (shader instanceof ForwardLitShader forwardLitShader && clustered) {
+				int numVertLights = 0;
+				int numFragLights = 0;
+
+				// Only directional lights are left out of the clusters.
+				numVertLights = addDirectionalLights(world, lightSystem, lightSystem.getImportantLights(),
+						vertLightIndices, numVertLights);
+				numVertLights = addDirectionalLights(world, lightSystem, lightSystem.getAutoLights(),
+						vertLightIndices, numVertLights);
+				numVertLights = addDirectionalLights(world, lightSystem, lightSystem.getNotImportantLights(),
+						vertLightIndices, numVertLights);
+
+				// The first directional light is drawn per-fragment, so that a single pass
+				// is drawn for most scenes.
+				if (numVertLights > 0) {
+					fragLightIndices[0] = vertLightIndices[0];
+					System.arraycopy(vertLightIndices, 1, vertLightIndices, 0, numVertLights - 1);
+
+					numVertLights--;
+					numFragLights++;
+				}
 
-						List<Entity> sortedAutoLights = Arrays.asList(sortedAutoLightsArr);
+				drawForwardPasses(forwardLitShader, numVertLights, numFragLights, mesh, instances, true);
+			} else if (shader instanceof ForwardLitShader forwardLitShader) {
+				int numVertLights = 0;
+				int numFragLights = 0;
 
-						int i = 0;
-						while (fragLights.size() < numFragLights && i < sortedAutoLights.size()) {
-							fragLights.add(sortedAutoLights.get(i));
+				for (Entity light : lightSystem.getImportantLights()) {
+					numFragLights = addLightIndex(lightSystem, light, fragLightIndices, numFragLights);
+				}
 
-							i++;
-						}
+				for (Entity light : lightSystem.getNotImportantLights()) {
+					numVertLights = addLightIndex(lightSystem, light, vertLightIndices, numVertLights);
+				}
 
-						vertLights.addAll(sortedAutoLights.subList(i, sortedAutoLights.size()));
+				// The selection of a single draw is cached for its entity, and shared by each
+				// of its meshes. Batches are selected around their centroid, so they are not.
+				int numSelected = Math.max(0, this.numFragLights - numFragLights);
+				int[] autoLights = lightSelectionSystem.select(instances != null ? -1 : entityId, lightTarget,
+						numSelected);
 
-						drawForwardPasses(world, forwardLitShader, vertLights, fragLights, mesh);
+				for (int k = 0; k < lightSelectionSystem.getNumLights(); k++) {
+					if (k < numSelected) {
+						fragLightIndices[numFragLights++] = autoLights[k];
 					} else {
-						mesh.draw();
+						vertLightIndices[numVertLights++] = autoLights[k];
 					}
 				}
 
-				rendered.add(entityId);
+				drawForwardPasses(forwardLitShader, numVertLights, numFragLights, mesh, instances, false);
+			} else {
+				draw(mesh, instances);
 			}
 
-			layerId = camera.layerMask.nextSetBit(layerId + 1);
+			i = batchEnd;
 		}
+
+		graphics.setDepthMasking(depthMasking);
+		graphics.update();
 	}
 
-	private Entity[] sortLights(World world, Entity[] lights, Vector3f position) {
-		if (lights.length <= 1) {
-			return lights;
+	/**
+	 * Determines whether a draw of the specified {@link Mesh} can be added to an
+	 * instanced batch of another. Both must share the same geometry, such as the
+	 * copies of a {@link Mesh}, and an equal {@link Material}. Meshes in the same
+	 * geometry arena share a vertex array object, so that alone is not enough.
+	 *
+	 * @param batchMesh The {@link Mesh} of the batch
+	 * @param mesh The {@link Mesh} of the draw
+	 * @return Whether the draw can be instanced with the batch.
+	 */
+	private boolean canInstance(Mesh batchMesh, Mesh mesh) {
+		if (batchMesh == mesh) {
+			return true;
 		}
 
-		Entity[] left;
-		Entity[] right;
+		return batchMesh.sharesGeometry(mesh) && batchMesh.getMaterial().equals(mesh.getMaterial());
+	}
 
-		if (lights.length % 2 == 0) {
-			left = new Entity[lights.length / 2];
-			right = new Entity[lights.length / 2];
+	private void draw(Mesh mesh, InstanceBuffer instances) {
+		if (instances != null) {
+			mesh.drawInstanced(instances);
+		} else if (drawingMeshlets) {
+			mesh.drawIndirect(meshletBuffer);
 		} else {
-			left = new Entity[(lights.length - 1) / 2];
-			right = new Entity[(lights.length + 1) / 2];
-		}
-
-		for (int i = 0; i < lights.length; i++) {
-			if (i < left.length) {
-				left[i] = lights[i];
-			} else {
-				right[i - left.length] = lights[i];
-			}
+			mesh.draw();
 		}
-
-		Entity[] sortedLeft = sortLights(world, left, position);
-		Entity[] sortedRight = sortLights(world, right, position);
-
-		return mergeLights(world, sortedLeft, sortedRight, position);
 	}
 
-	private Entity[] mergeLights(World world, Entity[] left, Entity[] right, Vector3f position) {
-		Entity[] result = new Entity[left.length + right.length];
-
-		int i = 0;
-		int j = 0;
-
-		while (i < left.length && j < right.length) {
-			float leftScore = scoreLight(world, left[i].getId(), position);
-			float rightScore = scoreLight(world, right[i].getId(), position);
-
-			if (leftScore >= rightScore) {
-				result[i + j] = left[i];
-				i++;
-			} else {
-				result[i + j] = right[j];
-				j++;
-			}
-		}
-
-		while (i < left.length) {
-			result[i + j] = left[i];
-			i++;
+	private int addLightIndex(LightSystem lightSystem, Entity light, int[] lightIndices, int numLights) {
+		int lightIndex = lightSystem.getLightIndex(light.getId());
+		if (lightIndex < 0) {
+			return numLights;
 		}
 
-		while (j < right.length) {
-			result[i + j] = right[j];
-			j++;
-		}
+		lightIndices[numLights] = lightIndex;
 
-		return result;
+		return numLights + 1;
 	}
 
-	private float scoreLight(World world, int lightId, Vector3f position) {
-		Caster caster = world.getMapper(Caster.class).create(lightId);
-		Light light = world.getMapper(Light.class).get(lightId);
+	private int addDirectionalLights(World world, LightSystem lightSystem, Set<Entity> lights, int[] lightIndices,
+			int numLights) {
+		ComponentMapper<Caster> mCaster = world.getMapper(Caster.class);
 
-		float score = Float.MAX_VALUE;
-		if (caster.casterType != CasterType.DIRECTIONAL) {
-			Position lightPosition = world.getMapper(Position.class).create(lightId);
-
-			float dist = lightPosition.xyz.distance(position);
-			if (dist > 0) {
-				score = (1 / dist) * light.intensity;
+		for (Entity light : lights) {
+			if (mCaster.create(light.getId()).casterType == CasterType.DIRECTIONAL) {
+				numLights = addLightIndex(lightSystem, light, lightIndices, numLights);
 			}
 		}
 
-		return score;
+		return numLights;
 	}
 
-	private void drawForwardPasses(World world, ForwardLitShader forwardLitShader, Set<Entity> vertLights,
-			Set<Entity> fragLights, Mesh mesh) {
-		Entity[] vertLightsArr = vertLights.toArray(new Entity[0]);
-		Entity[] fragLightsArr = fragLights.toArray(new Entity[0]);
-
+	private void drawForwardPasses(ForwardLitShader forwardLitShader, int numVertLights, int numFragLights,
+			Mesh mesh, InstanceBuffer instances, boolean clustered) {
 		// Cache graphics settings
 		Graphics graphics = Zenith.getEngine().getGraphics();
 
@@ -291,16 +484,11 @@ public final class ForwardRenderer extends Renderer {
 		int blendSrc = graphics.getBlendSrc();
 		int blendDst = graphics.getBlendDst();
 
-		// Batched forward passes.
+		// Batched forward passes. The first pass is always drawn, so that unlit meshes
+		// still receive ambient lighting.
 		int i = 0;
 		int j = 0;
-		while (i < vertLightsArr.length || j < fragLightsArr.length) {
-			Set<Entity> batchedVertLights = new HashSet<>();
-			if (i < vertLightsArr.length) {
-				int k = Math.min(vertLightsArr.length, ForwardLitShader.MAX_NUM_VERT_LIGHTS);
-				batchedVertLights.addAll(Arrays.asList(vertLightsArr).subList(i, k));
-			}
-
+		do {
 			// After the first pass
 			if (i > 0 || j > 0) {
 				// Enable blending without rewriting depth values.
@@ -313,14 +501,18 @@ public final class ForwardRenderer extends Renderer {
 				graphics.update();
 			}
 
-			forwardLitShader.setVertLights(world, batchedVertLights);
-			forwardLitShader.setFragLight(world, fragLightsArr[j]);
+			forwardLitShader.setVertLights(vertLightIndices, i,
+					Math.min(ForwardLitShader.MAX_NUM_VERT_LIGHTS, numVertLights - i));
+			forwardLitShader.setFragLight(j < numFragLights ? fragLightIndices[j] : -1);
 
-			mesh.draw();
+			// Clustered lights are only added by the first pass.
+			forwardLitShader.setClustered(clustered && i == 0 && j == 0);
+
+			draw(mesh, instances);
 
 			i += ForwardLitShader.MAX_NUM_VERT_LIGHTS;
 			j++;
-		}
+		} while (i < numVertLights || j < numFragLights);
 
 		// Reset depth and blending properties.
 		graphics.setDepthTesting(depthTesting);
@@ -363,4 +555,42 @@ public final class ForwardRenderer extends Renderer {
 	public void setNumFragLights(int numFragLights) {
 		this.numFragLights = numFragLights;
 	}
+
+	/**
+	 * Gets whether draws sharing a mesh and material are batched into instanced
+	 * draws.
+	 *
+	 * @return Whether instancing is enabled.
+	 */
+	public boolean isInstancing() {
+		return instancing;
+	}
+
+	/**
+	 * Sets whether draws sharing a mesh and material are batched into instanced
+	 * draws.
+	 *
+	 * @param instancing Whether instancing is enabled
+	 */
+	public void setInstancing(boolean instancing) {
+		this.instancing = instancing;
+	}
+
+	/**
+	 * Gets whether point and spot lights are shaded through light clusters.
+	 *
+	 * @return Whether clustered shading is enabled.
+	 */
+	public boolean isClustered() {
+		return clustered;
+	}
+
+	/**
+	 * Sets whether point and spot lights are shaded through light clusters.
+	 *
+	 * @param clustered Whether clustered shading is enabled
+	 */
+	public void setClustered(boolean clustered) {
+		this.clustered = clustered;
+	}
 }
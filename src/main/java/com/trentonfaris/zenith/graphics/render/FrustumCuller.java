@@ -0,0 +1,88 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import org.joml.AABBf;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Spheref;
+
+import com.trentonfaris.zenith.Zenith;
+
+/**
+ * A {@link FrustumCuller} tests world space bounds against the view frustum of
+ * a camera. It performs no GL work, so it can run before any draw is issued.
+ *
+ * <p>
+ * Bounds are first tested with their bounding sphere, which is cheap and
+ * rejects most objects outside of the frustum. Objects that pass are then
+ * tested with their axis-aligned bounding box. The number of visible and culled
+ * objects is counted from the last call to {@link #set(Matrix4f)}.
+ *
+ * @author Trenton Faris
+ */
+public final class FrustumCuller {
+	/** The planes of the view frustum. */
+	private final FrustumIntersection frustum = new FrustumIntersection();
+
+	/** The number of objects found visible since the frustum was set. */
+	private int numVisible;
+
+	/** The number of objects culled since the frustum was set. */
+	private int numCulled;
+
+	/**
+	 * Sets the view frustum from the specified view-projection matrix, and resets
+	 * the visible and culled counts.
+	 *
+	 * @param viewProjection The view-projection matrix of the camera
+	 */
+	public void set(Matrix4f viewProjection) {
+		if (viewProjection == null) {
+			String errorMsg = "Cannot set the frustum of a FrustumCuller from a null viewProjection.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		frustum.set(viewProjection);
+
+		this.numVisible = 0;
+		this.numCulled = 0;
+	}
+
+	/**
+	 * Tests whether the specified world space bounds intersect the view frustum.
+	 *
+	 * @param aabb The world space axis-aligned bounding box
+	 * @param sphere The world space bounding sphere
+	 * @return Whether the bounds are visible.
+	 */
+	public boolean isVisible(AABBf aabb, Spheref sphere) {
+		boolean visible = frustum.testSphere(sphere.x, sphere.y, sphere.z, sphere.r)
+				&& frustum.testAab(aabb.minX, aabb.minY, aabb.minZ, aabb.maxX, aabb.maxY, aabb.maxZ);
+
+		if (visible) {
+			numVisible++;
+		} else {
+			numCulled++;
+		}
+
+		return visible;
+	}
+
+	/**
+	 * Gets the {@link #numVisible}.
+	 *
+	 * @return The {@link #numVisible} value.
+	 */
+	public int getNumVisible() {
+		return numVisible;
+	}
+
+	/**
+	 * Gets the {@link #numCulled}.
+	 *
+	 * @return The {@link #numCulled} value.
+	 */
+	public int getNumCulled() {
+		return numCulled;
+	}
+}
@@ -0,0 +1,462 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.stream.IntStream;
+
+import org.joml.AABBf;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.system.MemoryUtil;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.StateCache;
+import com.trentonfaris.zenith.graphics.shader.LightBuffer;
+import com.trentonfaris.zenith.utility.Disposable;
+
+/**
+ * {@link LightClusters} divides the view frustum of a camera into a grid of
+ * clusters, or froxels, and assigns each bounded light to the clusters that it
+ * touches. The grid and the light index lists are uploaded to shader storage
+ * buffers, so that each fragment only loops over the lights of its cluster.
+ *
+ * <p>
+ * Clusters are uniform in screen space and exponential in depth. Light
+ * assignment runs on the CPU and is split by depth slice, so slices can be
+ * assigned in parallel without synchronization. It needs no GL context, since
+ * the buffers are only created by the first upload.
+ *
+ * @author Trenton Faris
+ */
+public final class LightClusters implements Disposable {
+	/** The shader storage binding point of the {@code ClusterGrid} block. */
+	public static final int GRID_BINDING = 1;
+
+	/** The shader storage binding point of the {@code ClusterLightIndices} block. */
+	public static final int INDEX_BINDING = 2;
+
+	/** The number of clusters along the x axis of the screen. */
+	public static final int GRID_X = 16;
+
+	/** The number of clusters along the y axis of the screen. */
+	public static final int GRID_Y = 9;
+
+	/** The number of depth slices. */
+	public static final int GRID_Z = 24;
+
+	/** The maximum number of lights assigned to a single cluster. */
+	public static final int MAX_LIGHTS_PER_CLUSTER = 128;
+
+	/** The total number of clusters. */
+	private static final int NUM_CLUSTERS = GRID_X * GRID_Y * GRID_Z;
+
+	/** The number of floats in the bounds of a cluster. */
+	private static final int BOUNDS_SIZE = 6;
+
+	/** The size in bytes of the header of the {@code ClusterGrid} block. */
+	private static final int HEADER_SIZE = 3 * 4 * Integer.BYTES;
+
+	/** The number of lights above which slices are assigned in parallel. */
+	private static final int PARALLEL_THRESHOLD = 32;
+
+	/** The view space bounds of each cluster. */
+	private final float[] clusterBounds = new float[NUM_CLUSTERS * BOUNDS_SIZE];
+
+	/** The lights assigned to each cluster, in fixed size lists. */
+	private final int[] clusterLights = new int[NUM_CLUSTERS * MAX_LIGHTS_PER_CLUSTER];
+
+	/** The number of lights assigned to each cluster. */
+	private final int[] clusterCounts = new int[NUM_CLUSTERS];
+
+	/** The view space bounding spheres of the lights, as x, y, z, and radius. */
+	private final float[] lightSpheres = new float[LightBuffer.MAX_NUM_LIGHTS * 4];
+
+	/** The {@link LightBuffer} index of each light. */
+	private final int[] lightIndices = new int[LightBuffer.MAX_NUM_LIGHTS];
+
+	/** The number of lights to assign. */
+	private int numLights;
+
+	/** The projection matrix the {@link #clusterBounds} were built from. */
+	private final Matrix4f projection = new Matrix4f().zero();
+
+	/** The view space distance to the near plane. */
+	private float near;
+
+	/** The view space distance to the far plane. */
+	private float far;
+
+	/** Whether depth slices are linear rather than exponential. */
+	private boolean linearDepth;
+
+	/** The {@code ClusterGrid} shader storage buffer, or {@code 0} before the first upload. */
+	private int gridSsbo;
+
+	/** The {@code ClusterLightIndices} shader storage buffer, or {@code 0} before the first upload. */
+	private int indexSsbo;
+
+	/** The client side copy of the {@code ClusterGrid} block. */
+	private ByteBuffer gridData;
+
+	/** The client side copy of the {@code ClusterLightIndices} block. */
+	private IntBuffer indexData;
+
+	/**
+	 * Removes all lights.
+	 */
+	public void clear() {
+		this.numLights = 0;
+	}
+
+	/**
+	 * Adds a bounded light to be assigned to clusters.
+	 *
+	 * @param lightIndex The {@link LightBuffer} index of the light
+	 * @param viewPosition The view space position of the light
+	 * @param radius The radius of the light
+	 */
+	public void addLight(int lightIndex, Vector3f viewPosition, float radius) {
+		if (numLights == lightIndices.length) {
+			return;
+		}
+
+		lightIndices[numLights] = lightIndex;
+
+		int i = numLights * 4;
+		lightSpheres[i] = viewPosition.x;
+		lightSpheres[i + 1] = viewPosition.y;
+		lightSpheres[i + 2] = viewPosition.z;
+		lightSpheres[i + 3] = radius;
+
+		this.numLights++;
+	}
+
+	/**
+	 * Assigns the lights to clusters of the specified projection, then uploads and
+	 * binds the cluster buffers.
+	 *
+	 * @param projection The projection matrix of the camera
+	 * @param width The width of the viewport
+	 * @param height The height of the viewport
+	 */
+	public void update(Matrix4f projection, int width, int height) {
+		if (projection == null) {
+			String errorMsg = "Cannot update LightClusters with a null projection.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		assign(projection, numLights >= PARALLEL_THRESHOLD);
+		upload(width, height);
+	}
+
+	/**
+	 * Assigns the lights to clusters of the specified projection, rebuilding the
+	 * clusters if the projection changed.
+	 *
+	 * @param projection The projection matrix of the camera
+	 * @param parallel Whether depth slices are assigned in parallel
+	 */
+	void assign(Matrix4f projection, boolean parallel) {
+		if (!this.projection.equals(projection)) {
+			buildClusters(projection);
+		}
+
+		IntStream slices = IntStream.range(0, GRID_Z);
+		if (parallel) {
+			slices = slices.parallel();
+		}
+
+		slices.forEach(this::assignSlice);
+	}
+
+	/**
+	 * Builds the view space bounds of every cluster from a projection matrix.
+	 *
+	 * @param projection The projection matrix of the camera
+	 */
+	private void buildClusters(Matrix4f projection) {
+		this.projection.set(projection);
+
+		Matrix4f invProjection = projection.invert(new Matrix4f());
+
+		Vector3f nearPoint = invProjection.transformProject(0, 0, -1, new Vector3f());
+		Vector3f farPoint = invProjection.transformProject(0, 0, 1, new Vector3f());
+
+		this.near = -nearPoint.z;
+		this.far = -farPoint.z;
+		this.linearDepth = near <= 0;
+
+		// The near and far points of the four corners of a tile.
+		Vector3f[] cornersNear = new Vector3f[4];
+		Vector3f[] cornersFar = new Vector3f[4];
+		for (int i = 0; i < 4; i++) {
+			cornersNear[i] = new Vector3f();
+			cornersFar[i] = new Vector3f();
+		}
+
+		Vector3f point = new Vector3f();
+
+		for (int y = 0; y < GRID_Y; y++) {
+			for (int x = 0; x < GRID_X; x++) {
+				for (int i = 0; i < 4; i++) {
+					float ndcX = -1 + 2 * (float) (x + (i & 1)) / GRID_X;
+					float ndcY = -1 + 2 * (float) (y + (i >> 1)) / GRID_Y;
+
+					invProjection.transformProject(ndcX, ndcY, -1, cornersNear[i]);
+					invProjection.transformProject(ndcX, ndcY, 1, cornersFar[i]);
+				}
+
+				for (int z = 0; z < GRID_Z; z++) {
+					float depth0 = sliceDepth(z);
+					float depth1 = sliceDepth(z + 1);
+
+					int b = clusterIndex(x, y, z) * BOUNDS_SIZE;
+
+					clusterBounds[b] = clusterBounds[b + 1] = clusterBounds[b + 2] = Float.POSITIVE_INFINITY;
+					clusterBounds[b + 3] = clusterBounds[b + 4] = clusterBounds[b + 5] = Float.NEGATIVE_INFINITY;
+
+					for (int i = 0; i < 8; i++) {
+						float depth = i < 4 ? depth0 : depth1;
+						Vector3f cornerNear = cornersNear[i & 3];
+						Vector3f cornerFar = cornersFar[i & 3];
+
+						// The point along the corner line at the slice depth.
+						float t = (depth + cornerNear.z) / (cornerNear.z - cornerFar.z);
+						cornerNear.lerp(cornerFar, t, point);
+
+						clusterBounds[b] = Math.min(clusterBounds[b], point.x);
+						clusterBounds[b + 1] = Math.min(clusterBounds[b + 1], point.y);
+						clusterBounds[b + 2] = Math.min(clusterBounds[b + 2], point.z);
+						clusterBounds[b + 3] = Math.max(clusterBounds[b + 3], point.x);
+						clusterBounds[b + 4] = Math.max(clusterBounds[b + 4], point.y);
+						clusterBounds[b + 5] = Math.max(clusterBounds[b + 5], point.z);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Assigns the lights to the clusters of a single depth slice. Each slice only
+	 * writes to its own clusters.
+	 *
+	 * @param z The depth slice
+	 */
+	private void assignSlice(int z) {
+		float depth0 = sliceDepth(z);
+		float depth1 = sliceDepth(z + 1);
+
+		for (int y = 0; y < GRID_Y; y++) {
+			for (int x = 0; x < GRID_X; x++) {
+				clusterCounts[clusterIndex(x, y, z)] = 0;
+			}
+		}
+
+		for (int l = 0; l < numLights; l++) {
+			float lx = lightSpheres[l * 4];
+			float ly = lightSpheres[l * 4 + 1];
+			float lz = lightSpheres[l * 4 + 2];
+			float radius = lightSpheres[l * 4 + 3];
+
+			// Reject lights outside of the depth range of the slice.
+			if (-lz + radius < depth0 || -lz - radius > depth1) {
+				continue;
+			}
+
+			float radiusSquared = radius * radius;
+
+			for (int y = 0; y < GRID_Y; y++) {
+				for (int x = 0; x < GRID_X; x++) {
+					int cluster = clusterIndex(x, y, z);
+					int b = cluster * BOUNDS_SIZE;
+
+					float dx = Math.max(Math.max(clusterBounds[b] - lx, lx - clusterBounds[b + 3]), 0);
+					float dy = Math.max(Math.max(clusterBounds[b + 1] - ly, ly - clusterBounds[b + 4]), 0);
+					float dz = Math.max(Math.max(clusterBounds[b + 2] - lz, lz - clusterBounds[b + 5]), 0);
+
+					if (dx * dx + dy * dy + dz * dz > radiusSquared) {
+						continue;
+					}
+
+					int count = clusterCounts[cluster];
+					if (count < MAX_LIGHTS_PER_CLUSTER) {
+						clusterLights[cluster * MAX_LIGHTS_PER_CLUSTER + count] = lightIndices[l];
+						clusterCounts[cluster] = count + 1;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compacts the light lists of every cluster, then uploads and binds the
+	 * cluster buffers.
+	 *
+	 * @param width The width of the viewport
+	 * @param height The height of the viewport
+	 */
+	private void upload(int width, int height) {
+		if (gridData == null) {
+			this.gridData = MemoryUtil.memCalloc(HEADER_SIZE + NUM_CLUSTERS * 2 * Integer.BYTES);
+			this.indexData = MemoryUtil.memAllocInt(NUM_CLUSTERS);
+
+			this.gridSsbo = GL15.glGenBuffers();
+			this.indexSsbo = GL15.glGenBuffers();
+		}
+
+		int total = 0;
+		for (int i = 0; i < NUM_CLUSTERS; i++) {
+			total += clusterCounts[i];
+		}
+
+		if (indexData.capacity() < Math.max(total, 1)) {
+			this.indexData = MemoryUtil.memRealloc(indexData, Math.max(total, indexData.capacity() * 2));
+		}
+
+		gridData.putInt(0, GRID_X);
+		gridData.putInt(4, GRID_Y);
+		gridData.putInt(8, GRID_Z);
+		gridData.putInt(12, 0);
+
+		gridData.putFloat(16, near);
+		gridData.putFloat(20, far);
+		gridData.putFloat(24, linearDepth ? 0 : (float) Math.log(far / near));
+		gridData.putFloat(28, linearDepth ? 1 : 0);
+
+		gridData.putFloat(32, width);
+		gridData.putFloat(36, height);
+
+		indexData.clear();
+
+		int offset = 0;
+		for (int i = 0; i < NUM_CLUSTERS; i++) {
+			int count = clusterCounts[i];
+
+			gridData.putInt(HEADER_SIZE + i * 8, offset);
+			gridData.putInt(HEADER_SIZE + i * 8 + 4, count);
+
+			indexData.put(clusterLights, i * MAX_LIGHTS_PER_CLUSTER, count);
+			offset += count;
+		}
+
+		// Never upload an empty buffer.
+		if (offset == 0) {
+			indexData.put(0);
+		}
+
+		indexData.flip();
+
+		StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+
+		stateCache.bindBuffer(GL43.GL_SHADER_STORAGE_BUFFER, gridSsbo);
+		GL15.glBufferData(GL43.GL_SHADER_STORAGE_BUFFER, gridData, GL15.GL_STREAM_DRAW);
+
+		stateCache.bindBuffer(GL43.GL_SHADER_STORAGE_BUFFER, indexSsbo);
+		GL15.glBufferData(GL43.GL_SHADER_STORAGE_BUFFER, indexData, GL15.GL_STREAM_DRAW);
+
+		stateCache.bindBufferBase(GL43.GL_SHADER_STORAGE_BUFFER, GRID_BINDING, gridSsbo);
+		stateCache.bindBufferBase(GL43.GL_SHADER_STORAGE_BUFFER, INDEX_BINDING, indexSsbo);
+	}
+
+	/**
+	 * Gets the view space distance to the near boundary of a depth slice. Slice
+	 * {@link #GRID_Z} is the far plane.
+	 *
+	 * @param z The depth slice
+	 * @return The distance.
+	 */
+	float sliceDepth(int z) {
+		if (linearDepth) {
+			return near + (far - near) * z / GRID_Z;
+		}
+
+		return near * (float) Math.pow(far / near, (double) z / GRID_Z);
+	}
+
+	private static int clusterIndex(int x, int y, int z) {
+		return x + GRID_X * (y + GRID_Y * z);
+	}
+
+	@Override
+	public void dispose() {
+		if (gridData == null) {
+			return;
+		}
+
+		StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+		stateCache.deleteBuffer(gridSsbo);
+		stateCache.deleteBuffer(indexSsbo);
+
+		MemoryUtil.memFree(gridData);
+		MemoryUtil.memFree(indexData);
+
+		this.gridData = null;
+		this.indexData = null;
+	}
+
+	/**
+	 * Gets the view space bounds of a cluster.
+	 *
+	 * @param x The cluster along the x axis of the screen
+	 * @param y The cluster along the y axis of the screen
+	 * @param z The depth slice
+	 * @param dest The destination box
+	 * @return The destination box.
+	 */
+	AABBf getClusterBounds(int x, int y, int z, AABBf dest) {
+		int b = clusterIndex(x, y, z) * BOUNDS_SIZE;
+
+		dest.setMin(clusterBounds[b], clusterBounds[b + 1], clusterBounds[b + 2]);
+		dest.setMax(clusterBounds[b + 3], clusterBounds[b + 4], clusterBounds[b + 5]);
+
+		return dest;
+	}
+
+	/**
+	 * Gets the number of lights assigned to a cluster.
+	 *
+	 * @param x The cluster along the x axis of the screen
+	 * @param y The cluster along the y axis of the screen
+	 * @param z The depth slice
+	 * @return The number of lights.
+	 */
+	int getClusterCount(int x, int y, int z) {
+		return clusterCounts[clusterIndex(x, y, z)];
+	}
+
+	/**
+	 * Gets a light assigned to a cluster.
+	 *
+	 * @param x The cluster along the x axis of the screen
+	 * @param y The cluster along the y axis of the screen
+	 * @param z The depth slice
+	 * @param i The index of the light in the list of the cluster
+	 * @return The {@link LightBuffer} index of the light.
+	 */
+	int getClusterLight(int x, int y, int z, int i) {
+		return clusterLights[clusterIndex(x, y, z) * MAX_LIGHTS_PER_CLUSTER + i];
+	}
+
+	/**
+	 * Determines whether the depth slices are linear rather than exponential,
+	 * which is the case for projections whose near plane is not in front of the
+	 * camera.
+	 *
+	 * @return Whether the depth slices are linear.
+	 */
+	boolean isLinearDepth() {
+		return linearDepth;
+	}
+
+	/**
+	 * Gets the number of lights assigned to clusters this frame.
+	 *
+	 * @return The number of lights.
+	 */
+	public int getNumLights() {
+		return numLights;
+	}
+}
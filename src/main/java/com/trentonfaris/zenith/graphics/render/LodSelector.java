@@ -0,0 +1,97 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import org.joml.Matrix4f;
+import org.joml.Spheref;
+import org.joml.Vector3f;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.ecs.component.render.Lod;
+
+/**
+ * A {@link LodSelector} chooses the level of detail of an entity from the
+ * fraction of the screen height covered by its bounding sphere. Level
+ * {@code k + 1} is used once the screen size falls below the
+ * {@code k}th threshold of its {@link Lod}.
+ *
+ * <p>
+ * To keep entities near a threshold from switching back and forth every frame,
+ * the current level is only left once the screen size passes the threshold by
+ * the hysteresis of the {@link Lod}.
+ *
+ * @author Trenton Faris
+ */
+public final class LodSelector {
+	/** The view matrix of the camera. */
+	private final Matrix4f view = new Matrix4f();
+
+	/** The vertical scale of the projection matrix of the camera. */
+	private float scale;
+
+	/** Whether the projection matrix of the camera is a perspective projection. */
+	private boolean perspective;
+
+	/** Scratch space for the view space center of a sphere. */
+	private final Vector3f center = new Vector3f();
+
+	/**
+	 * Sets the camera to select levels of detail for.
+	 *
+	 * @param view The view matrix of the camera
+	 * @param projection The projection matrix of the camera
+	 */
+	public void set(Matrix4f view, Matrix4f projection) {
+		if (view == null || projection == null) {
+			String errorMsg = "Cannot set the camera of a LodSelector from a null matrix.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		this.view.set(view);
+		this.scale = projection.m11();
+		this.perspective = projection.m23() != 0;
+	}
+
+	/**
+	 * Gets the fraction of the screen height covered by the specified sphere. A
+	 * sphere that contains the camera covers the whole screen.
+	 *
+	 * @param sphere The world space sphere
+	 * @return The screen size of the sphere.
+	 */
+	public float getScreenSize(Spheref sphere) {
+		if (!perspective) {
+			return sphere.r * scale;
+		}
+
+		float depth = -view.transformPosition(center.set(sphere.x, sphere.y, sphere.z)).z;
+		if (depth <= sphere.r) {
+			return Float.POSITIVE_INFINITY;
+		}
+
+		return sphere.r * scale / depth;
+	}
+
+	/**
+	 * Selects the level of detail of an entity, and stores it in its {@link Lod}.
+	 *
+	 * @param lod The {@link Lod} of the entity
+	 * @param sphere The world space bounding sphere of the entity
+	 * @return The selected level of detail.
+	 */
+	public int select(Lod lod, Spheref sphere) {
+		float size = getScreenSize(sphere);
+		float[] screenSizes = lod.screenSizes;
+
+		int level = Math.max(0, Math.min(lod.level, screenSizes.length));
+		while (level > 0 && size >= screenSizes[level - 1] * (1 + lod.hysteresis)) {
+			level--;
+		}
+
+		while (level < screenSizes.length && size < screenSizes[level] * (1 - lod.hysteresis)) {
+			level++;
+		}
+
+		lod.level = level;
+		return level;
+	}
+}
@@ -0,0 +1,195 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import org.joml.Spheref;
+import org.joml.Vector3f;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.model.IndirectBuffer;
+import com.trentonfaris.zenith.graphics.model.Mesh;
+import com.trentonfaris.zenith.graphics.model.MeshletData;
+
+/**
+ * A {@link MeshletCuller} skips the meshlets of a {@link Mesh} which are
+ * outside of the view frustum of a camera, or whose triangles all face away
+ * from it. The meshlets that are left are merged into as few index ranges as
+ * possible, and written to an {@link IndirectBuffer} as draw commands.
+ *
+ * <p>
+ * Meshlets are tested in the local space of their {@link Mesh}, by moving the
+ * frustum and camera into it, so that their bounds are never transformed. The
+ * number of visible and culled meshlets is counted from the last call to
+ * {@link #set(Matrix4f, Matrix4f)}.
+ *
+ * @author Trenton Faris
+ */
+public final class MeshletCuller {
+	/** The view-projection matrix of the camera. */
+	private final Matrix4f viewProjection = new Matrix4f();
+
+	/** The world space position of the camera. */
+	private final Vector3f cameraPosition = new Vector3f();
+
+	/** The planes of the view frustum, in the local space of a {@link Mesh}. */
+	private final FrustumIntersection frustum = new FrustumIntersection();
+
+	/** Scratch space for matrices. */
+	private final Matrix4f matrix = new Matrix4f();
+
+	/** Scratch space for the local space position of the camera. */
+	private final Vector3f localCamera = new Vector3f();
+
+	/** Scratch space for the bounding sphere of a meshlet. */
+	private final Spheref sphere = new Spheref();
+
+	/** Scratch space for the normal cone axis of a meshlet. */
+	private final Vector3f axis = new Vector3f();
+
+	/** The number of meshlets found visible since the camera was set. */
+	private int numVisible;
+
+	/** The number of meshlets culled since the camera was set. */
+	private int numCulled;
+
+	/**
+	 * Sets the camera to cull meshlets for, and resets the visible and culled
+	 * counts.
+	 *
+	 * @param view The view matrix of the camera
+	 * @param projection The projection matrix of the camera
+	 */
+	public void set(Matrix4f view, Matrix4f projection) {
+		if (view == null || projection == null) {
+			String errorMsg = "Cannot set the camera of a MeshletCuller from a null matrix.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		projection.mul(view, viewProjection);
+		view.invertAffine(matrix).getTranslation(cameraPosition);
+
+		this.numVisible = 0;
+		this.numCulled = 0;
+	}
+
+	/**
+	 * Writes a draw command to an {@link IndirectBuffer} for each run of visible
+	 * meshlets of the full detail indices of a {@link Mesh}. The buffer is cleared
+	 * first, and uploaded after.
+	 *
+	 * @param mesh The {@link Mesh}, which must have {@link MeshletData}
+	 * @param model The model matrix of the {@link Mesh}
+	 * @param indirectBuffer The target {@link IndirectBuffer}
+	 * @return The number of draw commands, which is {@code 0} if every meshlet
+	 *         was culled.
+	 */
+	public int cull(Mesh mesh, Matrix4f model, IndirectBuffer indirectBuffer) {
+		MeshletData meshletData = mesh.getMeshletData();
+		if (meshletData == null) {
+			String errorMsg = "Cannot cull the meshlets of a Mesh without meshletData.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		setModel(model);
+
+		indirectBuffer.clear();
+
+		int runFirst = 0;
+		int runCount = 0;
+
+		for (int i = 0; i < meshletData.getNumMeshlets(); i++) {
+			if (!isVisible(meshletData, i)) {
+				numCulled++;
+				continue;
+			}
+
+			numVisible++;
+
+			int first = meshletData.getFirstIndex(i);
+			int count = meshletData.getIndexCount(i);
+
+			// Meshlets are stored in order, so visible neighbours extend the same range.
+			if (runCount > 0 && runFirst + runCount == first) {
+				runCount += count;
+				continue;
+			}
+
+			if (runCount > 0) {
+				mesh.addRangeCommand(indirectBuffer, runFirst, runCount);
+			}
+
+			runFirst = first;
+			runCount = count;
+		}
+
+		if (runCount > 0) {
+			mesh.addRangeCommand(indirectBuffer, runFirst, runCount);
+		}
+
+		if (indirectBuffer.size() > 0) {
+			indirectBuffer.update();
+		}
+
+		return indirectBuffer.size();
+	}
+
+	/**
+	 * Moves the frustum and camera into the local space of a model, in which its
+	 * meshlets are tested.
+	 *
+	 * @param model The model matrix
+	 */
+	void setModel(Matrix4f model) {
+		frustum.set(viewProjection.mul(model, matrix));
+		model.invertAffine(matrix).transformPosition(cameraPosition, localCamera);
+	}
+
+	/**
+	 * Tests whether a meshlet is inside of the frustum and has a triangle that can
+	 * face the camera, in the local space of the last model.
+	 *
+	 * @param meshletData The {@link MeshletData} of the meshlet
+	 * @param meshlet The meshlet
+	 * @return Whether the meshlet is visible.
+	 */
+	boolean isVisible(MeshletData meshletData, int meshlet) {
+		meshletData.getBoundingSphere(meshlet, sphere);
+		if (!frustum.testSphere(sphere.x, sphere.y, sphere.z, sphere.r)) {
+			return false;
+		}
+
+		float cutoff = meshletData.getConeCutoff(meshlet);
+		if (cutoff >= 1) {
+			return true;
+		}
+
+		meshletData.getConeAxis(meshlet, axis);
+
+		float dx = sphere.x - localCamera.x;
+		float dy = sphere.y - localCamera.y;
+		float dz = sphere.z - localCamera.z;
+		float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+		return dx * axis.x + dy * axis.y + dz * axis.z < cutoff * distance + sphere.r;
+	}
+
+	/**
+	 * Gets the {@link #numVisible}.
+	 *
+	 * @return The {@link #numVisible} value.
+	 */
+	public int getNumVisible() {
+		return numVisible;
+	}
+
+	/**
+	 * Gets the {@link #numCulled}.
+	 *
+	 * @return The {@link #numCulled} value.
+	 */
+	public int getNumCulled() {
+		return numCulled;
+	}
+}
@@ -0,0 +1,107 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import com.trentonfaris.zenith.graphics.material.RenderPass;
+
+/**
+ * A {@link RenderKey} packs the state of a draw into a single 64-bit sort key.
+ * Sorting a {@link RenderQueue} by these keys groups draws by {@link RenderPass}
+ * first, and then orders them so that state changes are minimized.
+ *
+ * <p>
+ * Opaque keys are laid out as {@code pass | shader | material | mesh | depth},
+ * so that draws are grouped by state and sorted front-to-back within each
+ * group. Transparent keys are laid out as
+ * {@code pass | inverted depth | shader | material | mesh}, so that draws are
+ * sorted back-to-front, which is required for correct blending.
+ *
+ * <p>
+ * Ids which exceed the width of their field are wrapped. This only affects how
+ * well draws are grouped, never the correctness of the draw.
+ *
+ * @author Trenton Faris
+ */
+public final class RenderKey {
+	/** The number of bits used by the {@link RenderPass}. */
+	private static final int PASS_BITS = 2;
+
+	/** The number of bits used by the shader id. */
+	private static final int SHADER_BITS = 10;
+
+	/** The number of bits used by the material id. */
+	private static final int MATERIAL_BITS = 14;
+
+	/** The number of bits used by the mesh id. */
+	private static final int MESH_BITS = 14;
+
+	/** The number of bits used by the depth. */
+	private static final int DEPTH_BITS = 24;
+
+	private static final int DEPTH_SHIFT = 0;
+	private static final int MESH_SHIFT = DEPTH_SHIFT + DEPTH_BITS;
+	private static final int MATERIAL_SHIFT = MESH_SHIFT + MESH_BITS;
+	private static final int SHADER_SHIFT = MATERIAL_SHIFT + MATERIAL_BITS;
+	private static final int PASS_SHIFT = SHADER_SHIFT + SHADER_BITS;
+
+	private RenderKey() {
+	}
+
+	/**
+	 * Packs a sort key from the specified draw state.
+	 *
+	 * @param renderPass The {@link RenderPass} of the draw
+	 * @param shaderId The id of the shader program
+	 * @param materialId The id of the material
+	 * @param meshId The id of the mesh, typically its vertex array object
+	 * @param depth The non-negative view space depth of the draw
+	 * @return The packed sort key.
+	 */
+	public static long pack(RenderPass renderPass, int shaderId, int materialId, int meshId, float depth) {
+		long pass = renderPass.ordinal() & mask(PASS_BITS);
+		long shader = shaderId & mask(SHADER_BITS);
+		long material = materialId & mask(MATERIAL_BITS);
+		long mesh = meshId & mask(MESH_BITS);
+		long quantizedDepth = quantizeDepth(depth);
+
+		if (renderPass == RenderPass.TRANSPARENT) {
+			long invertedDepth = mask(DEPTH_BITS) - quantizedDepth;
+
+			return pass << PASS_SHIFT | invertedDepth << (PASS_SHIFT - DEPTH_BITS)
+					| shader << (PASS_SHIFT - DEPTH_BITS - SHADER_BITS)
+					| material << (PASS_SHIFT - DEPTH_BITS - SHADER_BITS - MATERIAL_BITS)
+					| mesh << (PASS_SHIFT - DEPTH_BITS - SHADER_BITS - MATERIAL_BITS - MESH_BITS);
+		}
+
+		return pass << PASS_SHIFT | shader << SHADER_SHIFT | material << MATERIAL_SHIFT | mesh << MESH_SHIFT
+				| quantizedDepth << DEPTH_SHIFT;
+	}
+
+	/**
+	 * Gets the {@link RenderPass} of a packed sort key.
+	 *
+	 * @param key The packed sort key
+	 * @return The {@link RenderPass}.
+	 */
+	public static RenderPass getRenderPass(long key) {
+		return RenderPass.values()[(int) ((key >>> PASS_SHIFT) & mask(PASS_BITS))];
+	}
+
+	/**
+	 * Quantizes a depth to {@link #DEPTH_BITS} bits. The bit pattern of a
+	 * non-negative float increases monotonically with its value, so its upper bits
+	 * can be used directly without knowing the depth range of the camera.
+	 *
+	 * @param depth The view space depth
+	 * @return The quantized depth.
+	 */
+	private static long quantizeDepth(float depth) {
+		if (!(depth > 0)) {
+			return 0;
+		}
+
+		return (Float.floatToIntBits(depth) >>> (Integer.SIZE - 1 - DEPTH_BITS)) & mask(DEPTH_BITS);
+	}
+
+	private static long mask(int bits) {
+		return (1L << bits) - 1;
+	}
+}
@@ -0,0 +1,218 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import java.util.Arrays;
+
+import com.trentonfaris.zenith.graphics.model.Mesh;
+
+/**
+ * A {@link RenderQueue} is a flat list of draws, each made up of an entity, a
+ * {@link Mesh}, its level of detail, and a {@link RenderKey}. Draws are extracted into the queue,
+ * sorted by key, and then submitted in key order.
+ *
+ * <p>
+ * The queue is backed by primitive arrays which are reused between frames, so
+ * that extracting and sorting draws does not allocate once the queue has grown
+ * to the size of the scene.
+ *
+ * @author Trenton Faris
+ */
+public final class RenderQueue {
+	/** The initial capacity of a {@link RenderQueue}. */
+	private static final int INITIAL_CAPACITY = 256;
+
+	/** The number of bits sorted by each radix sort pass. */
+	private static final int RADIX_BITS = 8;
+
+	/** The number of buckets in each radix sort pass. */
+	private static final int RADIX = 1 << RADIX_BITS;
+
+	/** The number of radix sort passes needed to sort a 64-bit key. */
+	private static final int NUM_PASSES = Long.SIZE / RADIX_BITS;
+
+	/** The sort keys of each draw, in insertion order. */
+	private long[] keys = new long[INITIAL_CAPACITY];
+
+	/** The entity ids of each draw, in insertion order. */
+	private int[] entities = new int[INITIAL_CAPACITY];
+
+	/** The meshes of each draw, in insertion order. */
+	private Mesh[] meshes = new Mesh[INITIAL_CAPACITY];
+
+	/** The levels of detail of each draw, in insertion order. */
+	private int[] lods = new int[INITIAL_CAPACITY];
+
+	/** The indices of each draw, in sorted order. */
+	private int[] order = new int[INITIAL_CAPACITY];
+
+	/** The keys being sorted by the radix sort. */
+	private long[] sortKeys = new long[INITIAL_CAPACITY];
+
+	/** Scratch space for the radix sort. */
+	private long[] scratchKeys = new long[INITIAL_CAPACITY];
+
+	/** Scratch space for the radix sort. */
+	private int[] scratchOrder = new int[INITIAL_CAPACITY];
+
+	/** The histograms of every radix sort pass. */
+	private final int[] histograms = new int[NUM_PASSES * RADIX];
+
+	/** The number of draws in this {@link RenderQueue}. */
+	private int size;
+
+	/**
+	 * Removes all draws from this {@link RenderQueue}.
+	 */
+	public void clear() {
+		Arrays.fill(meshes, 0, size, null);
+		this.size = 0;
+	}
+
+	/**
+	 * Adds a draw to this {@link RenderQueue}.
+	 *
+	 * @param key The {@link RenderKey} of the draw
+	 * @param entityId The id of the entity being drawn
+	 * @param mesh The {@link Mesh} being drawn
+	 * @param lod The level of detail of the {@link Mesh}
+	 */
+	public void add(long key, int entityId, Mesh mesh, int lod) {
+		if (size == keys.length) {
+			grow();
+		}
+
+		keys[size] = key;
+		entities[size] = entityId;
+		meshes[size] = mesh;
+		lods[size] = lod;
+		order[size] = size;
+
+		this.size++;
+	}
+
+	/**
+	 * Sorts the draws in this {@link RenderQueue} by key using an LSD radix sort.
+	 * Passes in which every key has the same digit are skipped.
+	 */
+	public void sort() {
+		if (size == 0) {
+			return;
+		}
+
+		Arrays.fill(histograms, 0);
+
+		long[] srcKeys = sortKeys;
+		int[] srcOrder = order;
+		long[] dstKeys = scratchKeys;
+		int[] dstOrder = scratchOrder;
+
+		// Build the histograms of every pass at once.
+		for (int i = 0; i < size; i++) {
+			long key = keys[i];
+			srcKeys[i] = key;
+			srcOrder[i] = i;
+
+			for (int pass = 0; pass < NUM_PASSES; pass++) {
+				histograms[pass * RADIX + (int) ((key >>> (pass * RADIX_BITS)) & (RADIX - 1))]++;
+			}
+		}
+
+		for (int pass = 0; pass < NUM_PASSES; pass++) {
+			int offset = pass * RADIX;
+			int shift = pass * RADIX_BITS;
+
+			// Every key shares this digit, so this pass would not change the order.
+			if (histograms[offset + (int) ((srcKeys[0] >>> shift) & (RADIX - 1))] == size) {
+				continue;
+			}
+
+			int sum = 0;
+			for (int i = 0; i < RADIX; i++) {
+				int count = histograms[offset + i];
+				histograms[offset + i] = sum;
+				sum += count;
+			}
+
+			for (int i = 0; i < size; i++) {
+				long key = srcKeys[i];
+				int j = histograms[offset + (int) ((key >>> shift) & (RADIX - 1))]++;
+
+				dstKeys[j] = key;
+				dstOrder[j] = srcOrder[i];
+			}
+
+			long[] tmpKeys = srcKeys;
+			srcKeys = dstKeys;
+			dstKeys = tmpKeys;
+
+			int[] tmpOrder = srcOrder;
+			srcOrder = dstOrder;
+			dstOrder = tmpOrder;
+		}
+
+		if (srcOrder != order) {
+			System.arraycopy(srcOrder, 0, order, 0, size);
+		}
+	}
+
+	/**
+	 * Gets the number of draws in this {@link RenderQueue}.
+	 *
+	 * @return The number of draws.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the {@link RenderKey} of the draw at the specified sorted position.
+	 *
+	 * @param i The sorted position of the draw
+	 * @return The {@link RenderKey}.
+	 */
+	public long getKey(int i) {
+		return keys[order[i]];
+	}
+
+	/**
+	 * Gets the entity id of the draw at the specified sorted position.
+	 *
+	 * @param i The sorted position of the draw
+	 * @return The entity id.
+	 */
+	public int getEntity(int i) {
+		return entities[order[i]];
+	}
+
+	/**
+	 * Gets the {@link Mesh} of the draw at the specified sorted position.
+	 *
+	 * @param i The sorted position of the draw
+	 * @return The {@link Mesh}.
+	 */
+	public Mesh getMesh(int i) {
+		return meshes[order[i]];
+	}
+
+	/**
+	 * Gets the level of detail of the draw at the specified sorted position.
+	 *
+	 * @param i The sorted position of the draw
+	 * @return The level of detail.
+	 */
+	public int getLod(int i) {
+		return lods[order[i]];
+	}
+
+	private void grow() {
+		int capacity = keys.length * 2;
+
+		this.keys = Arrays.copyOf(keys, capacity);
+		this.entities = Arrays.copyOf(entities, capacity);
+		this.meshes = Arrays.copyOf(meshes, capacity);
+		this.lods = Arrays.copyOf(lods, capacity);
+		this.order = Arrays.copyOf(order, capacity);
+		this.sortKeys = new long[capacity];
+		this.scratchKeys = new long[capacity];
+		this.scratchOrder = new int[capacity];
+	}
+}
@@ -1,9 +1,69 @@
 package com.trentonfaris.zenith.graphics.render;
 
+import java.util.BitSet;
+import java.util.Set;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import com.artemis.ComponentMapper;
 import com.artemis.World;
+import com.artemis.utils.IntBag;
+import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.ecs.component.camera.Camera;
+import com.trentonfaris.zenith.ecs.component.misc.State;
+import com.trentonfaris.zenith.ecs.component.render.Bounds;
+import com.trentonfaris.zenith.ecs.component.render.Lod;
+import com.trentonfaris.zenith.ecs.component.render.Renderable;
+import com.trentonfaris.zenith.ecs.component.transformation.ModelMatrix;
+import com.trentonfaris.zenith.ecs.system.core.LayerSystem;
+import com.trentonfaris.zenith.ecs.system.core.LayerSystem.Layer;
+import com.trentonfaris.zenith.ecs.system.spatial.SpatialSystem;
+import com.trentonfaris.zenith.graphics.material.Material;
+import com.trentonfaris.zenith.graphics.model.Mesh;
+import com.trentonfaris.zenith.graphics.shader.Shader;
+import com.trentonfaris.zenith.graphics.shader.ShaderManager;
+import com.trentonfaris.zenith.utility.Disposable;
+
+/**
+ * A {@link Renderer} draws the scene from the perspective of a {@link Camera}.
+ * Every {@link Renderer} shares the same extraction step, which culls the
+ * entities of the scene and fills a {@link RenderQueue} with the draws of those
+ * that are visible. A {@link Renderer} creates its resources on first use, and
+ * recreates them if it is used again after it is disposed.
+ *
+ * @author Trenton Faris
+ */
+public abstract class Renderer implements Disposable {
+	/** The {@link RenderQueue} of draws extracted each frame. */
+	protected final RenderQueue renderQueue = new RenderQueue();
+
+	/** The {@link FrustumCuller} of the camera being rendered. */
+	protected final FrustumCuller frustumCuller = new FrustumCuller();
+
+	/** The {@link MeshletCuller} of the camera being rendered. */
+	protected final MeshletCuller meshletCuller = new MeshletCuller();
+
+	/** Scratch space for the view-projection matrix used to cull. */
+	protected final Matrix4f cullMatrix = new Matrix4f();
 
-public abstract class Renderer {
+	/** The entities found by a spatial query this frame. */
+	private final IntBag candidates = new IntBag();
+
+	/** The entities which have already been extracted this frame. */
+	private final BitSet extracted = new BitSet();
+
+	/** The {@link LodSelector} of the camera being rendered. */
+	private final LodSelector lodSelector = new LodSelector();
+
+	/** Scratch space for the position of an entity during extraction. */
+	private final Vector3f extractPosition = new Vector3f();
+
+	private ComponentMapper<State> mState;
+	private ComponentMapper<ModelMatrix> mModelMatrix;
+	private ComponentMapper<Renderable> mRenderable;
+	private ComponentMapper<Bounds> mBounds;
+	private ComponentMapper<Lod> mLod;
 
 	/**
 	 * Draws the {@link World} from the perspective of the {@link Camera}.
@@ -12,4 +72,158 @@ public abstract class Renderer {
 	 * @param cameraId The id of the target {@link Camera}
 	 */
 	public abstract void render(World world, int cameraId);
+
+	/**
+	 * Extracts a draw into the {@link #renderQueue} for every {@link Mesh} of every
+	 * active, renderable entity on the layers of the {@link Camera} whose
+	 * {@link Bounds} intersect the view frustum. If the world has a
+	 * {@link SpatialSystem}, candidates are found with a frustum query instead of
+	 * scanning every entity on the layers of the {@link Camera}.
+	 *
+	 * <p>
+	 * The extracted draws are sorted by {@link RenderKey} before this method
+	 * returns.
+	 *
+	 * @param world The target {@link World}
+	 * @param cameraId The id of the target {@link Camera}
+	 * @param view The view matrix of the {@link Camera}
+	 * @param projection The projection matrix of the {@link Camera}
+	 */
+	protected final void extract(World world, int cameraId, Matrix4f view, Matrix4f projection) {
+		renderQueue.clear();
+
+		frustumCuller.set(projection.mul(view, cullMatrix));
+		lodSelector.set(view, projection);
+		meshletCuller.set(view, projection);
+
+		Camera camera = world.getMapper(Camera.class).create(cameraId);
+
+		this.mState = world.getMapper(State.class);
+		this.mModelMatrix = world.getMapper(ModelMatrix.class);
+		this.mRenderable = world.getMapper(Renderable.class);
+		this.mBounds = world.getMapper(Bounds.class);
+		this.mLod = world.getMapper(Lod.class);
+
+		LayerSystem layerSystem = world.getSystem(LayerSystem.class);
+		SpatialSystem spatialSystem = world.getSystem(SpatialSystem.class);
+
+		if (spatialSystem != null) {
+			candidates.clear();
+			spatialSystem.queryFrustum(cullMatrix, candidates);
+
+			int[] data = candidates.getData();
+			for (int i = 0; i < candidates.size(); i++) {
+				int entityId = data[i];
+
+				Set<Layer> layers = layerSystem.getLayers(entityId);
+				if (layers == null) {
+					continue;
+				}
+
+				for (Layer layer : layers) {
+					if (camera.layerMask.get(layer.getId())) {
+						extractEntity(world, entityId, view);
+						break;
+					}
+				}
+			}
+		} else {
+			extracted.clear();
+
+			int layerId = camera.layerMask.nextSetBit(0);
+			while (layerId >= 0) {
+				for (int entityId : layerSystem.getEntities(layerId)) {
+					if (extracted.get(entityId)) {
+						continue;
+					}
+
+					extracted.set(entityId);
+					extractEntity(world, entityId, view);
+				}
+
+				layerId = camera.layerMask.nextSetBit(layerId + 1);
+			}
+		}
+
+		renderQueue.sort();
+	}
+
+	/**
+	 * Extracts a draw into the {@link #renderQueue} for every {@link Mesh} of an
+	 * entity, if it is active, renderable, and visible. Entities with a {@link Lod}
+	 * are drawn at the level of detail chosen by the {@link #lodSelector}.
+	 *
+	 * @param world The target {@link World}
+	 * @param entityId The id of the entity
+	 * @param view The view matrix of the camera
+	 */
+	private void extractEntity(World world, int entityId, Matrix4f view) {
+		if (!world.getEntity(entityId).isActive()) {
+			return;
+		}
+
+		if (!mModelMatrix.has(entityId) || !mRenderable.has(entityId)) {
+			return;
+		}
+
+		State state = mState.create(entityId);
+		if (!state.active) {
+			return;
+		}
+
+		// Entities without bounds are never culled, and are always drawn at full detail.
+		int lod = 0;
+		if (mBounds.has(entityId)) {
+			Bounds bounds = mBounds.get(entityId);
+			if (!frustumCuller.isVisible(bounds.aabb, bounds.sphere)) {
+				return;
+			}
+
+			if (mLod.has(entityId)) {
+				lod = lodSelector.select(mLod.get(entityId), bounds.sphere);
+			}
+		}
+
+		ModelMatrix modelMatrix = mModelMatrix.get(entityId);
+		Renderable renderable = mRenderable.get(entityId);
+
+		ShaderManager shaderManager = Zenith.getEngine().getGraphics().getShaderManager();
+
+		// The view space depth of the entity origin, positive in front of the camera.
+		float depth = -view.transformPosition(modelMatrix.mat.getTranslation(extractPosition)).z;
+
+		for (Mesh mesh : renderable.model.getMeshes()) {
+			Material material = mesh.getMaterial();
+			if (material == null) {
+				continue;
+			}
+
+			Shader shader = shaderManager.getShader(material.getShaderType());
+
+			long key = RenderKey.pack(material.getRenderPass(), shader.getProgram(), material.getId(),
+					mesh.getVao(), depth);
+
+			renderQueue.add(key, entityId, mesh, Math.min(lod, mesh.getNumLods() - 1));
+		}
+	}
+
+	/**
+	 * Gets the {@link #frustumCuller}, which holds the visible and culled counts of
+	 * the last rendered camera.
+	 *
+	 * @return The {@link #frustumCuller} value.
+	 */
+	public FrustumCuller getFrustumCuller() {
+		return frustumCuller;
+	}
+
+	/**
+	 * Gets the {@link #meshletCuller}, which holds the visible and culled meshlet
+	 * counts of the last rendered camera.
+	 *
+	 * @return The {@link #meshletCuller} value.
+	 */
+	public MeshletCuller getMeshletCuller() {
+		return meshletCuller;
+	}
 }
@@ -0,0 +1,119 @@
+package com.trentonfaris.zenith.graphics.shader;
+
+import org.joml.Matrix4f;
+import org.joml.Vector2f;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.shader.uniform.BoolUniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.IntUniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.Mat4Uniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.Sampler2DUniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.UniformType;
+import com.trentonfaris.zenith.graphics.shader.uniform.Vec2Uniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.Vec3Uniform;
+import com.trentonfaris.zenith.graphics.texture.Texture2D;
+import com.trentonfaris.zenith.resource.resources.Shaders;
+
+/**
+ * A {@link DeferredLightShader} adds the contribution of a single light to the
+ * pixels of a G-buffer written by a {@link GBufferShader}. Light data is read
+ * from the {@link LightBuffer} bound to {@link LightBuffer#BINDING}.
+ *
+ * <p>
+ * Bounded lights are drawn as light volumes, so only the pixels they cover are
+ * shaded. Directional and ambient lights are drawn with a fullscreen triangle.
+ *
+ * @author Trenton Faris
+ */
+public final class DeferredLightShader extends Shader {
+	// Names of uniforms in the vertex shader.
+	private static final String MODEL_VIEW_PROJECTION = "modelViewProjection";
+	private static final String FULLSCREEN = "fullscreen";
+
+	// Names of uniforms in the fragment shader.
+	private static final String ALBEDO_AO = "albedoAo";
+	private static final String NORMAL_ROUGHNESS_METALLIC = "normalRoughnessMetallic";
+	private static final String DEPTH = "depth";
+	private static final String VIEW = "view";
+	private static final String INVERSE_PROJECTION = "inverseProjection";
+	private static final String SCREEN_SIZE = "screenSize";
+	private static final String LIGHT_INDEX = "lightIndex";
+
+	private final BoolUniform fullscreenUniform;
+
+	private final Sampler2DUniform albedoAoUniform;
+	private final Sampler2DUniform normalRoughnessMetallicUniform;
+	private final Sampler2DUniform depthUniform;
+
+	private final Mat4Uniform inverseProjectionUniform;
+	private final Vec2Uniform screenSizeUniform;
+	private final IntUniform lightIndexUniform;
+
+	/** Creates a new {@link DeferredLightShader}. */
+	DeferredLightShader() {
+		super(Shaders.DEFERRED_LIGHT.getURI());
+
+		// Uniforms in the vertex shader.
+		registerUniform(new Mat4Uniform(program, MODEL_VIEW_PROJECTION, UniformType.MODEL_VIEW_PROJECTION_MATRIX));
+
+		this.fullscreenUniform = new BoolUniform(program, FULLSCREEN, UniformType.MATERIAL);
+
+		// Uniforms in the fragment shader.
+		registerUniform(new Mat4Uniform(program, VIEW, UniformType.VIEW_MATRIX));
+		registerUniform(new Vec3Uniform(program, ForwardLitShader.AMBIENT_COLOR, UniformType.AMBIENT_COLOR));
+
+		this.albedoAoUniform = new Sampler2DUniform(program, ALBEDO_AO, UniformType.MATERIAL);
+		this.normalRoughnessMetallicUniform = new Sampler2DUniform(program, NORMAL_ROUGHNESS_METALLIC,
+				UniformType.MATERIAL);
+		this.depthUniform = new Sampler2DUniform(program, DEPTH, UniformType.MATERIAL);
+
+		this.inverseProjectionUniform = new Mat4Uniform(program, INVERSE_PROJECTION, UniformType.MATERIAL);
+		this.screenSizeUniform = new Vec2Uniform(program, SCREEN_SIZE, UniformType.MATERIAL);
+		this.lightIndexUniform = new IntUniform(program, LIGHT_INDEX, UniformType.MATERIAL);
+	}
+
+	/**
+	 * Sets the G-buffer to be lit.
+	 *
+	 * @param albedoAo The albedo and ambient occlusion attachment
+	 * @param normalRoughnessMetallic The normal, roughness, and metallic attachment
+	 * @param depth The depth attachment
+	 * @param inverseProjection The inverse projection matrix of the camera
+	 * @param screenSize The size of the G-buffer in pixels
+	 */
+	public void setGBuffer(Texture2D albedoAo, Texture2D normalRoughnessMetallic, Texture2D depth,
+			Matrix4f inverseProjection, Vector2f screenSize) {
+		if (albedoAo == null || normalRoughnessMetallic == null || depth == null) {
+			String errorMsg = "Cannot set a G-buffer with a null attachment.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		albedoAoUniform.set(0, albedoAo);
+		normalRoughnessMetallicUniform.set(1, normalRoughnessMetallic);
+		depthUniform.set(2, depth);
+
+		inverseProjectionUniform.set(inverseProjection);
+		screenSizeUniform.set(screenSize);
+	}
+
+	/**
+	 * Sets whether the light is drawn with a fullscreen triangle instead of a light
+	 * volume.
+	 *
+	 * @param fullscreen Whether the light is drawn fullscreen
+	 */
+	public void setFullscreen(boolean fullscreen) {
+		fullscreenUniform.set(fullscreen);
+	}
+
+	/**
+	 * Sets the light to draw.
+	 *
+	 * @param lightIndex The {@link LightBuffer} index of the light, or {@code -1}
+	 *                   for the ambient light
+	 */
+	public void setLightIndex(int lightIndex) {
+		lightIndexUniform.set(lightIndex);
+	}
+}
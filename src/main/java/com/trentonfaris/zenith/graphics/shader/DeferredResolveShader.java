@@ -0,0 +1,57 @@
+package com.trentonfaris.zenith.graphics.shader;
+
+import org.joml.Vector2f;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.shader.uniform.Sampler2DUniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.UniformType;
+import com.trentonfaris.zenith.graphics.shader.uniform.Vec2Uniform;
+import com.trentonfaris.zenith.graphics.texture.Texture2D;
+import com.trentonfaris.zenith.resource.resources.Shaders;
+
+/**
+ * A {@link DeferredResolveShader} tonemaps the lighting accumulated by a
+ * {@link DeferredLightShader}, and copies the depth of the G-buffer, so that
+ * forward passes can be drawn on top of it.
+ *
+ * @author Trenton Faris
+ */
+public final class DeferredResolveShader extends Shader {
+	// Names of uniforms in the fragment shader.
+	private static final String SCREEN = "screen";
+	private static final String DEPTH = "depth";
+	private static final String SCREEN_SIZE = "screenSize";
+
+	private final Sampler2DUniform screenUniform;
+	private final Sampler2DUniform depthUniform;
+	private final Vec2Uniform screenSizeUniform;
+
+	/** Creates a new {@link DeferredResolveShader}. */
+	DeferredResolveShader() {
+		super(Shaders.DEFERRED_RESOLVE.getURI());
+
+		// Uniforms in the fragment shader.
+		this.screenUniform = new Sampler2DUniform(program, SCREEN, UniformType.MATERIAL);
+		this.depthUniform = new Sampler2DUniform(program, DEPTH, UniformType.MATERIAL);
+		this.screenSizeUniform = new Vec2Uniform(program, SCREEN_SIZE, UniformType.MATERIAL);
+	}
+
+	/**
+	 * Sets the accumulated lighting and depth to resolve.
+	 *
+	 * @param screen The accumulated lighting
+	 * @param depth The depth of the G-buffer
+	 * @param screenSize The size of the G-buffer in pixels
+	 */
+	public void setInputs(Texture2D screen, Texture2D depth, Vector2f screenSize) {
+		if (screen == null || depth == null) {
+			String errorMsg = "Cannot resolve a null screen or depth.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		screenUniform.set(0, screen);
+		depthUniform.set(1, depth);
+		screenSizeUniform.set(screenSize);
+	}
+}
@@ -0,0 +1,61 @@
+package com.trentonfaris.zenith.graphics.shader;
+
+import com.trentonfaris.zenith.graphics.material.Material;
+import com.trentonfaris.zenith.graphics.shader.uniform.BoolUniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.FloatUniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.Mat4Uniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.Sampler2DUniform;
+import com.trentonfaris.zenith.graphics.shader.uniform.UniformType;
+import com.trentonfaris.zenith.graphics.shader.uniform.Vec3Uniform;
+import com.trentonfaris.zenith.resource.resources.Shaders;
+
+/**
+ * A {@link GBufferShader} writes the surface properties of objects into a
+ * G-buffer, to be lit later by a {@link DeferredLightShader}. It declares the
+ * same material uniforms as the {@link StandardShader}, so that any
+ * {@link StandardShader} {@link Material} can be drawn with it.
+ *
+ * @author Trenton Faris
+ */
+public final class GBufferShader extends Shader {
+	// Names of uniforms in the vertex shader.
+	private static final String VIEW = "view";
+	private static final String PROJECTION = "projection";
+	private static final String MODEL_VIEW = "modelView";
+	private static final String INSTANCED = "instanced";
+
+	/** Creates a new {@link GBufferShader}. */
+	GBufferShader() {
+		super(Shaders.GBUFFER.getURI());
+
+		// Uniforms in the vertex shader.
+		registerUniform(new Mat4Uniform(program, VIEW, UniformType.VIEW_MATRIX));
+		registerUniform(new Mat4Uniform(program, PROJECTION, UniformType.PROJECTION_MATRIX));
+		registerUniform(new Mat4Uniform(program, MODEL_VIEW, UniformType.MODEL_VIEW_MATRIX));
+		registerUniform(new BoolUniform(program, INSTANCED, UniformType.INSTANCED));
+		registerUniform(new BoolUniform(program, StandardShader.OCTAHEDRAL, UniformType.OCTAHEDRAL));
+
+		// Uniforms in the fragment shader.
+		registerUniform(new BoolUniform(program, StandardShader.USE_ALBEDO_MAP, UniformType.MATERIAL));
+		registerUniform(new Sampler2DUniform(program, StandardShader.ALBEDO_MAP, UniformType.MATERIAL));
+		registerUniform(new Vec3Uniform(program, StandardShader.ALBEDO_COLOR, UniformType.MATERIAL));
+
+		registerUniform(new BoolUniform(program, StandardShader.USE_METALLIC_MAP, UniformType.MATERIAL));
+		registerUniform(new Sampler2DUniform(program, StandardShader.METALLIC_MAP, UniformType.MATERIAL));
+		registerUniform(new FloatUniform(program, StandardShader.METALLIC_VALUE, UniformType.MATERIAL));
+
+		registerUniform(new BoolUniform(program, StandardShader.USE_ROUGHNESS_MAP, UniformType.MATERIAL));
+		registerUniform(new Sampler2DUniform(program, StandardShader.ROUGHNESS_MAP, UniformType.MATERIAL));
+		registerUniform(new FloatUniform(program, StandardShader.ROUGHNESS_VALUE, UniformType.MATERIAL));
+
+		registerUniform(new BoolUniform(program, StandardShader.USE_AO_MAP, UniformType.MATERIAL));
+		registerUniform(new Sampler2DUniform(program, StandardShader.AO_MAP, UniformType.MATERIAL));
+
+		registerUniform(new BoolUniform(program, StandardShader.USE_NORMAL_MAP, UniformType.MATERIAL));
+		registerUniform(new Sampler2DUniform(program, StandardShader.NORMAL_MAP, UniformType.MATERIAL));
+
+		registerUniform(new BoolUniform(program, StandardShader.USE_HEIGHT_MAP, UniformType.MATERIAL));
+		registerUniform(new Sampler2DUniform(program, StandardShader.HEIGHT_MAP, UniformType.MATERIAL));
+		registerUniform(new FloatUniform(program, StandardShader.HEIGHT_SCALE, UniformType.MATERIAL));
+	}
+}
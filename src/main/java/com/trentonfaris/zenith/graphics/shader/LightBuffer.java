@@ -0,0 +1,147 @@
+package com.trentonfaris.zenith.graphics.shader;
+
+import java.nio.ByteBuffer;
+
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.system.MemoryUtil;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.StateCache;
+import com.trentonfaris.zenith.ecs.component.light.Caster.CasterType;
+import com.trentonfaris.zenith.utility.Disposable;
+
+/**
+ * A {@link LightBuffer} packs the lights of a scene into a std140 uniform
+ * buffer, which is bound to {@link #BINDING} and read by every
+ * {@link ForwardLitShader} through the {@code Lights} uniform block.
+ *
+ * <p>
+ * Lights are packed once per frame. Each draw then only references lights by
+ * their index in the buffer.
+ *
+ * @author Trenton Faris
+ */
+public final class LightBuffer implements Disposable {
+	/** The uniform buffer binding point of the {@code Lights} uniform block. */
+	public static final int BINDING = 0;
+
+	/** The maximum number of lights that can be stored in a {@link LightBuffer}. */
+	public static final int MAX_NUM_LIGHTS = 256;
+
+	/**
+	 * The std140 size of a single light in bytes. Each light is laid out as four
+	 * {@code vec4}s: color and type, position and radius, direction and cosine of
+	 * the inner cutoff angle, and cosine of the outer cutoff angle.
+	 */
+	private static final int LIGHT_SIZE = 4 * 4 * Float.BYTES;
+
+	/** The OpenGL uniform buffer of this {@link LightBuffer}. */
+	private final int ubo;
+
+	/** The client side copy of the light data. */
+	private final ByteBuffer data;
+
+	/** The number of lights in this {@link LightBuffer}. */
+	private int size;
+
+	/**
+	 * Creates a new {@link LightBuffer} with storage for {@link #MAX_NUM_LIGHTS}
+	 * lights.
+	 */
+	public LightBuffer() {
+		this.data = MemoryUtil.memCalloc(MAX_NUM_LIGHTS * LIGHT_SIZE);
+		this.ubo = GL15.glGenBuffers();
+
+		StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+		stateCache.bindBuffer(GL31.GL_UNIFORM_BUFFER, ubo);
+		GL15.glBufferData(GL31.GL_UNIFORM_BUFFER, data.capacity(), GL15.GL_DYNAMIC_DRAW);
+		stateCache.bindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+	}
+
+	/**
+	 * Removes all lights from this {@link LightBuffer}.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Adds a light to this {@link LightBuffer}.
+	 *
+	 * @param casterType The {@link CasterType} of the light
+	 * @param color The color of the light
+	 * @param position The world space position of the light
+	 * @param radius The radius of the light
+	 * @param direction The normalized world space direction of the light
+	 * @param innerCutoffAngle The inner cutoff angle of the light, in degrees
+	 * @param outerCutoffAngle The outer cutoff angle of the light, in degrees
+	 * @return The index of the light, or {@code -1} if this {@link LightBuffer} is
+	 *         full.
+	 */
+	public int add(CasterType casterType, Vector3f color, Vector3f position, float radius, Vector3f direction,
+			float innerCutoffAngle, float outerCutoffAngle) {
+		if (casterType == null) {
+			String errorMsg = "Cannot add a light to a LightBuffer with a null casterType.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		if (size == MAX_NUM_LIGHTS) {
+			return -1;
+		}
+
+		int offset = size * LIGHT_SIZE;
+
+		data.putFloat(offset, color.x);
+		data.putFloat(offset + 4, color.y);
+		data.putFloat(offset + 8, color.z);
+		data.putFloat(offset + 12, casterType.ordinal());
+
+		data.putFloat(offset + 16, position.x);
+		data.putFloat(offset + 20, position.y);
+		data.putFloat(offset + 24, position.z);
+		data.putFloat(offset + 28, radius);
+
+		data.putFloat(offset + 32, direction.x);
+		data.putFloat(offset + 36, direction.y);
+		data.putFloat(offset + 40, direction.z);
+		data.putFloat(offset + 44, (float) Math.cos(Math.toRadians(innerCutoffAngle)));
+
+		data.putFloat(offset + 48, (float) Math.cos(Math.toRadians(outerCutoffAngle)));
+
+		return size++;
+	}
+
+	/**
+	 * Uploads the lights of this {@link LightBuffer} and binds it to
+	 * {@link #BINDING}.
+	 */
+	public void update() {
+		StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+		stateCache.bindBuffer(GL31.GL_UNIFORM_BUFFER, ubo);
+
+		if (size > 0) {
+			GL15.glBufferSubData(GL31.GL_UNIFORM_BUFFER, 0, data.limit(size * LIGHT_SIZE));
+			data.clear();
+		}
+
+		stateCache.bindBufferBase(GL31.GL_UNIFORM_BUFFER, BINDING, ubo);
+	}
+
+	@Override
+	public void dispose() {
+		Zenith.getEngine().getGraphics().getStateCache().deleteBuffer(ubo);
+		MemoryUtil.memFree(data);
+	}
+
+	/**
+	 * Gets the number of lights in this {@link LightBuffer}.
+	 *
+	 * @return The number of lights.
+	 */
+	public int size() {
+		return size;
+	}
+}
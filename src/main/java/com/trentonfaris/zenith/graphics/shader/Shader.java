@@ -6,7 +6,6 @@ import com.trentonfaris.zenith.exception.ResourceNotFoundException;
 import com.trentonfaris.zenith.graphics.shader.uniform.Uniform;
 import com.trentonfaris.zenith.graphics.shader.uniform.UniformType;
 import com.trentonfaris.zenith.utility.Disposable;
-import org.lwjgl.opengl.GL20;
 
 import java.net.URI;
 import java.util.Collections;
@@ -51,18 +50,26 @@ public abstract class Shader implements Disposable {
 
     @Override
     public final void dispose() {
-        GL20.glUseProgram(0);
-        GL20.glDeleteProgram(program);
+        Zenith.getEngine().getGraphics().getStateCache().deleteProgram(program);
     }
 
     /**
      * Activates this {@link Shader} in the current rendering state.
      */
     public void use() {
-        GL20.glUseProgram(program);
+        Zenith.getEngine().getGraphics().getStateCache().useProgram(program);
         Zenith.getEngine().getGraphics().getShaderManager().setActiveShader(this);
     }
 
+    /**
+     * Gets the {@link #program}.
+     *
+     * @return The {@link #program} value.
+     */
+    public final int getProgram() {
+        return program;
+    }
+
     /**
      * Registers the specified {@link Uniform} with this {@link Shader}. If an
      * association for the {@link Uniform} name or {@link UniformType} already
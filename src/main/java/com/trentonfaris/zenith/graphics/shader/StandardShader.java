@@ -36,6 +36,8 @@ public final class StandardShader extends ForwardLitShader {
 	private static final String VIEW = "view";
 	private static final String PROJECTION = "projection";
 	private static final String MODEL_VIEW = "modelView";
+	private static final String INSTANCED = "instanced";
+	public static final String OCTAHEDRAL = "octahedral";
 
 	/** Creates a new {@link StandardShader}. */
 	StandardShader() {
@@ -45,6 +47,8 @@ public final class StandardShader extends ForwardLitShader {
 		registerUniform(new Mat4Uniform(program, VIEW, UniformType.VIEW_MATRIX));
 		registerUniform(new Mat4Uniform(program, PROJECTION, UniformType.PROJECTION_MATRIX));
 		registerUniform(new Mat4Uniform(program, MODEL_VIEW, UniformType.MODEL_VIEW_MATRIX));
+		registerUniform(new BoolUniform(program, INSTANCED, UniformType.INSTANCED));
+		registerUniform(new BoolUniform(program, OCTAHEDRAL, UniformType.OCTAHEDRAL));
 
 		// Uniforms in the fragment shader.
 		registerUniform(new BoolUniform(program, USE_ALBEDO_MAP, UniformType.MATERIAL));
@@ -0,0 +1,26 @@
+package com.trentonfaris.zenith.graphics.shader.uniform;
+
+import java.nio.IntBuffer;
+
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.system.MemoryStack;
+
+public final class IntArrayUniform extends Uniform {
+
+	public IntArrayUniform(int program, String name, UniformType uniformType) {
+		super(program, name, uniformType);
+	}
+
+	public void set(int[] values, int offset, int count) {
+		if (location < 0 || values == null || count <= 0) {
+			return;
+		}
+
+		try (MemoryStack stack = MemoryStack.stackPush()) {
+			IntBuffer pValues = stack.mallocInt(count);
+			pValues.put(values, offset, count).flip();
+
+			GL20.glUniform1iv(location, pValues);
+		}
+	}
+}
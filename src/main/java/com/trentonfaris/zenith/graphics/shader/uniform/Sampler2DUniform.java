@@ -1,9 +1,8 @@
 package com.trentonfaris.zenith.graphics.shader.uniform;
 
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL13;
 import org.lwjgl.opengl.GL20;
 
+import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.graphics.texture.Texture2D;
 
 public final class Sampler2DUniform extends Uniform {
@@ -18,7 +17,6 @@ public final class Sampler2DUniform extends Uniform {
 		}
 
 		GL20.glUniform1i(location, texture);
-		GL13.glActiveTexture(GL13.GL_TEXTURE0 + texture);
-		GL11.glBindTexture(value.getTarget().getValue(), value.getTbo());
+		Zenith.getEngine().getGraphics().getStateCache().bindTexture(texture, value.getTarget().getValue(), value.getTbo());
 	}
 }
@@ -34,6 +34,12 @@ public enum UniformType {
 	/** The ambient color of the environment lighting. */
 	AMBIENT_COLOR,
 
+	/** Whether model matrices are read from per-instance vertex attributes. */
+	INSTANCED,
+
+	/** Whether vertex directions are stored as octahedral components. */
+	OCTAHEDRAL,
+
 	/** A uniform exposed to a material */
 	MATERIAL
 }
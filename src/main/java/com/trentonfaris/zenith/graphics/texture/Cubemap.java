@@ -11,6 +11,7 @@ import org.lwjgl.opengl.GL21;
 import org.lwjgl.system.MemoryUtil;
 
 import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.graphics.StateCache;
 import com.trentonfaris.zenith.image.Image;
 
 public final class Cubemap extends Texture {
@@ -71,7 +72,8 @@ public final class Cubemap extends Texture {
 	}
 
 	private void init() {
-		GL11.glBindTexture(target.getValue(), tbo);
+		StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+		stateCache.bindTexture(target.getValue(), tbo);
 
 		for (int i = 0; i < images.length; i++) {
 			Image image = images[i];
@@ -121,7 +123,7 @@ public final class Cubemap extends Texture {
 		GL11.glTexParameteri(target.getValue(), GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
 		GL11.glTexParameteri(target.getValue(), GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
 
-		GL11.glBindTexture(target.getValue(), 0);
+		stateCache.bindTexture(target.getValue(), 0);
 	}
 
 	@Override
@@ -46,7 +46,7 @@ public abstract class Texture implements Copyable, Disposable {
 
     @Override
     public void dispose() {
-        GL11.glDeleteTextures(tbo);
+        Zenith.getEngine().getGraphics().getStateCache().deleteTexture(tbo);
     }
 
     /**
@@ -1,8 +1,13 @@
 package com.trentonfaris.zenith.graphics.texture;
 
 import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.exception.ResourceIOException;
+import com.trentonfaris.zenith.exception.ResourceNotFoundException;
+import com.trentonfaris.zenith.graphics.StateCache;
 import com.trentonfaris.zenith.graphics.framebuffer.RenderTarget;
+import com.trentonfaris.zenith.utility.Measurable;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
 import org.lwjgl.opengl.GL30;
 import org.lwjgl.system.MemoryUtil;
 
@@ -16,7 +21,7 @@ import java.nio.ShortBuffer;
  *
  * @author Trenton Faris
  */
-public final class Texture2D extends Texture implements RenderTarget {
+public final class Texture2D extends Texture implements RenderTarget, Measurable {
     /**
      * The {@link InternalFormat} of this {@link Texture2D}.
      */
@@ -49,6 +54,12 @@ public final class Texture2D extends Texture implements RenderTarget {
      * The pixel data of this {@link Texture2D}.
      */
     private final Buffer pixelData;
+    /**
+     * The {@link TextureContainer} of the mip chain of this {@link Texture2D}, or
+     * {@code null} if its mipmaps are generated by OpenGL from the
+     * {@link #pixelData}.
+     */
+    private final TextureContainer container;
 
     /**
      * Creates a new {@link Texture2D} with no data from the specified texture
@@ -110,14 +121,82 @@ public final class Texture2D extends Texture implements RenderTarget {
         this.pixelFormat = pixelFormat;
         this.pixelType = pixelType;
         this.pixelData = pixelData;
+        this.container = null;
+        this.wrappingMode = wrappingMode;
+        this.filteringMode = filteringMode;
+
+        update();
+    }
+
+    /**
+     * Creates a new {@link Texture2D} from a {@link TextureContainer}, whose levels
+     * are uploaded as they are instead of being generated by OpenGL. The
+     * {@link Texture2D} takes ownership of the container.
+     *
+     * @param container The source {@link TextureContainer}
+     * @param wrappingMode The target {@link WrappingMode}
+     * @param filteringMode The target {@link FilteringMode}
+     */
+    public Texture2D(TextureContainer container, WrappingMode wrappingMode, FilteringMode filteringMode) {
+        super(Target.TEXTURE_2D);
+
+        if (container == null) {
+            String errorMsg = "Cannot create a Texture2D from a null container.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (wrappingMode == null) {
+            String errorMsg = "Cannot create a Texture2D from a null wrappingMode.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (filteringMode == null) {
+            String errorMsg = "Cannot create a Texture2D from a null filteringMode.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.internalFormat = container.getInternalFormat();
+        this.width = container.getWidth();
+        this.height = container.getHeight();
+        this.pixelFormat = container.getPixelFormat();
+        this.pixelType = container.getPixelType();
+        this.pixelData = null;
+        this.container = container;
         this.wrappingMode = wrappingMode;
         this.filteringMode = filteringMode;
 
         update();
     }
 
+    /**
+     * Loads a {@link Texture2D} from the {@code String} URI.
+     *
+     * @param uri The URI of the texture to load
+     * @return The {@link Texture2D}.
+     */
+    public static Texture2D loadTexture(String uri) {
+        Texture2D resource;
+        try {
+            resource = Zenith.getEngine().getResourceManager().getResource(uri, Texture2D.class);
+        } catch (ResourceNotFoundException | ResourceIOException e) {
+            String errorMsg = "Cannot create a Texture2D from URI: " + uri;
+            Zenith.getLogger().error(errorMsg, e);
+            throw new IllegalArgumentException(errorMsg, e);
+        }
+
+        return resource;
+    }
+
     @Override
     public Texture2D copy() {
+        if (container != null) {
+            return new Texture2D(container.copy(), WrappingMode.valueOf(wrappingMode.name()),
+                    FilteringMode.valueOf(filteringMode.name()));
+        }
+
         Buffer pixelDataCopy = null;
         if (pixelData instanceof ByteBuffer) {
             pixelDataCopy = MemoryUtil.memAlloc(pixelData.capacity());
@@ -139,13 +218,95 @@ public final class Texture2D extends Texture implements RenderTarget {
     public void dispose() {
         super.dispose();
 
-        MemoryUtil.memFree(pixelData);
+        if (container != null) {
+            container.dispose();
+        } else {
+            MemoryUtil.memFree(pixelData);
+        }
     }
 
-    public void update() {
-        GL11.glBindTexture(target.getValue(), tbo);
+    /**
+     * Gets the number of bytes of the pixels of this {@link Texture2D} in system
+     * memory. The levels of a memory-mapped {@link TextureContainer} are not
+     * counted, since they are paged in from its file.
+     *
+     * @return The number of bytes.
+     */
+    @Override
+    public long getCpuBytes() {
+        if (container != null) {
+            return container.isMapped() ? 0 : getContainerBytes();
+        }
+
+        return getPixelDataBytes();
+    }
+
+    /**
+     * Gets an estimate of the number of bytes of this {@link Texture2D} in video
+     * memory, from the size of the pixels that were uploaded. A full mip chain
+     * generated by OpenGL adds a third to the size of the first level.
+     *
+     * @return The number of bytes.
+     */
+    @Override
+    public long getGpuBytes() {
+        if (container != null) {
+            return getContainerBytes();
+        }
 
-        if (pixelType == PixelType.FLOAT) {
+        return getPixelDataBytes() * 4 / 3;
+    }
+
+    /**
+     * Gets the number of bytes of every level of the {@link #container}, which
+     * are uploaded as they are stored.
+     *
+     * @return The number of bytes.
+     */
+    private long getContainerBytes() {
+        long bytes = 0;
+        for (ByteBuffer level : container.getLevels()) {
+            bytes += level.capacity();
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Gets the number of bytes of the {@link #pixelData}, from the size of each
+     * of its elements.
+     *
+     * @return The number of bytes, or {@code 0} if there is no pixel data.
+     */
+    private long getPixelDataBytes() {
+        if (pixelData instanceof FloatBuffer) {
+            return (long) pixelData.capacity() * Float.BYTES;
+        } else if (pixelData instanceof ShortBuffer) {
+            return (long) pixelData.capacity() * Short.BYTES;
+        } else if (pixelData != null) {
+            return pixelData.capacity();
+        }
+
+        return 0;
+    }
+
+    public void update() {
+        StateCache stateCache = Zenith.getEngine().getGraphics().getStateCache();
+        stateCache.bindTexture(target.getValue(), tbo);
+
+        if (container != null) {
+            // Rows of the smaller levels are not aligned to 4 bytes.
+            GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+
+            for (int level = 0; level < container.getNumLevels(); level++) {
+                GL11.glTexImage2D(target.getValue(), level, internalFormat.getValue(), container.getLevelWidth(level),
+                        container.getLevelHeight(level), 0, pixelFormat.getValue(), pixelType.getValue(),
+                        container.getLevels().get(level));
+            }
+
+            GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+            GL11.glTexParameteri(target.getValue(), GL12.GL_TEXTURE_MAX_LEVEL, container.getNumLevels() - 1);
+        } else if (pixelType == PixelType.FLOAT) {
             GL11.glTexImage2D(target.getValue(), 0, internalFormat.getValue(), width, height, 0, pixelFormat.getValue(),
                     pixelType.getValue(), (FloatBuffer) pixelData);
         } else if (pixelType == PixelType.UNSIGNED_BYTE) {
@@ -162,9 +323,11 @@ public final class Texture2D extends Texture implements RenderTarget {
         GL11.glTexParameteri(target.getValue(), GL11.GL_TEXTURE_MIN_FILTER, filteringMode.getValue());
         GL11.glTexParameteri(target.getValue(), GL11.GL_TEXTURE_MAG_FILTER, filteringMode.getValue());
 
-        GL30.glGenerateMipmap(target.getValue());
+        if (container == null) {
+            GL30.glGenerateMipmap(target.getValue());
+        }
 
-        GL11.glBindTexture(target.getValue(), 0);
+        stateCache.bindTexture(target.getValue(), 0);
     }
 
     /**
@@ -233,7 +396,8 @@ public final class Texture2D extends Texture implements RenderTarget {
     }
 
     /**
-     * Gets the {@link #pixelData}.
+     * Gets the {@link #pixelData}, which is {@code null} for a {@link Texture2D}
+     * created from a {@link TextureContainer}.
      *
      * @return The {@link #pixelData}.
      */
@@ -241,6 +405,15 @@ public final class Texture2D extends Texture implements RenderTarget {
         return pixelData;
     }
 
+    /**
+     * Gets the {@link #container}.
+     *
+     * @return The {@link #container} value.
+     */
+    public TextureContainer getContainer() {
+        return container;
+    }
+
     /**
      * Gets the {@link #wrappingMode}.
      *
@@ -0,0 +1,635 @@
+package com.trentonfaris.zenith.graphics.texture;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.image.Image;
+import com.trentonfaris.zenith.utility.Copyable;
+import com.trentonfaris.zenith.utility.Disposable;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link TextureContainer} holds the pixels of a 2D texture in their final
+ * {@link InternalFormat}, together with its full mip chain, so that it can be
+ * uploaded level by level without being decoded or having its mipmaps
+ * generated at runtime.
+ *
+ * <p>
+ * A container can be written to a file, which starts with a small header of
+ * the dimensions, formats, and the offset and size of each level, followed by
+ * the levels. A container read from a file is memory-mapped, and its levels are
+ * views of the mapping rather than copies.
+ *
+ * @author Trenton Faris
+ */
+public final class TextureContainer implements Copyable, Disposable {
+    /**
+     * The extension of a {@link TextureContainer} file.
+     */
+    public static final String EXTENSION = ".ztex";
+
+    /**
+     * The number which starts every {@link TextureContainer} file.
+     */
+    private static final int MAGIC = 0x5A544558;
+
+    /**
+     * The version of the file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The linear value of each 8-bit sRGB value.
+     */
+    private static final float[] SRGB_TO_LINEAR = new float[256];
+
+    static {
+        for (int i = 0; i < SRGB_TO_LINEAR.length; i++) {
+            SRGB_TO_LINEAR[i] = toLinear(i / 255f);
+        }
+    }
+
+    /**
+     * The {@link InternalFormat} of the texture.
+     */
+    private final InternalFormat internalFormat;
+
+    /**
+     * The {@link PixelFormat} of each level.
+     */
+    private final PixelFormat pixelFormat;
+
+    /**
+     * The {@link PixelType} of each level.
+     */
+    private final PixelType pixelType;
+
+    /**
+     * The width of the first level.
+     */
+    private final int width;
+
+    /**
+     * The height of the first level.
+     */
+    private final int height;
+
+    /**
+     * The pixels of each level, from the largest to the smallest.
+     */
+    private final List<ByteBuffer> levels;
+
+    /**
+     * A flag which indicates if the {@link #levels} are views of a memory-mapped
+     * file, which are released by the garbage collector instead of being freed.
+     */
+    private final boolean mapped;
+
+    /**
+     * Creates a new {@link TextureContainer} which owns the specified levels.
+     *
+     * @param internalFormat The target {@link InternalFormat}
+     * @param pixelFormat    The {@link PixelFormat} of each level
+     * @param pixelType      The {@link PixelType} of each level
+     * @param width          The width of the first level
+     * @param height         The height of the first level
+     * @param levels         The pixels of each level, allocated with
+     *                       {@link MemoryUtil}
+     */
+    public TextureContainer(InternalFormat internalFormat, PixelFormat pixelFormat, PixelType pixelType, int width,
+                            int height, List<ByteBuffer> levels) {
+        this(internalFormat, pixelFormat, pixelType, width, height, levels, false);
+    }
+
+    /**
+     * Creates a new {@link TextureContainer}.
+     *
+     * @param internalFormat The target {@link InternalFormat}
+     * @param pixelFormat    The {@link PixelFormat} of each level
+     * @param pixelType      The {@link PixelType} of each level
+     * @param width          The width of the first level
+     * @param height         The height of the first level
+     * @param levels         The pixels of each level
+     * @param mapped         Whether the levels are views of a memory-mapped file
+     */
+    private TextureContainer(InternalFormat internalFormat, PixelFormat pixelFormat, PixelType pixelType, int width,
+                             int height, List<ByteBuffer> levels, boolean mapped) {
+        if (internalFormat == null || pixelFormat == null || pixelType == null) {
+            String errorMsg = "Cannot create a TextureContainer from a null format or type.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (width < 1 || height < 1 || levels == null || levels.isEmpty()) {
+            String errorMsg = "Cannot create a TextureContainer of " + width + "x" + height + " with no levels.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        int pixelSize = getChannels(pixelFormat) * getComponentSize(pixelType);
+        for (int level = 0; level < levels.size(); level++) {
+            int size = getLevelSize(width, level) * getLevelSize(height, level) * pixelSize;
+            if (levels.get(level) == null || levels.get(level).remaining() != size) {
+                String errorMsg = "Cannot create a TextureContainer whose level " + level + " is not " + size
+                        + " bytes.";
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+        }
+
+        this.internalFormat = internalFormat;
+        this.pixelFormat = pixelFormat;
+        this.pixelType = pixelType;
+        this.width = width;
+        this.height = height;
+        this.levels = new ArrayList<>(levels);
+        this.mapped = mapped;
+    }
+
+    /**
+     * Creates a new {@link TextureContainer} from an {@link Image}, and generates
+     * its full mip chain with a box filter. The color channels of sRGB formats are
+     * filtered in linear space.
+     *
+     * @param image          The source {@link Image}, which is not modified
+     * @param internalFormat The target {@link InternalFormat}
+     * @return The {@link TextureContainer}.
+     */
+    public static TextureContainer fromImage(Image image, InternalFormat internalFormat) {
+        if (image == null || internalFormat == null) {
+            String errorMsg = "Cannot create a TextureContainer from a null image or internalFormat.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        PixelFormat pixelFormat = switch (image.channels()) {
+            case 1 -> PixelFormat.RED;
+            case 2 -> PixelFormat.RG;
+            case 3 -> PixelFormat.RGB;
+            case 4 -> PixelFormat.RGBA;
+            default -> {
+                String errorMsg = "Cannot create a TextureContainer from an Image of " + image.channels()
+                        + " channels.";
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
+            }
+        };
+
+        boolean srgb = internalFormat == InternalFormat.SRGB || internalFormat == InternalFormat.SRGB8
+                || internalFormat == InternalFormat.SRGB_ALPHA || internalFormat == InternalFormat.SRGB8_ALPHA8;
+
+        // The first level is a copy of the image, read as bytes whatever its PixelType.
+        ByteBuffer first;
+        PixelType pixelType;
+        if (image.data() instanceof ShortBuffer shortData) {
+            first = MemoryUtil.memAlloc(shortData.capacity() * Short.BYTES);
+            first.asShortBuffer().put(0, shortData, 0, shortData.capacity());
+            pixelType = PixelType.UNSIGNED_SHORT;
+        } else {
+            first = MemoryUtil.memAlloc(image.data().capacity());
+            first.put(0, (ByteBuffer) image.data(), 0, image.data().capacity());
+            pixelType = PixelType.UNSIGNED_BYTE;
+        }
+
+        List<ByteBuffer> levels = new ArrayList<>();
+        levels.add(first);
+
+        int levelWidth = image.width();
+        int levelHeight = image.height();
+        while (levelWidth > 1 || levelHeight > 1) {
+            levels.add(downsample(levels.get(levels.size() - 1), levelWidth, levelHeight, image.channels(),
+                    pixelType == PixelType.UNSIGNED_SHORT, srgb));
+
+            levelWidth = Math.max(1, levelWidth / 2);
+            levelHeight = Math.max(1, levelHeight / 2);
+        }
+
+        return new TextureContainer(internalFormat, pixelFormat, pixelType, image.width(), image.height(), levels);
+    }
+
+    /**
+     * Reads a {@link TextureContainer} from a file by memory-mapping it.
+     *
+     * @param file The target file
+     * @return The {@link TextureContainer}, whose levels are views of the file.
+     * @throws IOException A throwable {@link IOException}
+     */
+    public static TextureContainer read(File file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        return read(buffer, file.toString());
+    }
+
+    /**
+     * Reads a {@link TextureContainer} from the contents of a file in memory, such
+     * as a file packaged in the JAR. The levels are copied out of the buffer, so
+     * the buffer is not retained.
+     *
+     * @param data The contents of the file, from its position to its limit
+     * @return The {@link TextureContainer}, which owns its levels.
+     * @throws IOException A throwable {@link IOException}
+     */
+    public static TextureContainer read(ByteBuffer data) throws IOException {
+        TextureContainer views = read(data.slice(), "a buffer");
+
+        List<ByteBuffer> levels = new ArrayList<>();
+        for (ByteBuffer view : views.levels) {
+            ByteBuffer level = MemoryUtil.memAlloc(view.remaining());
+            MemoryUtil.memCopy(view, level);
+            levels.add(level);
+        }
+
+        return new TextureContainer(views.internalFormat, views.pixelFormat, views.pixelType, views.width,
+                views.height, levels);
+    }
+
+    /**
+     * Reads a {@link TextureContainer} whose levels are views of a buffer.
+     *
+     * @param buffer The contents of the file, starting at index zero
+     * @param source A description of where the buffer was read from
+     * @return The {@link TextureContainer}, whose levels are views of the buffer.
+     * @throws IOException A throwable {@link IOException}
+     */
+    private static TextureContainer read(ByteBuffer buffer, String source) throws IOException {
+        buffer.order(ByteOrder.nativeOrder());
+
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Cannot read the texture container: " + source);
+            }
+
+            InternalFormat internalFormat = find(InternalFormat.values(), InternalFormat::getValue, buffer.getInt());
+            PixelFormat pixelFormat = find(PixelFormat.values(), PixelFormat::getValue, buffer.getInt());
+            PixelType pixelType = find(PixelType.values(), PixelType::getValue, buffer.getInt());
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+
+            List<ByteBuffer> levels = new ArrayList<>();
+
+            int numLevels = buffer.getInt();
+            for (int level = 0; level < numLevels; level++) {
+                int offset = buffer.getInt();
+                int size = buffer.getInt();
+                levels.add(buffer.slice(offset, size).order(ByteOrder.nativeOrder()));
+            }
+
+            return new TextureContainer(internalFormat, pixelFormat, pixelType, width, height, levels, true);
+        } catch (RuntimeException e) {
+            throw new IOException("Cannot read the texture container: " + source, e);
+        }
+    }
+
+    /**
+     * Writes this {@link TextureContainer} to a file. It is written to a temporary
+     * file first, and then moved into place, so the file is never read while
+     * partly written.
+     *
+     * @param file The target file
+     * @throws IOException A throwable {@link IOException}
+     */
+    public void write(File file) throws IOException {
+        Path directory = file.getAbsoluteFile().getParentFile().toPath();
+        Files.createDirectories(directory);
+
+        int headerSize = (8 + 2 * levels.size()) * Integer.BYTES;
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.nativeOrder());
+        header.putInt(MAGIC).putInt(VERSION);
+        header.putInt(internalFormat.getValue()).putInt(pixelFormat.getValue()).putInt(pixelType.getValue());
+        header.putInt(width).putInt(height);
+
+        header.putInt(levels.size());
+        int offset = headerSize;
+        for (ByteBuffer level : levels) {
+            header.putInt(offset).putInt(level.remaining());
+            offset += level.remaining();
+        }
+
+        header.flip();
+
+        Path temp = Files.createTempFile(directory, file.getName(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (ByteBuffer level : levels) {
+                writeFully(channel, level.duplicate());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    @Override
+    public TextureContainer copy() {
+        // A mapped container is never modified or freed, so its copies share the mapping.
+        if (mapped) {
+            return new TextureContainer(internalFormat, pixelFormat, pixelType, width, height, levels, true);
+        }
+
+        List<ByteBuffer> levelsCopy = new ArrayList<>();
+        for (ByteBuffer level : levels) {
+            ByteBuffer levelCopy = MemoryUtil.memAlloc(level.remaining());
+            MemoryUtil.memCopy(level, levelCopy);
+            levelsCopy.add(levelCopy);
+        }
+
+        return new TextureContainer(internalFormat, pixelFormat, pixelType, width, height, levelsCopy);
+    }
+
+    @Override
+    public void dispose() {
+        if (!mapped) {
+            for (ByteBuffer level : levels) {
+                MemoryUtil.memFree(level);
+            }
+        }
+
+        levels.clear();
+    }
+
+    /**
+     * Gets the {@link #internalFormat}.
+     *
+     * @return The {@link #internalFormat} value.
+     */
+    public InternalFormat getInternalFormat() {
+        return internalFormat;
+    }
+
+    /**
+     * Gets the {@link #pixelFormat}.
+     *
+     * @return The {@link #pixelFormat} value.
+     */
+    public PixelFormat getPixelFormat() {
+        return pixelFormat;
+    }
+
+    /**
+     * Gets the {@link #pixelType}.
+     *
+     * @return The {@link #pixelType} value.
+     */
+    public PixelType getPixelType() {
+        return pixelType;
+    }
+
+    /**
+     * Gets the {@link #width}.
+     *
+     * @return The {@link #width} value.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the {@link #height}.
+     *
+     * @return The {@link #height} value.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the number of levels.
+     *
+     * @return The number of levels.
+     */
+    public int getNumLevels() {
+        return levels.size();
+    }
+
+    /**
+     * Gets the width of a level.
+     *
+     * @param level The target level
+     * @return The width.
+     */
+    public int getLevelWidth(int level) {
+        return getLevelSize(width, level);
+    }
+
+    /**
+     * Gets the height of a level.
+     *
+     * @param level The target level
+     * @return The height.
+     */
+    public int getLevelHeight(int level) {
+        return getLevelSize(height, level);
+    }
+
+    /**
+     * Gets an unmodifiable list of the {@link #levels}.
+     *
+     * @return An unmodifiable list of the {@link #levels}.
+     */
+    public List<ByteBuffer> getLevels() {
+        return Collections.unmodifiableList(levels);
+    }
+
+    /**
+     * Gets the {@link #mapped} flag.
+     *
+     * @return The {@link #mapped} flag.
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * Halves a level with a box filter. Each pixel of the result is the average of
+     * the 2x2 pixels it covers, clamped to the edge of odd sized levels.
+     *
+     * @param source   The pixels of the level
+     * @param width    The width of the level
+     * @param height   The height of the level
+     * @param channels The number of channels of each pixel
+     * @param shorts   Whether each channel is an unsigned short rather than a byte
+     * @param srgb     Whether the color channels are sRGB encoded
+     * @return The pixels of the next level.
+     */
+    private static ByteBuffer downsample(ByteBuffer source, int width, int height, int channels, boolean shorts,
+                                         boolean srgb) {
+        int nextWidth = Math.max(1, width / 2);
+        int nextHeight = Math.max(1, height / 2);
+        int componentSize = shorts ? 2 : 1;
+        float max = shorts ? 65535f : 255f;
+
+        ByteBuffer dest = MemoryUtil.memAlloc(nextWidth * nextHeight * channels * componentSize);
+
+        for (int y = 0; y < nextHeight; y++) {
+            int y0 = Math.min(y * 2, height - 1);
+            int y1 = Math.min(y * 2 + 1, height - 1);
+
+            for (int x = 0; x < nextWidth; x++) {
+                int x0 = Math.min(x * 2, width - 1);
+                int x1 = Math.min(x * 2 + 1, width - 1);
+
+                for (int c = 0; c < channels; c++) {
+                    // Alpha, which is the fourth channel, is never sRGB encoded.
+                    boolean linearize = srgb && c < 3;
+
+                    float sum = 0;
+                    sum += sample(source, (y0 * width + x0) * channels + c, shorts, linearize);
+                    sum += sample(source, (y0 * width + x1) * channels + c, shorts, linearize);
+                    sum += sample(source, (y1 * width + x0) * channels + c, shorts, linearize);
+                    sum += sample(source, (y1 * width + x1) * channels + c, shorts, linearize);
+
+                    float value = sum / 4;
+                    if (linearize) {
+                        value = toSrgb(value);
+                    }
+
+                    int quantized = Math.round(Math.min(Math.max(value, 0), 1) * max);
+
+                    int i = (y * nextWidth + x) * channels + c;
+                    if (shorts) {
+                        dest.putShort(i * 2, (short) quantized);
+                    } else {
+                        dest.put(i, (byte) quantized);
+                    }
+                }
+            }
+        }
+
+        return dest;
+    }
+
+    /**
+     * Reads a channel of a pixel as a normalized value.
+     *
+     * @param source    The pixels of the level
+     * @param i         The index of the channel
+     * @param shorts    Whether each channel is an unsigned short rather than a byte
+     * @param linearize Whether the channel is converted from sRGB to linear
+     * @return The normalized value.
+     */
+    private static float sample(ByteBuffer source, int i, boolean shorts, boolean linearize) {
+        if (shorts) {
+            float value = (source.getShort(i * 2) & 0xFFFF) / 65535f;
+            return linearize ? toLinear(value) : value;
+        }
+
+        int value = source.get(i) & 0xFF;
+        return linearize ? SRGB_TO_LINEAR[value] : value / 255f;
+    }
+
+    /**
+     * Converts a normalized sRGB value to linear.
+     *
+     * @param value The sRGB value
+     * @return The linear value.
+     */
+    private static float toLinear(float value) {
+        return value <= 0.04045f ? value / 12.92f : (float) Math.pow((value + 0.055f) / 1.055f, 2.4);
+    }
+
+    /**
+     * Converts a normalized linear value to sRGB.
+     *
+     * @param value The linear value
+     * @return The sRGB value.
+     */
+    private static float toSrgb(float value) {
+        return value <= 0.0031308f ? value * 12.92f : 1.055f * (float) Math.pow(value, 1 / 2.4) - 0.055f;
+    }
+
+    /**
+     * Gets the number of channels of a {@link PixelFormat}.
+     *
+     * @param pixelFormat The target {@link PixelFormat}
+     * @return The number of channels.
+     */
+    private static int getChannels(PixelFormat pixelFormat) {
+        return switch (pixelFormat) {
+            case RED, DEPTH -> 1;
+            case RG, DEPTH_STENCIL -> 2;
+            case RGB -> 3;
+            case RGBA -> 4;
+        };
+    }
+
+    /**
+     * Gets the size of a channel of a {@link PixelType}, in bytes.
+     *
+     * @param pixelType The target {@link PixelType}
+     * @return The size of a channel.
+     */
+    private static int getComponentSize(PixelType pixelType) {
+        return switch (pixelType) {
+            case FLOAT -> Float.BYTES;
+            case UNSIGNED_SHORT -> Short.BYTES;
+            case UNSIGNED_BYTE -> Byte.BYTES;
+        };
+    }
+
+    /**
+     * Gets the size of a level along an axis.
+     *
+     * @param size  The size of the first level
+     * @param level The target level
+     * @return The size of the level.
+     */
+    private static int getLevelSize(int size, int level) {
+        return Math.max(1, size >> level);
+    }
+
+    /**
+     * Finds the constant of an {@code enum} with an OpenGL value.
+     *
+     * @param values   The constants of the {@code enum}
+     * @param getValue Gets the OpenGL value of a constant
+     * @param value    The OpenGL value
+     * @param <E>      The type of the {@code enum}
+     * @return The constant.
+     */
+    private static <E extends Enum<E>> E find(E[] values, ToIntFunction<E> getValue, int value) {
+        for (E e : values) {
+            if (getValue.applyAsInt(e) == value) {
+                return e;
+            }
+        }
+
+        throw new IllegalArgumentException("Cannot find the format or type of value: " + value);
+    }
+
+    /**
+     * Writes every remaining byte of a buffer to a {@link FileChannel}.
+     *
+     * @param channel The target {@link FileChannel}
+     * @param buffer  The buffer to be written
+     * @throws IOException A throwable {@link IOException}
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
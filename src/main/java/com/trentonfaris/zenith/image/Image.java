@@ -5,6 +5,7 @@ import com.trentonfaris.zenith.exception.ResourceIOException;
 import com.trentonfaris.zenith.exception.ResourceNotFoundException;
 import com.trentonfaris.zenith.utility.Copyable;
 import com.trentonfaris.zenith.utility.Disposable;
+import com.trentonfaris.zenith.utility.Measurable;
 import org.lwjgl.system.MemoryUtil;
 
 import java.nio.Buffer;
@@ -16,7 +17,7 @@ import java.nio.ShortBuffer;
  *
  * @author Trenton Faris
  */
-public record Image(Buffer data, int width, int height, int channels) implements Copyable, Disposable {
+public record Image(Buffer data, int width, int height, int channels) implements Copyable, Disposable, Measurable {
     /**
      * Creates a new {@link Image} from the specified pixel data, width, height, and
      * number of channels.
@@ -84,6 +85,17 @@ public record Image(Buffer data, int width, int height, int channels) implements
         MemoryUtil.memFree(data);
     }
 
+    @Override
+    public long getCpuBytes() {
+        return data instanceof ShortBuffer ? (long) data.capacity() * Short.BYTES : data.capacity();
+    }
+
+    @Override
+    public long getGpuBytes() {
+        // An Image is never uploaded.
+        return 0;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -1,13 +1,11 @@
 package com.trentonfaris.zenith.resource;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
-import java.nio.ShortBuffer;
 
 import org.lwjgl.stb.STBImage;
 import org.lwjgl.system.MemoryStack;
@@ -17,7 +15,6 @@ import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.exception.ResourceIOException;
 import com.trentonfaris.zenith.exception.ResourceNotFoundException;
 import com.trentonfaris.zenith.image.Image;
-import com.trentonfaris.zenith.utility.Utility;
 
 /**
  * The {@link ImageLoader} class is responsible for loading image data and
@@ -42,26 +39,37 @@ public final class ImageLoader extends ResourceLoader<Image> {
 			throw new IllegalArgumentException(errorMsg);
 		}
 
-		STBImage.stbi_set_flip_vertically_on_load(true);
-
-		String path = ResourceManager.RESOURCES_DIRECTORY.getPath() + uri.getPath();
+		ByteBuffer encoded;
+		try {
+			encoded = readResource(uri, uri.getPath());
+		} catch (FileNotFoundException e) {
+			Zenith.getLogger().error("Cannot find the resource: " + uri.getPath());
+			throw new ResourceNotFoundException(uri.getPath());
+		} catch (IOException e) {
+			Zenith.getLogger().error("Cannot read the resource: " + uri.getPath());
+			throw new ResourceIOException(uri.getPath());
+		}
 
-		File file;
-		if (uri.getHost().equalsIgnoreCase(Utility.PACKAGED_FILE_HOST)) {
-			try {
-				file = Utility.getPackagedFile(path);
-			} catch (IOException e) {
-				Zenith.getLogger().error("Cannot read the resource: " + uri.getPath());
-				throw new ResourceIOException(uri.getPath());
-			}
-		} else {
-			try {
-				file = Utility.getFile(path);
-			} catch (FileNotFoundException e) {
-				Zenith.getLogger().error("Cannot find the resource: " + uri.getPath());
-				throw new ResourceNotFoundException(uri.getPath());
-			}
+		try {
+			return decodeImage(uri, encoded);
+		} finally {
+			MemoryUtil.memFree(encoded);
 		}
+	}
+
+	/**
+	 * Decodes an {@link Image} from the encoded contents of its file. The pixels
+	 * decoded by stb are adopted by the {@link Image} without being copied, since
+	 * stb allocates them with the same allocator as {@link MemoryUtil}.
+	 *
+	 * @param uri The {@link URI} of the image
+	 * @param encoded The encoded contents of the file
+	 * @return The decoded {@link Image}.
+	 * @throws ResourceIOException A throwable {@link ResourceIOException}
+	 */
+	static Image decodeImage(URI uri, ByteBuffer encoded) throws ResourceIOException {
+		// The flag is set for this thread only, since images are decoded on worker threads.
+		STBImage.stbi_set_flip_vertically_on_load_thread(1);
 
 		try (MemoryStack stack = MemoryStack.stackPush()) {
 			IntBuffer pWidth = stack.mallocInt(1);
@@ -69,31 +77,26 @@ public final class ImageLoader extends ResourceLoader<Image> {
 			IntBuffer pChannels = stack.mallocInt(1);
 
 			Buffer data;
-			if (STBImage.stbi_is_16_bit(file.getPath())) {
-				ShortBuffer shortData = STBImage.stbi_load_16(file.getPath(), pWidth, pHeight, pChannels, 0);
-
-				// TODO : Catch NPE on shortData
-
-				data = MemoryUtil.memAllocShort(shortData.capacity());
-				((ShortBuffer) data).put(shortData).flip();
-				
-				shortData.rewind();
-
-				STBImage.stbi_image_free(shortData);
+			if (STBImage.stbi_is_16_bit_from_memory(encoded)) {
+				data = STBImage.stbi_load_16_from_memory(encoded, pWidth, pHeight, pChannels, 0);
 			} else {
-				ByteBuffer byteData = STBImage.stbi_load(file.getPath(), pWidth, pHeight, pChannels, 0);
-
-				// TODO : Catch NPE on byteData
-
-				data = MemoryUtil.memAlloc(byteData.capacity());
-				((ByteBuffer) data).put(byteData).flip();
-				
-				byteData.rewind();
+				data = STBImage.stbi_load_from_memory(encoded, pWidth, pHeight, pChannels, 0);
+			}
 
-				STBImage.stbi_image_free(byteData);
+			if (data == null) {
+				Zenith.getLogger().error("Cannot decode the resource: " + uri.getPath() + ". "
+						+ STBImage.stbi_failure_reason());
+				throw new ResourceIOException(uri.getPath());
 			}
 
 			return new Image(data, pWidth.get(), pHeight.get(), pChannels.get());
 		}
 	}
+
+	@Override
+	public ResourceUpload<Image> decode(URI uri) throws ResourceIOException, ResourceNotFoundException {
+		// An Image does not own any OpenGL objects, so it is loaded entirely off of the engine thread.
+		Image image = load(uri);
+		return () -> image;
+	}
 }
@@ -0,0 +1,352 @@
+package com.trentonfaris.zenith.resource;
+
+import com.trentonfaris.zenith.graphics.model.IndexData;
+import com.trentonfaris.zenith.graphics.model.IndexType;
+import com.trentonfaris.zenith.graphics.model.MeshletData;
+import com.trentonfaris.zenith.graphics.model.VertexAttribute.Semantic;
+import com.trentonfaris.zenith.graphics.model.VertexData;
+import com.trentonfaris.zenith.graphics.model.VertexEncoding;
+import com.trentonfaris.zenith.graphics.model.VertexFormat;
+import com.trentonfaris.zenith.resource.ModelLoader.DecodedMesh;
+import com.trentonfaris.zenith.utility.Utility;
+import org.joml.Spheref;
+import org.joml.Vector3f;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@link ModelCache} stores imported models in a cooked binary format, so
+ * that later loads skip Assimp and the mesh processing of the
+ * {@link ModelLoader}. Each cooked model is named by a SHA-256 hash of its
+ * source file, the files beside it, and the import settings, so changing any
+ * of them cooks it again.
+ *
+ * <p>
+ * The vertices and indices of each mesh are stored exactly as they are
+ * uploaded, in the native byte order. Cooked models are memory-mapped when
+ * read, and their buffers are copied in bulk into the {@link VertexData} and
+ * {@link IndexData} of each mesh.
+ *
+ * @author Trenton Faris
+ */
+final class ModelCache {
+    /**
+     * The directory of cooked models.
+     */
+    static final File CACHE_DIRECTORY = new File(ResourceManager.RESOURCES_DIRECTORY,
+            "cache" + File.separator + ModelLoader.SCHEME);
+
+    /**
+     * The number which starts every cooked model.
+     */
+    private static final int MAGIC = 0x5A4D444C;
+
+    /**
+     * The version of the cooked format. It is part of the hash, so it must be
+     * increased whenever the format or the mesh processing of the
+     * {@link ModelLoader} changes.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The extension of a cooked model.
+     */
+    private static final String EXTENSION = ".zmdl";
+
+    private ModelCache() {
+    }
+
+    /**
+     * Computes the key of a cooked model from its source file, the files beside
+     * it, and its import settings.
+     *
+     * <p>
+     * Assimp reads the side files of a model from beside it, such as the
+     * materials of an OBJ file or the buffers of a glTF file, and which of them
+     * it reads is only known once the model is imported. So the key also covers
+     * the name, size, and modification time of every other file in the directory
+     * of the source, and changing any of them cooks the model again.
+     *
+     * @param source   The source file of the model
+     * @param settings A description of every import setting
+     * @return The hexadecimal SHA-256 hash.
+     * @throws IOException A throwable {@link IOException}
+     */
+    static String hash(File source, String settings) throws IOException {
+        StringBuilder sideFiles = new StringBuilder();
+
+        File[] files = source.getAbsoluteFile().getParentFile().listFiles(File::isFile);
+        if (files == null) {
+            throw new IOException("Cannot list the files beside " + source);
+        }
+
+        Arrays.sort(files);
+        for (File file : files) {
+            if (!file.getName().equals(source.getName())) {
+                sideFiles.append('|').append(file.getName()).append(':').append(file.length()).append(':')
+                        .append(file.lastModified());
+            }
+        }
+
+        return Utility.hash(source, VERSION + "|" + ByteOrder.nativeOrder() + "|" + settings + sideFiles);
+    }
+
+    /**
+     * Computes the key of a cooked model from the contents of its source file and
+     * its import settings. A model imported from memory cannot read side files,
+     * so its contents are the whole of its source.
+     *
+     * @param source   The contents of the source file of the model
+     * @param settings A description of every import setting
+     * @return The hexadecimal SHA-256 hash.
+     */
+    static String hash(ByteBuffer source, String settings) {
+        return Utility.hash(source, VERSION + "|" + ByteOrder.nativeOrder() + "|" + settings);
+    }
+
+    /**
+     * Gets the file of the cooked model of a key.
+     *
+     * @param key The key of the cooked model
+     * @return The file, which may not exist.
+     */
+    static File getFile(String key) {
+        return new File(CACHE_DIRECTORY, key + EXTENSION);
+    }
+
+    /**
+     * Reads a cooked model.
+     *
+     * @param file           The file of the cooked model
+     * @param vertexEncoding The {@link VertexEncoding} the model was cooked with
+     * @return The decoded meshes of the model.
+     * @throws IOException A throwable {@link IOException}
+     */
+    static List<DecodedMesh> read(File file, VertexEncoding vertexEncoding) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.nativeOrder());
+        }
+
+        List<DecodedMesh> meshes = new ArrayList<>();
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Cannot read the cooked model: " + file);
+            }
+
+            int meshCount = buffer.getInt();
+            for (int i = 0; i < meshCount; i++) {
+                meshes.add(readMesh(buffer, vertexEncoding));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (DecodedMesh mesh : meshes) {
+                mesh.dispose();
+            }
+
+            throw new IOException("Cannot read the cooked model: " + file, e);
+        }
+
+        return meshes;
+    }
+
+    /**
+     * Writes a cooked model. It is written to a temporary file first, and then
+     * moved into place, so a cooked model is never read while partly written.
+     *
+     * @param file   The file of the cooked model
+     * @param meshes The decoded meshes of the model
+     * @throws IOException A throwable {@link IOException}
+     */
+    static void write(File file, List<DecodedMesh> meshes) throws IOException {
+        Path directory = file.getParentFile().toPath();
+        Files.createDirectories(directory);
+
+        Path temp = Files.createTempFile(directory, file.getName(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES).order(ByteOrder.nativeOrder());
+            header.putInt(MAGIC).putInt(VERSION).putInt(meshes.size()).flip();
+            writeFully(channel, header);
+
+            for (DecodedMesh mesh : meshes) {
+                writeMesh(channel, mesh);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a cooked mesh. The sizes of its buffers are checked before they are
+     * allocated, so that a truncated file does not leak them.
+     *
+     * @param buffer         The cooked model, positioned at the mesh
+     * @param vertexEncoding The {@link VertexEncoding} the model was cooked with
+     * @return The {@link DecodedMesh}.
+     * @throws IOException A throwable {@link IOException}
+     */
+    private static DecodedMesh readMesh(ByteBuffer buffer, VertexEncoding vertexEncoding) throws IOException {
+        boolean hasUvs = buffer.getInt() != 0;
+        int vertexCount = buffer.getInt();
+        IndexType indexType = IndexType.values()[buffer.getInt()];
+        int indexCount = buffer.getInt();
+
+        int[] lodCounts = new int[buffer.getInt()];
+        for (int i = 0; i < lodCounts.length; i++) {
+            lodCounts[i] = buffer.getInt();
+        }
+
+        Vector3f albedoColor = new Vector3f(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+
+        MeshletData meshletData = null;
+
+        int numMeshlets = buffer.getInt();
+        if (numMeshlets > 0) {
+            int[] firstIndices = new int[numMeshlets];
+            int[] indexCounts = new int[numMeshlets];
+            float[] spheres = new float[numMeshlets * 4];
+            float[] cones = new float[numMeshlets * 4];
+
+            buffer.asIntBuffer().get(firstIndices);
+            buffer.position(buffer.position() + numMeshlets * Integer.BYTES);
+            buffer.asIntBuffer().get(indexCounts);
+            buffer.position(buffer.position() + numMeshlets * Integer.BYTES);
+            buffer.asFloatBuffer().get(spheres);
+            buffer.position(buffer.position() + spheres.length * Float.BYTES);
+            buffer.asFloatBuffer().get(cones);
+            buffer.position(buffer.position() + cones.length * Float.BYTES);
+
+            meshletData = new MeshletData(firstIndices, indexCounts, spheres, cones);
+        }
+
+        VertexFormat format = vertexEncoding.createFormat(hasUvs);
+
+        long size = (long) vertexCount * format.getStride() + (long) indexCount * indexType.getBytes();
+        for (int lodCount : lodCounts) {
+            size += (long) lodCount * indexType.getBytes();
+        }
+
+        if (size > buffer.remaining()) {
+            throw new IOException("The cooked mesh is truncated.");
+        }
+
+        VertexData vertexData = new VertexData(format, vertexCount);
+        copy(buffer, vertexData.getBuffer());
+
+        IndexData indexData = new IndexData(indexType, indexCount);
+        copy(buffer, indexData.getBuffer());
+
+        List<IndexData> lods = new ArrayList<>();
+        for (int lodCount : lodCounts) {
+            IndexData lod = new IndexData(indexType, lodCount);
+            copy(buffer, lod.getBuffer());
+            lods.add(lod);
+        }
+
+        return new DecodedMesh(vertexData, indexData, lods, meshletData, albedoColor);
+    }
+
+    /**
+     * Writes a cooked mesh.
+     *
+     * @param channel The {@link FileChannel} of the cooked model
+     * @param mesh    The {@link DecodedMesh} to be written
+     * @throws IOException A throwable {@link IOException}
+     */
+    private static void writeMesh(FileChannel channel, DecodedMesh mesh) throws IOException {
+        MeshletData meshletData = mesh.meshletData();
+        int numMeshlets = meshletData != null ? meshletData.getNumMeshlets() : 0;
+
+        int headerSize = 6 * Integer.BYTES + mesh.lods().size() * Integer.BYTES + 3 * Float.BYTES
+                + Integer.BYTES + numMeshlets * (2 * Integer.BYTES + 8 * Float.BYTES);
+
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.nativeOrder());
+        header.putInt(mesh.vertexData().has(Semantic.UV) ? 1 : 0);
+        header.putInt(mesh.vertexData().getVertexCount());
+        header.putInt(mesh.indexData().getIndexType().ordinal());
+        header.putInt(mesh.indexData().getIndexCount());
+
+        header.putInt(mesh.lods().size());
+        for (IndexData lod : mesh.lods()) {
+            header.putInt(lod.getIndexCount());
+        }
+
+        header.putFloat(mesh.albedoColor().x).putFloat(mesh.albedoColor().y).putFloat(mesh.albedoColor().z);
+
+        header.putInt(numMeshlets);
+        if (meshletData != null) {
+            for (int i = 0; i < numMeshlets; i++) {
+                header.putInt(meshletData.getFirstIndex(i));
+            }
+
+            for (int i = 0; i < numMeshlets; i++) {
+                header.putInt(meshletData.getIndexCount(i));
+            }
+
+            Spheref sphere = new Spheref();
+            for (int i = 0; i < numMeshlets; i++) {
+                meshletData.getBoundingSphere(i, sphere);
+                header.putFloat(sphere.x).putFloat(sphere.y).putFloat(sphere.z).putFloat(sphere.r);
+            }
+
+            Vector3f axis = new Vector3f();
+            for (int i = 0; i < numMeshlets; i++) {
+                meshletData.getConeAxis(i, axis);
+                header.putFloat(axis.x).putFloat(axis.y).putFloat(axis.z).putFloat(meshletData.getConeCutoff(i));
+            }
+        }
+
+        header.flip();
+        writeFully(channel, header);
+
+        writeFully(channel, mesh.vertexData().getBuffer().duplicate());
+        writeFully(channel, mesh.indexData().getBuffer().duplicate());
+        for (IndexData lod : mesh.lods()) {
+            writeFully(channel, lod.getBuffer().duplicate());
+        }
+    }
+
+    /**
+     * Copies the next bytes of a cooked model into a buffer, filling it.
+     *
+     * @param source The cooked model, which is advanced past the copied bytes
+     * @param dest   The target buffer
+     */
+    private static void copy(ByteBuffer source, ByteBuffer dest) {
+        int size = dest.remaining();
+        MemoryUtil.memCopy(source.slice(source.position(), size), dest);
+        source.position(source.position() + size);
+    }
+
+    /**
+     * Writes every remaining byte of a buffer to a {@link FileChannel}.
+     *
+     * @param channel The target {@link FileChannel}
+     * @param buffer  The buffer to be written
+     * @throws IOException A throwable {@link IOException}
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
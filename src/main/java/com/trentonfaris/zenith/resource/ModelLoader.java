@@ -8,21 +8,23 @@ import com.trentonfaris.zenith.graphics.material.property.FloatProperty;
 import com.trentonfaris.zenith.graphics.material.property.Property;
 import com.trentonfaris.zenith.graphics.material.property.Vec3Property;
 import com.trentonfaris.zenith.graphics.model.*;
-import com.trentonfaris.zenith.graphics.model.attribute.Attribute;
-import com.trentonfaris.zenith.graphics.model.attribute.Vec2Attribute;
-import com.trentonfaris.zenith.graphics.model.attribute.Vec3Attribute;
+import com.trentonfaris.zenith.graphics.model.VertexAttribute.Semantic;
 import com.trentonfaris.zenith.graphics.shader.StandardShader;
 import com.trentonfaris.zenith.utility.Utility;
-import org.joml.Vector2f;
 import org.joml.Vector3f;
 import org.lwjgl.assimp.*;
+import org.lwjgl.system.MemoryUtil;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The {@link ModelLoader} class is responsible for loading model data.
@@ -35,27 +37,104 @@ public final class ModelLoader extends ResourceLoader<Model> {
      */
     public static final String SCHEME = "model";
 
+    /**
+     * The post-processing steps of Assimp which are run on imported scenes.
+     */
+    private static final int IMPORT_FLAGS = Assimp.aiProcess_Triangulate | Assimp.aiProcess_FlipUVs
+            | Assimp.aiProcess_CalcTangentSpace | Assimp.aiProcess_JoinIdenticalVertices;
+
+    /**
+     * The fraction of the triangles of the previous level of detail that a level
+     * must stay under to be kept.
+     */
+    private static final float MIN_LOD_REDUCTION = 0.9f;
+
+    /**
+     * A flag which indicates if meshes are reordered by the {@link MeshOptimizer}
+     * when they are loaded.
+     */
+    private boolean optimizing = true;
+
+    /**
+     * The fraction of the triangles of a mesh that each coarser level of detail
+     * is simplified to by the {@link MeshSimplifier}, in order.
+     */
+    private float[] lodRatios = {0.5f, 0.25f, 0.125f};
+
+    /**
+     * The {@link VertexEncoding} of the vertices of loaded meshes. Meshes keep
+     * full precision unless a smaller encoding is chosen.
+     */
+    private VertexEncoding vertexEncoding = VertexEncoding.FULL;
+
+    /**
+     * A flag which indicates if nearly equal vertices are merged by the
+     * {@link VertexWelder} when meshes are loaded.
+     */
+    private boolean welding = true;
+
+    /**
+     * A flag which indicates if loaded meshes are made resident in the shared
+     * {@link GeometryArena} of their format.
+     */
+    private boolean usingArenas = true;
+
+    /**
+     * The number of triangles above which a mesh is split into meshlets by the
+     * {@link MeshletBuilder}, so that its clusters can be culled.
+     */
+    private int meshletThreshold = 16384;
+
+    /**
+     * A flag which indicates if imported models are cooked into the
+     * {@link ModelCache}, and loaded from it when their source and import settings
+     * have not changed.
+     */
+    private boolean caching = true;
+
+    /**
+     * The largest difference of a component of each {@link Semantic} for which
+     * vertices are welded. The differences are measured after the vertices are
+     * encoded in the {@link #vertexEncoding}.
+     */
+    private final Map<Semantic, Float> weldEpsilons = new EnumMap<>(Semantic.class);
+
     /**
      * Creates a new {@link ModelLoader}.
      */
     public ModelLoader() {
         super(SCHEME);
+
+        weldEpsilons.put(Semantic.POSITION, 1e-6f);
+        weldEpsilons.put(Semantic.UV, 1e-5f);
+        weldEpsilons.put(Semantic.NORMAL, 1e-3f);
+        weldEpsilons.put(Semantic.TANGENT, 1e-3f);
+        weldEpsilons.put(Semantic.BITANGENT, 1e-3f);
     }
 
     @Override
     public Model load(URI uri) throws ResourceIOException, ResourceNotFoundException {
+        return decode(uri).upload();
+    }
+
+    @Override
+    public ResourceUpload<Model> decode(URI uri) throws ResourceIOException, ResourceNotFoundException {
         if (uri == null) {
             String errorMsg = "Cannot load a Model from a null URI.";
             Zenith.getLogger().error(errorMsg);
             throw new IllegalArgumentException(errorMsg);
         }
 
-        String path = ResourceManager.RESOURCES_DIRECTORY.getPath() + uri.getPath();
-
-        File file;
-        if (uri.getHost().equalsIgnoreCase(Utility.PACKAGED_FILE_HOST)) {
+        // A packaged model is imported from memory. A model on disk is imported by path, so that Assimp can
+        // read the files it references, such as materials and buffers.
+        ByteBuffer data = null;
+        File file = null;
+        if (uri.getHost() != null && uri.getHost().equalsIgnoreCase(Utility.PACKAGED_FILE_HOST)) {
             try {
-                file = Utility.getPackagedFile(path);
+                data = readResource(uri, uri.getPath());
+            } catch (FileNotFoundException e) {
+                Zenith.getLogger().error("Cannot find the resource: " + uri.getPath());
+                throw new ResourceNotFoundException(uri.getPath());
             } catch (IOException e) {
                 Zenith.getLogger().error("Cannot read the resource: " + uri.getPath());
                 throw new ResourceIOException(uri.getPath());
@@ -69,8 +148,37 @@ public final class ModelLoader extends ResourceLoader<Model> {
             }
         }
 
-        AIScene aiScene = Assimp.aiImportFile(file.getAbsolutePath(),
-                Assimp.aiProcess_Triangulate | Assimp.aiProcess_FlipUVs | Assimp.aiProcess_CalcTangentSpace);
+        File cooked = null;
+        AIScene aiScene;
+        try {
+            if (caching) {
+                try {
+                    String settings = getImportSettings();
+                    cooked = ModelCache.getFile(data != null ? ModelCache.hash(data, settings)
+                            : ModelCache.hash(file, settings));
+                    if (cooked.exists()) {
+                        List<DecodedMesh> decodedMeshes = ModelCache.read(cooked, vertexEncoding);
+                        Zenith.getLogger().debug("Loaded the cooked model " + cooked.getName() + " of "
+                                + uri.getPath());
+
+                        return () -> uploadModel(decodedMeshes);
+                    }
+                } catch (IOException e) {
+                    Zenith.getLogger().warn("Cannot read the cooked model of " + uri.getPath() + ", importing it.", e);
+                }
+            }
+
+            if (data != null) {
+                String path = uri.getPath();
+                aiScene = Assimp.aiImportFileFromMemory(data, IMPORT_FLAGS, path.substring(path.lastIndexOf('.') + 1));
+            } else {
+                aiScene = Assimp.aiImportFile(file.getAbsolutePath(), IMPORT_FLAGS);
+            }
+        } finally {
+            if (data != null) {
+                MemoryUtil.memFree(data);
+            }
+        }
 
         if (aiScene == null || aiScene.mRootNode() == null
                 || (aiScene.mFlags() & Assimp.AI_SCENE_FLAGS_INCOMPLETE) == Assimp.AI_TRUE) {
@@ -78,7 +186,46 @@ public final class ModelLoader extends ResourceLoader<Model> {
             throw new ResourceIOException(uri.getPath());
         }
 
-        return new Model(processNode(aiScene.mRootNode(), aiScene));
+        // Everything is copied out of the scene, so it is released before the meshes are uploaded.
+        List<DecodedMesh> decodedMeshes = processNode(aiScene.mRootNode(), aiScene);
+        Assimp.aiReleaseImport(aiScene);
+
+        if (cooked != null) {
+            try {
+                ModelCache.write(cooked, decodedMeshes);
+            } catch (IOException e) {
+                Zenith.getLogger().warn("Cannot write the cooked model of " + uri.getPath() + ".", e);
+            }
+        }
+
+        return () -> uploadModel(decodedMeshes);
+    }
+
+    /**
+     * Creates the {@link Model} of a list of decoded meshes. This must run on the
+     * engine thread.
+     *
+     * @param decodedMeshes The decoded meshes to be uploaded
+     * @return The uploaded {@link Model}.
+     */
+    private Model uploadModel(List<DecodedMesh> decodedMeshes) {
+        List<Mesh> meshes = new ArrayList<>();
+        for (DecodedMesh decodedMesh : decodedMeshes) {
+            meshes.add(uploadMesh(decodedMesh));
+        }
+
+        return new Model(meshes);
+    }
+
+    /**
+     * Describes every setting which changes the meshes that are imported, so that
+     * the {@link ModelCache} can tell when a cooked model is out of date.
+     *
+     * @return The description of the import settings.
+     */
+    private String getImportSettings() {
+        return IMPORT_FLAGS + "|" + vertexEncoding + "|" + welding + weldEpsilons + "|" + optimizing + "|"
+                + Arrays.toString(lodRatios) + "|" + meshletThreshold;
     }
 
     /**
@@ -86,10 +233,10 @@ public final class ModelLoader extends ResourceLoader<Model> {
      *
      * @param aiNode The {@link AINode} to be processed
      * @param aiScene The {@link AIScene} to be processed
-     * @return A list of meshes.
+     * @return A list of decoded meshes.
      */
-    private List<Mesh> processNode(AINode aiNode, AIScene aiScene) {
-        List<Mesh> meshes = new ArrayList<>();
+    private List<DecodedMesh> processNode(AINode aiNode, AIScene aiScene) {
+        List<DecodedMesh> meshes = new ArrayList<>();
 
         for (int i = 0; i < aiNode.mNumMeshes(); i++) {
             AIMesh aiMesh = AIMesh.create(aiScene.mMeshes().get(aiNode.mMeshes().get(i)));
@@ -104,60 +251,140 @@ public final class ModelLoader extends ResourceLoader<Model> {
     }
 
     /**
-     * Process a mesh.
+     * Process a mesh. This does not touch OpenGL, so that it can run on a worker
+     * thread.
      *
      * @param aiMesh The {@link AIMesh} to be processed
      * @param aiScene The {@link AIScene} to be processed
-     * @return The processed {@link Mesh}.
+     * @return The processed {@link DecodedMesh}.
      */
-    private Mesh processMesh(AIMesh aiMesh, AIScene aiScene) {
-        List<Vertex> vertices = new ArrayList<>();
-        for (int i = 0; i < aiMesh.mNumVertices(); i++) {
-            List<Attribute> attributes = new ArrayList<>();
+    private DecodedMesh processMesh(AIMesh aiMesh, AIScene aiScene) {
+        boolean hasUvs = aiMesh.mNumUVComponents().get(0) > 0;
+
+        // Vertices are encoded into the interleaved buffer through views of the format's attributes.
+        VertexData vertexData = new VertexData(vertexEncoding.createFormat(hasUvs), aiMesh.mNumVertices());
+
+        VertexData.View positionView = vertexData.view(Semantic.POSITION);
+        VertexData.View uvView = hasUvs ? vertexData.view(Semantic.UV) : null;
+        VertexData.View normalView = vertexData.view(Semantic.NORMAL);
+        VertexData.View tangentView = vertexData.view(Semantic.TANGENT);
+        VertexData.View bitangentView = vertexData.view(Semantic.BITANGENT);
 
+        Vector3f direction = new Vector3f();
+        for (int i = 0; i < aiMesh.mNumVertices(); i++) {
             // Position attribute
             AIVector3D aiPosition = aiMesh.mVertices().get(i);
-            attributes.add(new Vec3Attribute(new Vector3f(aiPosition.x(), aiPosition.y(), aiPosition.z())));
+            positionView.set(i, aiPosition.x(), aiPosition.y(), aiPosition.z());
 
             // UV attribute
-            if (aiMesh.mNumUVComponents().get(0) > 0) {
+            if (hasUvs) {
                 AIVector3D aiTexCoord = aiMesh.mTextureCoords(0).get(i);
-                attributes.add(new Vec2Attribute(new Vector2f(aiTexCoord.x(), aiTexCoord.y())));
+                uvView.set(i, aiTexCoord.x(), aiTexCoord.y());
             }
 
             // Normal attribute
             AIVector3D aiNormal = aiMesh.mNormals().get(i);
-            attributes.add(new Vec3Attribute(new Vector3f(aiNormal.x(), aiNormal.y(), aiNormal.z()).normalize()));
+            setDirection(normalView, i, direction.set(aiNormal.x(), aiNormal.y(), aiNormal.z()));
 
             // Tangent attribute
             AIVector3D aiTangent = aiMesh.mTangents().get(i);
-            attributes.add(
-                    new Vec3Attribute(new Vector3f(aiTangent.x(), aiTangent.y(), aiTangent.z()).normalize()));
+            setDirection(tangentView, i, direction.set(aiTangent.x(), aiTangent.y(), aiTangent.z()));
 
             // Bitangent attribute
             AIVector3D aiBitangent = aiMesh.mBitangents().get(i);
-            attributes.add(new Vec3Attribute(
-                    new Vector3f(aiBitangent.x(), aiBitangent.y(), aiBitangent.z()).normalize()));
+            setDirection(bitangentView, i, direction.set(aiBitangent.x(), aiBitangent.y(), aiBitangent.z()));
+        }
 
-            vertices.add(new Vertex(attributes));
+        int indexCount = 0;
+        for (int i = 0; i < aiMesh.mNumFaces(); i++) {
+            indexCount += aiMesh.mFaces().get(i).mNumIndices();
         }
 
-        List<Integer> indices = new ArrayList<>();
+        int[] indices = new int[indexCount];
+
+        int index = 0;
         for (int i = 0; i < aiMesh.mNumFaces(); i++) {
             AIFace aiFace = aiMesh.mFaces().get(i);
             for (int j = 0; j < aiFace.mNumIndices(); j++) {
-                indices.add(aiFace.mIndices().get(j));
+                indices[index++] = aiFace.mIndices().get(j);
+            }
+        }
+
+        if (welding) {
+            vertexData = weld(vertexData, indices, weldEpsilons);
+        }
+
+        // Levels of detail and optimization both need a plain triangle list.
+        List<int[]> lods = new ArrayList<>();
+        MeshletData meshletData = null;
+        if (indexCount == aiMesh.mNumFaces() * 3) {
+            float[] positions = getPositions(vertexData);
+
+            lods = simplify(indices, positions);
+
+            if (optimizing) {
+                vertexData = optimize(vertexData, positions, indices, lods);
+            }
+
+            if (indexCount / 3 > meshletThreshold) {
+                meshletData = MeshletBuilder.build(indices, getPositions(vertexData), MeshletBuilder.MAX_VERTICES,
+                        MeshletBuilder.MAX_TRIANGLES);
+                Zenith.getLogger().debug("Split a mesh of " + indexCount / 3 + " triangles into "
+                        + meshletData.getNumMeshlets() + " meshlets.");
+            }
+        }
+
+        // Indices are stored in the smallest index type that can hold them.
+        IndexType indexType = IndexType.forVertexCount(vertexData.getVertexCount());
+        IndexData indexData = new IndexData(indexType, indexCount);
+        for (int i = 0; i < indexCount; i++) {
+            indexData.put(i, indices[i]);
+        }
+
+        List<IndexData> lodData = new ArrayList<>();
+        for (int[] lod : lods) {
+            IndexData data = new IndexData(indexType, lod.length);
+            for (int i = 0; i < lod.length; i++) {
+                data.put(i, lod[i]);
             }
+
+            lodData.add(data);
         }
 
         // TODO : Import PBR material properties
 
+        Vector3f albedoColor = new Vector3f(1);
+
+        if (aiMesh.mMaterialIndex() >= 0) {
+            AIMaterial aiMaterial = AIMaterial.create(aiScene.mMaterials().get(aiMesh.mMaterialIndex()));
+
+            AIColor4D color = AIColor4D.create();
+
+            int result;
+            result = Assimp.aiGetMaterialColor(aiMaterial, Assimp.AI_MATKEY_COLOR_DIFFUSE, Assimp.aiTextureType_NONE, 0,
+                    color);
+            if (result == 0) {
+                albedoColor.set(color.r(), color.g(), color.b());
+            }
+        }
+
+        return new DecodedMesh(vertexData, indexData, lodData, meshletData, albedoColor);
+    }
+
+    /**
+     * Creates the {@link Mesh} and {@link Material} of a {@link DecodedMesh}. This
+     * must run on the engine thread.
+     *
+     * @param decodedMesh The {@link DecodedMesh} to be uploaded
+     * @return The uploaded {@link Mesh}.
+     */
+    private Mesh uploadMesh(DecodedMesh decodedMesh) {
         Material material = new Material(StandardShader.class);
 
         // Set default standard material properties.
         Property albedoColor = material.getProperties().get(StandardShader.ALBEDO_COLOR);
         if (albedoColor instanceof Vec3Property) {
-            ((Vec3Property) albedoColor).value = new Vector3f(1);
+            ((Vec3Property) albedoColor).value = new Vector3f(decodedMesh.albedoColor());
         }
 
         Property roughnessValue = material.getProperties().get(StandardShader.ROUGHNESS_VALUE);
@@ -165,21 +392,335 @@ public final class ModelLoader extends ResourceLoader<Model> {
             ((FloatProperty) roughnessValue).value = 0.5f;
         }
 
-        if (aiMesh.mMaterialIndex() >= 0) {
-            AIMaterial aiMaterial = AIMaterial.create(aiScene.mMaterials().get(aiMesh.mMaterialIndex()));
+        Mesh mesh = new Mesh(decodedMesh.vertexData(), decodedMesh.indexData(), PrimitiveType.TRIANGLES, material);
+        if (!decodedMesh.lods().isEmpty()) {
+            mesh.setLods(decodedMesh.lods());
+        }
 
-            AIColor4D color = AIColor4D.create();
+        mesh.setMeshletData(decodedMesh.meshletData());
 
-            int result;
-            result = Assimp.aiGetMaterialColor(aiMaterial, Assimp.AI_MATKEY_COLOR_DIFFUSE, Assimp.aiTextureType_NONE, 0,
-                    color);
-            if (result == 0) {
-                if (albedoColor instanceof Vec3Property) {
-                    ((Vec3Property) albedoColor).value = new Vector3f(color.r(), color.g(), color.b());
-                }
+        if (usingArenas) {
+            mesh.setArena(Zenith.getEngine().getGraphics().getGeometryArenaManager()
+                    .getArena(mesh.getVertexData().getFormat(), mesh.getIndexData().getIndexType()));
+        }
+
+        return mesh;
+    }
+
+    /**
+     * Welds the vertices of a triangle list with the {@link VertexWelder}, and logs
+     * the reduction.
+     *
+     * @param vertexData The {@link VertexData} of the triangle list
+     * @param indices The indices of the triangle list, which are remapped in place
+     * @param epsilons The largest difference of a component of each {@link Semantic}
+     * @return The welded {@link VertexData}, which replaces the one given.
+     */
+    private static VertexData weld(VertexData vertexData, int[] indices, Map<Semantic, Float> epsilons) {
+        int[] remap = VertexWelder.weld(vertexData, epsilons);
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = remap[indices[i]];
+        }
+
+        VertexData welded = MeshOptimizer.remapVertices(vertexData, remap);
+        vertexData.dispose();
+
+        int before = remap.length;
+        int after = welded.getVertexCount();
+        Zenith.getLogger().debug("Welded a mesh from " + before + " to " + after + " vertices ("
+                + String.format("%.1f", 100f * (before - after) / before) + "% fewer).");
+
+        return welded;
+    }
+
+    /**
+     * Gets the position of each vertex of a {@link VertexData}.
+     *
+     * @param vertexData The {@link VertexData} of the mesh
+     * @return The positions, packed as {@code xyz}.
+     */
+    private static float[] getPositions(VertexData vertexData) {
+        int vertexCount = vertexData.getVertexCount();
+
+        float[] positions = new float[vertexCount * 3];
+        VertexData.View view = vertexData.view(Semantic.POSITION);
+        for (int i = 0; i < vertexCount; i++) {
+            positions[i * 3] = view.getFloat(i, 0);
+            positions[i * 3 + 1] = view.getFloat(i, 1);
+            positions[i * 3 + 2] = view.getFloat(i, 2);
+        }
+
+        return positions;
+    }
+
+    /**
+     * Builds the coarser levels of detail of a triangle list with the
+     * {@link MeshSimplifier}. Each level is simplified from the one before it, and
+     * the chain ends at the first level that does not meaningfully reduce the
+     * triangle count.
+     *
+     * @param indices The indices of the triangle list
+     * @param positions The position of each vertex, packed as {@code xyz}
+     * @return The indices of each coarser level of detail, in order.
+     */
+    private List<int[]> simplify(int[] indices, float[] positions) {
+        List<int[]> lods = new ArrayList<>();
+
+        int[] previous = indices;
+        for (float ratio : lodRatios) {
+            int targetIndexCount = (int) (indices.length / 3 * ratio) * 3;
+            if (targetIndexCount < 3 || targetIndexCount >= previous.length) {
+                break;
+            }
+
+            int[] lod = MeshSimplifier.simplify(previous, positions, targetIndexCount);
+            if (lod.length == 0 || lod.length > previous.length * MIN_LOD_REDUCTION) {
+                break;
+            }
+
+            lods.add(lod);
+            previous = lod;
+        }
+
+        return lods;
+    }
+
+    /**
+     * Runs the {@link MeshOptimizer} stages over a triangle list and its levels of
+     * detail, and logs the vertex cache statistics before and after. The vertex
+     * fetch order is taken from the full detail triangle list, which every level
+     * of detail indexes a subset of.
+     *
+     * @param vertexData The {@link VertexData} of the triangle list
+     * @param positions The position of each vertex, packed as {@code xyz}
+     * @param indices The indices of the triangle list, which are optimized in place
+     * @param lods The indices of each level of detail, which are optimized in place
+     * @return The optimized {@link VertexData}, which replaces the one given.
+     */
+    private static VertexData optimize(VertexData vertexData, float[] positions, int[] indices, List<int[]> lods) {
+        int vertexCount = vertexData.getVertexCount();
+        MeshOptimizer.CacheStatistics before = MeshOptimizer.analyzeVertexCache(indices, vertexCount);
+
+        MeshOptimizer.optimizeVertexCache(indices, vertexCount);
+        MeshOptimizer.optimizeOverdraw(indices, positions);
+
+        for (int[] lod : lods) {
+            MeshOptimizer.optimizeVertexCache(lod, vertexCount);
+        }
+
+        int[] remap = MeshOptimizer.optimizeVertexFetch(indices, vertexCount);
+        VertexData optimized = MeshOptimizer.remapVertices(vertexData, remap);
+        vertexData.dispose();
+
+        for (int[] lod : lods) {
+            for (int i = 0; i < lod.length; i++) {
+                lod[i] = remap[lod[i]];
             }
         }
 
-        return new Mesh(vertices, indices, PrimitiveType.TRIANGLES, material);
+        MeshOptimizer.CacheStatistics after = MeshOptimizer.analyzeVertexCache(indices,
+                optimized.getVertexCount());
+        Zenith.getLogger().debug("Optimized a mesh of " + indices.length / 3 + " triangles from " + before + " to "
+                + after + ".");
+
+        return optimized;
+    }
+
+    /**
+     * Gets the flag indicating if meshes are optimized when they are loaded.
+     *
+     * @return The {@link #optimizing} flag.
+     */
+    public boolean isOptimizing() {
+        return optimizing;
+    }
+
+    /**
+     * Sets the flag indicating if meshes are optimized when they are loaded.
+     */
+    public void setOptimizing(boolean optimizing) {
+        this.optimizing = optimizing;
+    }
+
+    /**
+     * Gets the {@link #lodRatios}.
+     *
+     * @return The {@link #lodRatios} value.
+     */
+    public float[] getLodRatios() {
+        return lodRatios;
+    }
+
+    /**
+     * Sets the {@link #lodRatios}. An empty array disables levels of detail.
+     *
+     * @param lodRatios The fraction of the triangles of each coarser level of detail
+     */
+    public void setLodRatios(float[] lodRatios) {
+        if (lodRatios == null) {
+            String errorMsg = "Cannot set lodRatios to a null array.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.lodRatios = lodRatios;
+    }
+
+    /**
+     * Gets the {@link #vertexEncoding}.
+     *
+     * @return The {@link #vertexEncoding} value.
+     */
+    public VertexEncoding getVertexEncoding() {
+        return vertexEncoding;
+    }
+
+    /**
+     * Sets the {@link #vertexEncoding} of meshes loaded after this call.
+     *
+     * @param vertexEncoding The target {@link VertexEncoding}
+     */
+    public void setVertexEncoding(VertexEncoding vertexEncoding) {
+        if (vertexEncoding == null) {
+            String errorMsg = "Cannot set vertexEncoding to null.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.vertexEncoding = vertexEncoding;
+    }
+
+    /**
+     * Gets the flag indicating if meshes are welded when they are loaded.
+     *
+     * @return The {@link #welding} flag.
+     */
+    public boolean isWelding() {
+        return welding;
+    }
+
+    /**
+     * Sets the flag indicating if meshes are welded when they are loaded.
+     */
+    public void setWelding(boolean welding) {
+        this.welding = welding;
+    }
+
+    /**
+     * Gets the {@link #meshletThreshold}.
+     *
+     * @return The {@link #meshletThreshold} value.
+     */
+    public int getMeshletThreshold() {
+        return meshletThreshold;
+    }
+
+    /**
+     * Sets the {@link #meshletThreshold}.
+     *
+     * @param meshletThreshold The number of triangles above which meshes are split
+     *                         into meshlets
+     */
+    public void setMeshletThreshold(int meshletThreshold) {
+        this.meshletThreshold = meshletThreshold;
+    }
+
+    /**
+     * Gets the flag indicating if imported models are cooked into the
+     * {@link ModelCache}.
+     *
+     * @return The {@link #caching} flag.
+     */
+    public boolean isCaching() {
+        return caching;
+    }
+
+    /**
+     * Sets the flag indicating if imported models are cooked into the
+     * {@link ModelCache}.
+     */
+    public void setCaching(boolean caching) {
+        this.caching = caching;
+    }
+
+    /**
+     * Gets the flag indicating if loaded meshes are made resident in a
+     * {@link GeometryArena}.
+     *
+     * @return The {@link #usingArenas} flag.
+     */
+    public boolean isUsingArenas() {
+        return usingArenas;
+    }
+
+    /**
+     * Sets the flag indicating if loaded meshes are made resident in a
+     * {@link GeometryArena}.
+     */
+    public void setUsingArenas(boolean usingArenas) {
+        this.usingArenas = usingArenas;
+    }
+
+    /**
+     * Gets the epsilon for which components of a {@link Semantic} are welded.
+     *
+     * @param semantic The target {@link Semantic}
+     * @return The epsilon, or {@code 0} if components must be exactly equal.
+     */
+    public float getWeldEpsilon(Semantic semantic) {
+        return weldEpsilons.getOrDefault(semantic, 0f);
+    }
+
+    /**
+     * Sets the epsilon for which components of a {@link Semantic} are welded.
+     *
+     * @param semantic The target {@link Semantic}
+     * @param epsilon The largest difference of a component, which is not negative
+     */
+    public void setWeldEpsilon(Semantic semantic, float epsilon) {
+        if (semantic == null || !(epsilon >= 0)) {
+            String errorMsg = "Cannot set a weld epsilon of " + epsilon + " for " + semantic + ".";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        weldEpsilons.put(semantic, epsilon);
+    }
+
+    /**
+     * Writes a normalized direction into an attribute of a vertex.
+     *
+     * @param view The {@link VertexData.View} of the attribute
+     * @param vertex The index of the vertex
+     * @param direction The direction to write, which is normalized in place
+     */
+    private static void setDirection(VertexData.View view, int vertex, Vector3f direction) {
+        direction.normalize();
+        view.set(vertex, direction.x, direction.y, direction.z);
+    }
+
+    /**
+     * The CPU side data of a {@link Mesh} which has been decoded, but whose OpenGL
+     * objects have not been created.
+     *
+     * @param vertexData  The {@link VertexData} of the mesh
+     * @param indexData   The {@link IndexData} of the mesh
+     * @param lods        The {@link IndexData} of each coarser level of detail
+     * @param meshletData The {@link MeshletData} of the mesh, or {@code null}
+     * @param albedoColor The albedo color of the material of the mesh
+     */
+    record DecodedMesh(VertexData vertexData, IndexData indexData, List<IndexData> lods, MeshletData meshletData,
+                       Vector3f albedoColor) {
+        /**
+         * Frees the buffers of this {@link DecodedMesh}, for when it will not be
+         * uploaded.
+         */
+        void dispose() {
+            vertexData.dispose();
+            indexData.dispose();
+            for (IndexData lod : lods) {
+                lod.dispose();
+            }
+        }
     }
 }
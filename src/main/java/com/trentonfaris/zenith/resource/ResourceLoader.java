@@ -3,8 +3,12 @@ package com.trentonfaris.zenith.resource;
 import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.exception.ResourceIOException;
 import com.trentonfaris.zenith.exception.ResourceNotFoundException;
+import com.trentonfaris.zenith.utility.Utility;
+import org.lwjgl.system.MemoryUtil;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 
 /**
  * The {@link ResourceLoader} class is the base class for logic responsible for
@@ -43,6 +47,48 @@ public abstract class ResourceLoader<T> {
      */
     public abstract T load(URI uri) throws ResourceIOException, ResourceNotFoundException;
 
+    /**
+     * Decodes a resource from the specified {@link URI} on a worker thread. The
+     * file I/O and decoding are done here, and anything that touches OpenGL is
+     * deferred to the returned {@link ResourceUpload}, which is run on the engine
+     * thread. This must be safe to call from several threads at once.
+     *
+     * <p>
+     * By default nothing is decoded, and the whole of {@link #load(URI)} is
+     * deferred to the engine thread.
+     *
+     * @param uri The target {@link URI} to decode.
+     * @return The {@link ResourceUpload} which finishes the resource.
+     * @throws ResourceIOException       A throwable {@link ResourceIOException}
+     * @throws ResourceNotFoundException A throwable {@link ResourceNotFoundException}
+     */
+    public ResourceUpload<T> decode(URI uri) throws ResourceIOException, ResourceNotFoundException {
+        return () -> load(uri);
+    }
+
+    /**
+     * Reads a file of a resource into a direct buffer, from the JAR if the host of
+     * the {@link URI} is {@link Utility#PACKAGED_FILE_HOST}, or from the resources
+     * directory otherwise. The buffer must be freed with
+     * {@link MemoryUtil#memFree}.
+     *
+     * @param uri  The {@link URI} of the resource
+     * @param path The path of the file, relative to the resources directory
+     * @return The buffer of the contents of the file.
+     * @throws IOException A throwable {@link IOException}, which is a
+     *                     {@link java.io.FileNotFoundException} if the file does
+     *                     not exist
+     */
+    static ByteBuffer readResource(URI uri, String path) throws IOException {
+        String fullPath = ResourceManager.RESOURCES_DIRECTORY.getPath() + path;
+
+        if (uri.getHost() != null && uri.getHost().equalsIgnoreCase(Utility.PACKAGED_FILE_HOST)) {
+            return Utility.readPackagedFile(fullPath);
+        }
+
+        return Utility.readFile(fullPath);
+    }
+
     /**
      * Gets the scheme for the type of resource this loader loads.
      *
@@ -4,8 +4,10 @@ import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.exception.ResourceIOException;
 import com.trentonfaris.zenith.exception.ResourceLoaderNotFoundException;
 import com.trentonfaris.zenith.exception.ResourceNotFoundException;
+import com.trentonfaris.zenith.scheduler.TaskManager;
 import com.trentonfaris.zenith.utility.Copyable;
 import com.trentonfaris.zenith.utility.Disposable;
+import com.trentonfaris.zenith.utility.Measurable;
 import org.apache.logging.log4j.Level;
 
 import java.io.File;
@@ -13,14 +15,40 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The {@link ResourceManager} is responsible for loading and caching resources from a
  * list of managed unique {@link ResourceLoader}s.
  *
+ * <p>
+ * Resources can be loaded synchronously on the engine thread with
+ * {@link #getResource(String, Class)}, or asynchronously with
+ * {@link #getResourceAsync(String, Class)}. An asynchronous load decodes the
+ * resource on a worker thread, and then hands the creation of its OpenGL
+ * objects back to the engine thread through the {@link TaskManager}. Concurrent
+ * requests for the same {@link URI} share a single load.
+ *
+ * <p>
+ * Both of those return a copy of a {@link Copyable} resource. A resource can
+ * instead be shared with {@link #acquire(String, Class)}, which returns the
+ * cached resource itself and counts a reference to it until it is released
+ * with {@link #release(String)}. The size of each cached resource is counted
+ * in system and video memory, and when either exceeds its budget,
+ * {@link #update()} evicts the least recently used resources which are not
+ * acquired.
+ *
  * @author Trenton Faris
  */
 public final class ResourceManager implements Disposable {
@@ -32,29 +60,149 @@ public final class ResourceManager implements Disposable {
     /**
      * The list of loaders.
      */
-    private final Map<Class<? extends ResourceLoader<?>>, ResourceLoader<?>> resourceLoaders = new HashMap<>();
+    private final Map<Class<? extends ResourceLoader<?>>, ResourceLoader<?>> resourceLoaders =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The cache of loaded resources, from the least to the most recently used.
+     * It is guarded by its own lock, along with the sizes and counters of the
+     * cache.
+     */
+    private final Map<URI, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
 
     /**
-     * The cache of loaded resources.
+     * The asynchronous loads which have not completed, by {@link URI}.
      */
-    private final Map<URI, Object> cache = new HashMap<>();
+    private final Map<URI, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * The worker threads which decode resources.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The number of bytes of the cached resources in system memory.
+     */
+    private long cpuBytes;
+
+    /**
+     * The number of bytes of the cached resources in video memory.
+     */
+    private long gpuBytes;
+
+    /**
+     * The number of bytes of system memory that the cached resources may use
+     * before they are evicted.
+     */
+    private long cpuBudget = Long.MAX_VALUE;
+
+    /**
+     * The number of bytes of video memory that the cached resources may use
+     * before they are evicted.
+     */
+    private long gpuBudget = Long.MAX_VALUE;
+
+    /**
+     * The number of requests which were served from the cache.
+     */
+    private long hits;
+
+    /**
+     * The number of requests which had to load their resource.
+     */
+    private long misses;
+
+    /**
+     * The number of resources which were evicted.
+     */
+    private long evictions;
+
+    /**
+     * The number of times the cache has been updated. Resources used since the
+     * last update are never evicted.
+     */
+    private long frame;
 
     public ResourceManager() {
         if (!ResourceManager.RESOURCES_DIRECTORY.exists()) {
             // TODO : handle return value
             ResourceManager.RESOURCES_DIRECTORY.mkdir();
         }
+
+        // One core is left for the engine thread.
+        int numWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger workerCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(numWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "resourceWorker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
     public void dispose() {
-        for (Object object : cache.values()) {
-            if (object instanceof Disposable disposable) {
+        executor.shutdownNow();
+
+        for (CompletableFuture<Object> future : pending.values()) {
+            future.cancel(false);
+        }
+
+        pending.clear();
+
+        List<CacheEntry> entries;
+        synchronized (cache) {
+            entries = new ArrayList<>(cache.values());
+
+            cache.clear();
+            this.cpuBytes = 0;
+            this.gpuBytes = 0;
+        }
+
+        for (CacheEntry entry : entries) {
+            if (entry.resource instanceof Disposable disposable) {
+                disposable.dispose();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used resources which are not acquired, until the
+     * cache is within its budgets. Resources which were used since the last
+     * update are kept, so that a resource is not evicted while it is being copied
+     * or acquired. This must be called on the engine thread, since the evicted
+     * resources are disposed.
+     */
+    public void update() {
+        List<Object> evicted = new ArrayList<>();
+
+        synchronized (cache) {
+            Iterator<CacheEntry> iterator = cache.values().iterator();
+            while ((cpuBytes > cpuBudget || gpuBytes > gpuBudget) && iterator.hasNext()) {
+                CacheEntry entry = iterator.next();
+                if (entry.refCount > 0 || entry.lastUsed == frame) {
+                    continue;
+                }
+
+                iterator.remove();
+                this.cpuBytes -= entry.cpuBytes;
+                this.gpuBytes -= entry.gpuBytes;
+                this.evictions++;
+
+                evicted.add(entry.resource);
+            }
+
+            this.frame++;
+        }
+
+        for (Object resource : evicted) {
+            if (resource instanceof Disposable disposable) {
                 disposable.dispose();
             }
         }
 
-        cache.clear();
+        if (!evicted.isEmpty()) {
+            Zenith.getLogger().debug("Evicted " + evicted.size() + " resources from the cache.");
+        }
     }
 
     /**
@@ -127,59 +275,522 @@ public final class ResourceManager implements Disposable {
             throw new IllegalArgumentException(errorMsg);
         }
 
+        return copyResource(getCachedResource(toURI(uri)), clazz);
+    }
+
+    /**
+     * Prefetches a resource from a {@code String} URI into the cache, without
+     * copying it, so that a later request for it is served from the cache. The
+     * resource is loaded as by {@link #getResourceAsync(String, Class)}, so that
+     * many prefetches are decoded in parallel.
+     *
+     * @param uri The target {@link URI} to load.
+     * @return The {@link CompletableFuture} which completes when the resource is
+     *         cached.
+     * @throws IllegalArgumentException If no {@link ResourceLoader} is registered
+     *                                  for the scheme of the URI
+     */
+    public CompletableFuture<Void> prefetch(String uri) {
+        if (uri == null || uri.isEmpty()) {
+            String errorMsg = "Cannot prefetch a resource from a null or empty URI.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        return getCachedResourceAsync(toURI(uri)).thenApply(loaded -> null);
+    }
+
+    /**
+     * Acquires a shared resource from a {@code String} URI. Unlike
+     * {@link #getResource(String, Class)}, the cached resource itself is returned,
+     * so it must not be modified or disposed. It is not evicted until it has been
+     * released with {@link #release(String)} as many times as it was acquired.
+     *
+     * @param uri   The target {@link URI} to load.
+     * @param clazz The {@link Class} of the target resource
+     * @param <T>   The type of the target resource
+     * @return The cached resource, of inferred type.
+     * @throws ResourceIOException       A throwable {@link ResourceIOException}
+     * @throws ResourceNotFoundException A throwable {@link ResourceNotFoundException}
+     */
+    public <T> T acquire(String uri, Class<T> clazz) throws ResourceIOException, ResourceNotFoundException {
+        if (uri == null || uri.isEmpty()) {
+            String errorMsg = "Cannot acquire a resource from a null or empty URI.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
         URI realURI = toURI(uri);
 
-        if (!cache.containsKey(realURI)) {
-            try {
-                loadResource(realURI);
-            } catch (ResourceLoaderNotFoundException e) {
-                throw new IllegalArgumentException(e);
+        T resource = clazz.cast(getCachedResource(realURI));
+        retain(realURI);
+
+        return resource;
+    }
+
+    /**
+     * Acquires a shared resource from a {@code String} URI asynchronously, as
+     * {@link #getResourceAsync(String, Class)} loads it. The resource is
+     * acquired when the returned {@link CompletableFuture} completes, as with
+     * {@link #acquire(String, Class)}.
+     *
+     * @param uri   The target {@link URI} to load.
+     * @param clazz The {@link Class} of the target resource
+     * @param <T>   The type of the target resource
+     * @return The {@link CompletableFuture} of the cached resource.
+     * @throws IllegalArgumentException If no {@link ResourceLoader} is registered
+     *                                  for the scheme of the URI
+     */
+    public <T> CompletableFuture<T> acquireAsync(String uri, Class<T> clazz) {
+        if (uri == null || uri.isEmpty()) {
+            String errorMsg = "Cannot acquire a resource from a null or empty URI.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        URI realURI = toURI(uri);
+
+        return getCachedResourceAsync(realURI).thenApply(loaded -> {
+            T resource = clazz.cast(loaded);
+            retain(realURI);
+
+            return resource;
+        });
+    }
+
+    /**
+     * Releases a resource which was acquired from a {@code String} URI. Once it
+     * has been released as many times as it was acquired, it may be evicted.
+     *
+     * @param uri The target {@link URI}
+     */
+    public void release(String uri) {
+        synchronized (cache) {
+            CacheEntry entry = cache.get(toURI(uri));
+            if (entry == null || entry.refCount == 0) {
+                String errorMsg = "Cannot release a resource which is not acquired: " + uri;
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalArgumentException(errorMsg);
             }
+
+            entry.refCount--;
         }
+    }
 
-        T resource = clazz.cast(cache.get(realURI));
+    /**
+     * Gets a resource from a {@code String} URI asynchronously. The resource is
+     * decoded on a worker thread and finished on the engine thread, so the
+     * returned {@link CompletableFuture} is completed on the engine thread. If the
+     * resource is already being loaded, the same load is shared.
+     *
+     * <p>
+     * The {@link CompletableFuture} completes exceptionally with a
+     * {@link ResourceIOException} or {@link ResourceNotFoundException} if the
+     * resource cannot be loaded.
+     *
+     * @param uri   The target {@link URI} to load.
+     * @param clazz The {@link Class} of the target resource
+     * @param <T>   The type of the target resource
+     * @return The {@link CompletableFuture} of the resource.
+     * @throws IllegalArgumentException If no {@link ResourceLoader} is registered
+     *                                  for the scheme of the URI
+     */
+    public <T> CompletableFuture<T> getResourceAsync(String uri, Class<T> clazz) {
+        if (uri == null || uri.isEmpty()) {
+            String errorMsg = "Cannot get a resource from a null or empty URI.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        return getCachedResourceAsync(toURI(uri)).thenApply(loaded -> copyResource(loaded, clazz));
+    }
+
+    /**
+     * Determines whether a resource has been loaded into the cache.
+     *
+     * @param uri The target {@link URI}
+     * @return Whether the resource is cached.
+     */
+    public boolean isLoaded(String uri) {
+        URI realURI = toURI(uri);
+
+        synchronized (cache) {
+            return cache.containsKey(realURI);
+        }
+    }
+
+    /**
+     * Gets the number of asynchronous loads which have not completed.
+     *
+     * @return The number of pending loads.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the {@link ResourceStats} of the cache.
+     *
+     * @return The {@link ResourceStats}.
+     */
+    public ResourceStats getStats() {
+        synchronized (cache) {
+            int numAcquired = 0;
+            for (CacheEntry entry : cache.values()) {
+                if (entry.refCount > 0) {
+                    numAcquired++;
+                }
+            }
+
+            return new ResourceStats(cache.size(), numAcquired, cpuBytes, gpuBytes, hits, misses, evictions);
+        }
+    }
 
-        if (resource instanceof Copyable copyable) {
+    /**
+     * Gets the {@link #cpuBudget}.
+     *
+     * @return The {@link #cpuBudget} value.
+     */
+    public long getCpuBudget() {
+        synchronized (cache) {
+            return cpuBudget;
+        }
+    }
+
+    /**
+     * Sets the {@link #cpuBudget}. The resources over it are evicted by the next
+     * {@link #update()}.
+     *
+     * @param cpuBudget The number of bytes of system memory
+     */
+    public void setCpuBudget(long cpuBudget) {
+        if (cpuBudget < 0) {
+            String errorMsg = "Cannot set a negative cpuBudget.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        synchronized (cache) {
+            this.cpuBudget = cpuBudget;
+        }
+    }
+
+    /**
+     * Gets the {@link #gpuBudget}.
+     *
+     * @return The {@link #gpuBudget} value.
+     */
+    public long getGpuBudget() {
+        synchronized (cache) {
+            return gpuBudget;
+        }
+    }
+
+    /**
+     * Sets the {@link #gpuBudget}. The resources over it are evicted by the next
+     * {@link #update()}.
+     *
+     * @param gpuBudget The number of bytes of video memory
+     */
+    public void setGpuBudget(long gpuBudget) {
+        if (gpuBudget < 0) {
+            String errorMsg = "Cannot set a negative gpuBudget.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        synchronized (cache) {
+            this.gpuBudget = gpuBudget;
+        }
+    }
+
+    /**
+     * Gets a resource from the cache, loading it on the engine thread if it is not
+     * cached.
+     *
+     * @param uri The target {@link URI} to load.
+     * @return The cached resource.
+     * @throws ResourceIOException       A throwable {@link ResourceIOException}
+     * @throws ResourceNotFoundException A throwable {@link ResourceNotFoundException}
+     */
+    private Object getCachedResource(URI uri) throws ResourceIOException, ResourceNotFoundException {
+        Object resource = touch(uri);
+        if (resource != null) {
+            return resource;
+        }
+
+        CompletableFuture<Object> future = pending.get(uri);
+        if (future != null) {
+            // The uploads are run here, since the engine thread is the one waiting for them.
+            Zenith.getEngine().getTaskManager().await(future);
+            return getNow(future);
+        }
+
+        try {
+            return loadResource(uri);
+        } catch (ResourceLoaderNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Gets a resource from the cache, or starts loading it asynchronously if it is
+     * not cached.
+     *
+     * @param uri The target {@link URI} to load.
+     * @return The {@link CompletableFuture} of the cached resource.
+     */
+    private CompletableFuture<Object> getCachedResourceAsync(URI uri) {
+        Object resource = touch(uri);
+        if (resource != null) {
+            return CompletableFuture.completedFuture(resource);
+        }
+
+        CompletableFuture<Object> future = pending.computeIfAbsent(uri, this::loadResourceAsync);
+        if (future == null) {
+            // A load finished between checking the cache and starting another, so the resource is cached again.
+            return getCachedResourceAsync(uri);
+        }
+
+        return future;
+    }
+
+    /**
+     * Gets a cached resource and marks it as the most recently used, counting a
+     * hit or a miss.
+     *
+     * @param uri The target {@link URI}
+     * @return The cached resource, or {@code null} if it is not cached.
+     */
+    private Object touch(URI uri) {
+        synchronized (cache) {
+            CacheEntry entry = cache.get(uri);
+            if (entry == null) {
+                this.misses++;
+                return null;
+            }
+
+            this.hits++;
+            entry.lastUsed = frame;
+
+            return entry.resource;
+        }
+    }
+
+    /**
+     * Adds a reference to a cached resource.
+     *
+     * @param uri The {@link URI} of the resource
+     */
+    private void retain(URI uri) {
+        synchronized (cache) {
+            CacheEntry entry = cache.get(uri);
+            if (entry == null) {
+                String errorMsg = "Cannot acquire a resource which was evicted: " + uri;
+                Zenith.getLogger().error(errorMsg);
+                throw new IllegalStateException(errorMsg);
+            }
+
+            entry.refCount++;
+            entry.lastUsed = frame;
+        }
+    }
+
+    /**
+     * Casts a cached resource to its type, and copies it if it is {@link Copyable}
+     * so that the cached resource is never modified.
+     *
+     * @param resource The cached resource
+     * @param clazz    The {@link Class} of the resource
+     * @param <T>      The type of the resource
+     * @return The resource, or a copy of it.
+     */
+    private static <T> T copyResource(Object resource, Class<T> clazz) {
+        T cast = clazz.cast(resource);
+
+        if (cast instanceof Copyable copyable) {
             return clazz.cast(copyable.copy());
         }
 
-        return resource;
+        return cast;
     }
 
     /**
      * Loads a resource into the cache.
      *
      * @param uri The target {@link URI} to load.
+     * @return The cached resource.
      * @throws ResourceIOException             A throwable {@link ResourceIOException}
      * @throws ResourceLoaderNotFoundException A throwable {@link ResourceLoaderNotFoundException}
      * @throws ResourceNotFoundException       A throwable {@link ResourceNotFoundException}
      */
-    private void loadResource(URI uri)
+    private Object loadResource(URI uri)
             throws ResourceIOException, ResourceLoaderNotFoundException, ResourceNotFoundException {
-        String scheme = uri.getScheme();
+        Object resource = getResourceLoader(uri.getScheme()).load(uri);
 
-        ResourceLoader<?> resourceLoader = null;
+        if (resource == null) {
+            Zenith.getLogger().error("Cannot read the resource: " + uri);
+            throw new ResourceIOException(uri.toString());
+        }
 
-        for (Entry<Class<? extends ResourceLoader<?>>, ResourceLoader<?>> entry : resourceLoaders
-                .entrySet()) {
-            if (entry.getValue().getScheme().equalsIgnoreCase(scheme)) {
-                resourceLoader = entry.getValue();
+        return cacheResource(uri, resource);
+    }
+
+    /**
+     * Starts loading a resource asynchronously. The resource is decoded on a
+     * worker thread, and then uploaded and cached by a task on the engine thread.
+     *
+     * @param uri The target {@link URI} to load.
+     * @return The {@link CompletableFuture} of the loaded resource, or
+     *         {@code null} if the resource is already cached, so that no
+     *         completed load is ever left in the {@link #pending} loads.
+     */
+    private CompletableFuture<Object> loadResourceAsync(URI uri) {
+        // A load may have finished between checking the cache and reaching here.
+        synchronized (cache) {
+            if (cache.containsKey(uri)) {
+                return null;
             }
         }
 
-        if (resourceLoader == null) {
-            Zenith.getLogger().error("Cannot not find the ResourceLoader for scheme: " + scheme);
-            throw new ResourceLoaderNotFoundException(scheme);
+        ResourceLoader<?> resourceLoader;
+        try {
+            resourceLoader = getResourceLoader(uri.getScheme());
+        } catch (ResourceLoaderNotFoundException e) {
+            throw new IllegalArgumentException(e);
         }
 
-        Object resource = resourceLoader.load(uri);
+        CompletableFuture<Object> future = new CompletableFuture<>();
 
-        if (resource == null) {
-            Zenith.getLogger().error("Cannot read the resource: " + uri);
-            throw new ResourceIOException(uri.toString());
+        TaskManager taskManager = Zenith.getEngine().getTaskManager();
+
+        executor.execute(() -> {
+            ResourceUpload<?> upload;
+            try {
+                upload = resourceLoader.decode(uri);
+            } catch (ResourceIOException | ResourceNotFoundException | RuntimeException e) {
+                // The future is only ever completed on the engine thread, even when decoding fails.
+                taskManager.submit(() -> fail(uri, future, e));
+                return;
+            }
+
+            taskManager.submit(() -> {
+                // The load was cancelled while it was being decoded.
+                if (future.isDone()) {
+                    return;
+                }
+
+                try {
+                    Object resource = upload.upload();
+
+                    if (resource == null) {
+                        Zenith.getLogger().error("Cannot read the resource: " + uri);
+                        throw new ResourceIOException(uri.toString());
+                    }
+
+                    Object loaded = cacheResource(uri, resource);
+                    pending.remove(uri);
+                    future.complete(loaded);
+                } catch (ResourceIOException | ResourceNotFoundException | RuntimeException e) {
+                    fail(uri, future, e);
+                }
+            });
+        });
+
+        return future;
+    }
+
+    /**
+     * Fails an asynchronous load on the engine thread, so that it can be
+     * requested again.
+     *
+     * @param uri       The {@link URI} of the load
+     * @param future    The {@link CompletableFuture} of the load
+     * @param throwable The reason the load failed
+     */
+    private void fail(URI uri, CompletableFuture<Object> future, Throwable throwable) {
+        Zenith.getLogger().error("Cannot load the resource asynchronously: " + uri, throwable);
+
+        pending.remove(uri, future);
+        future.completeExceptionally(throwable);
+    }
+
+    /**
+     * Gets the result of a completed load, rethrowing the reason it failed.
+     *
+     * @param future The completed {@link CompletableFuture}
+     * @return The loaded resource.
+     * @throws ResourceIOException       A throwable {@link ResourceIOException}
+     * @throws ResourceNotFoundException A throwable {@link ResourceNotFoundException}
+     */
+    private static Object getNow(CompletableFuture<Object> future)
+            throws ResourceIOException, ResourceNotFoundException {
+        try {
+            return future.join();
+        } catch (CancellationException e) {
+            throw new IllegalStateException(e);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ResourceIOException resourceIOException) {
+                throw resourceIOException;
+            } else if (cause instanceof ResourceNotFoundException resourceNotFoundException) {
+                throw resourceNotFoundException;
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Puts a loaded resource into the cache. If another load of the same
+     * {@link URI} finished first, its resource is kept and this one is disposed.
+     *
+     * @param uri      The {@link URI} of the resource
+     * @param resource The loaded resource
+     * @return The cached resource.
+     */
+    private Object cacheResource(URI uri, Object resource) {
+        CacheEntry cached;
+        synchronized (cache) {
+            cached = cache.get(uri);
+            if (cached == null) {
+                CacheEntry entry = new CacheEntry(resource, frame);
+                cache.put(uri, entry);
+
+                this.cpuBytes += entry.cpuBytes;
+                this.gpuBytes += entry.gpuBytes;
+
+                return resource;
+            }
+
+            cached.lastUsed = frame;
+        }
+
+        if (resource instanceof Disposable disposable) {
+            disposable.dispose();
+        }
+
+        return cached.resource;
+    }
+
+    /**
+     * Gets the registered {@link ResourceLoader} of a scheme.
+     *
+     * @param scheme The target scheme
+     * @return The {@link ResourceLoader}.
+     * @throws ResourceLoaderNotFoundException A throwable {@link ResourceLoaderNotFoundException}
+     */
+    private ResourceLoader<?> getResourceLoader(String scheme) throws ResourceLoaderNotFoundException {
+        for (ResourceLoader<?> resourceLoader : resourceLoaders.values()) {
+            if (resourceLoader.getScheme().equalsIgnoreCase(scheme)) {
+                return resourceLoader;
+            }
         }
 
-        cache.put(uri, resource);
+        Zenith.getLogger().error("Cannot not find the ResourceLoader for scheme: " + scheme);
+        throw new ResourceLoaderNotFoundException(scheme);
     }
 
     /**
@@ -199,4 +810,55 @@ public final class ResourceManager implements Disposable {
 
         return realURI;
     }
+
+    /**
+     * A {@link CacheEntry} is a cached resource, with its size and the number of
+     * references to it.
+     */
+    private static final class CacheEntry {
+        /**
+         * The cached resource.
+         */
+        private final Object resource;
+
+        /**
+         * The number of bytes of the {@link #resource} in system memory.
+         */
+        private final long cpuBytes;
+
+        /**
+         * The number of bytes of the {@link #resource} in video memory.
+         */
+        private final long gpuBytes;
+
+        /**
+         * The number of times the {@link #resource} is acquired.
+         */
+        private int refCount;
+
+        /**
+         * The update of the cache in which the {@link #resource} was last used.
+         */
+        private long lastUsed;
+
+        /**
+         * Creates a new {@link CacheEntry}, measuring the resource if it is
+         * {@link Measurable}.
+         *
+         * @param resource The cached resource
+         * @param frame    The current update of the cache
+         */
+        private CacheEntry(Object resource, long frame) {
+            this.resource = resource;
+            this.lastUsed = frame;
+
+            if (resource instanceof Measurable measurable) {
+                this.cpuBytes = measurable.getCpuBytes();
+                this.gpuBytes = measurable.getGpuBytes();
+            } else {
+                this.cpuBytes = 0;
+                this.gpuBytes = 0;
+            }
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package com.trentonfaris.zenith.resource;
+
+/**
+ * The {@link ResourceStats} of the cache of a {@link ResourceManager}, at the
+ * time they were queried.
+ *
+ * @param numResources  The number of cached resources
+ * @param numAcquired   The number of cached resources which are acquired, and
+ *                      cannot be evicted
+ * @param cpuBytes      The number of bytes of the cached resources in system
+ *                      memory
+ * @param gpuBytes      The number of bytes of the cached resources in video
+ *                      memory
+ * @param hits          The number of requests which were served from the cache
+ * @param misses        The number of requests which had to load their resource
+ * @param evictions     The number of resources which were evicted
+ *
+ * @author Trenton Faris
+ */
+public record ResourceStats(int numResources, int numAcquired, long cpuBytes, long gpuBytes, long hits, long misses,
+                            long evictions) {
+    @Override
+    public String toString() {
+        return String.format("%d resources (%d acquired), %.1f MiB CPU, %.1f MiB GPU, %d hits, %d misses, "
+                + "%d evictions", numResources, numAcquired, cpuBytes / 1048576.0, gpuBytes / 1048576.0, hits, misses,
+                evictions);
+    }
+}
@@ -0,0 +1,24 @@
+package com.trentonfaris.zenith.resource;
+
+import com.trentonfaris.zenith.exception.ResourceIOException;
+import com.trentonfaris.zenith.exception.ResourceNotFoundException;
+
+/**
+ * A {@link ResourceUpload} finishes a resource that was decoded by a
+ * {@link ResourceLoader}, by creating the OpenGL objects it needs. It is always
+ * run on the engine thread.
+ *
+ * @param <T> The type of the resource
+ * @author Trenton Faris
+ */
+@FunctionalInterface
+public interface ResourceUpload<T> {
+    /**
+     * Finishes the resource.
+     *
+     * @return The resource.
+     * @throws ResourceIOException       A throwable {@link ResourceIOException}
+     * @throws ResourceNotFoundException A throwable {@link ResourceNotFoundException}
+     */
+    T upload() throws ResourceIOException, ResourceNotFoundException;
+}
@@ -1,26 +1,25 @@
 package com.trentonfaris.zenith.resource;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL32;
 import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 
 import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.exception.ResourceIOException;
 import com.trentonfaris.zenith.exception.ResourceNotFoundException;
 import com.trentonfaris.zenith.graphics.shader.ShaderType;
-import com.trentonfaris.zenith.utility.Utility;
 
 /**
  * The {@link ShaderLoader} class is responsible for loading, compiling, and
@@ -39,63 +38,70 @@ public final class ShaderLoader extends ResourceLoader<Integer> {
 
 	@Override
 	public Integer load(URI uri) throws ResourceIOException, ResourceNotFoundException {
+		return decode(uri).upload();
+	}
+
+	@Override
+	public ResourceUpload<Integer> decode(URI uri) throws ResourceIOException, ResourceNotFoundException {
 		if (uri == null) {
 			String errorMsg = "Cannot load a Shader from a null URI.";
 			Zenith.getLogger().error(errorMsg);
 			throw new IllegalArgumentException(errorMsg);
 		}
 
-		List<Integer> compiledShaders = new ArrayList<>();
+		// Sources are read here, and compiled on the engine thread where the OpenGL context is current.
+		Map<ShaderType, String> sources = new EnumMap<>(ShaderType.class);
 		for (ShaderType shaderType : ShaderType.values()) {
 			String pathWithExt = uri.getPath() + shaderType.getExtension();
 
-			String path = ResourceManager.RESOURCES_DIRECTORY.getPath() + pathWithExt;
-
-			File file;
-			if (uri.getHost().equalsIgnoreCase(Utility.PACKAGED_FILE_HOST)) {
-				try {
-					file = Utility.getPackagedFile(path);
-				} catch (IOException e) {
-					if (shaderType.getExtension().equalsIgnoreCase(ShaderType.VERTEX.getExtension())
-							|| shaderType.getExtension().equalsIgnoreCase(ShaderType.FRAGMENT.getExtension())) {
-						Zenith.getLogger().error("Cannot read the resource: " + pathWithExt);
-						throw new ResourceIOException(pathWithExt);
-					} else {
-						continue;
-					}
-				}
-			} else {
-				try {
-					file = Utility.getFile(path);
-				} catch (FileNotFoundException e) {
-					if (shaderType.getExtension().equalsIgnoreCase(ShaderType.VERTEX.getExtension())
-							|| shaderType.getExtension().equalsIgnoreCase(ShaderType.FRAGMENT.getExtension())) {
-						Zenith.getLogger().error("Cannot find the resource: " + pathWithExt);
-						throw new ResourceNotFoundException(pathWithExt);
-					} else {
-						continue;
-					}
-				}
-			}
-
-			StringBuilder sb = new StringBuilder();
-
+			ByteBuffer source;
 			try {
-				List<String> lines = Files.readAllLines(Paths.get(file.toURI()));
-				for (String line : lines) {
-					sb.append(line).append("\n");
+				source = readResource(uri, pathWithExt);
+			} catch (FileNotFoundException e) {
+				if (shaderType.getExtension().equalsIgnoreCase(ShaderType.VERTEX.getExtension())
+						|| shaderType.getExtension().equalsIgnoreCase(ShaderType.FRAGMENT.getExtension())) {
+					Zenith.getLogger().error("Cannot find the resource: " + pathWithExt);
+					throw new ResourceNotFoundException(pathWithExt);
+				} else {
+					continue;
 				}
 			} catch (IOException e) {
 				Zenith.getLogger().error("Cannot read the resource: " + pathWithExt);
 				throw new ResourceIOException(pathWithExt);
 			}
 
-			String source = sb.toString();
+			try {
+				sources.put(shaderType, MemoryUtil.memUTF8(source));
+			} finally {
+				MemoryUtil.memFree(source);
+			}
+		}
+
+		return () -> link(uri, sources);
+	}
+
+	/**
+	 * Compiles the sources of each shader stage, and links them into a program.
+	 *
+	 * @param uri The {@link URI} of the shader
+	 * @param sources The source of each shader stage
+	 * @return The linked program.
+	 * @throws ResourceIOException A throwable {@link ResourceIOException}
+	 */
+	private int link(URI uri, Map<ShaderType, String> sources) throws ResourceIOException {
+		List<Integer> compiledShaders = new ArrayList<>();
+		for (Map.Entry<ShaderType, String> entry : sources.entrySet()) {
+			ShaderType shaderType = entry.getKey();
+			String pathWithExt = uri.getPath() + shaderType.getExtension();
 
 			int shader;
 			try {
-				shader = compileShader(shaderType.getValue(), source);
+				shader = compileShader(shaderType.getValue(), entry.getValue());
 			} catch (IOException e) {
+				for (Integer compiledShader : compiledShaders) {
+					GL20.glDeleteShader(compiledShader);
+				}
+
 				Zenith.getLogger().error("Cannot read the resource: " + pathWithExt);
 				throw new ResourceIOException(pathWithExt);
 			}
@@ -0,0 +1,229 @@
+package com.trentonfaris.zenith.resource;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+
+import org.lwjgl.system.MemoryUtil;
+
+import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.exception.ResourceIOException;
+import com.trentonfaris.zenith.exception.ResourceNotFoundException;
+import com.trentonfaris.zenith.graphics.texture.FilteringMode;
+import com.trentonfaris.zenith.graphics.texture.InternalFormat;
+import com.trentonfaris.zenith.graphics.texture.Texture2D;
+import com.trentonfaris.zenith.graphics.texture.TextureContainer;
+import com.trentonfaris.zenith.graphics.texture.WrappingMode;
+import com.trentonfaris.zenith.image.Image;
+import com.trentonfaris.zenith.utility.Utility;
+
+/**
+ * The {@link TextureLoader} class is responsible for loading textures from
+ * {@link TextureContainer} files, which are uploaded without being decoded or
+ * having their mipmaps generated.
+ *
+ * <p>
+ * A URI may also name a source image, such as a PNG, in which case the image is
+ * decoded, its mip chain is generated, and the result is cooked into a
+ * {@link TextureContainer} file in the {@link #CACHE_DIRECTORY}. The cooked file
+ * is named by a hash of the image and its {@link InternalFormat}, and is loaded
+ * in its place until either changes. The {@link InternalFormat} of a source
+ * image is given by a {@code format} query, such as {@code ?format=SRGB8}, and
+ * is otherwise chosen from its channels.
+ *
+ * @author Trenton Faris
+ */
+public final class TextureLoader extends ResourceLoader<Texture2D> {
+	/** The scheme for a {@link TextureLoader}. */
+	public static final String SCHEME = "texture";
+
+	/** The directory of cooked textures. */
+	static final File CACHE_DIRECTORY = new File(ResourceManager.RESOURCES_DIRECTORY,
+			"cache" + File.separator + SCHEME);
+
+	/** The version of the cooking, which is part of the hash of a cooked texture. */
+	private static final int COOK_VERSION = 1;
+
+	/** A flag which indicates if source images are cooked into the {@link #CACHE_DIRECTORY}. */
+	private boolean caching = true;
+
+	/** Creates a new {@link TextureLoader}. */
+	public TextureLoader() {
+		super(SCHEME);
+	}
+
+	@Override
+	public Texture2D load(URI uri) throws ResourceIOException, ResourceNotFoundException {
+		return decode(uri).upload();
+	}
+
+	@Override
+	public ResourceUpload<Texture2D> decode(URI uri) throws ResourceIOException, ResourceNotFoundException {
+		if (uri == null) {
+			String errorMsg = "Cannot load a Texture2D from a null URI.";
+			Zenith.getLogger().error(errorMsg);
+			throw new IllegalArgumentException(errorMsg);
+		}
+
+		boolean packaged = uri.getHost() != null && uri.getHost().equalsIgnoreCase(Utility.PACKAGED_FILE_HOST);
+
+		// A container file is memory-mapped, unless it is packaged in the JAR.
+		TextureContainer container;
+		if (uri.getPath().endsWith(TextureContainer.EXTENSION) && !packaged) {
+			File file;
+			try {
+				file = Utility.getFile(ResourceManager.RESOURCES_DIRECTORY.getPath() + uri.getPath());
+			} catch (FileNotFoundException e) {
+				Zenith.getLogger().error("Cannot find the resource: " + uri.getPath());
+				throw new ResourceNotFoundException(uri.getPath());
+			}
+
+			try {
+				container = TextureContainer.read(file);
+			} catch (IOException e) {
+				Zenith.getLogger().error("Cannot read the resource: " + uri.getPath(), e);
+				throw new ResourceIOException(uri.getPath());
+			}
+		} else {
+			ByteBuffer data;
+			try {
+				data = readResource(uri, uri.getPath());
+			} catch (FileNotFoundException e) {
+				Zenith.getLogger().error("Cannot find the resource: " + uri.getPath());
+				throw new ResourceNotFoundException(uri.getPath());
+			} catch (IOException e) {
+				Zenith.getLogger().error("Cannot read the resource: " + uri.getPath());
+				throw new ResourceIOException(uri.getPath());
+			}
+
+			try {
+				if (uri.getPath().endsWith(TextureContainer.EXTENSION)) {
+					container = TextureContainer.read(data);
+				} else {
+					container = cook(uri, data);
+				}
+			} catch (IOException e) {
+				Zenith.getLogger().error("Cannot read the resource: " + uri.getPath(), e);
+				throw new ResourceIOException(uri.getPath());
+			} finally {
+				MemoryUtil.memFree(data);
+			}
+		}
+
+		return () -> new Texture2D(container, WrappingMode.REPEAT, FilteringMode.LINEAR);
+	}
+
+	/**
+	 * Gets the {@link TextureContainer} of a source image, from the
+	 * {@link #CACHE_DIRECTORY} if it was cooked before, or by decoding the image
+	 * and cooking it otherwise. The image is read once, and both hashed and
+	 * decoded from memory.
+	 *
+	 * @param uri The {@link URI} of the source image
+	 * @param data The encoded contents of the source image
+	 * @return The {@link TextureContainer}.
+	 * @throws ResourceIOException A throwable {@link ResourceIOException}
+	 */
+	private TextureContainer cook(URI uri, ByteBuffer data) throws ResourceIOException {
+		InternalFormat internalFormat = getInternalFormat(uri);
+
+		File cooked = null;
+		if (caching) {
+			cooked = new File(CACHE_DIRECTORY, Utility.hash(data, COOK_VERSION + "|" + internalFormat)
+					+ TextureContainer.EXTENSION);
+			try {
+				if (cooked.exists()) {
+					return TextureContainer.read(cooked);
+				}
+			} catch (IOException e) {
+				Zenith.getLogger().warn("Cannot read the cooked texture of " + uri.getPath() + ", decoding it.", e);
+			}
+		}
+
+		Image image = ImageLoader.decodeImage(uri, data);
+
+		TextureContainer container;
+		try {
+			container = TextureContainer.fromImage(image,
+					internalFormat != null ? internalFormat : getDefaultInternalFormat(image));
+		} finally {
+			image.dispose();
+		}
+
+		if (cooked != null) {
+			try {
+				container.write(cooked);
+			} catch (IOException e) {
+				Zenith.getLogger().warn("Cannot write the cooked texture of " + uri.getPath() + ".", e);
+			}
+		}
+
+		return container;
+	}
+
+	/**
+	 * Gets the {@link InternalFormat} named by the {@code format} query of a
+	 * {@link URI}.
+	 *
+	 * @param uri The target {@link URI}
+	 * @return The {@link InternalFormat}, or {@code null} if the query does not
+	 *         name one.
+	 */
+	private static InternalFormat getInternalFormat(URI uri) {
+		if (uri.getQuery() == null) {
+			return null;
+		}
+
+		for (String parameter : uri.getQuery().split("&")) {
+			if (parameter.startsWith("format=")) {
+				String name = parameter.substring("format=".length());
+				try {
+					return InternalFormat.valueOf(name);
+				} catch (IllegalArgumentException e) {
+					String errorMsg = "Cannot find the InternalFormat: " + name;
+					Zenith.getLogger().error(errorMsg);
+					throw new IllegalArgumentException(errorMsg);
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Gets the sized {@link InternalFormat} which matches the channels and depth
+	 * of an {@link Image}.
+	 *
+	 * @param image The target {@link Image}
+	 * @return The {@link InternalFormat}.
+	 */
+	private static InternalFormat getDefaultInternalFormat(Image image) {
+		boolean shorts = image.data() instanceof ShortBuffer;
+
+		return switch (image.channels()) {
+		case 1 -> shorts ? InternalFormat.R16 : InternalFormat.R8;
+		case 2 -> shorts ? InternalFormat.RG16 : InternalFormat.RG8;
+		case 3 -> shorts ? InternalFormat.RGB16 : InternalFormat.RGB8;
+		default -> shorts ? InternalFormat.RGBA16 : InternalFormat.RGBA8;
+		};
+	}
+
+	/**
+	 * Gets the flag indicating if source images are cooked.
+	 *
+	 * @return The {@link #caching} flag.
+	 */
+	public boolean isCaching() {
+		return caching;
+	}
+
+	/**
+	 * Sets the flag indicating if source images are cooked.
+	 */
+	public void setCaching(boolean caching) {
+		this.caching = caching;
+	}
+}
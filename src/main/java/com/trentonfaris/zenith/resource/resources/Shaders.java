@@ -18,6 +18,14 @@ public enum Shaders {
 	/** Unlit color. */
 	COLOR(ShaderLoader.SCHEME + "://" + Utility.PACKAGED_FILE_HOST + "/" + ShaderLoader.SCHEME + "/unlit/color"),
 
+	/** Deferred lighting from a G-buffer. */
+	DEFERRED_LIGHT(ShaderLoader.SCHEME + "://" + Utility.PACKAGED_FILE_HOST + "/" + ShaderLoader.SCHEME
+			+ "/deferred/light"),
+
+	/** Deferred resolve of accumulated lighting to the screen. */
+	DEFERRED_RESOLVE(ShaderLoader.SCHEME + "://" + Utility.PACKAGED_FILE_HOST + "/" + ShaderLoader.SCHEME
+			+ "/deferred/resolve"),
+
 	/** Fast approximate anti-aliasing. */
 	FXAA(ShaderLoader.SCHEME + "://" + Utility.PACKAGED_FILE_HOST + "/" + ShaderLoader.SCHEME + "/screen/effect/fxaa"),
 
@@ -33,6 +41,9 @@ public enum Shaders {
 	GRAYSCALE(ShaderLoader.SCHEME + "://" + Utility.PACKAGED_FILE_HOST + "/" + ShaderLoader.SCHEME
 			+ "/screen/effect/grayscale"),
 
+	/** Deferred geometry pass into a G-buffer. */
+	GBUFFER(ShaderLoader.SCHEME + "://" + Utility.PACKAGED_FILE_HOST + "/" + ShaderLoader.SCHEME + "/deferred/gbuffer"),
+
 	/** Basic screen. */
 	SCREEN(ShaderLoader.SCHEME + "://" + Utility.PACKAGED_FILE_HOST + "/" + ShaderLoader.SCHEME + "/screen/screen"),
 
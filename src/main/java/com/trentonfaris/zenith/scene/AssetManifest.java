@@ -0,0 +1,52 @@
+package com.trentonfaris.zenith.scene;
+
+import com.trentonfaris.zenith.Zenith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@link AssetManifest} lists the {@code String} URIs of the resources that
+ * a {@link Scene} needs. The {@link SceneManager} prefetches every resource of
+ * the manifest in parallel before the {@link Scene} is loaded, so that its
+ * systems find them already cached.
+ *
+ * @author Trenton Faris
+ */
+public final class AssetManifest {
+    /**
+     * The {@code String} URIs of the resources, in the order they were added.
+     */
+    private final List<String> uris = new ArrayList<>();
+
+    /**
+     * Adds the {@code String} URI of a resource to this {@link AssetManifest}. A
+     * URI that is already listed is ignored.
+     *
+     * @param uri The {@code String} URI of the resource
+     * @return This {@link AssetManifest}.
+     */
+    public AssetManifest add(String uri) {
+        if (uri == null || uri.isEmpty()) {
+            String errorMsg = "Cannot add a null or empty URI to an AssetManifest.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        if (!uris.contains(uri)) {
+            uris.add(uri);
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets an unmodifiable list of the {@link #uris}.
+     *
+     * @return An unmodifiable list of the {@link #uris}.
+     */
+    public List<String> getUris() {
+        return Collections.unmodifiableList(uris);
+    }
+}
@@ -0,0 +1,19 @@
+package com.trentonfaris.zenith.scene;
+
+import com.artemis.ArtemisPlugin;
+
+/**
+ * An {@link AssetManifestProvider} is implemented by an {@link ArtemisPlugin}
+ * to declare the {@link AssetManifest} of its {@link Scene}.
+ *
+ * @author Trenton Faris
+ */
+public interface AssetManifestProvider {
+    /**
+     * Gets the {@link AssetManifest} of the resources that the {@link Scene}
+     * needs.
+     *
+     * @return The {@link AssetManifest}.
+     */
+    AssetManifest getAssetManifest();
+}
@@ -0,0 +1,20 @@
+package com.trentonfaris.zenith.scene;
+
+/**
+ * A {@link LoadProgressListener} is notified as the resources of an
+ * {@link AssetManifest} finish prefetching.
+ *
+ * @author Trenton Faris
+ */
+@FunctionalInterface
+public interface LoadProgressListener {
+    /**
+     * Called on the engine thread each time more resources have finished,
+     * whether they loaded or failed.
+     *
+     * @param loaded The number of resources which have loaded
+     * @param failed The number of resources which were rejected or failed to load
+     * @param total  The number of resources in the {@link AssetManifest}
+     */
+    void onProgress(int loaded, int failed, int total);
+}
@@ -7,8 +7,10 @@ import com.trentonfaris.zenith.Zenith;
 import com.trentonfaris.zenith.ecs.system.camera.CameraSystem;
 import com.trentonfaris.zenith.ecs.system.core.LayerSystem;
 import com.trentonfaris.zenith.ecs.system.core.TagSystem;
+import com.trentonfaris.zenith.ecs.system.light.LightSelectionSystem;
 import com.trentonfaris.zenith.ecs.system.light.LightSystem;
 import com.trentonfaris.zenith.ecs.system.render.RenderSystem;
+import com.trentonfaris.zenith.ecs.system.spatial.SpatialSystem;
 import com.trentonfaris.zenith.ecs.system.transformation.ModelMatrixSystem;
 import com.trentonfaris.zenith.ecs.system.transformation.ProjectionMatrixSystem;
 import com.trentonfaris.zenith.ecs.system.transformation.ViewMatrixSystem;
@@ -49,9 +51,9 @@ public final class Scene {
 
     void load() {
         WorldConfigurationBuilder worldConfigurationBuilder = new WorldConfigurationBuilder().with(new TagSystem())
-                .with(new LayerSystem()).with(artemisPlugin).with(new ModelMatrixSystem()).with(new ViewMatrixSystem())
-                .with(new ProjectionMatrixSystem()).with(new LightSystem()).with(new CameraSystem())
-                .with(new RenderSystem());
+                .with(new LayerSystem()).with(artemisPlugin).with(new ModelMatrixSystem()).with(new SpatialSystem())
+                .with(new ViewMatrixSystem()).with(new ProjectionMatrixSystem()).with(new LightSystem())
+                .with(new LightSelectionSystem()).with(new CameraSystem()).with(new RenderSystem());
 
         this.world = new World(worldConfigurationBuilder.build());
     }
@@ -67,4 +69,8 @@ public final class Scene {
     public boolean isLoaded() {
         return world != null;
     }
+
+    ArtemisPlugin getArtemisPlugin() {
+        return artemisPlugin;
+    }
 }
@@ -2,6 +2,12 @@ package com.trentonfaris.zenith.scene;
 
 import com.artemis.ArtemisPlugin;
 import com.trentonfaris.zenith.Zenith;
+import com.trentonfaris.zenith.resource.ResourceManager;
+import com.trentonfaris.zenith.scheduler.TaskManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public final class SceneManager {
     private Scene scene;
@@ -17,6 +23,11 @@ public final class SceneManager {
     }
 
     public <T extends ArtemisPlugin> void loadScene(Class<T> artemisPluginType) {
+        loadScene(artemisPluginType, (loaded, failed, total) -> Zenith.getLogger()
+                .debug("Prefetched " + loaded + " of " + total + " assets, " + failed + " failed."));
+    }
+
+    public <T extends ArtemisPlugin> void loadScene(Class<T> artemisPluginType, LoadProgressListener listener) {
         synchronized (lock) {
             if (artemisPluginType == null) {
                 String errorMsg = "Cannot load a scene from a null artemisPluginType.";
@@ -28,6 +39,10 @@ public final class SceneManager {
 
             this.scene = new Scene(artemisPluginType);
 
+            if (scene.getArtemisPlugin() instanceof AssetManifestProvider provider) {
+                prefetch(provider.getAssetManifest(), listener);
+            }
+
             scene.load();
         }
     }
@@ -42,6 +57,61 @@ public final class SceneManager {
         }
     }
 
+    /**
+     * Prefetches every resource of an {@link AssetManifest} at once, so that they
+     * are decoded in parallel, and runs their uploads as they arrive. A resource
+     * which fails is skipped, and is loaded again when the {@link Scene} requests
+     * it.
+     */
+    private void prefetch(AssetManifest assetManifest, LoadProgressListener listener) {
+        ResourceManager resourceManager = Zenith.getEngine().getResourceManager();
+        TaskManager taskManager = Zenith.getEngine().getTaskManager();
+
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        int rejected = 0;
+        for (String uri : assetManifest.getUris()) {
+            try {
+                futures.add(resourceManager.prefetch(uri));
+            } catch (IllegalArgumentException e) {
+                Zenith.getLogger().warn("Cannot prefetch the asset: " + uri, e);
+                rejected++;
+            }
+        }
+
+        int total = assetManifest.getUris().size();
+        int loaded = 0;
+        int failed = rejected;
+        if (failed > 0) {
+            listener.onProgress(loaded, failed, total);
+        }
+
+        for (CompletableFuture<Void> future : futures) {
+            taskManager.await(future);
+
+            // Other loads may have finished while this one was awaited.
+            int doneLoaded = 0;
+            int doneFailed = rejected;
+            for (CompletableFuture<Void> other : futures) {
+                if (other.isCompletedExceptionally()) {
+                    doneFailed++;
+                } else if (other.isDone()) {
+                    doneLoaded++;
+                }
+            }
+
+            if (doneLoaded + doneFailed > loaded + failed) {
+                loaded = doneLoaded;
+                failed = doneFailed;
+                listener.onProgress(loaded, failed, total);
+            }
+        }
+
+        Zenith.getLogger().info("Prefetched " + loaded + " of " + total + " assets, " + failed + " failed, in "
+                + (System.nanoTime() - start) / 1000000 + " ms.");
+    }
+
     public Scene getScene() {
         synchronized (lock) {
             return scene;
@@ -1,4 +1,145 @@
 package com.trentonfaris.zenith.scheduler;
 
-public class TaskManager {
+import com.trentonfaris.zenith.Zenith;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@link TaskManager} runs tasks on the engine thread. Tasks can be
+ * submitted from any thread, and are run in order at the next
+ * {@link #update()}, which is how work that must touch OpenGL is handed back
+ * from worker threads.
+ *
+ * <p>
+ * Each {@link #update()} runs tasks until the queue is empty or the
+ * {@link #budgetNanos} is spent, so that a burst of submitted tasks is spread
+ * over several frames instead of stalling one of them.
+ *
+ * @author Trenton Faris
+ */
+public final class TaskManager {
+    /**
+     * The time to wait for a task to be submitted while awaiting a {@link Future}.
+     */
+    private static final long AWAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * The queue of tasks that have not been run.
+     */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The time that each {@link #update()} may spend running tasks, in nanoseconds.
+     */
+    private volatile long budgetNanos = TimeUnit.MILLISECONDS.toNanos(4);
+
+    /**
+     * Submits a task to be run on the engine thread.
+     *
+     * @param task The target task
+     */
+    public void submit(Runnable task) {
+        if (task == null) {
+            String errorMsg = "Cannot submit a null task to the TaskManager.";
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        tasks.add(task);
+    }
+
+    /**
+     * Runs the submitted tasks until the queue is empty or the
+     * {@link #budgetNanos} is spent. At least one task is run if any are waiting.
+     */
+    public void update() {
+        long start = System.nanoTime();
+
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            run(task);
+
+            if (System.nanoTime() - start >= budgetNanos) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs the submitted tasks, ignoring the {@link #budgetNanos}, until a
+     * {@link Future} is done. This must be called from the engine thread when the
+     * {@link Future} is completed by one of the tasks, or it never returns.
+     *
+     * @param future The target {@link Future}
+     */
+    public void await(Future<?> future) {
+        while (!future.isDone()) {
+            Runnable task = tasks.poll();
+            if (task == null) {
+                LockSupport.parkNanos(AWAIT_PARK_NANOS);
+                continue;
+            }
+
+            run(task);
+        }
+    }
+
+    /**
+     * Removes every task that has not been run.
+     */
+    public void clear() {
+        tasks.clear();
+    }
+
+    /**
+     * Runs a task, and logs anything it throws so that the rest of the queue is
+     * still run.
+     *
+     * @param task The target task
+     */
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            Zenith.getLogger().error("A task submitted to the TaskManager failed.", e);
+        }
+    }
+
+    /**
+     * Gets the number of tasks that have not been run.
+     *
+     * @return The number of tasks.
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Gets the {@link #budgetNanos}.
+     *
+     * @return The {@link #budgetNanos} value.
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * Sets the {@link #budgetNanos}.
+     *
+     * @param budgetNanos The time that each {@link #update()} may spend running
+     *                    tasks, in nanoseconds
+     */
+    public void setBudgetNanos(long budgetNanos) {
+        if (budgetNanos < 0) {
+            String errorMsg = "Cannot set budgetNanos to a negative time: " + budgetNanos;
+            Zenith.getLogger().error(errorMsg);
+            throw new IllegalArgumentException(errorMsg);
+        }
+
+        this.budgetNanos = budgetNanos;
+    }
 }
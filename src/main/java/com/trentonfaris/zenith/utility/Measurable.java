@@ -0,0 +1,7 @@
+package com.trentonfaris.zenith.utility;
+
+public interface Measurable {
+    long getCpuBytes();
+
+    long getGpuBytes();
+}
@@ -1,13 +1,24 @@
 package com.trentonfaris.zenith.utility;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URI;
-import java.util.Random;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.lwjgl.system.MemoryUtil;
 
 public final class Utility {
 	/** The {@link URI} host indicating that a file is packaged in the JAR. */
@@ -34,34 +45,133 @@ public final class Utility {
 	}
 
 	/**
-	 * Gets a temporary {@link File} from a packaged location.
+	 * Reads a file into a direct buffer, which must be freed with
+	 * {@link MemoryUtil#memFree}.
+	 *
+	 * @param path The target file path
+	 * @return The buffer of the contents of the file.
+	 * @throws IOException A throwable {@link IOException}
+	 */
+	public static ByteBuffer readFile(String path) throws IOException {
+		File file = getFile(path);
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("The file is too large to be read: " + path);
+			}
+
+			ByteBuffer buffer = MemoryUtil.memAlloc((int) size);
+			try {
+				while (buffer.hasRemaining()) {
+					if (channel.read(buffer) == -1) {
+						break;
+					}
+				}
+			} catch (IOException e) {
+				MemoryUtil.memFree(buffer);
+				throw e;
+			}
+
+			return buffer.flip();
+		}
+	}
+
+	/**
+	 * Reads a file packaged in the JAR into a direct buffer, which must be freed
+	 * with {@link MemoryUtil#memFree}. The buffer is sized from the length of the
+	 * file when it is known, and grown while it is read otherwise.
 	 *
 	 * @param path The target file path
-	 * @return The temporary {@link File}.
+	 * @return The buffer of the contents of the file.
 	 * @throws IOException A throwable {@link IOException}
 	 */
-	public static File getPackagedFile(String path) throws IOException {
-		InputStream in = ClassLoader.getSystemClassLoader().getResourceAsStream(path);
+	public static ByteBuffer readPackagedFile(String path) throws IOException {
+		URL url = ClassLoader.getSystemClassLoader().getResource(path);
 
-		if (in == null) {
+		if (url == null) {
 			throw new FileNotFoundException(path);
 		}
 
-		File file = File.createTempFile(String.valueOf(Math.abs(new Random().nextInt())), Utility.PACKAGED_FILE_HOST);
-		file.deleteOnExit();
+		URLConnection connection = url.openConnection();
+		long length = connection.getContentLengthLong();
 
-		OutputStream out = new FileOutputStream(file);
+		ByteBuffer buffer = MemoryUtil.memAlloc(length > 0 && length <= Integer.MAX_VALUE ? (int) length : 64 * 1024);
+		try (InputStream in = connection.getInputStream(); ReadableByteChannel channel = Channels.newChannel(in)) {
+			while (channel.read(buffer) != -1) {
+				if (buffer.hasRemaining()) {
+					continue;
+				}
 
-		byte[] buffer = new byte[1024];
+				// A full buffer is only grown if the file does not end here.
+				int next = in.read();
+				if (next == -1) {
+					break;
+				}
 
-		int len;
-		while ((len = in.read(buffer)) != -1) {
-			out.write(buffer, 0, len);
+				buffer = MemoryUtil.memRealloc(buffer, buffer.capacity() * 2);
+				buffer.put((byte) next);
+			}
+		} catch (IOException e) {
+			MemoryUtil.memFree(buffer);
+			throw e;
 		}
 
-		in.close();
-		out.close();
+		return buffer.flip();
+	}
 
-		return file;
+	/**
+	 * Computes the SHA-256 hash of the contents of a {@link File}, followed by a
+	 * salt. Cooked resources are named by such a hash of their source file and of
+	 * the settings they were cooked with.
+	 *
+	 * @param file The target {@link File}
+	 * @param salt The {@code String} hashed after the contents of the file
+	 * @return The hexadecimal hash.
+	 * @throws IOException A throwable {@link IOException}
+	 */
+	public static String hash(File file, String salt) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		try (InputStream in = new FileInputStream(file)) {
+			byte[] buffer = new byte[64 * 1024];
+
+			int len;
+			while ((len = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, len);
+			}
+		}
+
+		digest.update(salt.getBytes(StandardCharsets.UTF_8));
+
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	/**
+	 * Computes the SHA-256 hash of the remaining contents of a buffer, followed by
+	 * a salt, as {@link #hash(File, String)} does for a file. The position of the
+	 * buffer is not changed.
+	 *
+	 * @param data The target buffer
+	 * @param salt The {@code String} hashed after the contents of the buffer
+	 * @return The hexadecimal hash.
+	 */
+	public static String hash(ByteBuffer data, String salt) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+
+		digest.update(data.duplicate());
+		digest.update(salt.getBytes(StandardCharsets.UTF_8));
+
+		return HexFormat.of().formatHex(digest.digest());
 	}
 }
@@ -0,0 +1,135 @@
+#version 430
+
+struct Material {
+	bool useAlbedoMap;
+	sampler2D albedoMap;
+	vec3 albedoColor;
+
+	bool useMetallicMap;
+	sampler2D metallicMap;
+	float metallicValue;
+
+	bool useRoughnessMap;
+	sampler2D roughnessMap;
+	float roughnessValue;
+
+	bool useAoMap;
+	sampler2D aoMap;
+
+	bool useNormalMap;
+	sampler2D normalMap;
+
+	bool useHeightMap;
+	sampler2D heightMap;
+	float heightScale;
+};
+
+in vec3 fragNormalV;
+in vec3 fragViewDirectionT;
+in vec2 fragTexCoord;
+
+in mat3 fragTangentToView;
+
+// Albedo in rgb, ambient occlusion in a.
+layout (location = 0) out vec4 outAlbedoAo;
+
+// Octahedral view space normal in rg, roughness in b, metallic in a.
+layout (location = 1) out vec4 outNormalRoughnessMetallic;
+
+uniform Material material;
+
+const float minHeightLayers = 8.0;
+const float maxHeightLayers = 32.0;
+
+vec2 displaceTexCoord(vec2 texCoord, vec3 viewDirectionT, sampler2D heightMap,
+		float heightScale) {
+	float numHeightLayers = mix(maxHeightLayers, minHeightLayers,
+			abs(dot(vec3(0.0, 0.0, 1.0), viewDirectionT)));
+	float layerHeight = 1.0 / numHeightLayers;
+	float currentLayerHeight = 0.0;
+
+	vec2 deltaTexCoord = heightScale * viewDirectionT.xy / numHeightLayers;
+
+	vec2 currentTexCoord = texCoord;
+	float currentHeightMapValue = 1.0 - texture(heightMap, currentTexCoord).r;
+
+	while (currentHeightMapValue > currentLayerHeight) {
+		currentTexCoord -= deltaTexCoord;
+
+		currentHeightMapValue = 1.0 - texture(heightMap, currentTexCoord).r;
+		currentLayerHeight += layerHeight;
+	}
+
+	vec2 prevTexCoord = currentTexCoord + deltaTexCoord;
+
+	float heightBeforeCollision = texture(heightMap, prevTexCoord).r
+			- currentLayerHeight + layerHeight;
+	float heightAfterCollision = currentHeightMapValue - currentLayerHeight;
+
+	float t = heightAfterCollision
+			/ (heightAfterCollision - heightBeforeCollision);
+
+	return prevTexCoord * t + currentTexCoord * (1.0 - t);
+}
+
+// Maps a unit vector onto the octahedron, unfolded into [0, 1].
+vec2 encodeNormal(vec3 n) {
+	n /= abs(n.x) + abs(n.y) + abs(n.z);
+
+	if (n.z < 0.0) {
+		vec2 signs = vec2(n.x >= 0.0 ? 1.0 : -1.0, n.y >= 0.0 ? 1.0 : -1.0);
+		n.xy = (1.0 - abs(n.yx)) * signs;
+	}
+
+	return n.xy * 0.5 + 0.5;
+}
+
+void main() {
+	vec2 texCoord;
+	if (material.useHeightMap) {
+		texCoord = displaceTexCoord(fragTexCoord, fragViewDirectionT,
+				material.heightMap, material.heightScale);
+	} else {
+		texCoord = fragTexCoord;
+	}
+
+	vec3 normalV;
+	if (material.useNormalMap) {
+		normalV = normalize(fragTangentToView
+				* (texture(material.normalMap, texCoord).rgb * 2.0 - 1.0));
+	} else {
+		normalV = normalize(fragNormalV);
+	}
+
+	vec3 albedo;
+	if (material.useAlbedoMap) {
+		albedo = texture(material.albedoMap, texCoord).rgb;
+	} else {
+		albedo = material.albedoColor;
+	}
+
+	float metallic;
+	if (material.useMetallicMap) {
+		metallic = texture(material.metallicMap, texCoord).r;
+	} else {
+		metallic = material.metallicValue;
+	}
+
+	float roughness;
+	if (material.useRoughnessMap) {
+		roughness = texture(material.roughnessMap, texCoord).r;
+	} else {
+		roughness = material.roughnessValue;
+	}
+
+	float ao;
+	if (material.useAoMap) {
+		ao = texture(material.aoMap, texCoord).r;
+	} else {
+		ao = 1;
+	}
+
+	outAlbedoAo = vec4(albedo, ao);
+	outNormalRoughnessMetallic = vec4(encodeNormal(normalV), roughness,
+			metallic);
+}
@@ -0,0 +1,68 @@
+#version 430
+
+layout (location = 0) in vec3 vertPositionM;
+layout (location = 1) in vec2 vertTexCoord;
+layout (location = 2) in vec3 vertNormalM;
+layout (location = 3) in vec3 vertTangentM;
+layout (location = 4) in vec3 vertBitangentM;
+layout (location = 5) in mat4 vertInstanceModel;
+
+out vec3 fragNormalV;
+out vec3 fragViewDirectionT;
+out vec2 fragTexCoord;
+
+out mat3 fragTangentToView;
+
+uniform mat4 view;
+uniform mat4 projection;
+uniform mat4 modelView;
+
+uniform bool instanced;
+uniform bool octahedral;
+
+vec3 decodeOctahedral(vec2 e) {
+	vec3 v = vec3(e, 1.0 - abs(e.x) - abs(e.y));
+
+	// Unfold the lower hemisphere from the corners of the square.
+	if (v.z < 0.0) {
+		v.xy = (1.0 - abs(v.yx)) * vec2(v.x >= 0.0 ? 1.0 : -1.0, v.y >= 0.0 ? 1.0 : -1.0);
+	}
+
+	return normalize(v);
+}
+
+void main() {
+	// Instanced draws read the model matrix from a per-instance attribute.
+	mat4 vertModelView;
+	if (instanced) {
+		vertModelView = view * vertInstanceModel;
+	} else {
+		vertModelView = modelView;
+	}
+
+	// Octahedral directions are decoded from the xy of their attributes.
+	vec3 normalM = octahedral ? decodeOctahedral(vertNormalM.xy) : vertNormalM;
+	vec3 tangentM = octahedral ? decodeOctahedral(vertTangentM.xy) : vertTangentM;
+
+	mat3 normal = mat3(transpose(inverse(vertModelView)));
+
+	vec3 vertPositionV = vec3(vertModelView * vec4(vertPositionM, 1.0));
+
+	vec3 t = normalize(normal * tangentM);
+	vec3 n = normalize(normal * normalM);
+
+	t = normalize(t - n * dot(n, t));
+
+	vec3 b = cross(n, t);
+
+	mat3 tbn = transpose(mat3(t, b, n));
+
+	fragNormalV = n;
+	fragViewDirectionT = normalize(tbn * normalize(-vertPositionV));
+	fragTexCoord = vertTexCoord;
+
+	fragTangentToView = mat3(t, b, n);
+
+	// Assign the homogenous vertex position.
+	gl_Position = projection * vec4(vertPositionV, 1.0);
+}
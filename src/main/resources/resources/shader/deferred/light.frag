@@ -0,0 +1,269 @@
+#version 430
+
+#define MAX_NUM_LIGHTS 256
+
+#define DIRECTIONAL_LIGHT 0
+#define POINT_LIGHT 1
+#define SPOT_LIGHT 2
+
+struct Light {
+	vec3 color;
+};
+
+struct DirectionalLight {
+	Light light;
+
+	vec3 direction;
+};
+
+struct PointLight {
+	Light light;
+
+	vec3 position;
+	float radius;
+};
+
+struct SpotLight {
+	PointLight pointLight;
+
+	vec3 direction;
+	float cosInnerCutoff;
+	float cosOuterCutoff;
+};
+
+struct PackedLight {
+	vec4 colorType;
+	vec4 positionRadius;
+	vec4 directionCosInnerCutoff;
+	vec4 cosOuterCutoff;
+};
+
+out vec4 outColor;
+
+layout (std140, binding = 0) uniform Lights {
+	PackedLight lights[MAX_NUM_LIGHTS];
+};
+
+uniform sampler2D albedoAo;
+uniform sampler2D normalRoughnessMetallic;
+uniform sampler2D depth;
+
+uniform mat4 view;
+uniform mat4 inverseProjection;
+
+uniform vec2 screenSize;
+
+uniform vec3 ambientColor;
+
+// The index of the light to draw, or -1 for the ambient light.
+uniform int lightIndex;
+
+const float PI = 3.14159265359;
+const float F0 = 0.04;
+
+DirectionalLight unpackDirectionalLight(PackedLight packedLight) {
+	DirectionalLight directionalLight;
+	directionalLight.light.color = packedLight.colorType.rgb;
+	directionalLight.direction = packedLight.directionCosInnerCutoff.xyz;
+
+	return directionalLight;
+}
+
+PointLight unpackPointLight(PackedLight packedLight) {
+	PointLight pointLight;
+	pointLight.light.color = packedLight.colorType.rgb;
+	pointLight.position = packedLight.positionRadius.xyz;
+	pointLight.radius = packedLight.positionRadius.w;
+
+	return pointLight;
+}
+
+SpotLight unpackSpotLight(PackedLight packedLight) {
+	SpotLight spotLight;
+	spotLight.pointLight = unpackPointLight(packedLight);
+	spotLight.direction = packedLight.directionCosInnerCutoff.xyz;
+	spotLight.cosInnerCutoff = packedLight.directionCosInnerCutoff.w;
+	spotLight.cosOuterCutoff = packedLight.cosOuterCutoff.x;
+
+	return spotLight;
+}
+
+vec3 decodeNormal(vec2 e) {
+	e = e * 2.0 - 1.0;
+
+	vec3 n = vec3(e, 1.0 - abs(e.x) - abs(e.y));
+	float t = max(-n.z, 0.0);
+	n.xy += vec2(n.x >= 0.0 ? -t : t, n.y >= 0.0 ? -t : t);
+
+	return normalize(n);
+}
+
+float calcAttenuation(float radius, float distance) {
+	if (radius == 0.0) {
+		return 0.0;
+	}
+
+	return pow(clamp(1.0 - pow(distance / radius, 4.0), 0.0, 1.0), 2.0)
+			/ (distance * distance + 1);
+}
+
+float distributionGGX(float nh, float roughness) {
+	float a = roughness * roughness;
+	float a2 = a * a;
+	float nh2 = nh * nh;
+
+	return a2 / max(PI * pow(nh2 * (a2 - 1.0) + 1.0, 2.0), 0.0001);
+}
+
+vec3 fresnelSchlick(vec3 f0, float vh) {
+	return f0 + (1.0 - f0) * pow(1.0 - vh, 5.0);
+}
+
+float geometrySchlickGGX(float x, float roughness) {
+	float k = pow(roughness + 1.0, 2) / 8.0;
+
+	return x / (x * (1.0 - k) + k);
+}
+
+float geometrySmith(float nl, float nv, float roughness) {
+	float ggx1 = geometrySchlickGGX(nl, roughness);
+	float ggx2 = geometrySchlickGGX(nv, roughness);
+
+	return ggx1 * ggx2;
+}
+
+vec3 calcLuminance(vec3 normalV, vec3 viewDirectionV, vec3 lightDirectionV,
+		vec3 radiance, vec3 albedo, float metallic, float roughness) {
+	vec3 halfwayDirection = normalize(viewDirectionV + lightDirectionV);
+
+	float nv = max(dot(normalV, viewDirectionV), 0.0001);
+	float nl = max(dot(normalV, lightDirectionV), 0.0001);
+	float nh = max(dot(normalV, halfwayDirection), 0.0001);
+	float vh = max(dot(viewDirectionV, halfwayDirection), 0.0001);
+
+	float d = distributionGGX(nh, roughness);
+	float g = geometrySmith(nl, nv, roughness);
+	vec3 f = fresnelSchlick(mix(vec3(F0), albedo, metallic),
+			clamp(vh, 0.0, 1.0));
+
+	vec3 kS = f;
+	vec3 kD = vec3(1.0) - kS;
+	kD *= 1.0 - metallic;
+
+	vec3 specular = (d * f * g) / max(4.0 * nl * nv, 0.0001);
+
+	return (kD * albedo / PI + specular) * radiance * nl;
+}
+
+vec3 calcDirectionalLight(DirectionalLight directionalLightV, vec3 normalV,
+		vec3 viewDirectionV, vec3 albedo, float metallic, float roughness) {
+	vec3 lightDirectionV = normalize(-directionalLightV.direction);
+
+	vec3 radiance = directionalLightV.light.color;
+
+	return calcLuminance(normalV, viewDirectionV, lightDirectionV, radiance,
+			albedo, metallic, roughness);
+}
+
+vec3 calcPointLight(PointLight pointLightV, vec3 positionV, vec3 normalV,
+		vec3 viewDirectionV, vec3 albedo, float metallic, float roughness) {
+	vec3 lightDirectionV = normalize(pointLightV.position - positionV);
+
+	float distance = length(pointLightV.position - positionV);
+	float attenuation = calcAttenuation(pointLightV.radius, distance);
+
+	vec3 radiance = pointLightV.light.color * attenuation;
+
+	return calcLuminance(normalV, viewDirectionV, lightDirectionV, radiance,
+			albedo, metallic, roughness);
+}
+
+vec3 calcSpotLight(SpotLight spotLightV, vec3 positionV, vec3 normalV,
+		vec3 viewDirectionV, vec3 albedo, float metallic, float roughness) {
+	vec3 lightDirectionV = normalize(
+			spotLightV.pointLight.position - positionV);
+
+	float distance = length(spotLightV.pointLight.position - positionV);
+	float attenuation = calcAttenuation(spotLightV.pointLight.radius, distance);
+
+	float theta = dot(lightDirectionV, normalize(-spotLightV.direction));
+	float epsilon = abs(spotLightV.cosInnerCutoff - spotLightV.cosOuterCutoff);
+
+	if (epsilon == 0.0) {
+		epsilon = 0.001;
+	}
+
+	float intensity = clamp((theta - spotLightV.cosOuterCutoff) / epsilon, 0.0,
+			1.0);
+
+	vec3 radiance = spotLightV.pointLight.light.color * attenuation * intensity;
+
+	return calcLuminance(normalV, viewDirectionV, lightDirectionV, radiance,
+			albedo, metallic, roughness);
+}
+
+void main() {
+	vec2 texCoord = gl_FragCoord.xy / screenSize;
+
+	float fragDepth = texture(depth, texCoord).r;
+
+	// Nothing was drawn to the G-buffer here.
+	if (fragDepth == 1.0) {
+		discard;
+	}
+
+	vec4 albedoAoSample = texture(albedoAo, texCoord);
+	vec4 normalRoughnessMetallicSample = texture(normalRoughnessMetallic,
+			texCoord);
+
+	vec3 albedo = albedoAoSample.rgb;
+	float ao = albedoAoSample.a;
+
+	vec3 normalV = decodeNormal(normalRoughnessMetallicSample.rg);
+	float roughness = normalRoughnessMetallicSample.b;
+	float metallic = normalRoughnessMetallicSample.a;
+
+	// Reconstruct the view space position from depth.
+	vec4 positionH = inverseProjection
+			* vec4(texCoord * 2.0 - 1.0, fragDepth * 2.0 - 1.0, 1.0);
+	vec3 positionV = positionH.xyz / positionH.w;
+
+	vec3 viewDirectionV = normalize(-positionV);
+
+	if (lightIndex < 0) {
+		outColor = vec4(ambientColor * albedo * ao, 1.0);
+		return;
+	}
+
+	PackedLight packedLight = lights[lightIndex];
+	int lightType = int(packedLight.colorType.w);
+
+	vec3 result = vec3(0.0);
+
+	if (lightType == DIRECTIONAL_LIGHT) {
+		DirectionalLight directionalLightV = unpackDirectionalLight(
+				packedLight);
+		directionalLightV.direction = normalize(
+				vec3(view * vec4(directionalLightV.direction, 0.0)));
+
+		result = calcDirectionalLight(directionalLightV, normalV,
+				viewDirectionV, albedo, metallic, roughness);
+	} else if (lightType == POINT_LIGHT) {
+		PointLight pointLightV = unpackPointLight(packedLight);
+		pointLightV.position = vec3(view * vec4(pointLightV.position, 1.0));
+
+		result = calcPointLight(pointLightV, positionV, normalV,
+				viewDirectionV, albedo, metallic, roughness);
+	} else if (lightType == SPOT_LIGHT) {
+		SpotLight spotLightV = unpackSpotLight(packedLight);
+		spotLightV.pointLight.position = vec3(
+				view * vec4(spotLightV.pointLight.position, 1.0));
+		spotLightV.direction = normalize(
+				vec3(view * vec4(spotLightV.direction, 0.0)));
+
+		result = calcSpotLight(spotLightV, positionV, normalV, viewDirectionV,
+				albedo, metallic, roughness);
+	}
+
+	outColor = vec4(result, 1.0);
+}
@@ -0,0 +1,18 @@
+#version 430
+
+layout (location = 0) in vec3 vertPositionM;
+
+uniform mat4 modelViewProjection;
+
+uniform bool fullscreen;
+
+void main() {
+	if (fullscreen) {
+		// A single triangle that covers the screen, generated from the vertex id.
+		vec2 position = vec2((gl_VertexID << 1) & 2, gl_VertexID & 2) * 2.0 - 1.0;
+
+		gl_Position = vec4(position, 0.0, 1.0);
+	} else {
+		gl_Position = modelViewProjection * vec4(vertPositionM, 1.0);
+	}
+}
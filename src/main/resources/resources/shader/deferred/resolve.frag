@@ -0,0 +1,39 @@
+#version 430
+
+out vec4 outColor;
+
+uniform sampler2D screen;
+uniform sampler2D depth;
+
+uniform vec2 screenSize;
+
+vec3 calculateFilmicTonemapping(vec3 color) {
+	float a = 2.51;
+	float b = 0.03;
+	float c = 2.43;
+	float d = 0.59;
+	float e = 0.14;
+	vec3 x = color;
+
+	x = x * 0.6;
+
+	return clamp((x * (a * x + b)) / (x * (c * x + d) + e), 0.0, 1.0);
+}
+
+void main() {
+	vec2 texCoord = gl_FragCoord.xy / screenSize;
+
+	float fragDepth = texture(depth, texCoord).r;
+
+	// Keep the clear color where nothing was drawn to the G-buffer.
+	if (fragDepth == 1.0) {
+		discard;
+	}
+
+	// Copy the depth of the G-buffer, so that later passes are depth tested.
+	gl_FragDepth = fragDepth;
+
+	vec3 result = texture(screen, texCoord).rgb;
+
+	outColor = vec4(pow(calculateFilmicTonemapping(result), vec3(1.0 / 2.2)), 1.0);
+}
@@ -1,6 +1,10 @@
 #version 430
 
-#define MAX_NUM_FRAG_LIGHTS 1
+#define MAX_NUM_LIGHTS 256
+
+#define DIRECTIONAL_LIGHT 0
+#define POINT_LIGHT 1
+#define SPOT_LIGHT 2
 
 struct Light {
 	vec3 color;
@@ -23,8 +27,15 @@ struct SpotLight {
 	PointLight pointLight;
 
 	vec3 direction;
-	float innerCutoffAngle;
-	float outerCutoffAngle;
+	float cosInnerCutoff;
+	float cosOuterCutoff;
+};
+
+struct PackedLight {
+	vec4 colorType;
+	vec4 positionRadius;
+	vec4 directionCosInnerCutoff;
+	vec4 cosOuterCutoff;
 };
 
 struct Material {
@@ -51,22 +62,42 @@ struct Material {
 	float heightScale;
 };
 
+in vec3 fragPositionV;
+in mat3 fragTbn;
+
 in vec3 fragPositionT;
 in vec3 fragNormalT;
 in vec3 fragViewDirectionT;
 in vec2 fragTexCoord;
 
-in DirectionalLight fragDirectionalLightsT[MAX_NUM_FRAG_LIGHTS];
-in PointLight fragPointLightsT[MAX_NUM_FRAG_LIGHTS];
-in SpotLight fragSpotLightsT[MAX_NUM_FRAG_LIGHTS];
+in vec3 fragLightPositionT;
+in vec3 fragLightDirectionT;
 
 in vec3 fragColor;
 
 out vec4 outColor;
 
-uniform int numFragDirectionalLights;
-uniform int numFragPointLights;
-uniform int numFragSpotLights;
+layout (std140, binding = 0) uniform Lights {
+	PackedLight lights[MAX_NUM_LIGHTS];
+};
+
+layout (std430, binding = 1) readonly buffer ClusterGrid {
+	uvec4 clusterDims;
+	vec4 clusterDepth;
+	vec4 clusterScreen;
+	uvec2 clusters[];
+};
+
+layout (std430, binding = 2) readonly buffer ClusterLightIndices {
+	uint clusterLightIndices[];
+};
+
+uniform mat4 view;
+
+uniform int numFragLights;
+uniform int fragLightIndex;
+
+uniform bool clustered;
 
 uniform Material material;
 
@@ -76,6 +107,51 @@ const float maxHeightLayers = 32.0;
 const float PI = 3.14159265359;
 const float F0 = 0.04;
 
+DirectionalLight unpackDirectionalLight(PackedLight packedLight) {
+	DirectionalLight directionalLight;
+	directionalLight.light.color = packedLight.colorType.rgb;
+	directionalLight.direction = packedLight.directionCosInnerCutoff.xyz;
+
+	return directionalLight;
+}
+
+PointLight unpackPointLight(PackedLight packedLight) {
+	PointLight pointLight;
+	pointLight.light.color = packedLight.colorType.rgb;
+	pointLight.position = packedLight.positionRadius.xyz;
+	pointLight.radius = packedLight.positionRadius.w;
+
+	return pointLight;
+}
+
+SpotLight unpackSpotLight(PackedLight packedLight) {
+	SpotLight spotLight;
+	spotLight.pointLight = unpackPointLight(packedLight);
+	spotLight.direction = packedLight.directionCosInnerCutoff.xyz;
+	spotLight.cosInnerCutoff = packedLight.directionCosInnerCutoff.w;
+	spotLight.cosOuterCutoff = packedLight.cosOuterCutoff.x;
+
+	return spotLight;
+}
+
+uvec2 getCluster() {
+	float depth = -fragPositionV.z;
+
+	// Depth slices are exponential, unless the near plane is not in front of the camera.
+	float slice;
+	if (clusterDepth.w > 0.5) {
+		slice = (depth - clusterDepth.x) / (clusterDepth.y - clusterDepth.x);
+	} else {
+		slice = log(depth / clusterDepth.x) / clusterDepth.z;
+	}
+
+	uvec3 cluster = uvec3(clamp(vec3(gl_FragCoord.xy / clusterScreen.xy, slice),
+			0.0, 0.9999) * vec3(clusterDims.xyz));
+
+	return clusters[cluster.x
+			+ clusterDims.x * (cluster.y + clusterDims.y * cluster.z)];
+}
+
 vec2 displaceTexCoord(vec2 texCoord, vec3 viewDirectionT, sampler2D heightMap,
 		float heightScale) {
 	float numHeightLayers = mix(maxHeightLayers, minHeightLayers,
@@ -198,16 +274,14 @@ vec3 calcSpotLight(SpotLight spotLightT, vec3 positionT, vec3 normalT,
 	float attenuation = calcAttenuation(spotLightT.pointLight.radius, distance);
 
 	float theta = dot(lightDirectionT, -spotLightT.direction);
-	float epsilon = abs(
-			cos(spotLightT.innerCutoffAngle)
-					- cos(spotLightT.outerCutoffAngle));
+	float epsilon = abs(spotLightT.cosInnerCutoff - spotLightT.cosOuterCutoff);
 
 	if (epsilon == 0.0) {
 		epsilon = 0.001;
 	}
 
-	float intensity = clamp(
-			(theta - cos(spotLightT.outerCutoffAngle)) / epsilon, 0.0, 1.0);
+	float intensity = clamp((theta - spotLightT.cosOuterCutoff) / epsilon, 0.0,
+			1.0);
 
 	vec3 radiance = spotLightT.pointLight.light.color * attenuation * intensity;
 
@@ -276,34 +350,58 @@ void main() {
 
 	vec3 result = fragColor * albedo * ao;
 
-	int numLights = 0;
+	if (numFragLights > 0) {
+		PackedLight packedLight = lights[fragLightIndex];
+		int lightType = int(packedLight.colorType.w);
 
-	int maxFragDirectionalLights = min(numFragDirectionalLights,
-	MAX_NUM_FRAG_LIGHTS);
-	for (int i = 0; i < maxFragDirectionalLights; i++) {
-		if (numLights < MAX_NUM_FRAG_LIGHTS) {
-			result += calcDirectionalLight(fragDirectionalLightsT[i],
-					fragPositionT, normalT, fragViewDirectionT, albedo,
-					metallic, roughness);
-			numLights++;
-		}
-	}
+		if (lightType == DIRECTIONAL_LIGHT) {
+			DirectionalLight directionalLightT = unpackDirectionalLight(
+					packedLight);
+			directionalLightT.direction = fragLightDirectionT;
 
-	int maxFragPointLights = min(numFragPointLights, MAX_NUM_FRAG_LIGHTS);
-	for (int i = 0; i < maxFragPointLights; i++) {
-		if (numLights < MAX_NUM_FRAG_LIGHTS) {
-			result += calcPointLight(fragPointLightsT[i], fragPositionT,
+			result += calcDirectionalLight(directionalLightT, fragPositionT,
 					normalT, fragViewDirectionT, albedo, metallic, roughness);
-			numLights++;
+		} else if (lightType == POINT_LIGHT) {
+			PointLight pointLightT = unpackPointLight(packedLight);
+			pointLightT.position = fragLightPositionT;
+
+			result += calcPointLight(pointLightT, fragPositionT, normalT,
+					fragViewDirectionT, albedo, metallic, roughness);
+		} else if (lightType == SPOT_LIGHT) {
+			SpotLight spotLightT = unpackSpotLight(packedLight);
+			spotLightT.pointLight.position = fragLightPositionT;
+			spotLightT.direction = fragLightDirectionT;
+
+			result += calcSpotLight(spotLightT, fragPositionT, normalT,
+					fragViewDirectionT, albedo, metallic, roughness);
 		}
 	}
 
-	int maxFragSpotLights = min(numFragSpotLights, MAX_NUM_FRAG_LIGHTS);
-	for (int i = 0; i < maxFragSpotLights; i++) {
-		if (numLights < MAX_NUM_FRAG_LIGHTS) {
-			result += calcSpotLight(fragSpotLightsT[i], fragPositionT, normalT,
-					fragViewDirectionT, albedo, metallic, roughness);
-			numLights++;
+	// Add the point and spot lights of the cluster of this fragment.
+	if (clustered) {
+		uvec2 cluster = getCluster();
+
+		for (uint i = 0; i < cluster.y; i++) {
+			PackedLight packedLight = lights[clusterLightIndices[cluster.x + i]];
+			int lightType = int(packedLight.colorType.w);
+
+			if (lightType == POINT_LIGHT) {
+				PointLight pointLightT = unpackPointLight(packedLight);
+				pointLightT.position = fragTbn
+						* vec3(view * vec4(pointLightT.position, 1.0));
+
+				result += calcPointLight(pointLightT, fragPositionT, normalT,
+						fragViewDirectionT, albedo, metallic, roughness);
+			} else if (lightType == SPOT_LIGHT) {
+				SpotLight spotLightT = unpackSpotLight(packedLight);
+				spotLightT.pointLight.position = fragTbn
+						* vec3(view * vec4(spotLightT.pointLight.position, 1.0));
+				spotLightT.direction = normalize(fragTbn
+						* vec3(view * vec4(spotLightT.direction, 0.0)));
+
+				result += calcSpotLight(spotLightT, fragPositionT, normalT,
+						fragViewDirectionT, albedo, metallic, roughness);
+			}
 		}
 	}
 
@@ -1,7 +1,11 @@
 #version 430
 
+#define MAX_NUM_LIGHTS 256
 #define MAX_NUM_VERT_LIGHTS 10
-#define MAX_NUM_FRAG_LIGHTS 1
+
+#define DIRECTIONAL_LIGHT 0
+#define POINT_LIGHT 1
+#define SPOT_LIGHT 2
 
 struct Light {
 	vec3 color;
@@ -24,8 +28,15 @@ struct SpotLight {
 	PointLight pointLight;
 
 	vec3 direction;
-	float innerCutoffAngle;
-	float outerCutoffAngle;
+	float cosInnerCutoff;
+	float cosOuterCutoff;
+};
+
+struct PackedLight {
+	vec4 colorType;
+	vec4 positionRadius;
+	vec4 directionCosInnerCutoff;
+	vec4 cosOuterCutoff;
 };
 
 struct Material {
@@ -57,15 +68,18 @@ layout (location = 1) in vec2 vertTexCoord;
 layout (location = 2) in vec3 vertNormalM;
 layout (location = 3) in vec3 vertTangentM;
 layout (location = 4) in vec3 vertBitangentM;
+layout (location = 5) in mat4 vertInstanceModel;
+
+out vec3 fragPositionV;
+out mat3 fragTbn;
 
 out vec3 fragPositionT;
 out vec3 fragNormalT;
 out vec3 fragViewDirectionT;
 out vec2 fragTexCoord;
 
-out DirectionalLight fragDirectionalLightsT[MAX_NUM_FRAG_LIGHTS];
-out PointLight fragPointLightsT[MAX_NUM_FRAG_LIGHTS];
-out SpotLight fragSpotLightsT[MAX_NUM_FRAG_LIGHTS];
+out vec3 fragLightPositionT;
+out vec3 fragLightDirectionT;
 
 out vec3 fragColor;
 
@@ -73,29 +87,53 @@ uniform mat4 view;
 uniform mat4 projection;
 uniform mat4 modelView;
 
-uniform vec3 ambientColor;
+uniform bool instanced;
+uniform bool octahedral;
 
-uniform int numVertDirectionalLights;
-uniform int numVertSpotLights;
-uniform int numVertPointLights;
+uniform vec3 ambientColor;
 
-uniform DirectionalLight vertDirectionalLights[MAX_NUM_VERT_LIGHTS];
-uniform PointLight vertPointLights[MAX_NUM_VERT_LIGHTS];
-uniform SpotLight vertSpotLights[MAX_NUM_VERT_LIGHTS];
+layout (std140, binding = 0) uniform Lights {
+	PackedLight lights[MAX_NUM_LIGHTS];
+};
 
-uniform int numFragDirectionalLights;
-uniform int numFragPointLights;
-uniform int numFragSpotLights;
+uniform int numVertLights;
+uniform int vertLightIndices[MAX_NUM_VERT_LIGHTS];
 
-uniform DirectionalLight fragDirectionalLights[MAX_NUM_FRAG_LIGHTS];
-uniform PointLight fragPointLights[MAX_NUM_FRAG_LIGHTS];
-uniform SpotLight fragSpotLights[MAX_NUM_FRAG_LIGHTS];
+uniform int numFragLights;
+uniform int fragLightIndex;
 
 uniform Material material;
 
 const float PI = 3.14159265359;
 const float F0 = 0.04;
 
+DirectionalLight unpackDirectionalLight(PackedLight packedLight) {
+	DirectionalLight directionalLight;
+	directionalLight.light.color = packedLight.colorType.rgb;
+	directionalLight.direction = packedLight.directionCosInnerCutoff.xyz;
+
+	return directionalLight;
+}
+
+PointLight unpackPointLight(PackedLight packedLight) {
+	PointLight pointLight;
+	pointLight.light.color = packedLight.colorType.rgb;
+	pointLight.position = packedLight.positionRadius.xyz;
+	pointLight.radius = packedLight.positionRadius.w;
+
+	return pointLight;
+}
+
+SpotLight unpackSpotLight(PackedLight packedLight) {
+	SpotLight spotLight;
+	spotLight.pointLight = unpackPointLight(packedLight);
+	spotLight.direction = packedLight.directionCosInnerCutoff.xyz;
+	spotLight.cosInnerCutoff = packedLight.directionCosInnerCutoff.w;
+	spotLight.cosOuterCutoff = packedLight.cosOuterCutoff.x;
+
+	return spotLight;
+}
+
 float calcAttenuation(float radius, float distance) {
 	if (radius == 0.0) {
 		return 0.0;
@@ -186,15 +224,14 @@ vec3 calcSpotLight(SpotLight spotLight, vec3 positionT, vec3 normalT,
 	float attenuation = calcAttenuation(spotLight.pointLight.radius, distance);
 
 	float theta = dot(lightDirection, normalize(-spotLight.direction));
-	float epsilon = abs(
-			cos(spotLight.innerCutoffAngle) - cos(spotLight.outerCutoffAngle));
+	float epsilon = abs(spotLight.cosInnerCutoff - spotLight.cosOuterCutoff);
 
 	if (epsilon == 0.0) {
 		epsilon = 0.001;
 	}
 
-	float intensity = clamp((theta - cos(spotLight.outerCutoffAngle)) / epsilon,
-			0.0, 1.0);
+	float intensity = clamp((theta - spotLight.cosOuterCutoff) / epsilon, 0.0,
+			1.0);
 
 	vec3 radiance = spotLight.pointLight.light.color * attenuation * intensity;
 
@@ -202,15 +239,38 @@ vec3 calcSpotLight(SpotLight spotLight, vec3 positionT, vec3 normalT,
 			radiance, albedo, metallic, roughness);
 }
 
+vec3 decodeOctahedral(vec2 e) {
+	vec3 v = vec3(e, 1.0 - abs(e.x) - abs(e.y));
+
+	// Unfold the lower hemisphere from the corners of the square.
+	if (v.z < 0.0) {
+		v.xy = (1.0 - abs(v.yx)) * vec2(v.x >= 0.0 ? 1.0 : -1.0, v.y >= 0.0 ? 1.0 : -1.0);
+	}
+
+	return normalize(v);
+}
+
 void main() {
-	mat3 normal = mat3(transpose(inverse(modelView)));
+	// Instanced draws read the model matrix from a per-instance attribute.
+	mat4 vertModelView;
+	if (instanced) {
+		vertModelView = view * vertInstanceModel;
+	} else {
+		vertModelView = modelView;
+	}
+
+	// Octahedral directions are decoded from the xy of their attributes.
+	vec3 normalM = octahedral ? decodeOctahedral(vertNormalM.xy) : vertNormalM;
+	vec3 tangentM = octahedral ? decodeOctahedral(vertTangentM.xy) : vertTangentM;
 
-	vec3 vertPositionV = vec3(modelView * vec4(vertPositionM, 1.0));
-	vec3 vertNormalV = normalize(normal * vertNormalM);
+	mat3 normal = mat3(transpose(inverse(vertModelView)));
+
+	vec3 vertPositionV = vec3(vertModelView * vec4(vertPositionM, 1.0));
+	vec3 vertNormalV = normalize(normal * normalM);
 	vec3 viewDirection = normalize(-vertPositionV);
 
-	vec3 t = normalize(normal * vertTangentM);
-	vec3 n = normalize(normal * vertNormalM);
+	vec3 t = normalize(normal * tangentM);
+	vec3 n = normalize(normal * normalM);
 
 	t = normalize(t - n * dot(n, t));
 
@@ -219,40 +279,23 @@ void main() {
 
 	mat3 tbn = transpose(mat3(t, b, n));
 
+	fragPositionV = vertPositionV;
+	fragTbn = tbn;
+
 	// Transform position and normal from view space to tangent space.
 	fragPositionT = tbn * vertPositionV;
 	fragNormalT = normalize(tbn * vertNormalV);
 	fragViewDirectionT = normalize(tbn * normalize(-vertPositionV));
 	fragTexCoord = vertTexCoord;
 
-	// Transform fragment lights from world space to tangent space.
-	int maxFragDirectionalLights = min(numFragDirectionalLights,
-	MAX_NUM_FRAG_LIGHTS);
-	for (int i = 0; i < maxFragDirectionalLights; i++) {
-		DirectionalLight directionalLight = fragDirectionalLights[i];
-		directionalLight.direction = normalize(
-				tbn * vec3(view * vec4(directionalLight.direction, 0.0)));
-
-		fragDirectionalLightsT[i] = directionalLight;
-	}
-
-	int maxFragPointLights = min(numFragPointLights, MAX_NUM_FRAG_LIGHTS);
-	for (int i = 0; i < maxFragPointLights; i++) {
-		PointLight pointLight = fragPointLights[i];
-		pointLight.position = tbn * vec3(view * vec4(pointLight.position, 1.0));
+	// Transform the fragment light from world space to tangent space.
+	if (numFragLights > 0) {
+		PackedLight fragLight = lights[fragLightIndex];
 
-		fragPointLightsT[i] = pointLight;
-	}
-
-	int maxFragSpotLights = min(numFragSpotLights, MAX_NUM_FRAG_LIGHTS);
-	for (int i = 0; i < maxFragSpotLights; i++) {
-		SpotLight spotLight = fragSpotLights[i];
-		spotLight.pointLight.position = tbn
-				* vec3(view * vec4(spotLight.pointLight.position, 1.0));
-		spotLight.direction = normalize(
-				tbn * vec3(view * vec4(spotLight.direction, 0.0)));
-
-		fragSpotLightsT[i] = spotLight;
+		fragLightPositionT = tbn
+				* vec3(view * vec4(fragLight.positionRadius.xyz, 1.0));
+		fragLightDirectionT = normalize(tbn
+				* vec3(view * vec4(fragLight.directionCosInnerCutoff.xyz, 0.0)));
 	}
 
 	// Assign the homogenous vertex position.
@@ -289,34 +332,35 @@ void main() {
 
 	vec3 result = ambientColor;
 
-	int numLights = 0;
+	// Transform vertex lights from world space to view space.
+	int maxVertLights = min(numVertLights, MAX_NUM_VERT_LIGHTS);
+	for (int i = 0; i < maxVertLights; i++) {
+		PackedLight packedLight = lights[vertLightIndices[i]];
+		int lightType = int(packedLight.colorType.w);
 
-	int maxVertDirectionalLights = min(numVertDirectionalLights,
-	MAX_NUM_VERT_LIGHTS);
-	for (int i = 0; i < maxVertDirectionalLights; i++) {
-		if (numLights < MAX_NUM_VERT_LIGHTS) {
-			result += calcDirectionalLight(vertDirectionalLights[i],
-					vertPositionV, vertNormalV, viewDirection, albedo, metallic,
-					roughness);
-			numLights++;
-		}
-	}
-
-	int maxVertPointLights = min(numVertPointLights, MAX_NUM_VERT_LIGHTS);
-	for (int i = 0; i < maxVertPointLights; i++) {
-		if (numLights < MAX_NUM_VERT_LIGHTS) {
-			result += calcPointLight(vertPointLights[i], vertPositionV,
-					vertNormalV, viewDirection, albedo, metallic, roughness);
-			numLights++;
-		}
-	}
+		if (lightType == DIRECTIONAL_LIGHT) {
+			DirectionalLight directionalLight = unpackDirectionalLight(
+					packedLight);
+			directionalLight.direction = normalize(
+					vec3(view * vec4(directionalLight.direction, 0.0)));
 
-	int maxVertSpotLightsSpot = min(numVertSpotLights, MAX_NUM_VERT_LIGHTS);
-	for (int i = 0; i < maxVertSpotLightsSpot; i++) {
-		if (numLights < MAX_NUM_VERT_LIGHTS) {
-			result += calcSpotLight(vertSpotLights[i], vertPositionV,
+			result += calcDirectionalLight(directionalLight, vertPositionV,
 					vertNormalV, viewDirection, albedo, metallic, roughness);
-			numLights++;
+		} else if (lightType == POINT_LIGHT) {
+			PointLight pointLight = unpackPointLight(packedLight);
+			pointLight.position = vec3(view * vec4(pointLight.position, 1.0));
+
+			result += calcPointLight(pointLight, vertPositionV, vertNormalV,
+					viewDirection, albedo, metallic, roughness);
+		} else if (lightType == SPOT_LIGHT) {
+			SpotLight spotLight = unpackSpotLight(packedLight);
+			spotLight.pointLight.position = vec3(
+					view * vec4(spotLight.pointLight.position, 1.0));
+			spotLight.direction = normalize(
+					vec3(view * vec4(spotLight.direction, 0.0)));
+
+			result += calcSpotLight(spotLight, vertPositionV, vertNormalV,
+					viewDirection, albedo, metallic, roughness);
 		}
 	}
 
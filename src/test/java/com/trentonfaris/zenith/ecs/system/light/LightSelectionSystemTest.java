@@ -0,0 +1,121 @@
+package com.trentonfaris.zenith.ecs.system.light;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LightSelectionSystemTest {
+	private final LightSelectionSystem lightSelectionSystem = new LightSelectionSystem();
+
+	private final Vector3f target = new Vector3f();
+
+	@BeforeEach
+	void setUp() {
+		// Light 10 is the closest, and light 13 is the furthest, but bright enough to beat light 12.
+		lightSelectionSystem.beginLights();
+		lightSelectionSystem.addLight(10, false, new Vector3f(1, 0, 0), 1);
+		lightSelectionSystem.addLight(11, false, new Vector3f(0, 4, 0), 1);
+		lightSelectionSystem.addLight(12, false, new Vector3f(0, 0, 8), 1);
+		lightSelectionSystem.addLight(13, false, new Vector3f(-10, 0, 0), 2);
+		lightSelectionSystem.addLight(14, true, new Vector3f(0, 100, 0), 0.1f);
+		lightSelectionSystem.endLights();
+	}
+
+	@Test
+	void lightsAreOrderedByContribution() {
+		int[] selection = lightSelectionSystem.select(-1, target, 5);
+
+		assertEquals(5, lightSelectionSystem.getNumLights());
+		assertArrayEquals(new int[] { 14, 10, 11, 13, 12 }, Arrays.copyOf(selection, 5));
+	}
+
+	@Test
+	void fewerSelectedThanLightsOrdersOnlyTheBest() {
+		int[] selection = lightSelectionSystem.select(-1, target, 2);
+
+		assertArrayEquals(new int[] { 14, 10 }, Arrays.copyOf(selection, 2));
+		assertArrayEquals(new int[] { 11, 12, 13 }, sorted(selection, 2, 5));
+	}
+
+	@Test
+	void selectedEqualToLightsOrdersEveryLight() {
+		assertArrayEquals(new int[] { 14, 10, 11, 13, 12 },
+				Arrays.copyOf(lightSelectionSystem.select(-1, target, 5), 5));
+	}
+
+	@Test
+	void moreSelectedThanLightsIsClamped() {
+		assertArrayEquals(new int[] { 14, 10, 11, 13, 12 },
+				Arrays.copyOf(lightSelectionSystem.select(-1, target, 64), 5));
+	}
+
+	@Test
+	void noneSelectedStillListsEveryLight() {
+		assertArrayEquals(new int[] { 10, 11, 12, 13, 14 }, sorted(lightSelectionSystem.select(-1, target, 0), 0, 5));
+	}
+
+	@Test
+	void selectionIsCachedUntilSomethingChanges() {
+		int[] first = lightSelectionSystem.select(0, target, 3);
+		int[] expected = Arrays.copyOf(first, 5);
+		int version = lightSelectionSystem.getVersion();
+
+		// The same lights in the same places leave the version, and so the cached selection, alone.
+		setUp();
+		assertEquals(version, lightSelectionSystem.getVersion());
+		assertArrayEquals(expected, Arrays.copyOf(lightSelectionSystem.select(0, target, 3), 5));
+
+		// Another target is rescored.
+		assertArrayEquals(new int[] { 14, 13, 11 },
+				Arrays.copyOf(lightSelectionSystem.select(0, new Vector3f(-10, 0, 1), 3), 3));
+	}
+
+	@Test
+	void movedLightIsReselected() {
+		assertArrayEquals(new int[] { 14, 10, 11 }, Arrays.copyOf(lightSelectionSystem.select(0, target, 3), 3));
+		int version = lightSelectionSystem.getVersion();
+
+		// Light 12 moves right next to the target.
+		lightSelectionSystem.beginLights();
+		lightSelectionSystem.addLight(10, false, new Vector3f(1, 0, 0), 1);
+		lightSelectionSystem.addLight(11, false, new Vector3f(0, 4, 0), 1);
+		lightSelectionSystem.addLight(12, false, new Vector3f(0, 0, 0.5f), 1);
+		lightSelectionSystem.addLight(13, false, new Vector3f(-10, 0, 0), 2);
+		lightSelectionSystem.addLight(14, true, new Vector3f(0, 100, 0), 0.1f);
+		lightSelectionSystem.endLights();
+
+		assertNotEquals(version, lightSelectionSystem.getVersion());
+		assertArrayEquals(new int[] { 14, 12, 10 }, Arrays.copyOf(lightSelectionSystem.select(0, target, 3), 3));
+	}
+
+	@Test
+	void removedLightIsReselected() {
+		assertArrayEquals(new int[] { 14, 10, 11 }, Arrays.copyOf(lightSelectionSystem.select(0, target, 3), 3));
+		int version = lightSelectionSystem.getVersion();
+
+		// Light 10 is removed.
+		lightSelectionSystem.beginLights();
+		lightSelectionSystem.addLight(11, false, new Vector3f(0, 4, 0), 1);
+		lightSelectionSystem.addLight(12, false, new Vector3f(0, 0, 8), 1);
+		lightSelectionSystem.addLight(13, false, new Vector3f(-10, 0, 0), 2);
+		lightSelectionSystem.addLight(14, true, new Vector3f(0, 100, 0), 0.1f);
+		lightSelectionSystem.endLights();
+
+		assertNotEquals(version, lightSelectionSystem.getVersion());
+		assertEquals(4, lightSelectionSystem.getNumLights());
+		assertArrayEquals(new int[] { 14, 11, 13, 12 }, Arrays.copyOf(lightSelectionSystem.select(0, target, 4), 4));
+	}
+
+	private static int[] sorted(int[] values, int from, int to) {
+		int[] range = Arrays.copyOfRange(values, from, to);
+		Arrays.sort(range);
+
+		return range;
+	}
+}
@@ -0,0 +1,257 @@
+package com.trentonfaris.zenith.ecs.system.spatial;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.joml.AABBf;
+import org.joml.FrustumIntersection;
+import org.joml.Intersectionf;
+import org.joml.Matrix4f;
+import org.joml.Rayf;
+import org.joml.Spheref;
+import org.joml.Vector2f;
+import org.junit.jupiter.api.Test;
+
+import com.artemis.utils.IntBag;
+
+class AABBTreeTest {
+	private static final float MARGIN = 0.5f;
+
+	/** The leaf of each entity in the tree under test. */
+	private final Map<Integer, Integer> leaves = new HashMap<>();
+
+	@Test
+	void insertAndRemoveTrackNodeCount() {
+		AABBTree tree = new AABBTree(MARGIN);
+		assertEquals(-1, tree.getHeight());
+		assertEquals(0, tree.getNodeCount());
+
+		int a = tree.insert(1, box(0, 0, 0, 1));
+		assertEquals(1, tree.getNodeCount());
+		assertEquals(0, tree.getHeight());
+		assertEquals(1, tree.getEntity(a));
+
+		int b = tree.insert(2, box(5, 0, 0, 1));
+		assertEquals(3, tree.getNodeCount());
+		assertEquals(1, tree.getHeight());
+
+		tree.remove(a);
+		assertEquals(1, tree.getNodeCount());
+		assertEquals(0, tree.getHeight());
+		assertEquals(2, tree.getEntity(b));
+
+		tree.remove(b);
+		assertEquals(0, tree.getNodeCount());
+		assertEquals(-1, tree.getHeight());
+	}
+
+	@Test
+	void removedNodesAreReused() {
+		AABBTree tree = new AABBTree(MARGIN);
+		for (int i = 0; i < 10; i++) {
+			tree.insert(i, box(i * 3, 0, 0, 1));
+		}
+
+		int leaf = tree.insert(10, box(100, 0, 0, 1));
+		int nodeCount = tree.getNodeCount();
+
+		// Removing a leaf frees it and its parent, and the next insert takes the leaf back from the free list.
+		tree.remove(leaf);
+		assertEquals(nodeCount - 2, tree.getNodeCount());
+
+		int reused = tree.insert(11, box(100, 0, 0, 1));
+		assertEquals(nodeCount, tree.getNodeCount());
+		assertEquals(leaf, reused);
+		assertEquals(11, tree.getEntity(reused));
+	}
+
+	@Test
+	void nodesGrowPastInitialCapacity() {
+		AABBTree tree = new AABBTree(MARGIN);
+		for (int i = 0; i < 500; i++) {
+			leaves.put(i, tree.insert(i, box(i, i % 7, i % 13, 0.5f)));
+		}
+
+		assertEquals(999, tree.getNodeCount());
+		assertQueriesMatch(tree, new Random(1));
+	}
+
+	@Test
+	void moveWithinFatBoxKeepsLeaf() {
+		AABBTree tree = new AABBTree(MARGIN);
+		int leaf = tree.insert(1, box(0, 0, 0, 1));
+		AABBf fat = tree.getFatAabb(leaf, new AABBf());
+
+		assertEquals(-1 - MARGIN, fat.minX, 1e-6f);
+		assertEquals(1 + MARGIN, fat.maxX, 1e-6f);
+
+		assertFalse(tree.move(leaf, box(0.4f, -0.4f, 0.2f, 1)));
+		assertEquals(fat, tree.getFatAabb(leaf, new AABBf()));
+	}
+
+	@Test
+	void moveOutOfFatBoxReinsertsLeaf() {
+		AABBTree tree = new AABBTree(MARGIN);
+		tree.insert(2, box(10, 0, 0, 1));
+		int leaf = tree.insert(1, box(0, 0, 0, 1));
+
+		assertTrue(tree.move(leaf, box(20, 0, 0, 1)));
+
+		AABBf fat = tree.getFatAabb(leaf, new AABBf());
+		assertEquals(19 - MARGIN, fat.minX, 1e-6f);
+		assertEquals(21 + MARGIN, fat.maxX, 1e-6f);
+		assertEquals(3, tree.getNodeCount());
+
+		IntBag result = new IntBag();
+		tree.query(box(20, 0, 0, 0.1f), result);
+		assertArrayEquals(new int[] { 1 }, sorted(result));
+
+		result.clear();
+		tree.query(box(0, 0, 0, 0.1f), result);
+		assertEquals(0, result.size());
+	}
+
+	@Test
+	void sortedInsertsStayBalanced() {
+		AABBTree tree = new AABBTree(MARGIN);
+
+		// Inserting along a line in order would build a list without rotations.
+		int count = 1024;
+		for (int i = 0; i < count; i++) {
+			tree.insert(i, box(i * 2, 0, 0, 0.5f));
+		}
+
+		assertEquals(2 * count - 1, tree.getNodeCount());
+		assertTrue(tree.getHeight() <= 2 * 10, "The tree is too tall: " + tree.getHeight());
+	}
+
+	@Test
+	void queriesMatchBruteForce() {
+		Random random = new Random(2);
+		AABBTree tree = new AABBTree(MARGIN);
+
+		for (int i = 0; i < 300; i++) {
+			leaves.put(i, tree.insert(i, randomBox(random)));
+		}
+
+		assertQueriesMatch(tree, random);
+
+		// Move some entities, a little and a lot, and remove others.
+		for (int i = 0; i < 300; i += 3) {
+			tree.move(leaves.get(i), randomBox(random));
+		}
+
+		for (int i = 1; i < 300; i += 5) {
+			tree.remove(leaves.remove(i));
+		}
+
+		for (int i = 300; i < 350; i++) {
+			leaves.put(i, tree.insert(i, randomBox(random)));
+		}
+
+		assertEquals(2 * leaves.size() - 1, tree.getNodeCount());
+		assertQueriesMatch(tree, random);
+	}
+
+	@Test
+	void clearEmptiesTree() {
+		AABBTree tree = new AABBTree(MARGIN);
+		for (int i = 0; i < 100; i++) {
+			tree.insert(i, box(i, 0, 0, 1));
+		}
+
+		tree.clear();
+		assertEquals(0, tree.getNodeCount());
+		assertEquals(-1, tree.getHeight());
+
+		IntBag result = new IntBag();
+		tree.query(box(0, 0, 0, 1000), result);
+		assertEquals(0, result.size());
+	}
+
+	@Test
+	void negativeMarginIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> new AABBTree(-1));
+	}
+
+	/**
+	 * Asserts that random box, sphere, frustum, and ray queries find the same
+	 * entities as testing the fat box of every leaf.
+	 */
+	private void assertQueriesMatch(AABBTree tree, Random random) {
+		IntBag result = new IntBag();
+		AABBf fat = new AABBf();
+		Vector2f rayResult = new Vector2f();
+
+		for (int n = 0; n < 50; n++) {
+			AABBf query = box(coordinate(random), coordinate(random), coordinate(random), random.nextFloat() * 20);
+			result.clear();
+			tree.query(query, result);
+			assertArrayEquals(expected(tree, fat, f -> Intersectionf.testAabAab(f.minX, f.minY, f.minZ, f.maxX, f.maxY,
+					f.maxZ, query.minX, query.minY, query.minZ, query.maxX, query.maxY, query.maxZ)), sorted(result), "box query " + n);
+
+			Spheref sphere = new Spheref(coordinate(random), coordinate(random), coordinate(random),
+					random.nextFloat() * 20);
+			result.clear();
+			tree.query(sphere, result);
+			assertArrayEquals(expected(tree, fat, f -> Intersectionf.testAabSphere(f.minX, f.minY, f.minZ, f.maxX,
+					f.maxY, f.maxZ, sphere.x, sphere.y, sphere.z, sphere.r * sphere.r)), sorted(result),
+					"sphere query " + n);
+
+			FrustumIntersection frustum = new FrustumIntersection(new Matrix4f()
+					.perspective((float) Math.toRadians(60), 1, 0.1f, 40 + random.nextFloat() * 40)
+					.lookAt(coordinate(random), coordinate(random), coordinate(random), 0, 0, 0, 0, 1, 0));
+			result.clear();
+			tree.query(frustum, result);
+			assertArrayEquals(expected(tree, fat, f -> isInFrustum(frustum, f)), sorted(result), "frustum query " + n);
+
+			Rayf ray = new Rayf(coordinate(random), coordinate(random), coordinate(random), random.nextFloat() - 0.5f,
+					random.nextFloat() - 0.5f, random.nextFloat() - 0.5f);
+			float maxDistance = random.nextFloat() * 100;
+			result.clear();
+			tree.query(ray, maxDistance, result);
+			assertArrayEquals(expected(tree, fat, f -> Intersectionf.intersectRayAab(ray.oX, ray.oY, ray.oZ, ray.dX,
+					ray.dY, ray.dZ, f.minX, f.minY, f.minZ, f.maxX, f.maxY, f.maxZ, rayResult)
+					&& rayResult.x <= maxDistance), sorted(result), "ray query " + n);
+		}
+	}
+
+	private int[] expected(AABBTree tree, AABBf fat, Predicate<AABBf> test) {
+		return leaves.entrySet().stream().filter(e -> test.test(tree.getFatAabb(e.getValue(), fat)))
+				.mapToInt(Map.Entry::getKey).sorted().toArray();
+	}
+
+	private static boolean isInFrustum(FrustumIntersection frustum, AABBf aabb) {
+		int intersection = frustum.intersectAab(aabb.minX, aabb.minY, aabb.minZ, aabb.maxX, aabb.maxY, aabb.maxZ);
+
+		return intersection == FrustumIntersection.INSIDE || intersection == FrustumIntersection.INTERSECT;
+	}
+
+	private static int[] sorted(IntBag bag) {
+		int[] values = Arrays.copyOf(bag.getData(), bag.size());
+		Arrays.sort(values);
+
+		return values;
+	}
+
+	private static AABBf randomBox(Random random) {
+		return box(coordinate(random), coordinate(random), coordinate(random), 0.1f + random.nextFloat() * 2);
+	}
+
+	private static float coordinate(Random random) {
+		return (random.nextFloat() * 2 - 1) * 50;
+	}
+
+	private static AABBf box(float x, float y, float z, float extent) {
+		return new AABBf(x - extent, y - extent, z - extent, x + extent, y + extent, z + extent);
+	}
+}
@@ -0,0 +1,149 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeshOptimizerTest {
+    @Test
+    void vertexCacheKeepsTriangles() {
+        Random random = new Random(1);
+
+        int[] sphere = TestMeshes.sphereIndices(32, 48);
+        TestMeshes.shuffleTriangles(sphere, random);
+        assertVertexCacheKeepsTriangles(sphere, (32 + 1) * (48 + 1));
+
+        int[] soup = TestMeshes.randomIndices(500, 3000, random);
+        assertVertexCacheKeepsTriangles(soup, 500);
+    }
+
+    @Test
+    void vertexCacheDoesNotWorsenAcmr() {
+        Random random = new Random(2);
+
+        assertAcmrNotWorse(TestMeshes.sphereIndices(64, 64), (64 + 1) * (64 + 1));
+        assertAcmrNotWorse(TestMeshes.sphereIndices(32, 48), (32 + 1) * (48 + 1));
+
+        int[] shuffled = TestMeshes.sphereIndices(32, 48);
+        TestMeshes.shuffleTriangles(shuffled, random);
+
+        float before = MeshOptimizer.analyzeVertexCache(shuffled, (32 + 1) * (48 + 1)).acmr();
+        float after = assertAcmrNotWorse(shuffled, (32 + 1) * (48 + 1));
+
+        // A shuffled grid misses almost every vertex, and an ordered one shares most of them.
+        assertTrue(after < before * 0.5f, "ACMR went from " + before + " to " + after);
+        assertTrue(after < 1, "ACMR is " + after);
+    }
+
+    @Test
+    void overdrawKeepsTriangles() {
+        Random random = new Random(3);
+
+        int[] sphere = TestMeshes.sphereIndices(32, 48);
+        float[] positions = TestMeshes.spherePositions(32, 48, 0.1f, random);
+        TestMeshes.shuffleTriangles(sphere, random);
+        MeshOptimizer.optimizeVertexCache(sphere, positions.length / 3);
+        assertOverdrawKeepsTriangles(sphere, positions);
+
+        int[] grid = TestMeshes.sphereIndices(24, 24);
+        assertOverdrawKeepsTriangles(grid, TestMeshes.gridPositions(24, 24));
+
+        int[] soup = TestMeshes.randomIndices(500, 3000, random);
+        assertOverdrawKeepsTriangles(soup, TestMeshes.randomPositions(500, random));
+    }
+
+    @Test
+    void overdrawKeepsClusterOrder() {
+        // Every triangle of a flat grid faces the same way, so the clusters all tie and keep their order.
+        int[] grid = TestMeshes.sphereIndices(24, 24);
+        int[] before = grid.clone();
+
+        MeshOptimizer.optimizeOverdraw(grid, TestMeshes.gridPositions(24, 24));
+
+        assertArrayEquals(before, grid);
+    }
+
+    @Test
+    void vertexFetchRemapIsPermutation() {
+        Random random = new Random(4);
+
+        int vertexCount = (32 + 1) * (48 + 1);
+        int[] indices = TestMeshes.sphereIndices(32, 48);
+        TestMeshes.shuffleTriangles(indices, random);
+        int[] original = indices.clone();
+
+        int[] remap = MeshOptimizer.optimizeVertexFetch(indices, vertexCount);
+
+        assertEquals(vertexCount, remap.length);
+
+        boolean[] seen = new boolean[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            assertTrue(remap[v] >= 0 && remap[v] < vertexCount, "Vertex " + v + " is remapped to " + remap[v]);
+            assertTrue(!seen[remap[v]], "Two vertices are remapped to " + remap[v]);
+            seen[remap[v]] = true;
+        }
+
+        for (int i = 0; i < indices.length; i++) {
+            assertEquals(remap[original[i]], indices[i]);
+        }
+    }
+
+    @Test
+    void vertexFetchOrdersByFirstUse() {
+        int[] indices = {4, 2, 0, 2, 4, 5};
+
+        int[] remap = MeshOptimizer.optimizeVertexFetch(indices, 7);
+
+        assertArrayEquals(new int[]{0, 1, 2, 1, 0, 3}, indices);
+        assertArrayEquals(new int[]{2, -1, 1, -1, 0, 3, -1}, remap);
+    }
+
+    @Test
+    void analyzeCountsMisses() {
+        MeshOptimizer.CacheStatistics statistics = MeshOptimizer.analyzeVertexCache(new int[]{0, 1, 2, 2, 1, 3}, 4);
+
+        assertEquals(4, statistics.misses());
+        assertEquals(2, statistics.acmr(), 1e-6f);
+        assertEquals(1, statistics.atvr(), 1e-6f);
+    }
+
+    @Test
+    void invalidIndicesThrow() {
+        assertThrows(IllegalArgumentException.class, () -> MeshOptimizer.optimizeVertexCache(new int[]{0, 1}, 2));
+        assertThrows(IllegalArgumentException.class, () -> MeshOptimizer.optimizeVertexFetch(new int[]{0, 1, 3}, 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> MeshOptimizer.optimizeOverdraw(new int[]{0, 1, 2}, new float[8]));
+    }
+
+    private static void assertVertexCacheKeepsTriangles(int[] indices, int vertexCount) {
+        long[] before = TestMeshes.triangles(indices);
+
+        MeshOptimizer.optimizeVertexCache(indices, vertexCount);
+
+        assertArrayEquals(before, TestMeshes.triangles(indices));
+    }
+
+    private static void assertOverdrawKeepsTriangles(int[] indices, float[] positions) {
+        long[] before = TestMeshes.triangles(indices);
+
+        MeshOptimizer.optimizeOverdraw(indices, positions);
+
+        assertArrayEquals(before, TestMeshes.triangles(indices));
+    }
+
+    private static float assertAcmrNotWorse(int[] indices, int vertexCount) {
+        float before = MeshOptimizer.analyzeVertexCache(indices, vertexCount).acmr();
+
+        MeshOptimizer.optimizeVertexCache(indices, vertexCount);
+
+        float after = MeshOptimizer.analyzeVertexCache(indices, vertexCount).acmr();
+        assertTrue(after <= before, "ACMR went from " + before + " to " + after);
+
+        return after;
+    }
+}
@@ -0,0 +1,171 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeshSimplifierTest {
+    /** The fraction of the triangles of each level of detail, as loaded by default. */
+    private static final float[] RATIOS = {0.5f, 0.25f, 0.125f};
+
+    @Test
+    void levelsReachTargets() {
+        Random random = new Random(1);
+
+        assertLevelsReachTargets(TestMeshes.sphereIndices(32, 48), TestMeshes.spherePositions(32, 48, 0.05f, random));
+        assertLevelsReachTargets(TestMeshes.sphereIndices(32, 32), TestMeshes.gridPositions(32, 32));
+    }
+
+    @Test
+    void levelsIndexOriginalVertices() {
+        Random random = new Random(2);
+        int[] indices = TestMeshes.sphereIndices(32, 48);
+        float[] positions = TestMeshes.spherePositions(32, 48, 0.05f, random);
+
+        Set<Integer> original = used(indices);
+
+        int[] previous = indices;
+        for (float ratio : RATIOS) {
+            int[] lod = MeshSimplifier.simplify(previous, positions, target(indices, ratio));
+
+            for (int index : lod) {
+                assertTrue(original.contains(index), "Index " + index + " is not an original vertex");
+            }
+
+            previous = lod;
+        }
+    }
+
+    @Test
+    void simplifyDoesNotChangeInput() {
+        Random random = new Random(3);
+        int[] indices = TestMeshes.sphereIndices(16, 16);
+        float[] positions = TestMeshes.spherePositions(16, 16, 0.05f, random);
+
+        int[] before = indices.clone();
+        float[] positionsBefore = positions.clone();
+
+        MeshSimplifier.simplify(indices, positions, indices.length / 4);
+
+        assertArrayEquals(before, indices);
+        assertArrayEquals(positionsBefore, positions);
+    }
+
+    @Test
+    void borderIsKept() {
+        int rows = 16;
+        int columns = 16;
+        int[] indices = TestMeshes.sphereIndices(rows, columns);
+        float[] positions = TestMeshes.gridPositions(rows, columns);
+
+        int[] lod = MeshSimplifier.simplify(indices, positions, target(indices, 0.125f));
+        assertTrue(lod.length < indices.length / 4, "The grid was only simplified to " + lod.length + " indices");
+
+        Set<Integer> used = used(lod);
+        for (int i = 0; i <= rows; i++) {
+            for (int j = 0; j <= columns; j++) {
+                if (i == 0 || i == rows || j == 0 || j == columns) {
+                    int v = i * (columns + 1) + j;
+                    assertTrue(used.contains(v), "Border vertex " + v + " was collapsed");
+                }
+            }
+        }
+
+        // The border is kept and no triangle flips, so the grid covers the same area.
+        assertEquals(area(indices, positions), area(lod, positions), 1e-3f);
+    }
+
+    @Test
+    void seamIsKept() {
+        Random random = new Random(4);
+        int stacks = 16;
+        int slices = 24;
+        int[] indices = TestMeshes.sphereIndices(stacks, slices);
+        float[] positions = TestMeshes.spherePositions(stacks, slices, 0, random);
+
+        int[] lod = MeshSimplifier.simplify(indices, positions, target(indices, 0.25f));
+        assertTrue(lod.length < indices.length / 2, "The sphere was only simplified to " + lod.length + " indices");
+
+        // The first and last vertex of each ring share a position, so they lie on a texture seam.
+        Set<Integer> used = used(lod);
+        for (int i = 1; i < stacks; i++) {
+            int first = i * (slices + 1);
+            int last = first + slices;
+
+            assertTrue(used.contains(first), "Seam vertex " + first + " was collapsed");
+            assertTrue(used.contains(last), "Seam vertex " + last + " was collapsed");
+        }
+    }
+
+    @Test
+    void lockedMeshIsNotSimplified() {
+        // Every vertex of a single quad lies on its border.
+        int[] indices = TestMeshes.sphereIndices(1, 1);
+
+        int[] lod = MeshSimplifier.simplify(indices, TestMeshes.gridPositions(1, 1), 3);
+
+        assertArrayEquals(indices, lod);
+    }
+
+    @Test
+    void invalidInputThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MeshSimplifier.simplify(new int[]{0, 1}, new float[9], 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> MeshSimplifier.simplify(new int[]{0, 1, 2}, new float[8], 0));
+    }
+
+    private static void assertLevelsReachTargets(int[] indices, float[] positions) {
+        int[] previous = indices;
+
+        for (float ratio : RATIOS) {
+            int target = target(indices, ratio);
+            int[] lod = MeshSimplifier.simplify(previous, positions, target);
+
+            // A collapse removes up to two triangles, so the last one may overshoot the target.
+            assertEquals(0, lod.length % 3);
+            assertTrue(lod.length <= target && lod.length >= target - 6,
+                    "Ratio " + ratio + " reached " + lod.length + " indices of a target of " + target);
+
+            previous = lod;
+        }
+    }
+
+    private static int target(int[] indices, float ratio) {
+        return (int) (indices.length / 3 * ratio) * 3;
+    }
+
+    private static Set<Integer> used(int[] indices) {
+        Set<Integer> used = new HashSet<>();
+        for (int index : indices) {
+            used.add(index);
+        }
+
+        return used;
+    }
+
+    /**
+     * Gets the signed area of a triangle list in the {@code xz} plane.
+     */
+    private static float area(int[] indices, float[] positions) {
+        float area = 0;
+
+        for (int t = 0; t < indices.length; t += 3) {
+            int a = indices[t] * 3;
+            int b = indices[t + 1] * 3;
+            int c = indices[t + 2] * 3;
+
+            area += ((positions[b] - positions[a]) * (positions[c + 2] - positions[a + 2])
+                    - (positions[c] - positions[a]) * (positions[b + 2] - positions[a + 2])) / 2;
+        }
+
+        return area;
+    }
+}
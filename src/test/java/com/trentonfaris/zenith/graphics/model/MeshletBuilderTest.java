@@ -0,0 +1,111 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import org.joml.Spheref;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeshletBuilderTest {
+    @Test
+    void buildKeepsTriangles() {
+        Random random = new Random(1);
+
+        int[] sphere = TestMeshes.sphereIndices(32, 48);
+        assertKeepsTriangles(sphere, TestMeshes.spherePositions(32, 48, 0.1f, random));
+
+        int[] soup = TestMeshes.randomIndices(500, 3000, random);
+        assertKeepsTriangles(soup, TestMeshes.randomPositions(500, random));
+    }
+
+    @Test
+    void meshletsCoverIndicesInOrder() {
+        Random random = new Random(2);
+        int[] indices = TestMeshes.sphereIndices(32, 48);
+        MeshletData meshletData = MeshletBuilder.build(indices, TestMeshes.spherePositions(32, 48, 0.1f, random),
+                MeshletBuilder.MAX_VERTICES, MeshletBuilder.MAX_TRIANGLES);
+
+        int next = 0;
+        for (int i = 0; i < meshletData.getNumMeshlets(); i++) {
+            assertEquals(next, meshletData.getFirstIndex(i));
+            assertTrue(meshletData.getIndexCount(i) > 0);
+            assertEquals(0, meshletData.getIndexCount(i) % 3);
+
+            next += meshletData.getIndexCount(i);
+        }
+
+        assertEquals(indices.length, next);
+    }
+
+    @Test
+    void meshletsRespectLimits() {
+        Random random = new Random(3);
+
+        int[] sphere = TestMeshes.sphereIndices(32, 48);
+        assertRespectsLimits(sphere, TestMeshes.spherePositions(32, 48, 0.1f, random), MeshletBuilder.MAX_VERTICES,
+                MeshletBuilder.MAX_TRIANGLES);
+
+        int[] soup = TestMeshes.randomIndices(500, 3000, random);
+        assertRespectsLimits(soup, TestMeshes.randomPositions(500, random), MeshletBuilder.MAX_VERTICES,
+                MeshletBuilder.MAX_TRIANGLES);
+
+        int[] small = TestMeshes.sphereIndices(16, 16);
+        assertRespectsLimits(small, TestMeshes.spherePositions(16, 16, 0, random), 16, 8);
+    }
+
+    @Test
+    void boundingSpheresContainVertices() {
+        Random random = new Random(4);
+        float[] positions = TestMeshes.spherePositions(32, 48, 0.2f, random);
+        int[] indices = TestMeshes.sphereIndices(32, 48);
+
+        MeshletData meshletData = MeshletBuilder.build(indices, positions, MeshletBuilder.MAX_VERTICES,
+                MeshletBuilder.MAX_TRIANGLES);
+
+        Spheref sphere = new Spheref();
+        for (int i = 0; i < meshletData.getNumMeshlets(); i++) {
+            meshletData.getBoundingSphere(i, sphere);
+
+            int first = meshletData.getFirstIndex(i);
+            for (int j = first; j < first + meshletData.getIndexCount(i); j++) {
+                int v = indices[j] * 3;
+                float dx = positions[v] - sphere.x;
+                float dy = positions[v + 1] - sphere.y;
+                float dz = positions[v + 2] - sphere.z;
+
+                assertTrue(Math.sqrt(dx * dx + dy * dy + dz * dz) <= sphere.r + 1e-5f,
+                        "Vertex " + indices[j] + " is outside of the bounding sphere of meshlet " + i);
+            }
+        }
+    }
+
+    private static void assertKeepsTriangles(int[] indices, float[] positions) {
+        long[] before = TestMeshes.triangles(indices);
+
+        MeshletBuilder.build(indices, positions, MeshletBuilder.MAX_VERTICES, MeshletBuilder.MAX_TRIANGLES);
+
+        assertArrayEquals(before, TestMeshes.triangles(indices));
+    }
+
+    private static void assertRespectsLimits(int[] indices, float[] positions, int maxVertices, int maxTriangles) {
+        MeshletData meshletData = MeshletBuilder.build(indices, positions, maxVertices, maxTriangles);
+
+        for (int i = 0; i < meshletData.getNumMeshlets(); i++) {
+            int first = meshletData.getFirstIndex(i);
+            int count = meshletData.getIndexCount(i);
+
+            Set<Integer> vertices = new HashSet<>();
+            for (int j = first; j < first + count; j++) {
+                vertices.add(indices[j]);
+            }
+
+            assertTrue(vertices.size() <= maxVertices, "Meshlet " + i + " has " + vertices.size() + " vertices");
+            assertTrue(count / 3 <= maxTriangles, "Meshlet " + i + " has " + count / 3 + " triangles");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The {@link TestMeshes} class generates triangle lists as plain index and
+ * position arrays, for tests which do not need OpenGL.
+ *
+ * @author Trenton Faris
+ */
+public final class TestMeshes {
+    private TestMeshes() {
+    }
+
+    /**
+     * Generates the positions of a sphere around the origin, packed as
+     * {@code xyz}. Each vertex is moved along its direction by a random amount,
+     * so that neighbouring triangles face different ways.
+     *
+     * @param stacks The number of rings of the sphere
+     * @param slices The number of segments of each ring
+     * @param noise  The largest distance a vertex is moved by
+     * @param random The {@link Random} that moves the vertices
+     * @return The positions.
+     */
+    public static float[] spherePositions(int stacks, int slices, float noise, Random random) {
+        float[] positions = new float[(stacks + 1) * (slices + 1) * 3];
+
+        for (int i = 0; i <= stacks; i++) {
+            double theta = Math.PI * i / stacks;
+
+            for (int j = 0; j <= slices; j++) {
+                double phi = 2 * Math.PI * j / slices;
+                float radius = 1 + (random.nextFloat() * 2 - 1) * noise;
+
+                int v = (i * (slices + 1) + j) * 3;
+                positions[v] = (float) (Math.sin(theta) * Math.cos(phi)) * radius;
+                positions[v + 1] = (float) Math.cos(theta) * radius;
+                positions[v + 2] = (float) (Math.sin(theta) * Math.sin(phi)) * radius;
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * Generates the positions of a flat grid in the {@code xz} plane, packed as
+     * {@code xyz}. The grid has the same vertex layout as
+     * {@link #spherePositions}, so {@link #sphereIndices} also triangulates it.
+     *
+     * @param rows    The number of rows of quads
+     * @param columns The number of quads in each row
+     * @return The positions.
+     */
+    public static float[] gridPositions(int rows, int columns) {
+        float[] positions = new float[(rows + 1) * (columns + 1) * 3];
+
+        for (int i = 0; i <= rows; i++) {
+            for (int j = 0; j <= columns; j++) {
+                int v = (i * (columns + 1) + j) * 3;
+                positions[v] = j;
+                positions[v + 2] = i;
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * Generates the indices of a sphere of {@link #spherePositions}, with
+     * triangles wound counter-clockwise when seen from outside.
+     *
+     * @param stacks The number of rings of the sphere
+     * @param slices The number of segments of each ring
+     * @return The indices.
+     */
+    public static int[] sphereIndices(int stacks, int slices) {
+        int[] indices = new int[stacks * slices * 6];
+
+        int n = 0;
+        for (int i = 0; i < stacks; i++) {
+            for (int j = 0; j < slices; j++) {
+                int a = i * (slices + 1) + j;
+                int b = a + slices + 1;
+
+                indices[n++] = a;
+                indices[n++] = a + 1;
+                indices[n++] = b;
+
+                indices[n++] = a + 1;
+                indices[n++] = b + 1;
+                indices[n++] = b;
+            }
+        }
+
+        return indices;
+    }
+
+    /**
+     * Generates a triangle list of random triangles over random positions, which
+     * shares vertices between unrelated triangles.
+     *
+     * @param vertexCount   The number of vertices
+     * @param triangleCount The number of triangles
+     * @param random        The {@link Random} of the triangles
+     * @return The indices.
+     */
+    public static int[] randomIndices(int vertexCount, int triangleCount, Random random) {
+        int[] indices = new int[triangleCount * 3];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = random.nextInt(vertexCount);
+        }
+
+        return indices;
+    }
+
+    /**
+     * Generates random positions in the unit cube, packed as {@code xyz}.
+     *
+     * @param vertexCount The number of vertices
+     * @param random      The {@link Random} of the positions
+     * @return The positions.
+     */
+    public static float[] randomPositions(int vertexCount, Random random) {
+        float[] positions = new float[vertexCount * 3];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = random.nextFloat() * 2 - 1;
+        }
+
+        return positions;
+    }
+
+    /**
+     * Shuffles the triangles of a triangle list in place, keeping the winding of
+     * each triangle.
+     *
+     * @param indices The indices of the triangle list
+     * @param random  The {@link Random} of the order
+     */
+    public static void shuffleTriangles(int[] indices, Random random) {
+        for (int t = indices.length / 3 - 1; t > 0; t--) {
+            int other = random.nextInt(t + 1);
+
+            for (int k = 0; k < 3; k++) {
+                int index = indices[t * 3 + k];
+                indices[t * 3 + k] = indices[other * 3 + k];
+                indices[other * 3 + k] = index;
+            }
+        }
+    }
+
+    /**
+     * Gets the sorted triangles of a triangle list, each rotated to start at its
+     * smallest index so that its winding is kept.
+     *
+     * @param indices The indices of the triangle list
+     * @return The triangles, packed as 21 bits per index.
+     */
+    public static long[] triangles(int[] indices) {
+        long[] triangles = new long[indices.length / 3];
+
+        for (int t = 0; t < triangles.length; t++) {
+            int a = indices[t * 3], b = indices[t * 3 + 1], c = indices[t * 3 + 2];
+
+            if (b < a && b <= c) {
+                int first = a;
+                a = b;
+                b = c;
+                c = first;
+            } else if (c < a && c < b) {
+                int first = a;
+                a = c;
+                c = b;
+                b = first;
+            }
+
+            triangles[t] = ((long) a << 42) | ((long) b << 21) | c;
+        }
+
+        Arrays.sort(triangles);
+        return triangles;
+    }
+}
@@ -0,0 +1,143 @@
+package com.trentonfaris.zenith.graphics.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VertexWelderTest {
+    /** The tolerances of a vertex of a position and a normal. */
+    private static final float[] TOLERANCES = {1e-6f, 1e-6f, 1e-6f, 1e-3f, 1e-3f, 1e-3f};
+
+    @Test
+    void weldsWithinEpsilon() {
+        float[] values = {
+                0, 0, 0, 0, 1, 0,
+                1, 0, 0, 0, 1, 0,
+                5e-7f, 0, -5e-7f, 0, 1, 5e-4f,
+                1, 5e-7f, 0, 5e-4f, 1, 0,
+        };
+
+        int[] remap = VertexWelder.weld(values, 6, TOLERANCES, 0, 3);
+
+        assertArrayEquals(new int[]{0, 1, 0, 1}, remap);
+    }
+
+    @Test
+    void keepsVerticesApartAcrossEpsilon() {
+        float[] values = {
+                0, 0, 0, 0, 1, 0,
+                // Its position is just outside of the tolerance.
+                2e-6f, 0, 0, 0, 1, 0,
+                // Its position is equal, but its normal is split along a hard edge.
+                0, 0, 0, 1, 0, 0,
+                // Its normal is just outside of the tolerance.
+                0, 0, 0, 0, 1, 2e-3f,
+        };
+
+        int[] remap = VertexWelder.weld(values, 6, TOLERANCES, 0, 3);
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, remap);
+    }
+
+    @Test
+    void weldsAcrossCellBorders() {
+        // The cells are the size of the tolerance, so these vertices fall into neighbouring cells.
+        float[] values = {
+                0.99e-6f * 7, 0, 0,
+                1.01e-6f * 7, 0, 0,
+        };
+
+        int[] remap = VertexWelder.weld(values, 3, new float[]{1e-6f, 1e-6f, 1e-6f}, 0, 3);
+
+        assertArrayEquals(new int[]{0, 0}, remap);
+    }
+
+    @Test
+    void largeCoordinatesDoNotShareCells() {
+        assertNotEquals(VertexWelder.cell(3000, 1e-6f), VertexWelder.cell(3001, 1e-6f));
+        assertNotEquals(VertexWelder.cell(-3000, 1e-6f), VertexWelder.cell(-3001, 1e-6f));
+        assertNotEquals(VertexWelder.cell(1e7f, 1e-6f), VertexWelder.cell(1e7f + 1, 1e-6f));
+    }
+
+    @Test
+    void weldsLargeCoordinates() {
+        Random random = new Random(1);
+        int vertexCount = 20000;
+
+        // Every vertex is far from the origin and has an exact duplicate right after it.
+        float[] values = new float[vertexCount * 2 * 3];
+        for (int v = 0; v < vertexCount; v++) {
+            for (int axis = 0; axis < 3; axis++) {
+                float value = 5000 + random.nextInt(1 << 20) * 0.01f;
+                values[v * 6 + axis] = value;
+                values[v * 6 + 3 + axis] = value;
+            }
+        }
+
+        int[] remap = VertexWelder.weld(values, 3, new float[]{1e-6f, 1e-6f, 1e-6f}, 0, 3);
+
+        int count = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            assertEquals(remap[v * 2], remap[v * 2 + 1]);
+            count = Math.max(count, remap[v * 2] + 1);
+        }
+
+        assertEquals(vertexCount, count);
+    }
+
+    @Test
+    void remapsIndicesOntoFirstSeenVertices() {
+        // A quad whose two triangles do not share their vertices.
+        float[] values = {
+                0, 0, 0,
+                1, 0, 0,
+                1, 0, 1,
+                1, 0, 1,
+                0, 0, 1,
+                0, 0, 0,
+        };
+        int[] indices = {0, 1, 2, 3, 4, 5};
+
+        int[] remap = VertexWelder.weld(values, 3, new float[]{1e-6f, 1e-6f, 1e-6f}, 0, 3);
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = remap[indices[i]];
+        }
+
+        assertArrayEquals(new int[]{0, 1, 2, 2, 3, 0}, indices);
+
+        // Each welded vertex keeps the data of the first vertex that was welded onto it.
+        assertArrayEquals(new int[]{0, 1, 2, 4}, MeshOptimizer.findSources(remap));
+    }
+
+    @Test
+    void remapKeepsFirstSeenOrder() {
+        Random random = new Random(2);
+        float[] values = TestMeshes.spherePositions(16, 24, 0, random);
+
+        int[] remap = VertexWelder.weld(values, 3, new float[]{1e-5f, 1e-5f, 1e-5f}, 0, 3);
+
+        // The seam and the poles repeat positions, so the sphere has fewer unique vertices.
+        int next = 0;
+        for (int v = 0; v < remap.length; v++) {
+            assertTrue(remap[v] <= next, "Vertex " + v + " skips ahead to " + remap[v]);
+            if (remap[v] == next) {
+                next++;
+            }
+        }
+
+        assertEquals(15 * 24 + 2, next);
+
+        int[] sources = MeshOptimizer.findSources(remap);
+        for (int r = 0; r < sources.length; r++) {
+            assertEquals(r, remap[sources[r]]);
+            for (int v = 0; v < sources[r]; v++) {
+                assertNotEquals(r, remap[v]);
+            }
+        }
+    }
+}
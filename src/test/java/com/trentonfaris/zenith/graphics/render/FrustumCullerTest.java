@@ -0,0 +1,119 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.joml.AABBf;
+import org.joml.Matrix4f;
+import org.joml.Spheref;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FrustumCullerTest {
+	private final FrustumCuller frustumCuller = new FrustumCuller();
+
+	@BeforeEach
+	void setUp() {
+		// The camera is at the origin, looking down -z with a 90 degree field of view.
+		frustumCuller.set(new Matrix4f().perspective((float) Math.toRadians(90), 1, 1, 100));
+	}
+
+	@Test
+	void boundsInsideAreVisible() {
+		AABBf aabb = new AABBf(-1, -1, -11, 1, 1, -9);
+
+		assertTrue(frustumCuller.isVisible(aabb, sphereOf(aabb)));
+		assertEquals(1, frustumCuller.getNumVisible());
+		assertEquals(0, frustumCuller.getNumCulled());
+	}
+
+	@Test
+	void boundsOutsideAreCulled() {
+		AABBf behind = new AABBf(-1, -1, 9, 1, 1, 11);
+		AABBf beside = new AABBf(30, -1, -11, 32, 1, -9);
+		AABBf beyond = new AABBf(-1, -1, -111, 1, 1, -109);
+
+		assertFalse(frustumCuller.isVisible(behind, sphereOf(behind)));
+		assertFalse(frustumCuller.isVisible(beside, sphereOf(beside)));
+		assertFalse(frustumCuller.isVisible(beyond, sphereOf(beyond)));
+		assertEquals(0, frustumCuller.getNumVisible());
+		assertEquals(3, frustumCuller.getNumCulled());
+	}
+
+	@Test
+	void boundsStraddlingAPlaneAreVisible() {
+		AABBf left = new AABBf(-12, -1, -11, -8, 1, -9);
+		AABBf far = new AABBf(-1, -1, -101, 1, 1, -99);
+		AABBf near = new AABBf(-1, -1, -2, 1, 1, 2);
+
+		assertTrue(frustumCuller.isVisible(left, sphereOf(left)));
+		assertTrue(frustumCuller.isVisible(far, sphereOf(far)));
+		assertTrue(frustumCuller.isVisible(near, sphereOf(near)));
+		assertEquals(3, frustumCuller.getNumVisible());
+	}
+
+	@Test
+	void boxCullsWhatTheSphereLetsThrough() {
+		// The sphere reaches across both the near and left planes, outside of their corner, but the box does not.
+		AABBf aabb = new AABBf(-1.7f, -0.2f, -0.7f, -1.3f, 0.2f, -0.3f);
+		Spheref sphere = new Spheref(-1.5f, 0, -0.5f, 0.75f);
+
+		assertFalse(frustumCuller.isVisible(aabb, sphere));
+		assertEquals(1, frustumCuller.getNumCulled());
+	}
+
+	@Test
+	void countsResetWhenTheFrustumIsSet() {
+		AABBf inside = new AABBf(-1, -1, -11, 1, 1, -9);
+		AABBf outside = new AABBf(-1, -1, 9, 1, 1, 11);
+
+		frustumCuller.isVisible(inside, sphereOf(inside));
+		frustumCuller.isVisible(outside, sphereOf(outside));
+		frustumCuller.isVisible(outside, sphereOf(outside));
+		assertEquals(1, frustumCuller.getNumVisible());
+		assertEquals(2, frustumCuller.getNumCulled());
+
+		frustumCuller.set(new Matrix4f().perspective((float) Math.toRadians(90), 1, 1, 100));
+		assertEquals(0, frustumCuller.getNumVisible());
+		assertEquals(0, frustumCuller.getNumCulled());
+
+		frustumCuller.isVisible(inside, sphereOf(inside));
+		assertEquals(1, frustumCuller.getNumVisible());
+		assertEquals(0, frustumCuller.getNumCulled());
+	}
+
+	@Test
+	void rotatedModelMatrixMovesBoundsIntoView() {
+		// A long box behind the camera, which a quarter turn about y swings forward into the frustum.
+		AABBf local = new AABBf(-20, -0.5f, -0.5f, 20, 0.5f, 0.5f);
+		Matrix4f unrotated = new Matrix4f().translate(0, 0, 10);
+		Matrix4f rotated = new Matrix4f().translate(0, 0, 10).rotateY((float) Math.toRadians(90));
+
+		AABBf aabb = local.transform(unrotated, new AABBf());
+		assertFalse(frustumCuller.isVisible(aabb, sphereOf(aabb)));
+
+		aabb = local.transform(rotated, new AABBf());
+		assertTrue(frustumCuller.isVisible(aabb, sphereOf(aabb)));
+
+		assertEquals(1, frustumCuller.getNumVisible());
+		assertEquals(1, frustumCuller.getNumCulled());
+	}
+
+	@Test
+	void setRejectsNullMatrix() {
+		assertThrows(IllegalArgumentException.class, () -> frustumCuller.set(null));
+	}
+
+	/**
+	 * Gets the bounding sphere of an axis-aligned bounding box.
+	 */
+	private static Spheref sphereOf(AABBf aabb) {
+		Vector3f center = new Vector3f(aabb.minX + aabb.maxX, aabb.minY + aabb.maxY, aabb.minZ + aabb.maxZ).mul(0.5f);
+		float radius = new Vector3f(aabb.maxX, aabb.maxY, aabb.maxZ).distance(center);
+
+		return new Spheref(center.x, center.y, center.z, radius);
+	}
+}
@@ -0,0 +1,250 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.joml.AABBf;
+import org.joml.Intersectionf;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
+import org.junit.jupiter.api.Test;
+
+class LightClustersTest {
+	private static final float NEAR = 0.1f;
+	private static final float FAR = 100;
+
+	private final Matrix4f perspective = new Matrix4f().perspective((float) Math.toRadians(60), 16 / 9f, NEAR, FAR);
+
+	@Test
+	void exponentialSlicesSpanNearToFar() {
+		LightClusters lightClusters = new LightClusters();
+		lightClusters.assign(perspective, false);
+
+		assertFalse(lightClusters.isLinearDepth());
+		assertEquals(NEAR, lightClusters.sliceDepth(0), 1e-5f);
+		assertEquals(FAR, lightClusters.sliceDepth(LightClusters.GRID_Z), 1e-2f);
+
+		// Every slice is deeper than the last by the same ratio.
+		double ratio = Math.pow(FAR / NEAR, 1.0 / LightClusters.GRID_Z);
+		for (int z = 0; z < LightClusters.GRID_Z; z++) {
+			assertEquals(ratio, lightClusters.sliceDepth(z + 1) / lightClusters.sliceDepth(z), 1e-4);
+		}
+
+		assertClusterDepthsMatchSlices(lightClusters);
+	}
+
+	@Test
+	void linearSlicesAreEvenlySpaced() {
+		LightClusters lightClusters = new LightClusters();
+
+		// An orthographic projection whose near plane is behind the camera cannot be sliced exponentially.
+		lightClusters.assign(new Matrix4f().ortho(-10, 10, -10, 10, -5, 50), false);
+
+		assertTrue(lightClusters.isLinearDepth());
+		for (int z = 0; z <= LightClusters.GRID_Z; z++) {
+			assertEquals(-5 + 55f * z / LightClusters.GRID_Z, lightClusters.sliceDepth(z), 1e-4f);
+		}
+
+		assertClusterDepthsMatchSlices(lightClusters);
+	}
+
+	@Test
+	void smallLightLandsInItsFroxel() {
+		LightClusters lightClusters = new LightClusters();
+		lightClusters.assign(perspective, false);
+
+		int x = 5, y = 3, z = 12;
+		Vector3f center = froxelCenter(lightClusters, x, y, z);
+
+		lightClusters.addLight(7, center, 1e-4f);
+		lightClusters.assign(perspective, false);
+
+		assertEquals(Set.of(x + "," + y + "," + z), assignedFroxels(lightClusters, 7));
+	}
+
+	@Test
+	void pointLightLandsInOverlappedFroxels() {
+		LightClusters lightClusters = new LightClusters();
+		Vector3f center = new Vector3f(1.5f, -0.5f, -8);
+		float radius = 2;
+
+		lightClusters.addLight(3, center, radius);
+		lightClusters.assign(perspective, false);
+
+		Set<String> assigned = assignedFroxels(lightClusters, 3);
+		assertTrue(assigned.size() > 1);
+
+		// Every froxel a point of the sphere falls in has the light.
+		Random random = new Random(1);
+		Vector3f point = new Vector3f();
+		for (int n = 0; n < 20000; n++) {
+			point.set(random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1);
+			if (point.lengthSquared() > 1) {
+				continue;
+			}
+
+			point.mul(radius).add(center);
+
+			String froxel = froxelOf(lightClusters, point);
+			if (froxel != null) {
+				assertTrue(assigned.contains(froxel), "The froxel " + froxel + " of " + point + " has no light");
+			}
+		}
+
+		// Every froxel with the light has bounds that touch the sphere.
+		AABBf bounds = new AABBf();
+		for (String froxel : assigned) {
+			String[] xyz = froxel.split(",");
+			lightClusters.getClusterBounds(Integer.parseInt(xyz[0]), Integer.parseInt(xyz[1]),
+					Integer.parseInt(xyz[2]), bounds);
+
+			assertTrue(Intersectionf.testAabSphere(bounds.minX, bounds.minY, bounds.minZ, bounds.maxX, bounds.maxY,
+					bounds.maxZ, center.x, center.y, center.z, radius * radius), "The froxel " + froxel
+							+ " does not touch the light");
+		}
+	}
+
+	@Test
+	void clusterListsAreClamped() {
+		LightClusters lightClusters = new LightClusters();
+		lightClusters.assign(perspective, false);
+
+		Vector3f center = froxelCenter(lightClusters, 8, 4, 10);
+		int numLights = LightClusters.MAX_LIGHTS_PER_CLUSTER + 72;
+		for (int i = 0; i < numLights; i++) {
+			lightClusters.addLight(i, center, 1e-4f);
+		}
+
+		lightClusters.assign(perspective, false);
+
+		assertEquals(numLights, lightClusters.getNumLights());
+		assertEquals(LightClusters.MAX_LIGHTS_PER_CLUSTER, lightClusters.getClusterCount(8, 4, 10));
+
+		// The first lights keep their places.
+		for (int i = 0; i < LightClusters.MAX_LIGHTS_PER_CLUSTER; i++) {
+			assertEquals(i, lightClusters.getClusterLight(8, 4, 10, i));
+		}
+	}
+
+	@Test
+	void parallelAssignmentMatchesSerial() {
+		LightClusters lightClusters = new LightClusters();
+
+		Random random = new Random(2);
+		for (int i = 0; i < 100; i++) {
+			Vector3f position = new Vector3f(random.nextFloat() * 40 - 20, random.nextFloat() * 20 - 10,
+					-random.nextFloat() * 60);
+			lightClusters.addLight(i, position, 0.5f + random.nextFloat() * 5);
+		}
+
+		lightClusters.assign(perspective, false);
+		int[][] serial = snapshot(lightClusters);
+
+		lightClusters.assign(perspective, true);
+		int[][] parallel = snapshot(lightClusters);
+
+		for (int c = 0; c < serial.length; c++) {
+			assertArrayEquals(serial[c], parallel[c], "Cluster " + c + " differs");
+		}
+	}
+
+	private static void assertClusterDepthsMatchSlices(LightClusters lightClusters) {
+		AABBf bounds = new AABBf();
+		for (int z = 0; z < LightClusters.GRID_Z; z++) {
+			lightClusters.getClusterBounds(7, 4, z, bounds);
+
+			float depth0 = lightClusters.sliceDepth(z);
+			float depth1 = lightClusters.sliceDepth(z + 1);
+
+			assertEquals(-depth1, bounds.minZ, 1e-3f * Math.max(1, Math.abs(depth1)));
+			assertEquals(-depth0, bounds.maxZ, 1e-3f * Math.max(1, Math.abs(depth0)));
+		}
+	}
+
+	/**
+	 * Gets the view space point at the center of a froxel of a perspective
+	 * projection.
+	 */
+	private Vector3f froxelCenter(LightClusters lightClusters, int x, int y, int z) {
+		float ndcX = -1 + 2 * (x + 0.5f) / LightClusters.GRID_X;
+		float ndcY = -1 + 2 * (y + 0.5f) / LightClusters.GRID_Y;
+		float depth = (float) Math.sqrt(lightClusters.sliceDepth(z) * lightClusters.sliceDepth(z + 1));
+
+		// The point on the ray through the center of the tile at the depth.
+		Vector3f direction = perspective.invert(new Matrix4f()).transformProject(ndcX, ndcY, 1, new Vector3f());
+		return direction.mul(depth / -direction.z);
+	}
+
+	/**
+	 * Gets the froxel a view space point falls in, by projecting it, or
+	 * {@code null} if it is outside of the frustum or too close to a boundary to
+	 * tell.
+	 */
+	private String froxelOf(LightClusters lightClusters, Vector3f point) {
+		Vector4f clip = perspective.transform(new Vector4f(point, 1));
+		float tileX = (clip.x / clip.w + 1) / 2 * LightClusters.GRID_X;
+		float tileY = (clip.y / clip.w + 1) / 2 * LightClusters.GRID_Y;
+		float slice = (float) (LightClusters.GRID_Z * Math.log(-point.z / NEAR) / Math.log(FAR / NEAR));
+
+		if (tileX < 0 || tileX >= LightClusters.GRID_X || tileY < 0 || tileY >= LightClusters.GRID_Y || slice < 0
+				|| slice >= LightClusters.GRID_Z) {
+			return null;
+		}
+
+		if (nearBoundary(tileX) || nearBoundary(tileY) || nearBoundary(slice)) {
+			return null;
+		}
+
+		return (int) tileX + "," + (int) tileY + "," + (int) slice;
+	}
+
+	private static boolean nearBoundary(float value) {
+		float fraction = value - (float) Math.floor(value);
+		return fraction < 1e-3f || fraction > 1 - 1e-3f;
+	}
+
+	private static Set<String> assignedFroxels(LightClusters lightClusters, int lightIndex) {
+		Set<String> froxels = new HashSet<>();
+
+		for (int z = 0; z < LightClusters.GRID_Z; z++) {
+			for (int y = 0; y < LightClusters.GRID_Y; y++) {
+				for (int x = 0; x < LightClusters.GRID_X; x++) {
+					for (int i = 0; i < lightClusters.getClusterCount(x, y, z); i++) {
+						if (lightClusters.getClusterLight(x, y, z, i) == lightIndex) {
+							froxels.add(x + "," + y + "," + z);
+						}
+					}
+				}
+			}
+		}
+
+		return froxels;
+	}
+
+	private static int[][] snapshot(LightClusters lightClusters) {
+		int[][] lists = new int[LightClusters.GRID_X * LightClusters.GRID_Y * LightClusters.GRID_Z][];
+
+		int c = 0;
+		for (int z = 0; z < LightClusters.GRID_Z; z++) {
+			for (int y = 0; y < LightClusters.GRID_Y; y++) {
+				for (int x = 0; x < LightClusters.GRID_X; x++) {
+					int[] list = new int[lightClusters.getClusterCount(x, y, z)];
+					for (int i = 0; i < list.length; i++) {
+						list[i] = lightClusters.getClusterLight(x, y, z, i);
+					}
+
+					lists[c++] = list;
+				}
+			}
+		}
+
+		return lists;
+	}
+}
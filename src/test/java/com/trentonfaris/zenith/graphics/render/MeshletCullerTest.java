@@ -0,0 +1,111 @@
+package com.trentonfaris.zenith.graphics.render;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import com.trentonfaris.zenith.graphics.model.MeshletBuilder;
+import com.trentonfaris.zenith.graphics.model.MeshletData;
+import com.trentonfaris.zenith.graphics.model.TestMeshes;
+
+class MeshletCullerTest {
+	@Test
+	void coneCullingAgreesWithTriangleFacing() {
+		Random random = new Random(5);
+		float[] positions = TestMeshes.spherePositions(32, 48, 0.005f, random);
+		int[] indices = TestMeshes.sphereIndices(32, 48);
+
+		MeshletData meshletData = MeshletBuilder.build(indices, positions, MeshletBuilder.MAX_VERTICES,
+				MeshletBuilder.MAX_TRIANGLES);
+
+		MeshletCuller meshletCuller = new MeshletCuller();
+		Matrix4f model = new Matrix4f();
+		Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(90), 1, 0.01f, 100);
+		Matrix4f view = new Matrix4f();
+		Vector3f camera = new Vector3f();
+
+		int numCulled = 0;
+		for (int n = 0; n < 64; n++) {
+			// The whole sphere is in view, so only the cone can cull a meshlet.
+			camera.set(random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1)
+					.normalize(4);
+			view.setLookAt(camera.x, camera.y, camera.z, 0, 0, 0, 0, 1, 0);
+
+			meshletCuller.set(view, projection);
+			meshletCuller.setModel(model);
+
+			for (int i = 0; i < meshletData.getNumMeshlets(); i++) {
+				boolean visible = meshletCuller.isVisible(meshletData, i);
+				boolean facing = hasFrontFace(indices, positions, meshletData, i, camera);
+
+				assertFalse(facing && !visible, "Meshlet " + i + " has a front face, but was culled");
+
+				if (!visible) {
+					numCulled++;
+				}
+			}
+		}
+
+		assertTrue(numCulled > 0, "No meshlet was culled");
+	}
+
+	@Test
+	void coneCullingMovesCameraIntoModelSpace() {
+		Random random = new Random(6);
+		float[] positions = TestMeshes.spherePositions(32, 48, 0, random);
+		int[] indices = TestMeshes.sphereIndices(32, 48);
+
+		MeshletData meshletData = MeshletBuilder.build(indices, positions, MeshletBuilder.MAX_VERTICES,
+				MeshletBuilder.MAX_TRIANGLES);
+
+		MeshletCuller meshletCuller = new MeshletCuller();
+		Matrix4f model = new Matrix4f().translate(10, 0, 0).rotateY((float) Math.toRadians(90));
+		Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(90), 1, 0.01f, 100);
+		Matrix4f view = new Matrix4f().setLookAt(10, 0, 4, 10, 0, 0, 0, 1, 0);
+
+		meshletCuller.set(view, projection);
+		meshletCuller.setModel(model);
+
+		// The camera is at the local space position the model matrix maps to its world space position.
+		Vector3f camera = model.invertAffine(new Matrix4f()).transformPosition(new Vector3f(10, 0, 4));
+
+		for (int i = 0; i < meshletData.getNumMeshlets(); i++) {
+			boolean visible = meshletCuller.isVisible(meshletData, i);
+			boolean facing = hasFrontFace(indices, positions, meshletData, i, camera);
+
+			assertFalse(facing && !visible, "Meshlet " + i + " has a front face, but was culled");
+		}
+	}
+
+	/**
+	 * Determines by brute force whether a triangle of a meshlet faces a camera.
+	 */
+	private static boolean hasFrontFace(int[] indices, float[] positions, MeshletData meshletData, int meshlet,
+			Vector3f camera) {
+		int first = meshletData.getFirstIndex(meshlet);
+
+		for (int i = first; i < first + meshletData.getIndexCount(meshlet); i += 3) {
+			int a = indices[i] * 3;
+			int b = indices[i + 1] * 3;
+			int c = indices[i + 2] * 3;
+
+			Vector3f ab = new Vector3f(positions[b] - positions[a], positions[b + 1] - positions[a + 1],
+					positions[b + 2] - positions[a + 2]);
+			Vector3f ac = new Vector3f(positions[c] - positions[a], positions[c + 1] - positions[a + 1],
+					positions[c + 2] - positions[a + 2]);
+			Vector3f toCamera = new Vector3f(camera.x - positions[a], camera.y - positions[a + 1],
+					camera.z - positions[a + 2]);
+
+			if (ab.cross(ac).dot(toCamera) > 1e-6f) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,61 @@
+package com.trentonfaris.zenith.resource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void keyCoversSource() throws IOException {
+        File source = write("model.obj", "v 0 0 0");
+        String key = ModelCache.hash(source, "settings");
+
+        assertEquals(key, ModelCache.hash(source, "settings"));
+        assertNotEquals(key, ModelCache.hash(source, "other settings"));
+
+        write("model.obj", "v 1 0 0");
+        assertNotEquals(key, ModelCache.hash(source, "settings"));
+    }
+
+    @Test
+    void keyCoversSideFiles() throws IOException {
+        File source = write("model.obj", "mtllib model.mtl");
+        String key = ModelCache.hash(source, "settings");
+
+        File material = write("model.mtl", "Kd 1 0 0");
+        String withMaterial = ModelCache.hash(source, "settings");
+        assertNotEquals(key, withMaterial);
+
+        write("model.mtl", "Kd 0 1 0 0");
+        String edited = ModelCache.hash(source, "settings");
+        assertNotEquals(withMaterial, edited);
+
+        // An edit which keeps the size is still seen by its modification time.
+        assertTrue(material.setLastModified(material.lastModified() - 60_000));
+        assertNotEquals(edited, ModelCache.hash(source, "settings"));
+    }
+
+    @Test
+    void keyIgnoresDirectories() throws IOException {
+        File source = write("model.obj", "v 0 0 0");
+        String key = ModelCache.hash(source, "settings");
+
+        Files.createDirectory(directory.resolve("textures"));
+        assertEquals(key, ModelCache.hash(source, "settings"));
+    }
+
+    private File write(String name, String contents) throws IOException {
+        return Files.writeString(directory.resolve(name), contents).toFile();
+    }
+}